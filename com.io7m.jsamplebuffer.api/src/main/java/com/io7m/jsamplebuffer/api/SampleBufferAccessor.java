@@ -0,0 +1,73 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.api;
+
+import java.util.Objects;
+
+/**
+ * The default accessor implementation, used by
+ * {@link SampleBufferType#accessor(long, int)}. Accesses are made using the
+ * per-channel operations of the buffer, and so are still checked.
+ */
+
+final class SampleBufferAccessor implements SampleBufferAccessorType
+{
+  private final SampleBufferType buffer;
+  private final long start;
+  private final int frame_count;
+  private final int channels;
+
+  SampleBufferAccessor(
+    final SampleBufferType in_buffer,
+    final long in_start,
+    final int in_frame_count)
+  {
+    this.buffer = Objects.requireNonNull(in_buffer, "buffer");
+    this.start = in_start;
+    this.frame_count = in_frame_count;
+    this.channels = in_buffer.channels();
+  }
+
+  @Override
+  public int channels()
+  {
+    return this.channels;
+  }
+
+  @Override
+  public int frameCount()
+  {
+    return this.frame_count;
+  }
+
+  @Override
+  public double get(
+    final int frame,
+    final int channel)
+  {
+    return this.buffer.channelGetExact(channel, this.start + (long) frame);
+  }
+
+  @Override
+  public void set(
+    final int frame,
+    final int channel,
+    final double value)
+  {
+    this.buffer.channelSetExact(channel, this.start + (long) frame, value);
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.api;
+
+/**
+ * <p>An accessor providing unchecked access to a fixed range of frames in a
+ * sample buffer.</p>
+ *
+ * <p>The range of frames is validated once, when the accessor is created by
+ * {@link SampleBufferType#accessor(long, int)}. The methods of the accessor
+ * do not check their arguments, and are intended for use in inner loops
+ * that have already established that their indices are in range. Frame
+ * indices are relative to the start of the accessor's range. The result of
+ * passing an out-of-range frame or channel index is unspecified;
+ * implementations will not corrupt memory, but may throw
+ * {@link IndexOutOfBoundsException} or access a different sample.</p>
+ */
+
+public interface SampleBufferAccessorType
+{
+  /**
+   * @return The number of channels in each frame
+   */
+
+  int channels();
+
+  /**
+   * @return The number of frames accessible through this accessor
+   */
+
+  int frameCount();
+
+  /**
+   * Get a sample.
+   *
+   * @param frame   The frame, in the range {@code [0, frameCount())}
+   * @param channel The channel, in the range {@code [0, channels())}
+   *
+   * @return The sample value
+   */
+
+  double get(
+    int frame,
+    int channel);
+
+  /**
+   * Set a sample.
+   *
+   * @param frame   The frame, in the range {@code [0, frameCount())}
+   * @param channel The channel, in the range {@code [0, channels())}
+   * @param value   The sample value
+   */
+
+  void set(
+    int frame,
+    int channel,
+    double value);
+}
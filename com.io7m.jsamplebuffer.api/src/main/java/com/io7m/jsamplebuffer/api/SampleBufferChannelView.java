@@ -0,0 +1,365 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.api;
+
+import java.util.Objects;
+
+/**
+ * A view of a subset of the channels of another buffer. Used by the default
+ * implementation of {@link SampleBufferType#channelsView(int...)}. Channel
+ * {@code i} of the view is channel {@code channels[i]} of the parent, and
+ * all accesses are made using the per-channel operations of the parent.
+ */
+
+final class SampleBufferChannelView implements SampleBufferType
+{
+  private final SampleBufferType parent;
+  private final int[] channels;
+
+  SampleBufferChannelView(
+    final SampleBufferType in_parent,
+    final int[] in_channels)
+  {
+    this.parent = Objects.requireNonNull(in_parent, "parent");
+    this.channels = Objects.requireNonNull(in_channels, "channels");
+  }
+
+  static int[] checkChannels(
+    final int[] selected,
+    final int channels)
+  {
+    Objects.requireNonNull(selected, "selected");
+
+    if (selected.length == 0) {
+      throw new IllegalArgumentException(
+        "At least one channel must be selected.");
+    }
+
+    final var copy = selected.clone();
+    for (final var channel : copy) {
+      Objects.checkIndex(channel, channels);
+    }
+    return copy;
+  }
+
+  private void checkChannelCount(
+    final int length)
+  {
+    if (this.channels.length != length) {
+      final var separator = System.lineSeparator();
+      throw new IllegalArgumentException(
+        new StringBuilder("Incorrect channel count.")
+          .append(separator)
+          .append("  Expected: ")
+          .append(this.channels.length)
+          .append(separator)
+          .append("  Received: ")
+          .append(length)
+          .append(separator)
+          .toString());
+    }
+  }
+
+  @Override
+  public SampleBufferType channelsView(
+    final int... selected)
+  {
+    final var checked = checkChannels(selected, this.channels.length);
+    for (var index = 0; index < checked.length; ++index) {
+      checked[index] = this.channels[checked[index]];
+    }
+    return this.parent.channelsView(checked);
+  }
+
+  @Override
+  public int channels()
+  {
+    return this.channels.length;
+  }
+
+  @Override
+  public long frames()
+  {
+    return this.parent.frames();
+  }
+
+  @Override
+  public double sampleRate()
+  {
+    return this.parent.sampleRate();
+  }
+
+  @Override
+  public void frameGetExact(
+    final long index,
+    final double[] output)
+  {
+    Objects.requireNonNull(output, "output");
+    this.checkChannelCount(output.length);
+
+    for (var channel = 0; channel < this.channels.length; ++channel) {
+      output[channel] =
+        this.parent.channelGetExact(this.channels[channel], index);
+    }
+  }
+
+  @Override
+  public double frameGetExact(
+    final long index)
+  {
+    this.checkChannelCount(1);
+    return this.parent.channelGetExact(this.channels[0], index);
+  }
+
+  @Override
+  public void framesGetExact(
+    final long index,
+    final int frameCount,
+    final double[] output,
+    final int offset)
+  {
+    Objects.requireNonNull(output, "output");
+
+    final var count = this.channels.length;
+    Objects.checkFromIndexSize(
+      offset, Math.multiplyExact(frameCount, count), output.length);
+
+    if (count == 1) {
+      this.parent.channelGetExact(
+        this.channels[0], index, frameCount, output, offset);
+      return;
+    }
+
+    final var samples = new double[frameCount];
+    for (var channel = 0; channel < count; ++channel) {
+      this.parent.channelGetExact(
+        this.channels[channel], index, frameCount, samples, 0);
+      var target = offset + channel;
+      for (var frame = 0; frame < frameCount; ++frame) {
+        output[target] = samples[frame];
+        target += count;
+      }
+    }
+  }
+
+  @Override
+  public void framesGetExact(
+    final long index,
+    final int frameCount,
+    final float[] output,
+    final int offset)
+  {
+    Objects.requireNonNull(output, "output");
+
+    final var count = this.channels.length;
+    Objects.checkFromIndexSize(
+      offset, Math.multiplyExact(frameCount, count), output.length);
+
+    if (count == 1) {
+      this.parent.channelGetExact(
+        this.channels[0], index, frameCount, output, offset);
+      return;
+    }
+
+    final var samples = new float[frameCount];
+    for (var channel = 0; channel < count; ++channel) {
+      this.parent.channelGetExact(
+        this.channels[channel], index, frameCount, samples, 0);
+      var target = offset + channel;
+      for (var frame = 0; frame < frameCount; ++frame) {
+        output[target] = samples[frame];
+        target += count;
+      }
+    }
+  }
+
+  @Override
+  public double channelGetExact(
+    final int channel,
+    final long index)
+  {
+    Objects.checkIndex(channel, this.channels.length);
+    return this.parent.channelGetExact(this.channels[channel], index);
+  }
+
+  @Override
+  public void channelGetExact(
+    final int channel,
+    final long index,
+    final int frameCount,
+    final double[] output,
+    final int offset)
+  {
+    Objects.checkIndex(channel, this.channels.length);
+    this.parent.channelGetExact(
+      this.channels[channel], index, frameCount, output, offset);
+  }
+
+  @Override
+  public void channelGetExact(
+    final int channel,
+    final long index,
+    final int frameCount,
+    final float[] output,
+    final int offset)
+  {
+    Objects.checkIndex(channel, this.channels.length);
+    this.parent.channelGetExact(
+      this.channels[channel], index, frameCount, output, offset);
+  }
+
+  @Override
+  public void frameSetAll(
+    final long index,
+    final double value)
+  {
+    for (final var channel : this.channels) {
+      this.parent.channelSetExact(channel, index, value);
+    }
+  }
+
+  @Override
+  public void frameSetExact(
+    final long index,
+    final double c0)
+  {
+    this.checkChannelCount(1);
+    this.parent.channelSetExact(this.channels[0], index, c0);
+  }
+
+  @Override
+  public void frameSetExact(
+    final long index,
+    final double c0,
+    final double c1)
+  {
+    this.checkChannelCount(2);
+    this.parent.channelSetExact(this.channels[0], index, c0);
+    this.parent.channelSetExact(this.channels[1], index, c1);
+  }
+
+  @Override
+  public void frameSetExact(
+    final long index,
+    final double[] value)
+  {
+    Objects.requireNonNull(value, "value");
+    this.checkChannelCount(value.length);
+
+    for (var channel = 0; channel < this.channels.length; ++channel) {
+      this.parent.channelSetExact(this.channels[channel], index, value[channel]);
+    }
+  }
+
+  @Override
+  public void framesSetExact(
+    final long index,
+    final int frameCount,
+    final double[] input,
+    final int offset)
+  {
+    Objects.requireNonNull(input, "input");
+
+    final var count = this.channels.length;
+    Objects.checkFromIndexSize(
+      offset, Math.multiplyExact(frameCount, count), input.length);
+
+    if (count == 1) {
+      this.parent.channelSetExact(
+        this.channels[0], index, frameCount, input, offset);
+      return;
+    }
+
+    final var samples = new double[frameCount];
+    for (var channel = 0; channel < count; ++channel) {
+      var source = offset + channel;
+      for (var frame = 0; frame < frameCount; ++frame) {
+        samples[frame] = input[source];
+        source += count;
+      }
+      this.parent.channelSetExact(
+        this.channels[channel], index, frameCount, samples, 0);
+    }
+  }
+
+  @Override
+  public void framesSetExact(
+    final long index,
+    final int frameCount,
+    final float[] input,
+    final int offset)
+  {
+    Objects.requireNonNull(input, "input");
+
+    final var count = this.channels.length;
+    Objects.checkFromIndexSize(
+      offset, Math.multiplyExact(frameCount, count), input.length);
+
+    if (count == 1) {
+      this.parent.channelSetExact(
+        this.channels[0], index, frameCount, input, offset);
+      return;
+    }
+
+    final var samples = new float[frameCount];
+    for (var channel = 0; channel < count; ++channel) {
+      var source = offset + channel;
+      for (var frame = 0; frame < frameCount; ++frame) {
+        samples[frame] = input[source];
+        source += count;
+      }
+      this.parent.channelSetExact(
+        this.channels[channel], index, frameCount, samples, 0);
+    }
+  }
+
+  @Override
+  public void channelSetExact(
+    final int channel,
+    final long index,
+    final double value)
+  {
+    Objects.checkIndex(channel, this.channels.length);
+    this.parent.channelSetExact(this.channels[channel], index, value);
+  }
+
+  @Override
+  public void channelSetExact(
+    final int channel,
+    final long index,
+    final int frameCount,
+    final double[] input,
+    final int offset)
+  {
+    Objects.checkIndex(channel, this.channels.length);
+    this.parent.channelSetExact(
+      this.channels[channel], index, frameCount, input, offset);
+  }
+
+  @Override
+  public void channelSetExact(
+    final int channel,
+    final long index,
+    final int frameCount,
+    final float[] input,
+    final int offset)
+  {
+    Objects.checkIndex(channel, this.channels.length);
+    this.parent.channelSetExact(
+      this.channels[channel], index, frameCount, input, offset);
+  }
+}
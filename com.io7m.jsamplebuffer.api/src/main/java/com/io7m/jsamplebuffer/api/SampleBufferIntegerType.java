@@ -0,0 +1,85 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.api;
+
+/**
+ * <p>A sample buffer that stores samples as signed integers of a fixed bit
+ * depth, rather than as floating point values.</p>
+ *
+ * <p>A stored integer {@code s} of a buffer with {@code n} bits represents
+ * the normalized sample value {@code s / 2^(n - 1)}. Values written using
+ * the floating point methods are rounded to the nearest representable
+ * integer and clamped to {@code [-2^(n - 1), 2^(n - 1) - 1]}. Decoders that
+ * produce integer samples can use the integer methods to fill the buffer
+ * without converting samples to floating point.</p>
+ */
+
+public interface SampleBufferIntegerType extends SampleBufferType
+{
+  /**
+   * @return The number of bits used to store each sample
+   */
+
+  int integerBits();
+
+  /**
+   * Set the samples of the frames {@code [index, index + frameCount)} from
+   * the integers in {@code input}, starting at {@code offset}. Each integer
+   * must be in the range {@code [-2^(n - 1), 2^(n - 1) - 1]}, where
+   * {@code n} is {@link #integerBits()}; values outside of this range are
+   * clamped.
+   *
+   * @param index      The index of the first frame
+   * @param frameCount The number of frames
+   * @param input      The input samples, interleaved
+   * @param offset     The offset of the first sample in {@code input}
+   */
+
+  void framesSetIntegers(
+    long index,
+    int frameCount,
+    int[] input,
+    int offset);
+
+  /**
+   * Get the samples of the frames {@code [index, index + frameCount)} as
+   * integers, writing them to {@code output} starting at {@code offset}.
+   *
+   * @param index      The index of the first frame
+   * @param frameCount The number of frames
+   * @param output     The output samples, interleaved
+   * @param offset     The offset of the first sample in {@code output}
+   */
+
+  void framesGetIntegers(
+    long index,
+    int frameCount,
+    int[] output,
+    int offset);
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The returned view stores integers in the same manner as this
+   * buffer.</p>
+   */
+
+  @Override
+  SampleBufferIntegerType slice(
+    long startFrame,
+    long frameCount);
+}
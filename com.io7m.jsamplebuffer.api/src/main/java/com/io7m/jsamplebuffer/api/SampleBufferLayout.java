@@ -0,0 +1,80 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.api;
+
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+/**
+ * The layout of the storage of a sample buffer.
+ *
+ * @param format       The format of each sample
+ * @param interleaving The arrangement of channels
+ * @param byteOrder    The byte order of each sample
+ * @param frameStride  The distance in octets between the first sample of
+ *                     consecutive frames within a block of storage
+ */
+
+public record SampleBufferLayout(
+  SampleBufferSampleFormat format,
+  SampleBufferInterleaving interleaving,
+  ByteOrder byteOrder,
+  int frameStride)
+{
+  /**
+   * The layout of the storage of a sample buffer.
+   *
+   * @param format       The format of each sample
+   * @param interleaving The arrangement of channels
+   * @param byteOrder    The byte order of each sample
+   * @param frameStride  The distance in octets between the first sample of
+   *                     consecutive frames within a block of storage
+   */
+
+  public SampleBufferLayout
+  {
+    Objects.requireNonNull(format, "format");
+    Objects.requireNonNull(interleaving, "interleaving");
+    Objects.requireNonNull(byteOrder, "byteOrder");
+  }
+
+  /**
+   * Determine the layout of a buffer.
+   *
+   * @param format       The format of each sample
+   * @param interleaving The arrangement of channels
+   * @param byteOrder    The byte order of each sample
+   * @param channels     The number of channels in each frame
+   *
+   * @return The layout
+   */
+
+  public static SampleBufferLayout of(
+    final SampleBufferSampleFormat format,
+    final SampleBufferInterleaving interleaving,
+    final ByteOrder byteOrder,
+    final int channels)
+  {
+    final var stride =
+      switch (interleaving) {
+        case INTERLEAVED -> Math.multiplyExact(format.sampleSize(), channels);
+        case PLANAR -> format.sampleSize();
+      };
+
+    return new SampleBufferLayout(format, interleaving, byteOrder, stride);
+  }
+}
@@ -16,6 +16,8 @@
 
 package com.io7m.jsamplebuffer.api;
 
+import java.util.Objects;
+
 /**
  * A readable sample buffer. A sample buffer is an abstraction over a block of audio data. The
  * sample buffer pretends that the audio is interleaved (such that all of the samples for a given
@@ -82,4 +84,170 @@ public interface SampleBufferReadableType
 
   double frameGetExact(
     long index);
+
+  /**
+   * Get the values of the {@code frameCount} consecutive frames starting at
+   * frame {@code index}. The samples are written to {@code output} in
+   * interleaved order starting at {@code offset}, and so {@code output} must
+   * have room for {@code frameCount * channels()} samples.
+   *
+   * @param index      The index of the first frame
+   * @param frameCount The number of frames
+   * @param output     The output
+   * @param offset     The offset of the first sample in {@code output}
+   *
+   * @throws IndexOutOfBoundsException If {@code output} is too small
+   */
+
+  default void framesGetExact(
+    final long index,
+    final int frameCount,
+    final double[] output,
+    final int offset)
+    throws IndexOutOfBoundsException
+  {
+    Objects.requireNonNull(output, "output");
+
+    final var channels = this.channels();
+    Objects.checkFromIndexSize(
+      offset, Math.multiplyExact(frameCount, channels), output.length);
+
+    final var frame = new double[channels];
+    for (var frameIndex = 0; frameIndex < frameCount; ++frameIndex) {
+      this.frameGetExact(index + (long) frameIndex, frame);
+      System.arraycopy(
+        frame, 0, output, offset + (frameIndex * channels), channels);
+    }
+  }
+
+  /**
+   * Get the values of the {@code frameCount} consecutive frames starting at
+   * frame {@code index}. The samples are written to {@code output} in
+   * interleaved order starting at {@code offset}, and so {@code output} must
+   * have room for {@code frameCount * channels()} samples.
+   *
+   * @param index      The index of the first frame
+   * @param frameCount The number of frames
+   * @param output     The output
+   * @param offset     The offset of the first sample in {@code output}
+   *
+   * @throws IndexOutOfBoundsException If {@code output} is too small
+   */
+
+  default void framesGetExact(
+    final long index,
+    final int frameCount,
+    final float[] output,
+    final int offset)
+    throws IndexOutOfBoundsException
+  {
+    Objects.requireNonNull(output, "output");
+
+    final var channels = this.channels();
+    Objects.checkFromIndexSize(
+      offset, Math.multiplyExact(frameCount, channels), output.length);
+
+    final var frame = new double[channels];
+    for (var frameIndex = 0; frameIndex < frameCount; ++frameIndex) {
+      this.frameGetExact(index + (long) frameIndex, frame);
+      final var base = offset + (frameIndex * channels);
+      for (var channel = 0; channel < channels; ++channel) {
+        output[base + channel] = (float) frame[channel];
+      }
+    }
+  }
+
+  /**
+   * Get the value of channel {@code channel} in frame {@code index}.
+   *
+   * @param channel The channel index
+   * @param index   The frame index
+   *
+   * @return The value of the channel in the frame
+   *
+   * @throws IndexOutOfBoundsException If {@code channel} is not in the range
+   *                                   {@code [0, channels())}
+   */
+
+  default double channelGetExact(
+    final int channel,
+    final long index)
+    throws IndexOutOfBoundsException
+  {
+    Objects.checkIndex(channel, this.channels());
+
+    final var frame = new double[this.channels()];
+    this.frameGetExact(index, frame);
+    return frame[channel];
+  }
+
+  /**
+   * Get the values of channel {@code channel} in the {@code frameCount}
+   * consecutive frames starting at frame {@code index}. The samples are
+   * written contiguously to {@code output} starting at {@code offset}.
+   *
+   * @param channel    The channel index
+   * @param index      The index of the first frame
+   * @param frameCount The number of frames
+   * @param output     The output
+   * @param offset     The offset of the first sample in {@code output}
+   *
+   * @throws IndexOutOfBoundsException If {@code channel} is not in the range
+   *                                   {@code [0, channels())}, or
+   *                                   {@code output} is too small
+   */
+
+  default void channelGetExact(
+    final int channel,
+    final long index,
+    final int frameCount,
+    final double[] output,
+    final int offset)
+    throws IndexOutOfBoundsException
+  {
+    Objects.requireNonNull(output, "output");
+    Objects.checkIndex(channel, this.channels());
+    Objects.checkFromIndexSize(offset, frameCount, output.length);
+
+    final var frame = new double[this.channels()];
+    for (var frameIndex = 0; frameIndex < frameCount; ++frameIndex) {
+      this.frameGetExact(index + (long) frameIndex, frame);
+      output[offset + frameIndex] = frame[channel];
+    }
+  }
+
+  /**
+   * Get the values of channel {@code channel} in the {@code frameCount}
+   * consecutive frames starting at frame {@code index}. The samples are
+   * written contiguously to {@code output} starting at {@code offset}.
+   *
+   * @param channel    The channel index
+   * @param index      The index of the first frame
+   * @param frameCount The number of frames
+   * @param output     The output
+   * @param offset     The offset of the first sample in {@code output}
+   *
+   * @throws IndexOutOfBoundsException If {@code channel} is not in the range
+   *                                   {@code [0, channels())}, or
+   *                                   {@code output} is too small
+   */
+
+  default void channelGetExact(
+    final int channel,
+    final long index,
+    final int frameCount,
+    final float[] output,
+    final int offset)
+    throws IndexOutOfBoundsException
+  {
+    Objects.requireNonNull(output, "output");
+    Objects.checkIndex(channel, this.channels());
+    Objects.checkFromIndexSize(offset, frameCount, output.length);
+
+    final var frame = new double[this.channels()];
+    for (var frameIndex = 0; frameIndex < frameCount; ++frameIndex) {
+      this.frameGetExact(index + (long) frameIndex, frame);
+      output[offset + frameIndex] = (float) frame[channel];
+    }
+  }
 }
@@ -0,0 +1,72 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.api;
+
+/**
+ * The format of individual samples in the storage of a sample buffer.
+ */
+
+public enum SampleBufferSampleFormat
+{
+  /**
+   * IEEE 754 double-precision floating-point samples.
+   */
+
+  FLOAT_64(8),
+
+  /**
+   * IEEE 754 single-precision floating-point samples.
+   */
+
+  FLOAT_32(4),
+
+  /**
+   * IEEE 754 half-precision floating-point samples.
+   */
+
+  FLOAT_16(2),
+
+  /**
+   * Signed two's complement 16-bit integer samples.
+   */
+
+  SIGNED_INTEGER_16(2),
+
+  /**
+   * Signed two's complement 24-bit integer samples, packed into three
+   * octets.
+   */
+
+  SIGNED_INTEGER_24(3);
+
+  private final int sampleSize;
+
+  SampleBufferSampleFormat(
+    final int in_sample_size)
+  {
+    this.sampleSize = in_sample_size;
+  }
+
+  /**
+   * @return The size in octets of a single sample
+   */
+
+  public int sampleSize()
+  {
+    return this.sampleSize;
+  }
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.api;
+
+import com.io7m.jranges.RangeCheck;
+import com.io7m.jranges.RangeInclusiveL;
+
+import java.util.Objects;
+
+/**
+ * A view of a range of frames in another buffer. Used by the default
+ * implementation of {@link SampleBufferType#slice(long, long)}; buffer
+ * implementations that can slice their own storage are expected to do so.
+ */
+
+final class SampleBufferSlice implements SampleBufferType
+{
+  private final SampleBufferType parent;
+  private final long start;
+  private final long frames;
+  private final RangeInclusiveL frame_range;
+
+  SampleBufferSlice(
+    final SampleBufferType in_parent,
+    final long in_start,
+    final long in_frames)
+  {
+    this.parent = Objects.requireNonNull(in_parent, "parent");
+    this.start = in_start;
+    this.frames = in_frames;
+    this.frame_range = RangeInclusiveL.of(0L, in_frames - 1L);
+  }
+
+  static void checkSlice(
+    final long startFrame,
+    final long frameCount,
+    final long frames)
+  {
+    RangeCheck.checkIncludedInLong(
+      startFrame,
+      "Slice start frame",
+      RangeInclusiveL.of(0L, frames - 1L),
+      "Frame range");
+    RangeCheck.checkIncludedInLong(
+      frameCount,
+      "Slice frame count",
+      RangeInclusiveL.of(1L, frames - startFrame),
+      "Valid slice frame counts");
+  }
+
+  private long frameOf(
+    final long index)
+  {
+    RangeCheck.checkIncludedInLong(
+      index, "Frame index", this.frame_range, "Frame range");
+    return this.start + index;
+  }
+
+  private long framesOf(
+    final long index,
+    final int frameCount)
+  {
+    RangeCheck.checkIncludedInLong(
+      index, "Frame index", this.frame_range, "Frame range");
+    if (frameCount > 0) {
+      RangeCheck.checkIncludedInLong(
+        index + (long) (frameCount - 1),
+        "Frame index",
+        this.frame_range,
+        "Frame range");
+    }
+    return this.start + index;
+  }
+
+  @Override
+  public SampleBufferType slice(
+    final long startFrame,
+    final long frameCount)
+  {
+    checkSlice(startFrame, frameCount, this.frames);
+    return this.parent.slice(this.start + startFrame, frameCount);
+  }
+
+  @Override
+  public int channels()
+  {
+    return this.parent.channels();
+  }
+
+  @Override
+  public long frames()
+  {
+    return this.frames;
+  }
+
+  @Override
+  public double sampleRate()
+  {
+    return this.parent.sampleRate();
+  }
+
+  @Override
+  public void frameGetExact(
+    final long index,
+    final double[] output)
+    throws IllegalArgumentException
+  {
+    this.parent.frameGetExact(this.frameOf(index), output);
+  }
+
+  @Override
+  public double frameGetExact(
+    final long index)
+    throws IllegalArgumentException
+  {
+    return this.parent.frameGetExact(this.frameOf(index));
+  }
+
+  @Override
+  public void framesGetExact(
+    final long index,
+    final int frameCount,
+    final double[] output,
+    final int offset)
+  {
+    this.parent.framesGetExact(
+      this.framesOf(index, frameCount), frameCount, output, offset);
+  }
+
+  @Override
+  public void framesGetExact(
+    final long index,
+    final int frameCount,
+    final float[] output,
+    final int offset)
+  {
+    this.parent.framesGetExact(
+      this.framesOf(index, frameCount), frameCount, output, offset);
+  }
+
+  @Override
+  public double channelGetExact(
+    final int channel,
+    final long index)
+  {
+    return this.parent.channelGetExact(channel, this.frameOf(index));
+  }
+
+  @Override
+  public void channelGetExact(
+    final int channel,
+    final long index,
+    final int frameCount,
+    final double[] output,
+    final int offset)
+  {
+    this.parent.channelGetExact(
+      channel, this.framesOf(index, frameCount), frameCount, output, offset);
+  }
+
+  @Override
+  public void channelGetExact(
+    final int channel,
+    final long index,
+    final int frameCount,
+    final float[] output,
+    final int offset)
+  {
+    this.parent.channelGetExact(
+      channel, this.framesOf(index, frameCount), frameCount, output, offset);
+  }
+
+  @Override
+  public void frameSetAll(
+    final long index,
+    final double value)
+  {
+    this.parent.frameSetAll(this.frameOf(index), value);
+  }
+
+  @Override
+  public void frameSetExact(
+    final long index,
+    final double c0)
+    throws IllegalArgumentException
+  {
+    this.parent.frameSetExact(this.frameOf(index), c0);
+  }
+
+  @Override
+  public void frameSetExact(
+    final long index,
+    final double c0,
+    final double c1)
+    throws IllegalArgumentException
+  {
+    this.parent.frameSetExact(this.frameOf(index), c0, c1);
+  }
+
+  @Override
+  public void frameSetExact(
+    final long index,
+    final double[] value)
+    throws IllegalArgumentException
+  {
+    this.parent.frameSetExact(this.frameOf(index), value);
+  }
+
+  @Override
+  public void framesSetExact(
+    final long index,
+    final int frameCount,
+    final double[] input,
+    final int offset)
+  {
+    this.parent.framesSetExact(
+      this.framesOf(index, frameCount), frameCount, input, offset);
+  }
+
+  @Override
+  public void framesSetExact(
+    final long index,
+    final int frameCount,
+    final float[] input,
+    final int offset)
+  {
+    this.parent.framesSetExact(
+      this.framesOf(index, frameCount), frameCount, input, offset);
+  }
+
+  @Override
+  public void channelSetExact(
+    final int channel,
+    final long index,
+    final double value)
+  {
+    this.parent.channelSetExact(channel, this.frameOf(index), value);
+  }
+
+  @Override
+  public void channelSetExact(
+    final int channel,
+    final long index,
+    final int frameCount,
+    final double[] input,
+    final int offset)
+  {
+    this.parent.channelSetExact(
+      channel, this.framesOf(index, frameCount), frameCount, input, offset);
+  }
+
+  @Override
+  public void channelSetExact(
+    final int channel,
+    final long index,
+    final int frameCount,
+    final float[] input,
+    final int offset)
+  {
+    this.parent.channelSetExact(
+      channel, this.framesOf(index, frameCount), frameCount, input, offset);
+  }
+}
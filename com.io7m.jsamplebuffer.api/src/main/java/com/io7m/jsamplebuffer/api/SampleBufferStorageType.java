@@ -0,0 +1,70 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.api;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <p>A sample buffer that can expose its underlying storage.</p>
+ *
+ * <p>This is an optional interface: buffers that store samples in a form
+ * that can be described by a {@link SampleBufferLayout} may implement it,
+ * and callers are expected to check for it using {@code instanceof}. The
+ * storage is exposed as read-only views that share memory with the buffer,
+ * and so no samples are copied; writes to the buffer are visible through
+ * previously returned views.</p>
+ */
+
+public interface SampleBufferStorageType extends SampleBufferReadableType
+{
+  /**
+   * @return The layout of the storage
+   */
+
+  SampleBufferLayout layout();
+
+  /**
+   * @return The number of blocks of storage; {@code 1} for interleaved
+   *         buffers, and {@link #channels()} for planar buffers
+   */
+
+  default int storageBlocks()
+  {
+    return switch (this.layout().interleaving()) {
+      case INTERLEAVED -> 1;
+      case PLANAR -> this.channels();
+    };
+  }
+
+  /**
+   * Obtain a read-only view of a block of storage. The view has a position
+   * of zero, a limit and capacity of exactly
+   * {@code frames() * layout().frameStride()} octets, and a byte order of
+   * {@code layout().byteOrder()}. For planar buffers, block {@code i} holds
+   * the samples of channel {@code i}.
+   *
+   * @param block The block index
+   *
+   * @return A read-only view of the storage
+   *
+   * @throws IndexOutOfBoundsException If {@code block} is not in the range
+   *                                   {@code [0, storageBlocks())}
+   */
+
+  ByteBuffer storage(int block)
+    throws IndexOutOfBoundsException;
+}
@@ -16,6 +16,8 @@
 
 package com.io7m.jsamplebuffer.api;
 
+import java.util.Objects;
+
 /**
  * <p>A readable and writable sample buffer.</p>
  *
@@ -83,4 +85,273 @@ public interface SampleBufferType extends SampleBufferReadableType
     long index,
     double[] value)
     throws IllegalArgumentException;
+
+  /**
+   * Set the values of the {@code frameCount} consecutive frames starting at
+   * frame {@code index}. The samples are read from {@code input} in
+   * interleaved order starting at {@code offset}, and so {@code input} must
+   * contain at least {@code frameCount * channels()} samples.
+   *
+   * @param index      The index of the first frame
+   * @param frameCount The number of frames
+   * @param input      The input
+   * @param offset     The offset of the first sample in {@code input}
+   *
+   * @throws IndexOutOfBoundsException If {@code input} is too small
+   */
+
+  default void framesSetExact(
+    final long index,
+    final int frameCount,
+    final double[] input,
+    final int offset)
+    throws IndexOutOfBoundsException
+  {
+    Objects.requireNonNull(input, "input");
+
+    final var channels = this.channels();
+    Objects.checkFromIndexSize(
+      offset, Math.multiplyExact(frameCount, channels), input.length);
+
+    final var frame = new double[channels];
+    for (var frameIndex = 0; frameIndex < frameCount; ++frameIndex) {
+      System.arraycopy(
+        input, offset + (frameIndex * channels), frame, 0, channels);
+      this.frameSetExact(index + (long) frameIndex, frame);
+    }
+  }
+
+  /**
+   * Set the values of the {@code frameCount} consecutive frames starting at
+   * frame {@code index}. The samples are read from {@code input} in
+   * interleaved order starting at {@code offset}, and so {@code input} must
+   * contain at least {@code frameCount * channels()} samples.
+   *
+   * @param index      The index of the first frame
+   * @param frameCount The number of frames
+   * @param input      The input
+   * @param offset     The offset of the first sample in {@code input}
+   *
+   * @throws IndexOutOfBoundsException If {@code input} is too small
+   */
+
+  default void framesSetExact(
+    final long index,
+    final int frameCount,
+    final float[] input,
+    final int offset)
+    throws IndexOutOfBoundsException
+  {
+    Objects.requireNonNull(input, "input");
+
+    final var channels = this.channels();
+    Objects.checkFromIndexSize(
+      offset, Math.multiplyExact(frameCount, channels), input.length);
+
+    final var frame = new double[channels];
+    for (var frameIndex = 0; frameIndex < frameCount; ++frameIndex) {
+      final var base = offset + (frameIndex * channels);
+      for (var channel = 0; channel < channels; ++channel) {
+        frame[channel] = (double) input[base + channel];
+      }
+      this.frameSetExact(index + (long) frameIndex, frame);
+    }
+  }
+
+  /**
+   * Set the value of channel {@code channel} in frame {@code index}. The
+   * other channels in the frame are left unmodified.
+   *
+   * @param channel The channel index
+   * @param index   The frame index
+   * @param value   The input
+   *
+   * @throws IndexOutOfBoundsException If {@code channel} is not in the range
+   *                                   {@code [0, channels())}
+   */
+
+  default void channelSetExact(
+    final int channel,
+    final long index,
+    final double value)
+    throws IndexOutOfBoundsException
+  {
+    Objects.checkIndex(channel, this.channels());
+
+    final var frame = new double[this.channels()];
+    this.frameGetExact(index, frame);
+    frame[channel] = value;
+    this.frameSetExact(index, frame);
+  }
+
+  /**
+   * Set the values of channel {@code channel} in the {@code frameCount}
+   * consecutive frames starting at frame {@code index}. The samples are read
+   * contiguously from {@code input} starting at {@code offset}. The other
+   * channels in the frames are left unmodified.
+   *
+   * @param channel    The channel index
+   * @param index      The index of the first frame
+   * @param frameCount The number of frames
+   * @param input      The input
+   * @param offset     The offset of the first sample in {@code input}
+   *
+   * @throws IndexOutOfBoundsException If {@code channel} is not in the range
+   *                                   {@code [0, channels())}, or
+   *                                   {@code input} is too small
+   */
+
+  default void channelSetExact(
+    final int channel,
+    final long index,
+    final int frameCount,
+    final double[] input,
+    final int offset)
+    throws IndexOutOfBoundsException
+  {
+    Objects.requireNonNull(input, "input");
+    Objects.checkIndex(channel, this.channels());
+    Objects.checkFromIndexSize(offset, frameCount, input.length);
+
+    final var frame = new double[this.channels()];
+    for (var frameIndex = 0; frameIndex < frameCount; ++frameIndex) {
+      final var frameNow = index + (long) frameIndex;
+      this.frameGetExact(frameNow, frame);
+      frame[channel] = input[offset + frameIndex];
+      this.frameSetExact(frameNow, frame);
+    }
+  }
+
+  /**
+   * Set the values of channel {@code channel} in the {@code frameCount}
+   * consecutive frames starting at frame {@code index}. The samples are read
+   * contiguously from {@code input} starting at {@code offset}. The other
+   * channels in the frames are left unmodified.
+   *
+   * @param channel    The channel index
+   * @param index      The index of the first frame
+   * @param frameCount The number of frames
+   * @param input      The input
+   * @param offset     The offset of the first sample in {@code input}
+   *
+   * @throws IndexOutOfBoundsException If {@code channel} is not in the range
+   *                                   {@code [0, channels())}, or
+   *                                   {@code input} is too small
+   */
+
+  default void channelSetExact(
+    final int channel,
+    final long index,
+    final int frameCount,
+    final float[] input,
+    final int offset)
+    throws IndexOutOfBoundsException
+  {
+    Objects.requireNonNull(input, "input");
+    Objects.checkIndex(channel, this.channels());
+    Objects.checkFromIndexSize(offset, frameCount, input.length);
+
+    final var frame = new double[this.channels()];
+    for (var frameIndex = 0; frameIndex < frameCount; ++frameIndex) {
+      final var frameNow = index + (long) frameIndex;
+      this.frameGetExact(frameNow, frame);
+      frame[channel] = (double) input[offset + frameIndex];
+      this.frameSetExact(frameNow, frame);
+    }
+  }
+
+  /**
+   * <p>Create a view of the {@code frameCount} consecutive frames starting at
+   * frame {@code startFrame}. Frame {@code 0} of the returned buffer is frame
+   * {@code startFrame} of this buffer.</p>
+   *
+   * <p>The returned buffer shares storage with this buffer, and so no samples
+   * are copied: changes made through either buffer are visible through the
+   * other.</p>
+   *
+   * @param startFrame The index of the first frame
+   * @param frameCount The number of frames
+   *
+   * @return A view of the frames
+   */
+
+  default SampleBufferType slice(
+    final long startFrame,
+    final long frameCount)
+  {
+    SampleBufferSlice.checkSlice(startFrame, frameCount, this.frames());
+    return new SampleBufferSlice(this, startFrame, frameCount);
+  }
+
+  /**
+   * <p>Create a view of the given channels of this buffer. Channel {@code i}
+   * of the returned buffer is channel {@code selected[i]} of this buffer.
+   * A channel may be selected more than once.</p>
+   *
+   * <p>The returned buffer shares storage with this buffer, and so no samples
+   * are copied: changes made through either buffer are visible through the
+   * other. Accesses to the view are made using the per-channel operations of
+   * this buffer, such as
+   * {@link #channelGetExact(int, long, int, double[], int)}, and so a
+   * single-channel view of a multichannel buffer can be used with
+   * algorithms that require mono buffers.</p>
+   *
+   * @param selected The selected channels
+   *
+   * @return A view of the channels
+   *
+   * @throws IllegalArgumentException  If no channels are selected
+   * @throws IndexOutOfBoundsException If any selected channel is not in the
+   *                                   range {@code [0, channels())}
+   */
+
+  default SampleBufferType channelsView(
+    final int... selected)
+    throws IllegalArgumentException, IndexOutOfBoundsException
+  {
+    return new SampleBufferChannelView(
+      this,
+      SampleBufferChannelView.checkChannels(selected, this.channels()));
+  }
+
+  /**
+   * Create a single-channel view of the given channel of this buffer.
+   * Equivalent to {@code channelsView(channel)}.
+   *
+   * @param channel The channel
+   *
+   * @return A mono view of the channel
+   *
+   * @throws IndexOutOfBoundsException If {@code channel} is not in the range
+   *                                   {@code [0, channels())}
+   * @see #channelsView(int...)
+   */
+
+  default SampleBufferType channelView(
+    final int channel)
+    throws IndexOutOfBoundsException
+  {
+    return this.channelsView(channel);
+  }
+
+  /**
+   * Create an accessor that provides unchecked access to the
+   * {@code frameCount} consecutive frames starting at frame
+   * {@code startFrame}. The range is validated once, here.
+   *
+   * @param startFrame The index of the first frame
+   * @param frameCount The number of frames
+   *
+   * @return An accessor
+   *
+   * @see SampleBufferAccessorType
+   */
+
+  default SampleBufferAccessorType accessor(
+    final long startFrame,
+    final int frameCount)
+  {
+    SampleBufferSlice.checkSlice(startFrame, frameCount, this.frames());
+    return new SampleBufferAccessor(this, startFrame, frameCount);
+  }
 }
@@ -23,5 +23,7 @@ module com.io7m.jsamplebuffer.api
   requires static org.osgi.annotation.bundle;
   requires static org.osgi.annotation.versioning;
 
+  requires com.io7m.jranges.core;
+
   exports com.io7m.jsamplebuffer.api;
 }
@@ -237,4 +237,438 @@ public abstract class SampleBufferContract
       ex.getMessage().contains("range"),
       "Incorrect range detected");
   }
+
+  @Test
+  public final void testFramesSetGetExactDouble()
+  {
+    final var buffer = this.createBuffer(2, 100L);
+
+    final var input = new double[2 + (100 * 2)];
+    for (var index = 0; index < input.length; ++index) {
+      input[index] = index;
+    }
+
+    buffer.framesSetExact(0L, 100, input, 2);
+
+    for (var index = 0; index < 100; ++index) {
+      final var output = new double[2];
+      buffer.frameGetExact(index, output);
+      Assertions.assertEquals(2 + (index * 2), output[0], 0.00001);
+      Assertions.assertEquals(2 + (index * 2) + 1, output[1], 0.00001);
+    }
+
+    final var output = new double[1 + (10 * 2)];
+    buffer.framesGetExact(90L, 10, output, 1);
+    for (var index = 0; index < 10 * 2; ++index) {
+      Assertions.assertEquals(input[2 + (90 * 2) + index], output[1 + index], 0.00001);
+    }
+  }
+
+  @Test
+  public final void testFramesSetGetExactFloat()
+  {
+    final var buffer = this.createBuffer(2, 100L);
+
+    final var input = new float[100 * 2];
+    for (var index = 0; index < input.length; ++index) {
+      input[index] = (float) index;
+    }
+
+    buffer.framesSetExact(0L, 100, input, 0);
+
+    for (var index = 0; index < 100; ++index) {
+      final var output = new double[2];
+      buffer.frameGetExact(index, output);
+      Assertions.assertEquals(index * 2, output[0], 0.00001);
+      Assertions.assertEquals((index * 2) + 1, output[1], 0.00001);
+    }
+
+    final var output = new float[100 * 2];
+    buffer.framesGetExact(0L, 100, output, 0);
+    Assertions.assertArrayEquals(input, output);
+  }
+
+  @Test
+  public final void testFramesSetGetExactEmpty()
+  {
+    final var buffer = this.createBuffer(2, 100L);
+    buffer.framesSetExact(99L, 0, new double[0], 0);
+    buffer.framesGetExact(99L, 0, new float[0], 0);
+  }
+
+  @Test
+  public final void testFramesSetExact_Range()
+  {
+    final var buffer = this.createBuffer(2, 100L);
+
+    final var ex =
+      Assertions.assertThrows(
+        RangeCheckException.class,
+        () -> buffer.framesSetExact(91L, 10, new double[20], 0));
+
+    Assertions.assertTrue(
+      ex.getMessage().contains("range"),
+      "Incorrect range detected");
+  }
+
+  @Test
+  public final void testFramesGetExact_Range()
+  {
+    final var buffer = this.createBuffer(2, 100L);
+
+    final var ex =
+      Assertions.assertThrows(
+        RangeCheckException.class,
+        () -> buffer.framesGetExact(100L, 1, new float[2], 0));
+
+    Assertions.assertTrue(
+      ex.getMessage().contains("range"),
+      "Incorrect range detected");
+  }
+
+  @Test
+  public final void testFramesSetExact_Small()
+  {
+    final var buffer = this.createBuffer(2, 100L);
+
+    Assertions.assertThrows(
+      IndexOutOfBoundsException.class,
+      () -> buffer.framesSetExact(0L, 10, new float[20], 1));
+  }
+
+  @Test
+  public final void testFramesGetExact_Small()
+  {
+    final var buffer = this.createBuffer(2, 100L);
+
+    Assertions.assertThrows(
+      IndexOutOfBoundsException.class,
+      () -> buffer.framesGetExact(0L, 10, new double[19], 0));
+  }
+
+  @Test
+  public final void testChannelSetGetExact()
+  {
+    final var buffer = this.createBuffer(3, 100L);
+
+    for (var index = 0; index < 100; ++index) {
+      buffer.frameSetExact(index, new double[]{index, index * 2.0, index * 3.0});
+    }
+
+    for (var index = 0; index < 100; ++index) {
+      buffer.channelSetExact(1, index, -index);
+    }
+
+    final var output = new double[3];
+    for (var index = 0; index < 100; ++index) {
+      buffer.frameGetExact(index, output);
+      Assertions.assertEquals(index, output[0], 0.00001);
+      Assertions.assertEquals(-index, output[1], 0.00001);
+      Assertions.assertEquals(index * 3.0, output[2], 0.00001);
+      Assertions.assertEquals(-index, buffer.channelGetExact(1, index), 0.00001);
+    }
+  }
+
+  @Test
+  public final void testChannelSetGetExactBulkDouble()
+  {
+    final var buffer = this.createBuffer(3, 100L);
+
+    final var input = new double[101];
+    for (var index = 0; index < input.length; ++index) {
+      input[index] = index;
+    }
+
+    buffer.frameSetAll(0L, 23.0);
+    buffer.channelSetExact(2, 0L, 100, input, 1);
+
+    final var output = new double[100];
+    buffer.channelGetExact(2, 0L, 100, output, 0);
+    for (var index = 0; index < 100; ++index) {
+      Assertions.assertEquals(index + 1.0, output[index], 0.00001);
+    }
+
+    buffer.channelGetExact(0, 0L, 100, output, 0);
+    Assertions.assertEquals(23.0, output[0], 0.00001);
+    buffer.channelGetExact(1, 0L, 100, output, 0);
+    Assertions.assertEquals(23.0, output[0], 0.00001);
+  }
+
+  @Test
+  public final void testChannelSetGetExactBulkFloat()
+  {
+    final var buffer = this.createBuffer(2, 100L);
+
+    final var input = new float[100];
+    for (var index = 0; index < input.length; ++index) {
+      input[index] = (float) index;
+    }
+
+    buffer.channelSetExact(0, 0L, 100, input, 0);
+    buffer.channelSetExact(1, 50L, 50, input, 0);
+
+    final var output = new float[100];
+    buffer.channelGetExact(0, 0L, 100, output, 0);
+    Assertions.assertArrayEquals(input, output);
+
+    buffer.channelGetExact(1, 50L, 50, output, 50);
+    for (var index = 0; index < 50; ++index) {
+      Assertions.assertEquals(input[index], output[50 + index]);
+    }
+  }
+
+  @Test
+  public final void testChannelGetExact_Channel()
+  {
+    final var buffer = this.createBuffer(2, 100L);
+
+    Assertions.assertThrows(
+      IndexOutOfBoundsException.class,
+      () -> buffer.channelGetExact(2, 0L));
+    Assertions.assertThrows(
+      IndexOutOfBoundsException.class,
+      () -> buffer.channelSetExact(-1, 0L, 1.0));
+    Assertions.assertThrows(
+      IndexOutOfBoundsException.class,
+      () -> buffer.channelGetExact(2, 0L, 1, new double[1], 0));
+    Assertions.assertThrows(
+      IndexOutOfBoundsException.class,
+      () -> buffer.channelSetExact(2, 0L, 1, new float[1], 0));
+  }
+
+  @Test
+  public final void testChannelGetExact_Range()
+  {
+    final var buffer = this.createBuffer(2, 100L);
+
+    final var ex =
+      Assertions.assertThrows(
+        RangeCheckException.class,
+        () -> buffer.channelGetExact(1, 95L, 10, new double[10], 0));
+
+    Assertions.assertTrue(
+      ex.getMessage().contains("range"),
+      "Incorrect range detected");
+  }
+
+  @Test
+  public final void testChannelSetExact_Small()
+  {
+    final var buffer = this.createBuffer(2, 100L);
+
+    Assertions.assertThrows(
+      IndexOutOfBoundsException.class,
+      () -> buffer.channelSetExact(1, 0L, 10, new double[9], 0));
+  }
+
+  @Test
+  public final void testSliceSharesStorage()
+  {
+    final var buffer = this.createBuffer(2, 100L);
+    final var slice = buffer.slice(10L, 20L);
+
+    Assertions.assertEquals(2, slice.channels());
+    Assertions.assertEquals(20L, slice.frames());
+    Assertions.assertEquals(buffer.sampleRate(), slice.sampleRate());
+
+    for (var index = 0L; index < 100L; ++index) {
+      buffer.frameSetExact(index, index, -index);
+    }
+
+    final var output = new double[2];
+    for (var index = 0L; index < 20L; ++index) {
+      slice.frameGetExact(index, output);
+      Assertions.assertEquals(10L + index, output[0], 0.00001);
+      Assertions.assertEquals(-(10L + index), output[1], 0.00001);
+    }
+
+    final var input = new double[20];
+    for (var index = 0; index < 20; ++index) {
+      input[index] = 200.0 + index;
+    }
+    slice.channelSetExact(1, 0L, 20, input, 0);
+
+    buffer.frameGetExact(9L, output);
+    Assertions.assertEquals(-9.0, output[1], 0.00001);
+    buffer.frameGetExact(10L, output);
+    Assertions.assertEquals(200.0, output[1], 0.00001);
+    buffer.frameGetExact(29L, output);
+    Assertions.assertEquals(219.0, output[1], 0.00001);
+    buffer.frameGetExact(30L, output);
+    Assertions.assertEquals(-30.0, output[1], 0.00001);
+  }
+
+  @Test
+  public final void testSliceNested()
+  {
+    final var buffer = this.createBuffer(1, 100L);
+    for (var index = 0L; index < 100L; ++index) {
+      buffer.frameSetExact(index, index);
+    }
+
+    final var slice = buffer.slice(10L, 50L).slice(5L, 10L);
+    Assertions.assertEquals(10L, slice.frames());
+
+    final var output = new float[10];
+    slice.framesGetExact(0L, 10, output, 0);
+    for (var index = 0; index < 10; ++index) {
+      Assertions.assertEquals(15.0f + index, output[index], 0.00001f);
+    }
+  }
+
+  @Test
+  public final void testSlice_Range()
+  {
+    final var buffer = this.createBuffer(2, 100L);
+
+    Assertions.assertThrows(
+      RangeCheckException.class,
+      () -> buffer.slice(-1L, 10L));
+    Assertions.assertThrows(
+      RangeCheckException.class,
+      () -> buffer.slice(100L, 1L));
+    Assertions.assertThrows(
+      RangeCheckException.class,
+      () -> buffer.slice(0L, 0L));
+    Assertions.assertThrows(
+      RangeCheckException.class,
+      () -> buffer.slice(91L, 10L));
+
+    final var slice = buffer.slice(90L, 10L);
+    Assertions.assertThrows(
+      RangeCheckException.class,
+      () -> slice.frameGetExact(10L, new double[2]));
+    Assertions.assertThrows(
+      RangeCheckException.class,
+      () -> slice.framesSetExact(5L, 6, new double[12], 0));
+    Assertions.assertThrows(
+      RangeCheckException.class,
+      () -> slice.slice(5L, 6L));
+  }
+
+  @Test
+  public final void testChannelViewSharesStorage()
+  {
+    final var buffer = this.createBuffer(3, 100L);
+    for (var index = 0L; index < 100L; ++index) {
+      buffer.frameSetExact(index, new double[]{index, index * 2.0, index * 3.0});
+    }
+
+    final var view = buffer.channelView(2);
+    Assertions.assertEquals(1, view.channels());
+    Assertions.assertEquals(100L, view.frames());
+
+    for (var index = 0L; index < 100L; ++index) {
+      Assertions.assertEquals(index * 3.0, view.frameGetExact(index), 0.00001);
+    }
+
+    final var input = new double[100];
+    for (var index = 0; index < 100; ++index) {
+      input[index] = -index;
+    }
+    view.framesSetExact(0L, 100, input, 0);
+
+    final var output = new double[3];
+    for (var index = 0L; index < 100L; ++index) {
+      buffer.frameGetExact(index, output);
+      Assertions.assertEquals(index, output[0], 0.00001);
+      Assertions.assertEquals(index * 2.0, output[1], 0.00001);
+      Assertions.assertEquals(-index, output[2], 0.00001);
+    }
+  }
+
+  @Test
+  public final void testChannelsViewSubset()
+  {
+    final var buffer = this.createBuffer(3, 100L);
+    for (var index = 0L; index < 100L; ++index) {
+      buffer.frameSetExact(index, new double[]{index, index * 2.0, index * 3.0});
+    }
+
+    final var view = buffer.channelsView(2, 0);
+    Assertions.assertEquals(2, view.channels());
+
+    final var output = new float[20];
+    view.framesGetExact(10L, 10, output, 0);
+    for (var index = 0; index < 10; ++index) {
+      Assertions.assertEquals((10 + index) * 3.0f, output[index * 2], 0.00001f);
+      Assertions.assertEquals(10 + index, output[(index * 2) + 1], 0.00001f);
+    }
+
+    view.frameSetExact(0L, 100.0, 200.0);
+    final var frame = new double[3];
+    buffer.frameGetExact(0L, frame);
+    Assertions.assertEquals(200.0, frame[0], 0.00001);
+    Assertions.assertEquals(0.0, frame[1], 0.00001);
+    Assertions.assertEquals(100.0, frame[2], 0.00001);
+
+    final var nested = view.channelView(1);
+    Assertions.assertEquals(200.0, nested.frameGetExact(0L), 0.00001);
+  }
+
+  @Test
+  public final void testChannelsView_Invalid()
+  {
+    final var buffer = this.createBuffer(2, 100L);
+
+    Assertions.assertThrows(
+      IllegalArgumentException.class,
+      () -> buffer.channelsView());
+    Assertions.assertThrows(
+      IndexOutOfBoundsException.class,
+      () -> buffer.channelView(2));
+    Assertions.assertThrows(
+      IndexOutOfBoundsException.class,
+      () -> buffer.channelsView(0, -1));
+    Assertions.assertThrows(
+      IllegalArgumentException.class,
+      () -> buffer.channelsView(0, 1).frameSetExact(0L, 1.0));
+  }
+
+  @Test
+  public final void testAccessorGetSet()
+  {
+    final var buffer = this.createBuffer(3, 100L);
+    for (var index = 0L; index < 100L; ++index) {
+      buffer.frameSetExact(index, new double[]{index, index * 2.0, index * 3.0});
+    }
+
+    final var accessor = buffer.accessor(20L, 50);
+    Assertions.assertEquals(3, accessor.channels());
+    Assertions.assertEquals(50, accessor.frameCount());
+
+    for (var frame = 0; frame < 50; ++frame) {
+      Assertions.assertEquals(20.0 + frame, accessor.get(frame, 0), 0.00001);
+      Assertions.assertEquals((20.0 + frame) * 2.0, accessor.get(frame, 1), 0.00001);
+      Assertions.assertEquals((20.0 + frame) * 3.0, accessor.get(frame, 2), 0.00001);
+      accessor.set(frame, 1, -frame);
+    }
+
+    final var output = new double[3];
+    buffer.frameGetExact(19L, output);
+    Assertions.assertEquals(38.0, output[1], 0.00001);
+    buffer.frameGetExact(20L, output);
+    Assertions.assertEquals(0.0, output[1], 0.00001);
+    buffer.frameGetExact(69L, output);
+    Assertions.assertEquals(-49.0, output[1], 0.00001);
+    Assertions.assertEquals(207.0, output[2], 0.00001);
+    buffer.frameGetExact(70L, output);
+    Assertions.assertEquals(140.0, output[1], 0.00001);
+  }
+
+  @Test
+  public final void testAccessor_Range()
+  {
+    final var buffer = this.createBuffer(2, 100L);
+
+    Assertions.assertThrows(
+      RangeCheckException.class,
+      () -> buffer.accessor(-1L, 10));
+    Assertions.assertThrows(
+      RangeCheckException.class,
+      () -> buffer.accessor(0L, 0));
+    Assertions.assertThrows(
+      RangeCheckException.class,
+      () -> buffer.accessor(91L, 10));
+  }
 }
@@ -0,0 +1,116 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsamplebuffer.tests.api;
+
+import com.io7m.jsamplebuffer.api.SampleBufferType;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferDouble;
+
+/**
+ * Tests for the default methods of the sample buffer interfaces. The buffer
+ * used here implements only the abstract methods, delegating to a real
+ * buffer.
+ */
+
+public final class SampleBufferDefaultMethodsTest extends SampleBufferContract
+{
+  @Override
+  protected SampleBufferType createBuffer(
+    final int channels,
+    final long frames)
+  {
+    return new Minimal(
+      SampleBufferDouble.createWithHeapBuffer(channels, frames, 44100.0));
+  }
+
+  private static final class Minimal implements SampleBufferType
+  {
+    private final SampleBufferType delegate;
+
+    Minimal(
+      final SampleBufferType in_delegate)
+    {
+      this.delegate = in_delegate;
+    }
+
+    @Override
+    public void frameSetAll(
+      final long index,
+      final double value)
+    {
+      this.delegate.frameSetAll(index, value);
+    }
+
+    @Override
+    public void frameSetExact(
+      final long index,
+      final double c0)
+    {
+      this.delegate.frameSetExact(index, c0);
+    }
+
+    @Override
+    public void frameSetExact(
+      final long index,
+      final double c0,
+      final double c1)
+    {
+      this.delegate.frameSetExact(index, c0, c1);
+    }
+
+    @Override
+    public void frameSetExact(
+      final long index,
+      final double[] value)
+    {
+      this.delegate.frameSetExact(index, value);
+    }
+
+    @Override
+    public int channels()
+    {
+      return this.delegate.channels();
+    }
+
+    @Override
+    public long frames()
+    {
+      return this.delegate.frames();
+    }
+
+    @Override
+    public double sampleRate()
+    {
+      return this.delegate.sampleRate();
+    }
+
+    @Override
+    public void frameGetExact(
+      final long index,
+      final double[] output)
+    {
+      this.delegate.frameGetExact(index, output);
+    }
+
+    @Override
+    public double frameGetExact(
+      final long index)
+    {
+      return this.delegate.frameGetExact(index);
+    }
+  }
+}
@@ -0,0 +1,434 @@
+/*
+ * Copyright © 2019 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsamplebuffer.tests.api;
+
+import com.io7m.jranges.RangeCheckException;
+import com.io7m.jsamplebuffer.api.SampleBufferIntegerType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.function.LongFunction;
+
+/**
+ * The contract for buffers that store samples as signed integers. Integer
+ * buffers clamp samples to {@code [-1, 1]}, so the samples used here are
+ * multiples of {@code 1/1024}, which are represented exactly by integers of
+ * at least 16 bits.
+ */
+
+public abstract class SampleBufferIntegerContract
+{
+  private static final double STEP = 1024.0;
+
+  protected abstract SampleBufferIntegerType createWithByteBuffer(
+    int channels,
+    long frames,
+    LongFunction<ByteBuffer> create);
+
+  protected abstract SampleBufferIntegerType createWithDirectBuffer(
+    int channels,
+    long frames);
+
+  protected abstract int expectedIntegerBits();
+
+  private SampleBufferIntegerType createBuffer(
+    final int channels,
+    final long frames)
+  {
+    return this.createWithByteBuffer(
+      channels,
+      frames,
+      count -> ByteBuffer.allocate((int) count));
+  }
+
+  private double scale()
+  {
+    return (double) (1 << (this.expectedIntegerBits() - 1));
+  }
+
+  private static double sample(
+    final long index)
+  {
+    return (double) index / STEP;
+  }
+
+  @Test
+  public final void testCreateEmpty()
+  {
+    final var ex =
+      Assertions.assertThrows(
+        RangeCheckException.class,
+        () -> this.createBuffer(1, 0L));
+
+    Assertions.assertTrue(
+      ex.getMessage().contains("Frames"),
+      "Frame range check failed");
+  }
+
+  @Test
+  public final void testChannelCountWrong()
+  {
+    final var ex =
+      Assertions.assertThrows(
+        RangeCheckException.class,
+        () -> this.createBuffer(-1, 100L));
+
+    Assertions.assertTrue(
+      ex.getMessage().contains("Channels"),
+      "Channel range check failed");
+  }
+
+  @Test
+  public final void testBufferMisallocation()
+  {
+    final var ex =
+      Assertions.assertThrows(
+        IllegalStateException.class,
+        () -> this.createWithByteBuffer(
+          2,
+          100L,
+          count -> ByteBuffer.allocate(10)));
+
+    Assertions.assertTrue(
+      ex.getMessage().contains("10 octets"),
+      "Misallocation detected");
+  }
+
+  @Test
+  public final void testCreateDirectStereoSimple()
+  {
+    final var buffer = this.createWithDirectBuffer(2, 100L);
+    Assertions.assertEquals(2, buffer.channels());
+    Assertions.assertEquals(100L, buffer.frames());
+    Assertions.assertEquals(200L, buffer.samples());
+    Assertions.assertEquals(44100.0, buffer.sampleRate());
+    Assertions.assertEquals(this.expectedIntegerBits(), buffer.integerBits());
+  }
+
+  @Test
+  public final void testFramesSetGetDouble()
+  {
+    final var scale = this.scale();
+    final var buffer = this.createBuffer(2, 100L);
+
+    final var input = new double[200];
+    for (var index = 0; index < input.length; ++index) {
+      input[index] = ((double) index / 100.0) - 1.0;
+    }
+    buffer.framesSetExact(0L, 100, input, 0);
+
+    final var output = new double[200];
+    buffer.framesGetExact(0L, 100, output, 0);
+    for (var index = 0; index < input.length; ++index) {
+      Assertions.assertEquals(input[index], output[index], 1.0 / scale);
+    }
+
+    final var frame = new double[2];
+    buffer.frameGetExact(10L, frame);
+    Assertions.assertEquals(output[20], frame[0]);
+    Assertions.assertEquals(output[21], frame[1]);
+    Assertions.assertEquals(output[21], buffer.channelGetExact(1, 10L));
+  }
+
+  @Test
+  public final void testFramesSetGetFloat()
+  {
+    final var scale = (float) this.scale();
+    final var buffer = this.createBuffer(1, 100L);
+
+    final var input = new float[100];
+    for (var index = 0; index < input.length; ++index) {
+      input[index] = ((float) index / 50.0f) - 1.0f;
+    }
+    buffer.framesSetExact(0L, 100, input, 0);
+
+    final var output = new float[100];
+    buffer.framesGetExact(0L, 100, output, 0);
+    for (var index = 0; index < input.length; ++index) {
+      Assertions.assertEquals(input[index], output[index], 1.0f / scale);
+    }
+  }
+
+  @Test
+  public final void testFramesSetGetOffsets()
+  {
+    final var buffer = this.createBuffer(2, 100L);
+
+    final var input = new double[2 + (100 * 2)];
+    for (var index = 0; index < input.length; ++index) {
+      input[index] = sample(index);
+    }
+    buffer.framesSetExact(0L, 100, input, 2);
+
+    final var output = new double[1 + (10 * 2)];
+    buffer.framesGetExact(90L, 10, output, 1);
+    for (var index = 0; index < 10 * 2; ++index) {
+      Assertions.assertEquals(input[2 + (90 * 2) + index], output[1 + index]);
+    }
+
+    final var floats = new float[100 * 2];
+    buffer.framesGetExact(0L, 100, floats, 0);
+    for (var index = 0; index < floats.length; ++index) {
+      Assertions.assertEquals((float) input[2 + index], floats[index]);
+    }
+
+    buffer.framesSetExact(99L, 0, new double[0], 0);
+    buffer.framesGetExact(99L, 0, new float[0], 0);
+  }
+
+  @Test
+  public final void testIntegersExact()
+  {
+    final var scale = this.scale();
+    final var minimum = (int) -scale;
+    final var maximum = (int) scale - 1;
+    final var buffer = this.createBuffer(2, 4L);
+    final var input =
+      new int[]{minimum, maximum, 0, 1, -1, 1000, 12345, -12345};
+    buffer.framesSetIntegers(0L, 4, input, 0);
+
+    final var output = new int[8];
+    buffer.framesGetIntegers(0L, 4, output, 0);
+    Assertions.assertArrayEquals(input, output);
+
+    final var samples = new double[8];
+    buffer.framesGetExact(0L, 4, samples, 0);
+    for (var index = 0; index < input.length; ++index) {
+      Assertions.assertEquals((double) input[index] / scale, samples[index]);
+    }
+  }
+
+  @Test
+  public final void testClamping()
+  {
+    final var scale = this.scale();
+    final var buffer = this.createBuffer(2, 1L);
+
+    buffer.frameSetExact(0L, 2.0, -2.0);
+    Assertions.assertEquals(
+      (scale - 1.0) / scale,
+      buffer.channelGetExact(0, 0L));
+    Assertions.assertEquals(-1.0, buffer.channelGetExact(1, 0L));
+
+    final var large = (int) scale * 3;
+    buffer.framesSetIntegers(0L, 1, new int[]{large, -large}, 0);
+    final var output = new int[2];
+    buffer.framesGetIntegers(0L, 1, output, 0);
+    Assertions.assertEquals((int) scale - 1, output[0]);
+    Assertions.assertEquals((int) -scale, output[1]);
+  }
+
+  @Test
+  public final void testChannelSetGet()
+  {
+    final var buffer = this.createBuffer(3, 100L);
+    buffer.frameSetAll(5L, 0.5);
+
+    final var input = new double[100];
+    for (var index = 0; index < input.length; ++index) {
+      input[index] = (double) index / 128.0;
+    }
+    buffer.channelSetExact(1, 0L, 100, input, 0);
+
+    final var output = new double[100];
+    buffer.channelGetExact(1, 0L, 100, output, 0);
+    Assertions.assertArrayEquals(input, output);
+    Assertions.assertEquals(0.5, buffer.channelGetExact(0, 5L));
+    Assertions.assertEquals(0.5, buffer.channelGetExact(2, 5L));
+  }
+
+  @Test
+  public final void testChannelSetGetBulkFloat()
+  {
+    final var buffer = this.createBuffer(2, 100L);
+
+    final var input = new float[100];
+    for (var index = 0; index < input.length; ++index) {
+      input[index] = (float) sample(index);
+    }
+
+    buffer.channelSetExact(0, 0L, 100, input, 0);
+    buffer.channelSetExact(1, 50L, 50, input, 0);
+
+    final var output = new float[100];
+    buffer.channelGetExact(0, 0L, 100, output, 0);
+    Assertions.assertArrayEquals(input, output);
+
+    buffer.channelGetExact(1, 50L, 50, output, 50);
+    for (var index = 0; index < 50; ++index) {
+      Assertions.assertEquals(input[index], output[50 + index]);
+    }
+  }
+
+  @Test
+  public final void testFramesRange()
+  {
+    final var buffer = this.createBuffer(2, 100L);
+
+    Assertions.assertThrows(
+      RangeCheckException.class,
+      () -> buffer.framesSetIntegers(91L, 10, new int[20], 0));
+    Assertions.assertThrows(
+      IndexOutOfBoundsException.class,
+      () -> buffer.framesGetIntegers(0L, 10, new int[19], 0));
+    Assertions.assertThrows(
+      IllegalArgumentException.class,
+      () -> buffer.frameSetExact(0L, 0.0));
+    Assertions.assertThrows(
+      RangeCheckException.class,
+      () -> buffer.framesGetExact(100L, 1, new float[2], 0));
+    Assertions.assertThrows(
+      IndexOutOfBoundsException.class,
+      () -> buffer.channelGetExact(2, 0L, 1, new double[1], 0));
+    Assertions.assertThrows(
+      RangeCheckException.class,
+      () -> buffer.channelGetExact(1, 95L, 10, new double[10], 0));
+  }
+
+  @Test
+  public final void testSlice()
+  {
+    final var buffer = this.createBuffer(2, 100L);
+    final var slice = buffer.slice(50L, 10L);
+    Assertions.assertEquals(this.expectedIntegerBits(), slice.integerBits());
+    Assertions.assertEquals(10L, slice.frames());
+
+    slice.framesSetIntegers(0L, 1, new int[]{1000, -1000}, 0);
+
+    final var output = new int[2];
+    buffer.framesGetIntegers(50L, 1, output, 0);
+    Assertions.assertArrayEquals(new int[]{1000, -1000}, output);
+
+    Assertions.assertThrows(
+      RangeCheckException.class,
+      () -> slice.framesGetIntegers(9L, 2, new int[4], 0));
+  }
+
+  @Test
+  public final void testSliceSharesStorage()
+  {
+    final var buffer = this.createBuffer(2, 100L);
+    final var slice = buffer.slice(10L, 20L);
+
+    for (var index = 0L; index < 100L; ++index) {
+      buffer.frameSetExact(index, sample(index), sample(-index));
+    }
+
+    final var output = new double[2];
+    for (var index = 0L; index < 20L; ++index) {
+      slice.frameGetExact(index, output);
+      Assertions.assertEquals(sample(10L + index), output[0]);
+      Assertions.assertEquals(sample(-(10L + index)), output[1]);
+    }
+
+    final var input = new double[20];
+    for (var index = 0; index < 20; ++index) {
+      input[index] = sample(200L + index);
+    }
+    slice.channelSetExact(1, 0L, 20, input, 0);
+
+    buffer.frameGetExact(9L, output);
+    Assertions.assertEquals(sample(-9L), output[1]);
+    buffer.frameGetExact(10L, output);
+    Assertions.assertEquals(sample(200L), output[1]);
+    buffer.frameGetExact(29L, output);
+    Assertions.assertEquals(sample(219L), output[1]);
+    buffer.frameGetExact(30L, output);
+    Assertions.assertEquals(sample(-30L), output[1]);
+
+    final var nested = buffer.slice(10L, 50L).slice(5L, 10L);
+    final var floats = new float[10];
+    nested.framesGetExact(0L, 5, floats, 0);
+    for (var index = 0; index < 10; ++index) {
+      Assertions.assertEquals(
+        (float) buffer.channelGetExact(index % 2, 15L + (index / 2)),
+        floats[index]);
+    }
+  }
+
+  @Test
+  public final void testChannelViewSharesStorage()
+  {
+    final var buffer = this.createBuffer(3, 100L);
+    for (var index = 0L; index < 100L; ++index) {
+      buffer.frameSetExact(
+        index,
+        new double[]{sample(index), sample(index * 2L), sample(index * 3L)});
+    }
+
+    final var view = buffer.channelView(2);
+    Assertions.assertEquals(1, view.channels());
+    Assertions.assertEquals(100L, view.frames());
+    for (var index = 0L; index < 100L; ++index) {
+      Assertions.assertEquals(sample(index * 3L), view.frameGetExact(index));
+    }
+
+    final var input = new double[100];
+    for (var index = 0; index < 100; ++index) {
+      input[index] = sample(-index);
+    }
+    view.framesSetExact(0L, 100, input, 0);
+
+    final var output = new double[3];
+    for (var index = 0L; index < 100L; ++index) {
+      buffer.frameGetExact(index, output);
+      Assertions.assertEquals(sample(index), output[0]);
+      Assertions.assertEquals(sample(index * 2L), output[1]);
+      Assertions.assertEquals(sample(-index), output[2]);
+    }
+
+    final var subset = buffer.channelsView(2, 0);
+    subset.frameSetExact(0L, 0.5, 0.25);
+    buffer.frameGetExact(0L, output);
+    Assertions.assertEquals(0.25, output[0]);
+    Assertions.assertEquals(0.0, output[1]);
+    Assertions.assertEquals(0.5, output[2]);
+  }
+
+  @Test
+  public final void testAccessorGetSet()
+  {
+    final var buffer = this.createBuffer(3, 100L);
+    for (var index = 0L; index < 100L; ++index) {
+      buffer.frameSetExact(
+        index,
+        new double[]{sample(index), sample(index * 2L), sample(index * 3L)});
+    }
+
+    final var accessor = buffer.accessor(20L, 50);
+    Assertions.assertEquals(3, accessor.channels());
+    Assertions.assertEquals(50, accessor.frameCount());
+
+    for (var frame = 0; frame < 50; ++frame) {
+      final var index = 20L + (long) frame;
+      Assertions.assertEquals(sample(index), accessor.get(frame, 0));
+      Assertions.assertEquals(sample(index * 2L), accessor.get(frame, 1));
+      Assertions.assertEquals(sample(index * 3L), accessor.get(frame, 2));
+      accessor.set(frame, 1, sample(-frame));
+    }
+
+    final var output = new double[3];
+    buffer.frameGetExact(19L, output);
+    Assertions.assertEquals(sample(38L), output[1]);
+    buffer.frameGetExact(69L, output);
+    Assertions.assertEquals(sample(-49L), output[1]);
+    buffer.frameGetExact(70L, output);
+    Assertions.assertEquals(sample(140L), output[1]);
+  }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.tests.vanilla;
+
+import com.io7m.jsamplebuffer.api.SampleBufferType;
+import com.io7m.jsamplebuffer.tests.api.SampleBufferContract;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferFloat;
+
+/**
+ * Run the contract against views produced by the default
+ * {@link SampleBufferType#channelsView(int...)} implementation. Each view
+ * selects the channels of a wider buffer in reverse order.
+ */
+
+public final class SampleBufferChannelViewTest extends SampleBufferContract
+{
+  @Override
+  protected SampleBufferType createBuffer(
+    final int channels,
+    final long frames)
+  {
+    final var parent =
+      SampleBufferFloat.createWithHeapBuffer(channels + 2, frames, 44100.0);
+
+    final var selected = new int[channels];
+    for (var index = 0; index < channels; ++index) {
+      selected[index] = channels - index;
+    }
+    return parent.channelsView(selected);
+  }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.tests.vanilla;
+
+import com.io7m.jranges.RangeCheckException;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferChunkedDouble;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+public final class SampleBufferChunkedDoubleTest
+{
+  private static SampleBufferChunkedDouble createSmall(
+    final int channels)
+  {
+    return SampleBufferChunkedDouble.createWithChunks(
+      channels,
+      44100.0,
+      64,
+      (offset, size) -> ByteBuffer.allocate(size));
+  }
+
+  @Test
+  public void testEmpty()
+  {
+    final var buffer =
+      SampleBufferChunkedDouble.createWithHeapBuffer(2, 44100.0);
+
+    Assertions.assertEquals(2, buffer.channels());
+    Assertions.assertEquals(0L, buffer.frames());
+    Assertions.assertEquals(0L, buffer.samples());
+    Assertions.assertEquals(44100.0, buffer.sampleRate());
+    Assertions.assertEquals(0, buffer.chunkCount());
+
+    Assertions.assertThrows(
+      RangeCheckException.class,
+      () -> buffer.frameGetExact(0L, new double[2]));
+  }
+
+  @Test
+  public void testAppendAcrossChunks()
+  {
+    final var buffer = createSmall(2);
+    Assertions.assertEquals(4, buffer.chunkFrames());
+
+    final var input = new double[2 * 11];
+    for (var index = 0; index < input.length; ++index) {
+      input[index] = (double) index;
+    }
+
+    buffer.appendFrames(3, input, 0);
+    buffer.appendFrames(8, input, 6);
+    Assertions.assertEquals(11L, buffer.frames());
+    Assertions.assertEquals(3, buffer.chunkCount());
+
+    final var output = new double[input.length];
+    buffer.framesGetExact(0L, 11, output, 0);
+    Assertions.assertArrayEquals(input, output);
+
+    final var frame = new double[2];
+    buffer.frameGetExact(5L, frame);
+    Assertions.assertArrayEquals(new double[]{10.0, 11.0}, frame);
+    Assertions.assertEquals(21.0, buffer.channelGetExact(1, 10L));
+
+    final var channel = new double[11];
+    buffer.channelGetExact(1, 0L, 11, channel, 0);
+    for (var index = 0; index < 11; ++index) {
+      Assertions.assertEquals((double) (index * 2 + 1), channel[index]);
+    }
+
+    final var floats = new float[6];
+    buffer.framesGetExact(2L, 3, floats, 0);
+    Assertions.assertArrayEquals(
+      new float[]{4.0f, 5.0f, 6.0f, 7.0f, 8.0f, 9.0f}, floats);
+
+    final var channelFloats = new float[3];
+    buffer.channelGetExact(0, 3L, 3, channelFloats, 0);
+    Assertions.assertArrayEquals(
+      new float[]{6.0f, 8.0f, 10.0f}, channelFloats);
+
+    Assertions.assertThrows(
+      RangeCheckException.class,
+      () -> buffer.frameGetExact(11L, frame));
+  }
+
+  @Test
+  public void testAppendFrameFloat()
+  {
+    final var buffer = createSmall(1);
+    for (var index = 0; index < 100; ++index) {
+      buffer.appendFrame(new double[]{(double) index});
+    }
+    buffer.appendFrames(2, new float[]{100.0f, 101.0f}, 0);
+
+    Assertions.assertEquals(102L, buffer.frames());
+    for (var index = 0; index < 102; ++index) {
+      Assertions.assertEquals((double) index, buffer.frameGetExact(index));
+    }
+  }
+
+  @Test
+  public void testAppendWrongChannels()
+  {
+    final var buffer = createSmall(2);
+    Assertions.assertThrows(
+      IllegalArgumentException.class,
+      () -> buffer.appendFrame(new double[3]));
+    Assertions.assertThrows(
+      IndexOutOfBoundsException.class,
+      () -> buffer.appendFrames(2, new double[3], 0));
+    Assertions.assertEquals(0L, buffer.frames());
+  }
+
+  @Test
+  public void testFreeze()
+  {
+    final var buffer = createSmall(1);
+    buffer.appendFrames(3, new double[]{1.0, 2.0, 3.0}, 0);
+
+    final var frozen = buffer.freeze();
+    Assertions.assertTrue(buffer.isFrozen());
+    Assertions.assertSame(frozen, buffer.freeze());
+    Assertions.assertFalse(frozen instanceof SampleBufferChunkedDouble);
+    Assertions.assertEquals(3L, frozen.frames());
+    Assertions.assertEquals(2.0, frozen.frameGetExact(1L));
+
+    Assertions.assertThrows(
+      IllegalStateException.class,
+      () -> buffer.appendFrame(new double[1]));
+    Assertions.assertThrows(
+      IllegalStateException.class,
+      () -> buffer.appendFrames(1, new float[1], 0));
+    Assertions.assertEquals(3L, frozen.frames());
+  }
+
+  @Test
+  public void testFreezeEmpty()
+  {
+    final var buffer = createSmall(1);
+
+    Assertions.assertThrows(IllegalStateException.class, buffer::freeze);
+    Assertions.assertFalse(buffer.isFrozen());
+
+    buffer.appendFrame(new double[]{1.0});
+    Assertions.assertEquals(1L, buffer.freeze().frames());
+  }
+
+  @Test
+  public void testDirect()
+  {
+    final var buffer =
+      SampleBufferChunkedDouble.createWithDirectBuffer(2, 44100.0);
+    buffer.appendFrame(new double[]{0.25, 0.5});
+    Assertions.assertEquals(0.5, buffer.channelGetExact(1, 0L));
+  }
+
+  @Test
+  public void testChunkTooSmall()
+  {
+    Assertions.assertThrows(
+      IllegalArgumentException.class,
+      () -> SampleBufferChunkedDouble.createWithChunks(
+        8, 44100.0, 32, (offset, size) -> ByteBuffer.allocate(size)));
+  }
+
+  @Test
+  public void testMisallocation()
+  {
+    final var buffer =
+      SampleBufferChunkedDouble.createWithChunks(
+        1, 44100.0, 64, (offset, size) -> ByteBuffer.allocate(10));
+
+    final var ex =
+      Assertions.assertThrows(
+        IllegalStateException.class,
+        () -> buffer.appendFrame(new double[1]));
+    Assertions.assertTrue(ex.getMessage().contains("10 octets"));
+  }
+}
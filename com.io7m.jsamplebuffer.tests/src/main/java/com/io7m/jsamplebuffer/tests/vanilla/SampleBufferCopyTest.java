@@ -0,0 +1,240 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.tests.vanilla;
+
+import com.io7m.jranges.RangeCheckException;
+import com.io7m.jsamplebuffer.api.SampleBufferType;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferCopy;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferDouble;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferFloat;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferFloat16;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferInt16;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferInt24;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferPlanarDouble;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferPlanarFloat;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferSegmentedDouble;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.util.List;
+import java.util.function.LongFunction;
+import java.util.stream.Stream;
+
+public final class SampleBufferCopyTest
+{
+  private static final int CHANNELS = 2;
+
+  private static List<LongFunction<SampleBufferType>> factories()
+  {
+    return List.of(
+      f -> SampleBufferDouble.createWithHeapBuffer(CHANNELS, f, 44100.0),
+      f -> SampleBufferFloat.createWithDirectBuffer(CHANNELS, f, 44100.0),
+      f -> SampleBufferFloat16.createWithHeapBuffer(CHANNELS, f, 44100.0),
+      f -> SampleBufferInt16.createWithHeapBuffer(CHANNELS, f, 44100.0),
+      f -> SampleBufferInt24.createWithHeapBuffer(CHANNELS, f, 44100.0),
+      f -> SampleBufferPlanarDouble.createWithHeapBuffer(CHANNELS, f, 44100.0),
+      f -> SampleBufferPlanarFloat.createWithHeapBuffer(CHANNELS, f, 44100.0),
+      f -> SampleBufferSegmentedDouble.createWithHeapBuffer(CHANNELS, f, 44100.0)
+    );
+  }
+
+  private static double valueOf(
+    final long frame,
+    final int channel)
+  {
+    final var value = (double) (frame % 64L) / 64.0;
+    return channel == 0 ? value : -value;
+  }
+
+  private static void fill(
+    final SampleBufferType buffer)
+  {
+    for (var frame = 0L; frame < buffer.frames(); ++frame) {
+      buffer.frameSetExact(frame, valueOf(frame, 0), valueOf(frame, 1));
+    }
+  }
+
+  @TestFactory
+  public Stream<DynamicTest> testCopyAllPairs()
+  {
+    return factories().stream().flatMap(source -> {
+      return factories().stream().map(target -> {
+        final var s = source.apply(10000L);
+        final var t = target.apply(9000L);
+        return DynamicTest.dynamicTest(
+          "testCopy_%s_%s".formatted(
+            s.getClass().getSimpleName(),
+            t.getClass().getSimpleName()),
+          () -> {
+            fill(s);
+            SampleBufferCopy.copyFrames(s, 1000L, t, 5L, 8000L);
+
+            final var tolerance = 1.0 / 128.0;
+            for (var frame = 0L; frame < 8000L; ++frame) {
+              Assertions.assertEquals(
+                valueOf(frame + 1000L, 0),
+                t.channelGetExact(0, frame + 5L),
+                tolerance);
+              Assertions.assertEquals(
+                valueOf(frame + 1000L, 1),
+                t.channelGetExact(1, frame + 5L),
+                tolerance);
+            }
+            Assertions.assertEquals(0.0, t.channelGetExact(0, 4L));
+            Assertions.assertEquals(0.0, t.channelGetExact(0, 8005L));
+          });
+      });
+    });
+  }
+
+  @TestFactory
+  public Stream<DynamicTest> testCopyOverlapping()
+  {
+    return factories().stream().flatMap(factory -> {
+      return Stream.of(-300L, 300L).map(shift -> {
+        final var buffer = factory.apply(5000L);
+        return DynamicTest.dynamicTest(
+          "testCopyOverlapping_%s_%d".formatted(
+            buffer.getClass().getSimpleName(), shift),
+          () -> {
+            fill(buffer);
+            final var expected = new double[CHANNELS * 5000];
+            buffer.framesGetExact(0L, 5000, expected, 0);
+
+            SampleBufferCopy.copyFrames(
+              buffer, 1000L, buffer, 1000L + shift, 3000L);
+
+            for (var frame = 0L; frame < 3000L; ++frame) {
+              Assertions.assertEquals(
+                expected[(int) (frame + 1000L) * CHANNELS],
+                buffer.channelGetExact(0, frame + 1000L + shift));
+            }
+          });
+      });
+    });
+  }
+
+  @TestFactory
+  public Stream<DynamicTest> testCopyOverlappingSlices()
+  {
+    /*
+     * Overlapping slices of one buffer are only supported when the slices
+     * are of the same implementation as the buffer.
+     */
+
+    return factories().stream().filter(factory -> {
+      final var buffer = factory.apply(2L);
+      return buffer.slice(0L, 1L).getClass() == buffer.getClass();
+    }).flatMap(factory -> {
+      return Stream.of(-300L, 300L).map(shift -> {
+        final var buffer = factory.apply(5000L);
+        return DynamicTest.dynamicTest(
+          "testCopyOverlappingSlices_%s_%d".formatted(
+            buffer.getClass().getSimpleName(), shift),
+          () -> {
+            fill(buffer);
+            final var expected = new double[CHANNELS * 5000];
+            buffer.framesGetExact(0L, 5000, expected, 0);
+            final var source = buffer.slice(1000L, 3000L);
+            final var target = buffer.slice(1000L + shift, 3000L);
+            SampleBufferCopy.copyFrames(source, 0L, target, 0L, 3000L);
+
+            for (var frame = 0L; frame < 3000L; ++frame) {
+              Assertions.assertEquals(
+                expected[(int) (frame + 1000L) * CHANNELS],
+                buffer.channelGetExact(0, frame + 1000L + shift));
+            }
+          });
+      });
+    });
+  }
+
+  @Test
+  public void testCopyChannelViews()
+  {
+    final var buffer =
+      SampleBufferFloat.createWithHeapBuffer(CHANNELS, 100L, 44100.0);
+    fill(buffer);
+
+    SampleBufferCopy.copyFrames(
+      buffer.channelView(0), 10L, buffer.channelView(1), 10L, 50L);
+    for (var frame = 10L; frame < 60L; ++frame) {
+      Assertions.assertEquals(
+        valueOf(frame, 0), buffer.channelGetExact(1, frame));
+    }
+    Assertions.assertEquals(valueOf(9L, 1), buffer.channelGetExact(1, 9L));
+  }
+
+  @Test
+  public void testCopySlice()
+  {
+    final var source =
+      SampleBufferFloat.createWithHeapBuffer(CHANNELS, 100L, 44100.0);
+    final var target =
+      SampleBufferFloat.createWithHeapBuffer(CHANNELS, 100L, 44100.0);
+    fill(source);
+
+    SampleBufferCopy.copyFrames(source.slice(10L, 50L), 5L, target, 0L, 20L);
+    Assertions.assertEquals(valueOf(15L, 0), target.channelGetExact(0, 0L));
+    Assertions.assertEquals(valueOf(34L, 1), target.channelGetExact(1, 19L));
+    Assertions.assertEquals(0.0, target.channelGetExact(1, 20L));
+  }
+
+  @Test
+  public void testCopyZero()
+  {
+    final var buffer =
+      SampleBufferFloat.createWithHeapBuffer(CHANNELS, 100L, 44100.0);
+    SampleBufferCopy.copyFrames(buffer, 100L, buffer, 100L, 0L);
+  }
+
+  @Test
+  public void testCopyInvalid()
+  {
+    final var source =
+      SampleBufferFloat.createWithHeapBuffer(CHANNELS, 100L, 44100.0);
+    final var target =
+      SampleBufferDouble.createWithHeapBuffer(CHANNELS, 50L, 44100.0);
+
+    Assertions.assertThrows(
+      IllegalArgumentException.class,
+      () -> SampleBufferCopy.copyFrames(
+        source,
+        0L,
+        SampleBufferDouble.createWithHeapBuffer(1, 50L, 44100.0),
+        0L,
+        1L));
+
+    Assertions.assertThrows(
+      RangeCheckException.class,
+      () -> SampleBufferCopy.copyFrames(source, 0L, target, 0L, -1L));
+    Assertions.assertThrows(
+      RangeCheckException.class,
+      () -> SampleBufferCopy.copyFrames(source, 100L, target, 0L, 1L));
+    Assertions.assertThrows(
+      RangeCheckException.class,
+      () -> SampleBufferCopy.copyFrames(source, 90L, target, 0L, 11L));
+    Assertions.assertThrows(
+      RangeCheckException.class,
+      () -> SampleBufferCopy.copyFrames(source, 0L, target, 0L, 51L));
+    Assertions.assertThrows(
+      RangeCheckException.class,
+      () -> SampleBufferCopy.copyFrames(source, 0L, target, -1L, 1L));
+  }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright © 2019 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsamplebuffer.tests.vanilla;
+
+import com.io7m.jsamplebuffer.api.SampleBufferIntegerType;
+import com.io7m.jsamplebuffer.tests.api.SampleBufferIntegerContract;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferInt16;
+
+import java.nio.ByteBuffer;
+import java.util.function.LongFunction;
+
+public final class SampleBufferInt16Test extends SampleBufferIntegerContract
+{
+  @Override
+  protected SampleBufferIntegerType createWithByteBuffer(
+    final int channels,
+    final long frames,
+    final LongFunction<ByteBuffer> create)
+  {
+    return SampleBufferInt16.createWithByteBuffer(
+      channels, frames, 44100.0, create);
+  }
+
+  @Override
+  protected SampleBufferIntegerType createWithDirectBuffer(
+    final int channels,
+    final long frames)
+  {
+    return SampleBufferInt16.createWithDirectBuffer(channels, frames, 44100.0);
+  }
+
+  @Override
+  protected int expectedIntegerBits()
+  {
+    return 16;
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright © 2019 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsamplebuffer.tests.vanilla;
+
+import com.io7m.jsamplebuffer.api.SampleBufferIntegerType;
+import com.io7m.jsamplebuffer.api.SampleBufferSampleFormat;
+import com.io7m.jsamplebuffer.api.SampleBufferStorageType;
+import com.io7m.jsamplebuffer.tests.api.SampleBufferIntegerContract;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferInt24;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.function.LongFunction;
+
+public final class SampleBufferInt24Test extends SampleBufferIntegerContract
+{
+  @Override
+  protected SampleBufferIntegerType createWithByteBuffer(
+    final int channels,
+    final long frames,
+    final LongFunction<ByteBuffer> create)
+  {
+    return SampleBufferInt24.createWithByteBuffer(
+      channels, frames, 44100.0, create);
+  }
+
+  @Override
+  protected SampleBufferIntegerType createWithDirectBuffer(
+    final int channels,
+    final long frames)
+  {
+    return SampleBufferInt24.createWithDirectBuffer(channels, frames, 44100.0);
+  }
+
+  @Override
+  protected int expectedIntegerBits()
+  {
+    return 24;
+  }
+
+  /**
+   * Samples are packed into three octets each, least significant octet
+   * first, with no padding between samples or frames.
+   */
+
+  @Test
+  public void testPackedLittleEndianLayout()
+  {
+    final var buffer =
+      SampleBufferInt24.createWithHeapBuffer(2, 3L, 44100.0);
+    buffer.framesSetIntegers(
+      0L,
+      3,
+      new int[]{0x123456, -2, 1, -8388608, 8388607, 0xabcd},
+      0);
+
+    final var storage = (SampleBufferStorageType) buffer;
+    final var layout = storage.layout();
+    Assertions.assertEquals(
+      SampleBufferSampleFormat.SIGNED_INTEGER_24, layout.format());
+    Assertions.assertEquals(ByteOrder.LITTLE_ENDIAN, layout.byteOrder());
+    Assertions.assertEquals(6, layout.frameStride());
+
+    final var data = storage.storage(0);
+    Assertions.assertEquals(18, data.capacity());
+
+    final var octets = new byte[18];
+    data.get(0, octets);
+    Assertions.assertArrayEquals(
+      new byte[]{
+        (byte) 0x56, (byte) 0x34, (byte) 0x12,
+        (byte) 0xfe, (byte) 0xff, (byte) 0xff,
+        (byte) 0x01, (byte) 0x00, (byte) 0x00,
+        (byte) 0x00, (byte) 0x00, (byte) 0x80,
+        (byte) 0xff, (byte) 0xff, (byte) 0x7f,
+        (byte) 0xcd, (byte) 0xab, (byte) 0x00,
+      },
+      octets);
+  }
+}
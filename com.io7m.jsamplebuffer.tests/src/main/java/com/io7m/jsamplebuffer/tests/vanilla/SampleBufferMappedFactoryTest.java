@@ -0,0 +1,198 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.tests.vanilla;
+
+import com.io7m.jsamplebuffer.api.SampleBufferType;
+import com.io7m.jsamplebuffer.tests.SBTestDirectories;
+import com.io7m.jsamplebuffer.tests.api.SampleBufferContract;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferMappedFactory;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferMappedFile;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferMappedFormat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.OS;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public final class SampleBufferMappedFactoryTest extends SampleBufferContract
+{
+  private Path directory;
+  private SampleBufferMappedFactory factory;
+
+  @BeforeEach
+  public void setup()
+    throws IOException
+  {
+    this.directory =
+      SBTestDirectories.createTempDirectory();
+    this.factory =
+      SampleBufferMappedFactory.create(
+        this.directory, SampleBufferMappedFormat.SAMPLE_DOUBLE);
+  }
+
+  @AfterEach
+  public void tearDown()
+    throws IOException
+  {
+    this.factory.close();
+    SBTestDirectories.deleteDirectory(this.directory);
+  }
+
+  @Override
+  protected SampleBufferType createBuffer(
+    final int channels,
+    final long frames)
+  {
+    return this.factory.createBuffer(channels, frames, 44100.0);
+  }
+
+  @Test
+  public void testCloseDeletesScratchFiles()
+    throws IOException
+  {
+    final var file = this.factory.createFile(2, 100L, 44100.0);
+    Assertions.assertTrue(Files.isRegularFile(file.file()));
+
+    this.factory.close();
+    Assertions.assertTrue(file.isClosed());
+
+    /*
+     * Windows does not permit the deletion of files that are still mapped,
+     * and so deletion is deferred until the virtual machine exits.
+     */
+
+    if (!OS.WINDOWS.isCurrentOs()) {
+      Assertions.assertFalse(Files.exists(file.file()));
+    }
+
+    Assertions.assertThrows(
+      IllegalStateException.class,
+      () -> this.factory.createBuffer(2, 100L, 44100.0));
+  }
+
+  @Test
+  public void testReleaseDeletesScratchFile()
+    throws IOException
+  {
+    final var kept = this.factory.createFile(2, 100L, 44100.0);
+    final var file = this.factory.createFile(2, 100L, 44100.0);
+    Assertions.assertTrue(Files.isRegularFile(file.file()));
+
+    Assertions.assertTrue(this.factory.release(file.buffer()));
+    Assertions.assertTrue(file.isClosed());
+    Assertions.assertFalse(kept.isClosed());
+
+    if (!OS.WINDOWS.isCurrentOs()) {
+      Assertions.assertFalse(Files.exists(file.file()));
+    }
+
+    Assertions.assertFalse(this.factory.release(file.buffer()));
+
+    final var other = this.factory.createBuffer(1, 2L, 44100.0);
+    Assertions.assertFalse(this.factory.release(other.slice(0L, 1L)));
+
+    this.factory.close();
+    Assertions.assertTrue(kept.isClosed());
+  }
+
+  @Test
+  public void testPersistReopen()
+    throws IOException
+  {
+    for (final var format : SampleBufferMappedFormat.values()) {
+      final var path = this.directory.resolve("persist-" + format + ".sbm");
+
+      try (var file = SampleBufferMappedFile.create(path, format, 2, 100L, 48000.0)) {
+        final var buffer = file.buffer();
+        for (var index = 0L; index < 100L; ++index) {
+          buffer.frameSetExact(index, (double) index, (double) -index);
+        }
+        file.force();
+      }
+
+      try (var file = SampleBufferMappedFile.open(path)) {
+        Assertions.assertEquals(format, file.format());
+
+        final var buffer = file.buffer();
+        Assertions.assertEquals(2, buffer.channels());
+        Assertions.assertEquals(100L, buffer.frames());
+        Assertions.assertEquals(48000.0, buffer.sampleRate());
+
+        final var frame = new double[2];
+        for (var index = 0L; index < 100L; ++index) {
+          buffer.frameGetExact(index, frame);
+          Assertions.assertEquals((double) index, frame[0]);
+          Assertions.assertEquals((double) -index, frame[1]);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testForceClosed()
+    throws IOException
+  {
+    final var path = this.directory.resolve("closed.sbm");
+    final var file =
+      SampleBufferMappedFile.create(
+        path, SampleBufferMappedFormat.SAMPLE_FLOAT, 1, 10L, 48000.0);
+
+    file.close();
+    file.close();
+    Assertions.assertThrows(IllegalStateException.class, file::force);
+  }
+
+  @Test
+  public void testOpenNotSampleBuffer()
+    throws IOException
+  {
+    final var path = this.directory.resolve("bad.sbm");
+    Files.write(path, new byte[SampleBufferMappedFile.HEADER_SIZE]);
+
+    final var ex =
+      Assertions.assertThrows(
+        IOException.class,
+        () -> SampleBufferMappedFile.open(path));
+    Assertions.assertTrue(ex.getMessage().contains("magic"));
+  }
+
+  @Test
+  public void testOpenTruncated()
+    throws IOException
+  {
+    final var path = this.directory.resolve("truncated.sbm");
+    try (var file = SampleBufferMappedFile.create(
+      path, SampleBufferMappedFormat.SAMPLE_DOUBLE, 2, 100L, 48000.0)) {
+      file.force();
+    }
+
+    final var data = Files.readAllBytes(path);
+    final var shorter = new byte[data.length - 8];
+    System.arraycopy(data, 0, shorter, 0, shorter.length);
+    Files.write(path, shorter);
+
+    final var ex =
+      Assertions.assertThrows(
+        IOException.class,
+        () -> SampleBufferMappedFile.open(path));
+    Assertions.assertTrue(ex.getMessage().contains("too short"));
+  }
+}
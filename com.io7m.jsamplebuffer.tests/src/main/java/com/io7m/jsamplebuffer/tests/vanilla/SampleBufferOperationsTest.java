@@ -0,0 +1,191 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.tests.vanilla;
+
+import com.io7m.jsamplebuffer.vanilla.SampleBufferDouble;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferFloat;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferKernels;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferOperations;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public final class SampleBufferOperationsTest
+{
+  private SampleBufferOperations operations;
+
+  @BeforeEach
+  public void setup()
+  {
+    this.operations =
+      SampleBufferOperations.createWithKernels(SampleBufferKernels.scalar());
+  }
+
+  @Test
+  public void testPreferredKernels()
+  {
+    Assertions.assertNotNull(SampleBufferKernels.get().name());
+    Assertions.assertSame(
+      SampleBufferKernels.get(),
+      SampleBufferOperations.create().kernels());
+    Assertions.assertEquals("scalar", this.operations.kernels().name());
+  }
+
+  @Test
+  public void testGainClamp()
+  {
+    final var buffer =
+      SampleBufferDouble.createWithHeapBuffer(3, 5000L, 44100.0);
+    for (var index = 0L; index < buffer.frames(); ++index) {
+      buffer.frameSetAll(index, (double) index / 5000.0);
+    }
+
+    this.operations.gain(buffer, 2.0);
+    Assertions.assertEquals(2.0 * 4999.0 / 5000.0, buffer.channelGetExact(2, 4999L));
+
+    this.operations.clamp(buffer, -0.5, 0.5);
+    Assertions.assertEquals(0.5, this.operations.maximum(buffer));
+    Assertions.assertEquals(0.0, this.operations.minimum(buffer));
+    Assertions.assertEquals(0.5, buffer.channelGetExact(0, 4999L));
+    Assertions.assertEquals(0.2, buffer.channelGetExact(1, 500L));
+  }
+
+  @Test
+  public void testMixMultiplySum()
+  {
+    final var target =
+      SampleBufferFloat.createWithHeapBuffer(2, 10000L, 44100.0);
+    final var source =
+      SampleBufferDouble.createWithDirectBuffer(2, 10000L, 44100.0);
+
+    for (var index = 0L; index < target.frames(); ++index) {
+      target.frameSetExact(index, 1.0, -1.0);
+      source.frameSetExact(index, 0.5, 0.25);
+    }
+
+    this.operations.mix(target, source, 2.0);
+    Assertions.assertEquals(2.0, target.channelGetExact(0, 9999L));
+    Assertions.assertEquals(-0.5, target.channelGetExact(1, 9999L));
+    Assertions.assertEquals(15000.0, this.operations.sum(target));
+
+    this.operations.multiply(target, source);
+    Assertions.assertEquals(1.0, target.channelGetExact(0, 0L));
+    Assertions.assertEquals(-0.125, target.channelGetExact(1, 0L));
+    Assertions.assertEquals(8750.0, this.operations.sum(target));
+  }
+
+  @Test
+  public void testFloatStorage()
+  {
+    final var target =
+      SampleBufferFloat.createWithDirectBuffer(2, 10000L, 44100.0);
+    final var source =
+      SampleBufferFloat.createWithHeapBuffer(2, 10000L, 44100.0);
+
+    for (var index = 0L; index < target.frames(); ++index) {
+      target.frameSetExact(index, 1.0, -1.0);
+      source.frameSetExact(index, 0.5, 0.25);
+    }
+
+    this.operations.mix(target, source, 2.0);
+    this.operations.gain(target, 0.5);
+    Assertions.assertEquals(1.0, target.channelGetExact(0, 9999L));
+    Assertions.assertEquals(-0.25, target.channelGetExact(1, 9999L));
+    Assertions.assertEquals(7500.0, this.operations.sum(target));
+
+    this.operations.multiply(target, source);
+    this.operations.clamp(target, -0.0625, 0.25);
+    Assertions.assertEquals(0.25, this.operations.maximum(target));
+    Assertions.assertEquals(-0.0625, this.operations.minimum(target));
+    Assertions.assertEquals(1875.0, this.operations.sum(target));
+  }
+
+  @Test
+  public void testWideFrames()
+  {
+    final var buffer =
+      SampleBufferDouble.createWithHeapBuffer(5000, 3L, 44100.0);
+    buffer.frameSetAll(2L, 3.0);
+    this.operations.gain(buffer, 2.0);
+    Assertions.assertEquals(30000.0, this.operations.sum(buffer));
+  }
+
+  @Test
+  public void testShapeMismatch()
+  {
+    final var target =
+      SampleBufferDouble.createWithHeapBuffer(2, 100L, 44100.0);
+
+    final var ex0 =
+      Assertions.assertThrows(
+        IllegalArgumentException.class,
+        () -> this.operations.mix(
+          target,
+          SampleBufferDouble.createWithHeapBuffer(1, 100L, 44100.0),
+          1.0));
+    Assertions.assertTrue(ex0.getMessage().contains("channel count"));
+
+    final var ex1 =
+      Assertions.assertThrows(
+        IllegalArgumentException.class,
+        () -> this.operations.multiply(
+          target,
+          SampleBufferDouble.createWithHeapBuffer(2, 99L, 44100.0)));
+    Assertions.assertTrue(ex1.getMessage().contains("frame count"));
+  }
+
+  @Test
+  public void testKernelsScalar()
+  {
+    final var kernels = SampleBufferKernels.scalar();
+    final var data = new double[]{9.0, 1.0, -2.0, 3.0, 9.0};
+
+    Assertions.assertEquals(-2.0, kernels.minimum(data, 1, 3));
+    Assertions.assertEquals(3.0, kernels.maximum(data, 1, 3));
+    Assertions.assertEquals(2.0, kernels.sum(data, 1, 3));
+    Assertions.assertEquals(
+      Double.POSITIVE_INFINITY, kernels.minimum(data, 0, 0));
+    Assertions.assertEquals(
+      Double.NEGATIVE_INFINITY, kernels.maximum(data, 0, 0));
+
+    final var floats = new float[3];
+    kernels.convert(data, 1, floats, 0, 3);
+    Assertions.assertArrayEquals(new float[]{1.0f, -2.0f, 3.0f}, floats);
+
+    final var doubles = new double[4];
+    kernels.convert(floats, 0, doubles, 1, 3);
+    Assertions.assertArrayEquals(new double[]{0.0, 1.0, -2.0, 3.0}, doubles);
+
+    Assertions.assertThrows(
+      IndexOutOfBoundsException.class,
+      () -> kernels.gain(data, 3, 3, 1.0));
+    Assertions.assertThrows(
+      IndexOutOfBoundsException.class,
+      () -> kernels.mix(data, 0, new double[2], 0, 3, 1.0));
+
+    Assertions.assertEquals(-2.0f, kernels.minimum(floats, 0, 3));
+    Assertions.assertEquals(3.0f, kernels.maximum(floats, 0, 3));
+    Assertions.assertEquals(2.0, kernels.sum(floats, 0, 3));
+    Assertions.assertEquals(
+      Float.POSITIVE_INFINITY, kernels.minimum(floats, 0, 0));
+    Assertions.assertEquals(
+      Float.NEGATIVE_INFINITY, kernels.maximum(floats, 0, 0));
+    Assertions.assertThrows(
+      IndexOutOfBoundsException.class,
+      () -> kernels.gain(floats, 2, 3, 1.0f));
+  }
+}
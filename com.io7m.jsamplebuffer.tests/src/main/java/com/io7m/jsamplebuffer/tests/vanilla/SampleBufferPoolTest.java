@@ -0,0 +1,216 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.tests.vanilla;
+
+import com.io7m.jsamplebuffer.api.SampleBufferType;
+import com.io7m.jsamplebuffer.tests.api.SampleBufferContract;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferDouble;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferPlanarFloat;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferPool;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferPoolConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public final class SampleBufferPoolTest extends SampleBufferContract
+{
+  private SampleBufferPool pool;
+
+  private static SampleBufferPool createPool(
+    final boolean zeroOnReuse,
+    final int maximumRetained)
+  {
+    return SampleBufferPool.create(
+      new SampleBufferPoolConfiguration(
+        SampleBufferDouble::createWithByteBuffer,
+        false,
+        zeroOnReuse,
+        maximumRetained
+      )
+    );
+  }
+
+  @BeforeEach
+  public void setup()
+  {
+    this.pool = createPool(true, 4);
+  }
+
+  @AfterEach
+  public void tearDown()
+  {
+    this.pool.close();
+  }
+
+  @Override
+  protected SampleBufferType createBuffer(
+    final int channels,
+    final long frames)
+  {
+    return this.pool.createBuffer(channels, frames, 44100.0);
+  }
+
+  @Test
+  public void testReuseCounted()
+  {
+    final var b0 = this.pool.createBuffer(2, 100L, 44100.0);
+    Assertions.assertEquals(0L, this.pool.hits());
+    Assertions.assertEquals(1L, this.pool.misses());
+    Assertions.assertEquals(1, this.pool.leased());
+
+    Assertions.assertTrue(this.pool.release(b0));
+    Assertions.assertFalse(this.pool.release(b0));
+    Assertions.assertEquals(0, this.pool.leased());
+
+    final var b1 = this.pool.createBuffer(2, 100L, 44100.0);
+    Assertions.assertEquals(1L, this.pool.hits());
+    Assertions.assertEquals(1L, this.pool.misses());
+    Assertions.assertEquals(2, b1.channels());
+    Assertions.assertEquals(100L, b1.frames());
+  }
+
+  @Test
+  public void testReuseAcrossSizeClass()
+  {
+    final var b0 = this.pool.createBuffer(2, 1000L, 44100.0);
+    this.pool.release(b0);
+
+    final var b1 = this.pool.createBuffer(1, 1500L, 44100.0);
+    Assertions.assertEquals(1L, this.pool.hits());
+    Assertions.assertEquals(1500L, b1.frames());
+
+    final var b2 = this.pool.createBuffer(1, 100000L, 44100.0);
+    Assertions.assertEquals(1L, this.pool.hits());
+    Assertions.assertEquals(2L, this.pool.misses());
+    Assertions.assertEquals(100000L, b2.frames());
+  }
+
+  @Test
+  public void testZeroOnReuse()
+  {
+    final var b0 = this.pool.createBuffer(1, 100L, 44100.0);
+    for (var index = 0L; index < 100L; ++index) {
+      b0.frameSetExact(index, 1.0);
+    }
+    this.pool.release(b0);
+
+    final var b1 = this.pool.createBuffer(1, 100L, 44100.0);
+    Assertions.assertEquals(1L, this.pool.hits());
+    for (var index = 0L; index < 100L; ++index) {
+      Assertions.assertEquals(0.0, b1.frameGetExact(index));
+    }
+  }
+
+  @Test
+  public void testNoZeroOnReuse()
+  {
+    try (var dirty = createPool(false, 4)) {
+      final var b0 = dirty.createBuffer(1, 100L, 44100.0);
+      b0.frameSetExact(0L, 1.0);
+      dirty.release(b0);
+
+      final var b1 = dirty.createBuffer(1, 100L, 44100.0);
+      Assertions.assertEquals(1.0, b1.frameGetExact(0L));
+    }
+  }
+
+  @Test
+  public void testRetentionLimit()
+  {
+    try (var limited = createPool(false, 1)) {
+      final var b0 = limited.createBuffer(1, 100L, 44100.0);
+      final var b1 = limited.createBuffer(1, 100L, 44100.0);
+      limited.release(b0);
+      limited.release(b1);
+
+      limited.createBuffer(1, 100L, 44100.0);
+      limited.createBuffer(1, 100L, 44100.0);
+      Assertions.assertEquals(1L, limited.hits());
+      Assertions.assertEquals(3L, limited.misses());
+    }
+  }
+
+  @Test
+  public void testReleaseUnknown()
+  {
+    final var other =
+      SampleBufferDouble.createWithHeapBuffer(1, 100L, 44100.0);
+    Assertions.assertFalse(this.pool.release(other));
+  }
+
+  @Test
+  public void testReleaseSlice()
+  {
+    final var b0 = this.pool.createBuffer(2, 100L, 44100.0);
+    Assertions.assertFalse(this.pool.release(b0.slice(0L, 50L)));
+    Assertions.assertEquals(1, this.pool.leased());
+    Assertions.assertTrue(this.pool.release(b0));
+  }
+
+  @Test
+  public void testUnreleasedCollected()
+    throws InterruptedException
+  {
+    this.pool.createBuffer(2, 100L, 44100.0);
+    Assertions.assertEquals(1, this.pool.leased());
+
+    for (var attempt = 0; attempt < 100 && this.pool.leased() > 0; ++attempt) {
+      System.gc();
+      Thread.sleep(10L);
+    }
+    Assertions.assertEquals(0, this.pool.leased());
+  }
+
+  @Test
+  public void testPlanar()
+  {
+    try (var planar = SampleBufferPool.create(
+      new SampleBufferPoolConfiguration(
+        SampleBufferPlanarFloat::createWithByteBuffer,
+        true,
+        false,
+        4
+      ))) {
+      final var b0 = planar.createBuffer(2, 100L, 44100.0);
+      planar.release(b0);
+      final var b1 = planar.createBuffer(2, 100L, 44100.0);
+      Assertions.assertInstanceOf(SampleBufferPlanarFloat.class, b1);
+      Assertions.assertEquals(1L, planar.hits());
+    }
+  }
+
+  @Test
+  public void testClosed()
+  {
+    final var b0 = this.pool.createBuffer(1, 100L, 44100.0);
+    this.pool.close();
+    Assertions.assertTrue(this.pool.release(b0));
+
+    Assertions.assertThrows(
+      IllegalStateException.class,
+      () -> this.pool.createBuffer(1, 100L, 44100.0));
+  }
+
+  @Test
+  public void testConfigurationInvalid()
+  {
+    Assertions.assertThrows(
+      IllegalArgumentException.class,
+      () -> createPool(false, -1));
+  }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.tests.vanilla;
+
+import com.io7m.jranges.RangeCheckException;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferRingFloat;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public final class SampleBufferRingFloatTest
+{
+  @Test
+  public void testCapacityRounded()
+  {
+    Assertions.assertEquals(
+      1, SampleBufferRingFloat.createWithHeapBuffer(1, 1L, 44100.0).capacity());
+    Assertions.assertEquals(
+      8, SampleBufferRingFloat.createWithHeapBuffer(1, 5L, 44100.0).capacity());
+    Assertions.assertEquals(
+      8, SampleBufferRingFloat.createWithHeapBuffer(1, 8L, 44100.0).capacity());
+  }
+
+  @Test
+  public void testCreateInvalid()
+  {
+    Assertions.assertThrows(
+      RangeCheckException.class,
+      () -> SampleBufferRingFloat.createWithHeapBuffer(0, 8L, 44100.0));
+    Assertions.assertThrows(
+      RangeCheckException.class,
+      () -> SampleBufferRingFloat.createWithHeapBuffer(1, 0L, 44100.0));
+    Assertions.assertThrows(
+      IllegalArgumentException.class,
+      () -> SampleBufferRingFloat.createWithHeapBuffer(1, 1L << 31, 44100.0));
+
+    final var ex =
+      Assertions.assertThrows(
+        IllegalStateException.class,
+        () -> SampleBufferRingFloat.createWithByteBuffer(
+          2, 8L, 44100.0, bytes -> ByteBuffer.allocate(10)));
+    Assertions.assertTrue(ex.getMessage().contains("10 octets"));
+  }
+
+  @Test
+  public void testWriteReadWrap()
+  {
+    final var ring =
+      SampleBufferRingFloat.createWithDirectBuffer(2, 4L, 44100.0);
+
+    Assertions.assertEquals(2, ring.channels());
+    Assertions.assertEquals(44100.0, ring.sampleRate());
+    Assertions.assertEquals(0, ring.available());
+
+    final var input = new float[]{0f, 1f, 2f, 3f, 4f, 5f, 6f, 7f, 8f, 9f};
+    Assertions.assertEquals(3, ring.write(3, input, 0));
+    Assertions.assertEquals(3, ring.available());
+
+    final var output = new float[10];
+    Assertions.assertEquals(2, ring.read(2, output, 0));
+    Assertions.assertArrayEquals(
+      new float[]{0f, 1f, 2f, 3f}, Arrays.copyOf(output, 4));
+
+    Assertions.assertEquals(3, ring.write(3, input, 4));
+    Assertions.assertEquals(4, ring.available());
+    Assertions.assertEquals(0, ring.write(1, input, 0));
+
+    Assertions.assertEquals(4, ring.read(5, output, 0));
+    Assertions.assertArrayEquals(
+      new float[]{4f, 5f, 4f, 5f, 6f, 7f, 8f, 9f},
+      Arrays.copyOf(output, 8));
+    Assertions.assertEquals(0, ring.read(1, output, 0));
+  }
+
+  @Test
+  public void testWriteReadDouble()
+  {
+    final var ring =
+      SampleBufferRingFloat.createWithHeapBuffer(1, 4L, 44100.0);
+
+    Assertions.assertEquals(
+      4, ring.write(6, new double[]{1.0, 2.0, 3.0, 4.0, 5.0, 6.0}, 0));
+    final var output = new double[3];
+    Assertions.assertEquals(3, ring.read(3, output, 0));
+    Assertions.assertArrayEquals(new double[]{1.0, 2.0, 3.0}, output);
+    Assertions.assertEquals(3, ring.write(3, new double[]{7.0, 8.0, 9.0}, 0));
+    final var rest = new double[4];
+    Assertions.assertEquals(4, ring.read(4, rest, 0));
+    Assertions.assertArrayEquals(new double[]{4.0, 7.0, 8.0, 9.0}, rest);
+  }
+
+  @Test
+  public void testBounds()
+  {
+    final var ring =
+      SampleBufferRingFloat.createWithHeapBuffer(2, 4L, 44100.0);
+    Assertions.assertThrows(
+      IndexOutOfBoundsException.class,
+      () -> ring.write(2, new float[3], 0));
+    Assertions.assertThrows(
+      IndexOutOfBoundsException.class,
+      () -> ring.read(2, new double[3], 0));
+  }
+
+  @Test
+  public void testClosed()
+    throws Exception
+  {
+    final var ring =
+      SampleBufferRingFloat.createWithHeapBuffer(1, 4L, 44100.0);
+    ring.write(2, new float[]{1f, 2f}, 0);
+    ring.close();
+    Assertions.assertTrue(ring.isClosed());
+
+    Assertions.assertThrows(
+      IllegalStateException.class,
+      () -> ring.write(1, new float[1], 0));
+
+    final var output = new float[4];
+    Assertions.assertEquals(2, ring.readBlocking(4, output, 0));
+    Assertions.assertEquals(0, ring.readBlocking(4, output, 0));
+  }
+
+  @Test
+  @Timeout(value = 60L, unit = TimeUnit.SECONDS)
+  public void testProducerConsumer()
+    throws Exception
+  {
+    final var channels = 2;
+    final var frames = 1_000_000;
+    final var block = 100;
+    final var ring =
+      SampleBufferRingFloat.createWithDirectBuffer(channels, 256L, 44100.0);
+
+    try (var executor = Executors.newSingleThreadExecutor()) {
+      final var producer = executor.submit(() -> {
+        final var input = new float[block * channels];
+        var next = 0;
+        while (next < frames) {
+          for (var index = 0; index < block; ++index) {
+            input[index * 2] = (float) (next + index);
+            input[index * 2 + 1] = (float) -(next + index);
+          }
+          ring.writeBlocking(block, input, 0);
+          next += block;
+        }
+        ring.close();
+        return null;
+      });
+
+      final var output = new float[77 * channels];
+      var expected = 0;
+      while (true) {
+        final var count = ring.readBlocking(77, output, 0);
+        for (var index = 0; index < count; ++index) {
+          Assertions.assertEquals((float) expected, output[index * 2]);
+          Assertions.assertEquals((float) -expected, output[index * 2 + 1]);
+          ++expected;
+        }
+        if (count < 77) {
+          break;
+        }
+      }
+
+      producer.get();
+      Assertions.assertEquals(frames, expected);
+    }
+  }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.tests.vanilla;
+
+import com.io7m.jranges.RangeCheckException;
+import com.io7m.jsamplebuffer.api.SampleBufferType;
+import com.io7m.jsamplebuffer.tests.api.SampleBufferContract;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferSegmentedDouble;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class SampleBufferSegmentedDoubleTest extends SampleBufferContract
+{
+  @Test
+  public void testChannelCountWrong()
+  {
+    final var ex =
+      Assertions.assertThrows(
+        RangeCheckException.class,
+        () -> SampleBufferSegmentedDouble.createWithSegments(
+          -1,
+          100L,
+          44100.0,
+          64,
+          (offset, size) -> ByteBuffer.allocate(size)));
+
+    Assertions.assertTrue(
+      ex.getMessage().contains("Channels"),
+      "Channel range check failed");
+  }
+
+  @Test
+  public void testFrameCountWrong()
+  {
+    final var ex =
+      Assertions.assertThrows(
+        RangeCheckException.class,
+        () -> SampleBufferSegmentedDouble.createWithSegments(
+          2,
+          -1L,
+          44100.0,
+          64,
+          (offset, size) -> ByteBuffer.allocate(size)));
+
+    Assertions.assertTrue(
+      ex.getMessage().contains("Frames"),
+      "Frame range check failed");
+  }
+
+  @Test
+  public void testBufferMisallocation()
+  {
+    final var ex =
+      Assertions.assertThrows(
+        IllegalStateException.class,
+        () -> SampleBufferSegmentedDouble.createWithSegments(
+          2,
+          100L,
+          44100.0,
+          64,
+          (offset, size) -> ByteBuffer.allocate(10)));
+
+    Assertions.assertTrue(
+      ex.getMessage().contains("10 octets"),
+      "Misallocation detected");
+  }
+
+  @Test
+  public void testSegmentTooSmall()
+  {
+    final var ex =
+      Assertions.assertThrows(
+        IllegalArgumentException.class,
+        () -> SampleBufferSegmentedDouble.createWithSegments(
+          4,
+          100L,
+          44100.0,
+          16,
+          (offset, size) -> ByteBuffer.allocate(size)));
+
+    Assertions.assertTrue(
+      ex.getMessage().contains("Segment size"),
+      "Segment size check failed");
+  }
+
+  @Test
+  public void testSegmentLayout()
+  {
+    final var offsets = new ArrayList<Long>();
+    final var sizes = new ArrayList<Integer>();
+
+    final var buffer =
+      SampleBufferSegmentedDouble.createWithSegments(
+        3,
+        10L,
+        44100.0,
+        100,
+        (offset, size) -> {
+          offsets.add(Long.valueOf(offset));
+          sizes.add(Integer.valueOf(size));
+          return ByteBuffer.allocate(size);
+        });
+
+    Assertions.assertEquals(10L, buffer.frames());
+
+    /*
+     * Each frame is 24 octets, so a 100 octet segment holds 4 frames.
+     */
+
+    Assertions.assertEquals(
+      List.of(Long.valueOf(0L), Long.valueOf(96L), Long.valueOf(192L)),
+      offsets);
+    Assertions.assertEquals(
+      List.of(Integer.valueOf(96), Integer.valueOf(96), Integer.valueOf(48)),
+      sizes);
+  }
+
+  @Test
+  public void testFramesAcrossSegments()
+  {
+    final var buffer = this.createBuffer(2, 37L);
+
+    final var input = new double[37 * 2];
+    for (var index = 0; index < input.length; ++index) {
+      input[index] = (double) index;
+    }
+    buffer.framesSetExact(0L, 37, input, 0);
+
+    final var frame = new double[2];
+    for (var index = 0L; index < 37L; ++index) {
+      buffer.frameGetExact(index, frame);
+      Assertions.assertEquals((double) (index * 2L), frame[0]);
+      Assertions.assertEquals((double) (index * 2L + 1L), frame[1]);
+    }
+
+    final var output = new double[30];
+    buffer.channelGetExact(1, 3L, 30, output, 0);
+    for (var index = 0; index < 30; ++index) {
+      Assertions.assertEquals((double) ((index + 3) * 2 + 1), output[index]);
+    }
+  }
+
+  @Test
+  public void testChannelCountWrongHeap()
+  {
+    final var ex =
+      Assertions.assertThrows(
+        RangeCheckException.class,
+        () -> SampleBufferSegmentedDouble.createWithHeapBuffer(
+          -1,
+          100L, 44100.0));
+
+    Assertions.assertTrue(
+      ex.getMessage().contains("Channels"),
+      "Channel range check failed");
+  }
+
+  @Test
+  public void testFrameCountWrongDirect()
+  {
+    final var ex =
+      Assertions.assertThrows(
+        RangeCheckException.class,
+        () -> SampleBufferSegmentedDouble.createWithDirectBuffer(
+          2,
+          -1L, 44100.0));
+
+    Assertions.assertTrue(
+      ex.getMessage().contains("Frames"),
+      "Frame range check failed");
+  }
+
+  /*
+   * Use small segments so that the contract tests cross segment boundaries.
+   */
+
+  @Override
+  protected SampleBufferType createBuffer(
+    final int channels,
+    final long frames)
+  {
+    return SampleBufferSegmentedDouble.createWithSegments(
+      channels,
+      frames,
+      44100.0,
+      Math.multiplyExact(channels, 8 * 4),
+      (offset, size) -> ByteBuffer.allocate(size));
+  }
+
+  @Test
+  public void testCreateHeapStereoSimple()
+  {
+    final var buffer = SampleBufferSegmentedDouble.createWithHeapBuffer(2, 100L, 44100.0);
+    Assertions.assertEquals(2, buffer.channels());
+    Assertions.assertEquals(100L, buffer.frames());
+    Assertions.assertEquals(200L, buffer.samples());
+  }
+
+  @Test
+  public void testCreateDirectStereoSimple()
+  {
+    final var buffer = SampleBufferSegmentedDouble.createWithDirectBuffer(2, 100L, 44100.0);
+    Assertions.assertEquals(2, buffer.channels());
+    Assertions.assertEquals(100L, buffer.frames());
+    Assertions.assertEquals(200L, buffer.samples());
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.tests.vanilla;
+
+import com.io7m.jsamplebuffer.api.SampleBufferType;
+import com.io7m.jsamplebuffer.tests.api.SampleBufferContract;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferSegmentedDouble;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Run the contract against views produced by the default
+ * {@link SampleBufferType#slice(long, long)} implementation, sliced from the
+ * middle of larger buffers.
+ */
+
+public final class SampleBufferSliceTest extends SampleBufferContract
+{
+  @Override
+  protected SampleBufferType createBuffer(
+    final int channels,
+    final long frames)
+  {
+    /*
+     * Invalid frame counts are passed through to the parent so that the
+     * contract sees the usual creation errors.
+     */
+
+    if (frames < 1L) {
+      return createParent(channels, frames);
+    }
+    return createParent(channels, frames + 20L).slice(10L, frames);
+  }
+
+  private static SampleBufferType createParent(
+    final int channels,
+    final long frames)
+  {
+    return SampleBufferSegmentedDouble.createWithSegments(
+      channels,
+      frames,
+      44100.0,
+      Math.multiplyExact(channels, 8 * 16),
+      (offset, size) -> ByteBuffer.allocate(size));
+  }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.tests.vanilla;
+
+import com.io7m.jsamplebuffer.api.SampleBufferInterleaving;
+import com.io7m.jsamplebuffer.api.SampleBufferSampleFormat;
+import com.io7m.jsamplebuffer.api.SampleBufferStorageType;
+import com.io7m.jsamplebuffer.api.SampleBufferType;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferDouble;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferFloat;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferFloat16;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferInt16;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferInt24;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferPlanarDouble;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferPlanarFloat;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferSegmentedDouble;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ReadOnlyBufferException;
+import java.util.function.LongFunction;
+import java.util.stream.Stream;
+
+public final class SampleBufferStorageTest
+{
+  private record Case(
+    String name,
+    LongFunction<SampleBufferType> create,
+    SampleBufferSampleFormat format,
+    SampleBufferInterleaving interleaving)
+  {
+
+  }
+
+  private static Stream<Case> cases()
+  {
+    return Stream.of(
+      new Case(
+        "Double",
+        f -> SampleBufferDouble.createWithHeapBuffer(3, f, 44100.0),
+        SampleBufferSampleFormat.FLOAT_64,
+        SampleBufferInterleaving.INTERLEAVED),
+      new Case(
+        "Float",
+        f -> SampleBufferFloat.createWithDirectBuffer(3, f, 44100.0),
+        SampleBufferSampleFormat.FLOAT_32,
+        SampleBufferInterleaving.INTERLEAVED),
+      new Case(
+        "Float16",
+        f -> SampleBufferFloat16.createWithHeapBuffer(3, f, 44100.0),
+        SampleBufferSampleFormat.FLOAT_16,
+        SampleBufferInterleaving.INTERLEAVED),
+      new Case(
+        "Int16",
+        f -> SampleBufferInt16.createWithHeapBuffer(3, f, 44100.0),
+        SampleBufferSampleFormat.SIGNED_INTEGER_16,
+        SampleBufferInterleaving.INTERLEAVED),
+      new Case(
+        "Int24",
+        f -> SampleBufferInt24.createWithHeapBuffer(3, f, 44100.0),
+        SampleBufferSampleFormat.SIGNED_INTEGER_24,
+        SampleBufferInterleaving.INTERLEAVED),
+      new Case(
+        "PlanarDouble",
+        f -> SampleBufferPlanarDouble.createWithHeapBuffer(3, f, 44100.0),
+        SampleBufferSampleFormat.FLOAT_64,
+        SampleBufferInterleaving.PLANAR),
+      new Case(
+        "PlanarFloat",
+        f -> SampleBufferPlanarFloat.createWithDirectBuffer(3, f, 44100.0),
+        SampleBufferSampleFormat.FLOAT_32,
+        SampleBufferInterleaving.PLANAR)
+    );
+  }
+
+  /**
+   * Decode a sample directly from exposed storage.
+   */
+
+  private static double sampleOf(
+    final SampleBufferStorageType buffer,
+    final long frame,
+    final int channel)
+  {
+    final var layout = buffer.layout();
+    final var planar =
+      layout.interleaving() == SampleBufferInterleaving.PLANAR;
+    final var storage = buffer.storage(planar ? channel : 0);
+    final var size = layout.format().sampleSize();
+    final var offset =
+      (int) frame * layout.frameStride() + (planar ? 0 : channel * size);
+
+    return switch (layout.format()) {
+      case FLOAT_64 -> storage.getDouble(offset);
+      case FLOAT_32 -> (double) storage.getFloat(offset);
+      case FLOAT_16 -> (double) Float.float16ToFloat(storage.getShort(offset));
+      case SIGNED_INTEGER_16 -> (double) storage.getShort(offset) / 32768.0;
+      case SIGNED_INTEGER_24 -> {
+        final var b0 = storage.get(offset) & 0xff;
+        final var b1 = storage.get(offset + 1) & 0xff;
+        final var b2 = (int) storage.get(offset + 2);
+        yield (double) ((b2 << 16) | (b1 << 8) | b0) / 8388608.0;
+      }
+    };
+  }
+
+  @TestFactory
+  public Stream<DynamicTest> testStorage()
+  {
+    return cases().map(c -> DynamicTest.dynamicTest(
+      "testStorage_" + c.name(),
+      () -> {
+        final var buffer = (SampleBufferStorageType) c.create().apply(100L);
+        final var layout = buffer.layout();
+        final var blocks =
+          c.interleaving() == SampleBufferInterleaving.PLANAR ? 3 : 1;
+
+        Assertions.assertEquals(c.format(), layout.format());
+        Assertions.assertEquals(c.interleaving(), layout.interleaving());
+        Assertions.assertEquals(blocks, buffer.storageBlocks());
+        Assertions.assertEquals(
+          c.format().sampleSize() * (blocks == 1 ? 3 : 1),
+          layout.frameStride());
+
+        for (var block = 0; block < blocks; ++block) {
+          final var storage = buffer.storage(block);
+          Assertions.assertTrue(storage.isReadOnly());
+          Assertions.assertEquals(0, storage.position());
+          Assertions.assertEquals(100 * layout.frameStride(), storage.limit());
+          Assertions.assertEquals(layout.byteOrder(), storage.order());
+          Assertions.assertThrows(
+            ReadOnlyBufferException.class,
+            () -> storage.put(0, (byte) 1));
+        }
+
+        Assertions.assertThrows(
+          IndexOutOfBoundsException.class,
+          () -> buffer.storage(blocks));
+        Assertions.assertThrows(
+          IndexOutOfBoundsException.class,
+          () -> buffer.storage(-1));
+
+        final var writable = (SampleBufferType) buffer;
+        writable.frameSetExact(57L, new double[]{0.5, -0.25, 0.125});
+        Assertions.assertEquals(0.5, sampleOf(buffer, 57L, 0));
+        Assertions.assertEquals(-0.25, sampleOf(buffer, 57L, 1));
+        Assertions.assertEquals(0.125, sampleOf(buffer, 57L, 2));
+
+        final var slice =
+          (SampleBufferStorageType) writable.slice(50L, 10L);
+        Assertions.assertEquals(layout, slice.layout());
+        Assertions.assertEquals(
+          10 * layout.frameStride(), slice.storage(0).capacity());
+        Assertions.assertEquals(-0.25, sampleOf(slice, 7L, 1));
+      }));
+  }
+
+  @Test
+  public void testInt24LittleEndian()
+  {
+    final var buffer =
+      (SampleBufferStorageType) SampleBufferInt24.createWithHeapBuffer(
+        1, 4L, 44100.0);
+    Assertions.assertEquals(ByteOrder.LITTLE_ENDIAN, buffer.layout().byteOrder());
+
+    ((SampleBufferType) buffer).frameSetExact(0L, 0.5);
+    final ByteBuffer storage = buffer.storage(0);
+    Assertions.assertEquals(0x00, storage.get(0) & 0xff);
+    Assertions.assertEquals(0x00, storage.get(1) & 0xff);
+    Assertions.assertEquals(0x40, storage.get(2) & 0xff);
+  }
+
+  @Test
+  public void testSegmentedNotExposed()
+  {
+    Assertions.assertFalse(
+      SampleBufferSegmentedDouble.createWithHeapBuffer(1, 4L, 44100.0)
+        instanceof SampleBufferStorageType);
+  }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.tests.vector;
+
+import com.io7m.jsamplebuffer.vanilla.SampleBufferKernels;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferKernelsType;
+import com.io7m.jsamplebuffer.vector.SampleBufferKernelsVector;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public final class SampleBufferKernelsVectorTest
+{
+  private static final int[] LENGTHS = {0, 1, 3, 7, 8, 15, 16, 33, 1000};
+  private static final int[] OFFSETS = {0, 1, 5};
+
+  private final SampleBufferKernelsType scalar =
+    SampleBufferKernels.scalar();
+  private final SampleBufferKernelsType vector =
+    new SampleBufferKernelsVector();
+
+  private static double[] random(
+    final Random random,
+    final int size)
+  {
+    final var data = new double[size];
+    for (var index = 0; index < size; ++index) {
+      data[index] = (random.nextDouble() * 4.0) - 2.0;
+    }
+    return data;
+  }
+
+  private static float[] randomFloats(
+    final Random random,
+    final int size)
+  {
+    final var data = new float[size];
+    for (var index = 0; index < size; ++index) {
+      data[index] = (random.nextFloat() * 4.0f) - 2.0f;
+    }
+    return data;
+  }
+
+  @Test
+  public void testPreferred()
+  {
+    Assertions.assertInstanceOf(
+      SampleBufferKernelsVector.class, SampleBufferKernels.get());
+    Assertions.assertTrue(this.vector.name().startsWith("vector-"));
+  }
+
+  @Test
+  public void testElementwiseIdentical()
+  {
+    final var random = new Random(0x5eedL);
+
+    for (final var offset : OFFSETS) {
+      for (final var length : LENGTHS) {
+        final var size = offset + length + 3;
+        final var source = random(random, size);
+        final var target = random(random, size);
+
+        final var s0 = target.clone();
+        final var v0 = target.clone();
+        this.scalar.gain(s0, offset, length, 0.75);
+        this.vector.gain(v0, offset, length, 0.75);
+        Assertions.assertArrayEquals(s0, v0);
+
+        this.scalar.mix(s0, offset, source, 2, length, -1.5);
+        this.vector.mix(v0, offset, source, 2, length, -1.5);
+        Assertions.assertArrayEquals(s0, v0);
+
+        this.scalar.multiply(s0, offset, source, 1, length);
+        this.vector.multiply(v0, offset, source, 1, length);
+        Assertions.assertArrayEquals(s0, v0);
+
+        this.scalar.clamp(s0, offset, length, -1.0, 1.0);
+        this.vector.clamp(v0, offset, length, -1.0, 1.0);
+        Assertions.assertArrayEquals(s0, v0);
+
+        Assertions.assertEquals(
+          this.scalar.minimum(s0, offset, length),
+          this.vector.minimum(v0, offset, length));
+        Assertions.assertEquals(
+          this.scalar.maximum(s0, offset, length),
+          this.vector.maximum(v0, offset, length));
+        Assertions.assertEquals(
+          this.scalar.sum(s0, offset, length),
+          this.vector.sum(v0, offset, length),
+          1.0e-9);
+      }
+    }
+  }
+
+  @Test
+  public void testElementwiseIdenticalFloat()
+  {
+    final var random = new Random(0x5eedL);
+
+    for (final var offset : OFFSETS) {
+      for (final var length : LENGTHS) {
+        final var size = offset + length + 3;
+        final var source = randomFloats(random, size);
+        final var target = randomFloats(random, size);
+
+        final var s0 = target.clone();
+        final var v0 = target.clone();
+        this.scalar.gain(s0, offset, length, 0.75f);
+        this.vector.gain(v0, offset, length, 0.75f);
+        Assertions.assertArrayEquals(s0, v0);
+
+        this.scalar.mix(s0, offset, source, 2, length, -1.5f);
+        this.vector.mix(v0, offset, source, 2, length, -1.5f);
+        Assertions.assertArrayEquals(s0, v0);
+
+        this.scalar.multiply(s0, offset, source, 1, length);
+        this.vector.multiply(v0, offset, source, 1, length);
+        Assertions.assertArrayEquals(s0, v0);
+
+        this.scalar.clamp(s0, offset, length, -1.0f, 1.0f);
+        this.vector.clamp(v0, offset, length, -1.0f, 1.0f);
+        Assertions.assertArrayEquals(s0, v0);
+
+        Assertions.assertEquals(
+          this.scalar.minimum(s0, offset, length),
+          this.vector.minimum(v0, offset, length));
+        Assertions.assertEquals(
+          this.scalar.maximum(s0, offset, length),
+          this.vector.maximum(v0, offset, length));
+        Assertions.assertEquals(
+          this.scalar.sum(s0, offset, length),
+          this.vector.sum(v0, offset, length),
+          1.0e-9);
+      }
+    }
+  }
+
+  @Test
+  public void testConvertIdentical()
+  {
+    final var random = new Random(0x5eedL);
+
+    for (final var offset : OFFSETS) {
+      for (final var length : LENGTHS) {
+        final var size = offset + length + 3;
+        final var doubles = random(random, size);
+
+        final var f0 = new float[size];
+        final var f1 = new float[size];
+        this.scalar.convert(doubles, offset, f0, 2, length);
+        this.vector.convert(doubles, offset, f1, 2, length);
+        Assertions.assertArrayEquals(f0, f1);
+
+        final var d0 = new double[size];
+        final var d1 = new double[size];
+        this.scalar.convert(f0, 2, d0, offset, length);
+        this.vector.convert(f1, 2, d1, offset, length);
+        Assertions.assertArrayEquals(d0, d1);
+      }
+    }
+  }
+
+  @Test
+  public void testSpecialValues()
+  {
+    final var data = new double[64];
+    Arrays.fill(data, -0.0);
+    data[17] = Double.NaN;
+
+    final var s0 = data.clone();
+    final var v0 = data.clone();
+    this.scalar.clamp(s0, 0, 64, 0.0, 1.0);
+    this.vector.clamp(v0, 0, 64, 0.0, 1.0);
+    Assertions.assertArrayEquals(s0, v0);
+
+    Assertions.assertEquals(
+      this.scalar.minimum(data, 0, 64), this.vector.minimum(data, 0, 64));
+    Assertions.assertEquals(
+      this.scalar.maximum(data, 0, 64), this.vector.maximum(data, 0, 64));
+  }
+
+  @Test
+  public void testBounds()
+  {
+    Assertions.assertThrows(
+      IndexOutOfBoundsException.class,
+      () -> this.vector.gain(new double[4], 2, 3, 1.0));
+    Assertions.assertThrows(
+      IndexOutOfBoundsException.class,
+      () -> this.vector.convert(new double[4], 0, new float[3], 0, 4));
+    Assertions.assertThrows(
+      IndexOutOfBoundsException.class,
+      () -> this.vector.sum(new double[4], -1, 2));
+  }
+}
@@ -0,0 +1,975 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsamplebuffer.tests.xmedia;
+
+import com.io7m.jsamplebuffer.api.SampleBufferIntegerType;
+import com.io7m.jsamplebuffer.api.SampleBufferType;
+import com.io7m.jsamplebuffer.tests.SBTestDirectories;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferDouble;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferFloat;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferInt16;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferPlanarFloat;
+import com.io7m.jsamplebuffer.xmedia.SXMAudioFileInfo;
+import com.io7m.jsamplebuffer.xmedia.SXMFrameBlockConsumerType;
+import com.io7m.jsamplebuffer.xmedia.SXMSampleBuffers;
+import com.io7m.jsamplebuffer.xmedia.internal.SXMAudioFiles;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class SXMAudioFilesTest
+{
+  private Path directory;
+
+  @BeforeEach
+  public void setup()
+    throws IOException
+  {
+    this.directory = SBTestDirectories.createTempDirectory();
+  }
+
+  @AfterEach
+  public void tearDown()
+    throws IOException
+  {
+    SBTestDirectories.deleteDirectory(this.directory);
+  }
+
+  private List<String> files(
+    final String suffix)
+    throws IOException
+  {
+    return Stream.concat(
+        SBTestDirectories.resourceStringOf(
+          SXMAudioFilesTest.class, this.directory, "monos.txt").lines(),
+        SBTestDirectories.resourceStringOf(
+          SXMAudioFilesTest.class, this.directory, "stereos.txt").lines())
+      .filter(name -> name.endsWith(suffix))
+      .toList();
+  }
+
+  /**
+   * @return All of the test files that can be read directly
+   */
+
+  private List<String> directFiles()
+    throws IOException
+  {
+    return this.files("")
+      .stream()
+      .filter(name -> name.endsWith(".wav")
+                      || name.endsWith("_be.aiff")
+                      || (name.endsWith(".au") && !name.contains("_8u_")))
+      .toList();
+  }
+
+  /**
+   * WAVE files read directly produce exactly the same samples as WAVE files
+   * read through javax.sound.sampled. Big-endian RIFX files, which
+   * javax.sound.sampled cannot read, produce the same samples as their
+   * little-endian counterparts.
+   *
+   * @return The tests
+   *
+   * @throws IOException On errors
+   */
+
+  @TestFactory
+  public Stream<DynamicTest> testWaveFilesMatchAudioSystem()
+    throws IOException
+  {
+    final var files = this.files(".wav");
+    Assertions.assertTrue(files.size() > 20);
+
+    return files.stream()
+      .map(name -> DynamicTest.dynamicTest(name, () -> this.checkFile(name)));
+  }
+
+  /**
+   * AIFF files read directly produce exactly the same samples as AIFF files
+   * read through javax.sound.sampled.
+   *
+   * @return The tests
+   *
+   * @throws IOException On errors
+   */
+
+  @TestFactory
+  public Stream<DynamicTest> testAiffFilesMatchAudioSystem()
+    throws IOException
+  {
+    final var files =
+      this.files(".aiff")
+        .stream()
+        .filter(name -> name.endsWith("_be.aiff"))
+        .toList();
+    Assertions.assertTrue(files.size() > 20);
+
+    return files.stream()
+      .map(name -> DynamicTest.dynamicTest(name, () -> this.checkFile(name)));
+  }
+
+  /**
+   * AU files read directly produce exactly the same samples as AU files
+   * read through javax.sound.sampled. Little-endian AU files, which
+   * javax.sound.sampled cannot read, produce the same samples as their
+   * big-endian counterparts.
+   *
+   * @return The tests
+   *
+   * @throws IOException On errors
+   */
+
+  @TestFactory
+  public Stream<DynamicTest> testAuFilesMatchAudioSystem()
+    throws IOException
+  {
+    final var files =
+      this.files(".au")
+        .stream()
+        .filter(name -> !name.contains("_8u_"))
+        .toList();
+    Assertions.assertTrue(files.size() > 20);
+
+    return files.stream()
+      .map(name -> DynamicTest.dynamicTest(name, () -> this.checkFile(name)));
+  }
+
+  /**
+   * Files in formats that are not read directly are passed to
+   * javax.sound.sampled.
+   *
+   * @throws IOException On errors
+   */
+
+  @Test
+  public void testUnsupportedFallsBack()
+    throws IOException
+  {
+    final var file = this.resource("sine_mono_8u_be.au");
+
+    Assertions.assertThrows(
+      UnsupportedAudioFileException.class,
+      () -> SXMSampleBuffers.readSampleBufferFromFile(
+        file, SampleBufferDouble::createWithHeapBuffer));
+  }
+
+  private void checkFile(
+    final String name)
+    throws Exception
+  {
+    final var file = this.resource(name);
+
+    final var received =
+      SXMSampleBuffers.readSampleBufferFromFile(
+        file, SampleBufferDouble::createWithHeapBuffer);
+
+    assertEquals(1200L, received.frames());
+    assertEquals(48000.0, received.sampleRate());
+
+    final var counterpart = counterpartOf(name);
+    final SampleBufferType expected;
+    if (counterpart != null) {
+      expected =
+        SXMSampleBuffers.readSampleBufferFromFile(
+          this.resource(counterpart),
+          SampleBufferDouble::createWithHeapBuffer);
+    } else {
+      try (var stream = AudioSystem.getAudioInputStream(file.toFile())) {
+        expected =
+          SXMSampleBuffers.readSampleBufferFromStream(
+            stream, SampleBufferDouble::createWithHeapBuffer);
+      }
+    }
+
+    assertEquals(expected.channels(), received.channels());
+    assertEquals(expected.frames(), received.frames());
+
+    final var channels = expected.channels();
+    final var expectedFrames = new double[channels * 1200];
+    final var receivedFrames = new double[channels * 1200];
+    expected.framesGetExact(0L, 1200, expectedFrames, 0);
+    received.framesGetExact(0L, 1200, receivedFrames, 0);
+
+    /*
+     * The big-endian and little-endian files were produced separately and
+     * have been dithered differently.
+     */
+
+    final var delta = counterpart != null ? 0.02 : 0.0;
+    Assertions.assertArrayEquals(expectedFrames, receivedFrames, delta);
+  }
+
+  /**
+   * @return The file in the opposite byte order that javax.sound.sampled
+   *         can read, for files that javax.sound.sampled cannot read
+   */
+
+  private static String counterpartOf(
+    final String name)
+  {
+    if (name.endsWith("_be.wav")) {
+      return name.replace("_be.wav", "_le.wav");
+    }
+    if (name.endsWith("_le.au")) {
+      return name.replace("_le.au", "_be.au");
+    }
+    return null;
+  }
+
+  private Path resource(
+    final String name)
+    throws IOException
+  {
+    final var file = this.directory.resolve(name);
+    if (Files.exists(file)) {
+      return file;
+    }
+    return SBTestDirectories.resourceOf(
+      SXMAudioFilesTest.class, this.directory, name);
+  }
+
+  /**
+   * Unknown chunks are skipped, including their padding octets, and a data
+   * chunk that claims to be larger than the file is truncated to the frames
+   * that are present.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testWaveTruncatedData()
+    throws Exception
+  {
+    final var data = ByteBuffer.allocate(64).order(ByteOrder.LITTLE_ENDIAN);
+    data.put("RIFF".getBytes(StandardCharsets.US_ASCII));
+    data.putInt(1000);
+    data.put("WAVE".getBytes(StandardCharsets.US_ASCII));
+
+    data.put("junk".getBytes(StandardCharsets.US_ASCII));
+    data.putInt(3);
+    data.put(new byte[4]);
+
+    data.put("fmt ".getBytes(StandardCharsets.US_ASCII));
+    data.putInt(16);
+    data.putShort((short) 1);
+    data.putShort((short) 1);
+    data.putInt(8000);
+    data.putInt(16000);
+    data.putShort((short) 2);
+    data.putShort((short) 16);
+
+    data.put("data".getBytes(StandardCharsets.US_ASCII));
+    data.putInt(1000);
+    data.putShort(Short.MIN_VALUE);
+    data.putShort((short) 0);
+    data.putShort((short) 16384);
+    data.put((byte) 0x7f);
+
+    final var file = this.directory.resolve("truncated.wav");
+    Files.write(file, Arrays.copyOf(data.array(), data.position()));
+
+    final var buffer =
+      SXMSampleBuffers.readSampleBufferFromFile(
+        file, SampleBufferDouble::createWithHeapBuffer);
+
+    assertEquals(3L, buffer.frames());
+    assertEquals(1, buffer.channels());
+    assertEquals(8000.0, buffer.sampleRate());
+    assertEquals(-1.0, buffer.frameGetExact(0L));
+    assertEquals(0.0, buffer.frameGetExact(1L));
+    assertEquals(0.5, buffer.frameGetExact(2L));
+  }
+
+  /**
+   * RF64 files record the size of the data chunk in the ds64 chunk.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testWaveRF64()
+    throws Exception
+  {
+    final var data = ByteBuffer.allocate(96).order(ByteOrder.LITTLE_ENDIAN);
+    data.put("RF64".getBytes(StandardCharsets.US_ASCII));
+    data.putInt(0xffffffff);
+    data.put("WAVE".getBytes(StandardCharsets.US_ASCII));
+
+    data.put("ds64".getBytes(StandardCharsets.US_ASCII));
+    data.putInt(28);
+    data.putLong(66L);
+    data.putLong(6L);
+    data.putLong(3L);
+    data.putInt(0);
+
+    data.put("fmt ".getBytes(StandardCharsets.US_ASCII));
+    data.putInt(16);
+    data.putShort((short) 1);
+    data.putShort((short) 1);
+    data.putInt(8000);
+    data.putInt(16000);
+    data.putShort((short) 2);
+    data.putShort((short) 16);
+
+    data.put("data".getBytes(StandardCharsets.US_ASCII));
+    data.putInt(0xffffffff);
+    data.putShort(Short.MIN_VALUE);
+    data.putShort((short) 0);
+    data.putShort((short) 16384);
+
+    data.put("junk".getBytes(StandardCharsets.US_ASCII));
+    data.putInt(2);
+    data.putShort((short) 0x7f7f);
+
+    final var file = this.directory.resolve("rf64.wav");
+    Files.write(file, Arrays.copyOf(data.array(), data.position()));
+
+    final var info = SXMSampleBuffers.probeFile(file);
+    assertEquals(3L, info.frames());
+
+    final var buffer =
+      SXMSampleBuffers.readSampleBufferFromFile(
+        file, SampleBufferDouble::createWithHeapBuffer);
+
+    assertEquals(3L, buffer.frames());
+    assertEquals(1, buffer.channels());
+    assertEquals(8000.0, buffer.sampleRate());
+    assertEquals(-1.0, buffer.frameGetExact(0L));
+    assertEquals(0.0, buffer.frameGetExact(1L));
+    assertEquals(0.5, buffer.frameGetExact(2L));
+  }
+
+  /**
+   * Large files decoded in parallel produce exactly the same samples as
+   * files decoded sequentially, using more than one task.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testParallelMatchesSequential()
+    throws Exception
+  {
+    final var frames = 300_001;
+    final var file = this.largeWave(frames);
+    final var tasks = new AtomicInteger();
+    final Executor executor = task -> {
+      tasks.incrementAndGet();
+      ForkJoinPool.commonPool().execute(task);
+    };
+
+    final var expected =
+      SXMSampleBuffers.readSampleBufferFromFile(
+        file, SampleBufferDouble::createWithHeapBuffer);
+    final var received =
+      SXMSampleBuffers.readSampleBufferFromFile(
+        file, SampleBufferDouble::createWithHeapBuffer, executor);
+
+    Assertions.assertTrue(tasks.get() > 1);
+    assertEquals((long) frames, received.frames());
+    assertEquals(2, received.channels());
+
+    final var expectedFrames = new double[frames * 2];
+    final var receivedFrames = new double[frames * 2];
+    expected.framesGetExact(0L, frames, expectedFrames, 0);
+    received.framesGetExact(0L, frames, receivedFrames, 0);
+    Assertions.assertArrayEquals(expectedFrames, receivedFrames);
+
+    final var integers =
+      (SampleBufferIntegerType) SXMSampleBuffers.readSampleBufferFromFile(
+        file, SampleBufferInt16::createWithHeapBuffer, executor);
+    final var receivedIntegers = new int[frames * 2];
+    integers.framesGetIntegers(0L, frames, receivedIntegers, 0);
+    for (var index = 0; index < receivedIntegers.length; ++index) {
+      assertEquals(
+        expectedFrames[index],
+        (double) receivedIntegers[index] / 32768.0);
+    }
+  }
+
+  /**
+   * Files mapped in several regions produce exactly the same samples as
+   * files mapped in a single region, including when blocks straddle the
+   * boundaries between regions.
+   *
+   * @return The tests
+   *
+   * @throws Exception On errors
+   */
+
+  @TestFactory
+  public Stream<DynamicTest> testMappedRegionsMatchSingleMapping()
+    throws Exception
+  {
+    final var frames = 50_001;
+    final var file = this.largeWave(frames);
+    final var expected =
+      SXMSampleBuffers.readSampleBufferFromFile(
+        file, SampleBufferDouble::createWithHeapBuffer);
+    final var expectedFrames = new double[frames * 2];
+    expected.framesGetExact(0L, frames, expectedFrames, 0);
+
+    /*
+     * A block is 1024 frames of 4 octets. The region sizes are chosen so
+     * that a block spans several regions, so that regions are not a
+     * multiple of the block size, and so that the region size is not a
+     * multiple of the frame size.
+     */
+
+    return Stream.of(4L, 4000L, 4001L, 20_004L, 65_536L)
+      .map(regionSize -> DynamicTest.dynamicTest(
+        "region" + regionSize, () -> {
+          try (var channel = FileChannel.open(file)) {
+            final var received =
+              SXMAudioFiles.readSampleBuffer(
+                  channel,
+                  SampleBufferDouble::createWithHeapBuffer,
+                  regionSize.longValue())
+                .orElseThrow();
+
+            assertEquals((long) frames, received.frames());
+            final var receivedFrames = new double[frames * 2];
+            received.framesGetExact(0L, frames, receivedFrames, 0);
+            Assertions.assertArrayEquals(expectedFrames, receivedFrames);
+          }
+        }));
+  }
+
+  /**
+   * If the executor rejects a range, the tasks that were already submitted
+   * have finished by the time the exception is propagated.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testParallelRejectedWaits()
+    throws Exception
+  {
+    final var file = this.largeWave(300_001);
+    final var submitted = new AtomicInteger();
+    final var ran = new AtomicInteger();
+    final Executor executor = task -> {
+      if (submitted.get() > 0) {
+        throw new RejectedExecutionException("Rejected");
+      }
+      submitted.incrementAndGet();
+      ForkJoinPool.commonPool().execute(() -> {
+        try {
+          Thread.sleep(100L);
+        } catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        ran.incrementAndGet();
+        task.run();
+      });
+    };
+
+    /*
+     * The submitted task is delayed, so it can only have run by the time
+     * the exception is received if the decoder waited for it. The task's
+     * future completes inside task.run(), so the count is taken before the
+     * task runs rather than after.
+     */
+
+    Assertions.assertThrows(RejectedExecutionException.class, () -> {
+      SXMSampleBuffers.readSampleBufferFromFile(
+        file, SampleBufferDouble::createWithHeapBuffer, executor);
+    });
+    assertEquals(1, submitted.get());
+    assertEquals(1, ran.get());
+  }
+
+  /**
+   * Small files are decoded on the calling thread even if an executor is
+   * given.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testParallelSmallSequential()
+    throws Exception
+  {
+    final var file = this.resource("sine_stereo_16s_le.wav");
+    final Executor executor = task -> {
+      throw new IllegalStateException("Unexpected task");
+    };
+
+    final var received =
+      SXMSampleBuffers.readSampleBufferFromFile(
+        file, SampleBufferDouble::createWithHeapBuffer, executor);
+    assertEquals(1200L, received.frames());
+  }
+
+  /**
+   * Files opened without decoding produce exactly the same samples as files
+   * decoded into buffers, through every read operation.
+   *
+   * @return The tests
+   *
+   * @throws IOException On errors
+   */
+
+  @TestFactory
+  public Stream<DynamicTest> testOpenedMatchesDecoded()
+    throws IOException
+  {
+    final var files = this.directFiles();
+    Assertions.assertTrue(files.size() > 100);
+
+    return files.stream()
+      .map(name -> DynamicTest.dynamicTest(name, () -> {
+        this.checkOpened(this.resource(name));
+      }));
+  }
+
+  /**
+   * Large files opened without decoding produce exactly the same samples as
+   * files decoded into buffers.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testOpenedLarge()
+    throws Exception
+  {
+    this.checkOpened(this.largeWave(300_001));
+  }
+
+  /**
+   * Files in formats that cannot be opened directly are rejected.
+   *
+   * @throws IOException On errors
+   */
+
+  @Test
+  public void testOpenedUnsupported()
+    throws IOException
+  {
+    final var file = this.resource("sine_mono_8u_be.au");
+
+    Assertions.assertThrows(
+      UnsupportedAudioFileException.class,
+      () -> SXMSampleBuffers.openSampleBufferFromFile(file));
+  }
+
+  /**
+   * Probing a file produces the same format and length as decoding it.
+   *
+   * @return The tests
+   *
+   * @throws IOException On errors
+   */
+
+  @TestFactory
+  public Stream<DynamicTest> testProbeMatchesDecoded()
+    throws IOException
+  {
+    final var files = this.directFiles();
+
+    return files.stream()
+      .map(name -> DynamicTest.dynamicTest(name, () -> {
+        final var file = this.resource(name);
+        final var info = SXMSampleBuffers.probeFile(file);
+        final var buffer =
+          SXMSampleBuffers.readSampleBufferFromFile(
+            file, SampleBufferDouble::createWithHeapBuffer);
+
+        assertEquals(file, info.file());
+        assertEquals(buffer.channels(), info.channels());
+        assertEquals(buffer.frames(), info.frames());
+        assertEquals(buffer.sampleRate(), info.sampleRate());
+      }));
+  }
+
+  /**
+   * Probing a directory reports every audio file in the directory and its
+   * subdirectories, in order, and skips files that are not audio files or
+   * that cannot be read.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testProbeDirectory()
+    throws Exception
+  {
+    final var root = this.directory.resolve("probe");
+    final var nested = root.resolve("nested");
+    Files.createDirectories(nested);
+
+    Files.copy(
+      this.resource("sine_stereo_16s_le.wav"),
+      root.resolve("a.wav"));
+    Files.copy(
+      this.resource("sine_mono_24s_be.aiff"),
+      nested.resolve("b.aiff"));
+    Files.copy(
+      this.resource("sine_mono_8u_be.au"),
+      root.resolve("c.au"));
+    Files.writeString(root.resolve("d.txt"), "Not audio.");
+
+    final var truncated = Files.readAllBytes(this.resource("sine_stereo_16s_le.wav"));
+    Files.write(root.resolve("e.wav"), Arrays.copyOf(truncated, 40));
+
+    /*
+     * A file that cannot be opened is skipped without discarding the
+     * results for the other files. Permissions are not enforced for all
+     * users on all platforms, so the file may turn out to be readable.
+     */
+
+    final var unreadable = root.resolve("f.wav");
+    Files.write(unreadable, truncated);
+    try {
+      Files.setPosixFilePermissions(unreadable, Set.of());
+    } catch (final UnsupportedOperationException e) {
+      // Not a POSIX filesystem.
+    }
+    final var all = SXMSampleBuffers.probeDirectory(root);
+    assertEquals(Files.isReadable(unreadable) ? 4 : 3, all.size());
+
+    final var results =
+      all.stream()
+        .filter(r -> !r.file().equals(unreadable))
+        .toList();
+    assertEquals(3, results.size());
+
+    final var a = results.get(0);
+    assertEquals(root.resolve("a.wav"), a.file());
+    assertEquals(2, a.channels());
+    assertEquals(16, a.bits());
+    assertEquals(1200L, a.frames());
+    assertEquals(OptionalLong.of(1200L), a.frameCount());
+    assertEquals(AudioFormat.Encoding.PCM_SIGNED, a.encoding());
+
+    final var c = results.get(1);
+    assertEquals(root.resolve("c.au"), c.file());
+    assertEquals(1, c.channels());
+    assertEquals(AudioFormat.Encoding.ULAW, c.encoding());
+
+    final var b = results.get(2);
+    assertEquals(nested.resolve("b.aiff"), b.file());
+    assertEquals(1, b.channels());
+    assertEquals(24, b.bits());
+    assertEquals(1200L, b.frames());
+    assertEquals(48000.0, b.sampleRate());
+  }
+
+  /**
+   * A file that does not declare its length has an explicitly unknown
+   * frame count.
+   */
+
+  @Test
+  public void testProbeUnknownFrames()
+  {
+    final var format =
+      new AudioFormat(48000.0f, 16, 2, true, false);
+    final var file =
+      this.directory.resolve("unknown.wav");
+
+    final var unknown =
+      new SXMAudioFileInfo(file, format, (long) AudioSystem.NOT_SPECIFIED);
+    assertEquals((long) AudioSystem.NOT_SPECIFIED, unknown.frames());
+    assertEquals(OptionalLong.empty(), unknown.frameCount());
+
+    final var negative = new SXMAudioFileInfo(file, format, -23L);
+    assertEquals((long) AudioSystem.NOT_SPECIFIED, negative.frames());
+    assertEquals(OptionalLong.empty(), negative.frameCount());
+
+    final var zero = new SXMAudioFileInfo(file, format, 0L);
+    assertEquals(OptionalLong.of(0L), zero.frameCount());
+  }
+
+  /**
+   * Files decoded one block at a time produce exactly the same samples as
+   * files decoded into buffers, in consecutive blocks of at most the
+   * requested size.
+   *
+   * @return The tests
+   *
+   * @throws IOException On errors
+   */
+
+  @TestFactory
+  public Stream<DynamicTest> testReadFramesMatchesDecoded()
+    throws IOException
+  {
+    final var files = this.directFiles();
+
+    return files.stream()
+      .map(name -> DynamicTest.dynamicTest(name, () -> {
+        final var file = this.resource(name);
+        final var expected =
+          SXMSampleBuffers.readSampleBufferFromFile(
+            file, SampleBufferDouble::createWithHeapBuffer);
+
+        final var channels = expected.channels();
+        final var frames = (int) expected.frames();
+        final var expectedFrames = new double[channels * frames];
+        expected.framesGetExact(0L, frames, expectedFrames, 0);
+
+        final var receivedFrames = new double[channels * frames];
+        final var next = new long[1];
+        final var count =
+          SXMSampleBuffers.readFramesFromFile(
+            file,
+            500,
+            (index, samples, frameCount) -> {
+              assertEquals(next[0], index);
+              Assertions.assertTrue(frameCount <= 500);
+              System.arraycopy(
+                samples,
+                0,
+                receivedFrames,
+                (int) index * channels,
+                frameCount * channels);
+              next[0] += (long) frameCount;
+            });
+
+        assertEquals((long) frames, count);
+        assertEquals((long) frames, next[0]);
+        Assertions.assertArrayEquals(expectedFrames, receivedFrames);
+      }));
+  }
+
+  /**
+   * Streams of unknown length are decoded one block at a time until they
+   * are exhausted, and trailing partial frames are ignored.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testReadFramesUnknownLength()
+    throws Exception
+  {
+    final var format =
+      new AudioFormat(
+        AudioFormat.Encoding.PCM_SIGNED, 8000.0f, 16, 2, 4, 8000.0f, true);
+    final var data =
+      ByteBuffer.allocate(4 * 3 + 2).order(ByteOrder.BIG_ENDIAN);
+    data.putShort(Short.MIN_VALUE).putShort((short) 0);
+    data.putShort((short) 16384).putShort((short) -16384);
+    data.putShort((short) 0).putShort(Short.MIN_VALUE);
+    data.putShort((short) 1);
+
+    final var stream =
+      new AudioInputStream(
+        new ByteArrayInputStream(data.array()),
+        format,
+        (long) AudioSystem.NOT_SPECIFIED);
+
+    final var received = new ArrayList<Double>();
+    final var starts = new ArrayList<Long>();
+    final var count =
+      SXMSampleBuffers.readFramesFromStream(
+        stream,
+        2,
+        new SXMFrameBlockConsumerType()
+        {
+          @Override
+          public void start(
+            final AudioFormat startFormat,
+            final long frames)
+          {
+            assertEquals(format, startFormat);
+            assertEquals((long) AudioSystem.NOT_SPECIFIED, frames);
+          }
+
+          @Override
+          public void receive(
+            final long index,
+            final double[] samples,
+            final int frameCount)
+          {
+            starts.add(Long.valueOf(index));
+            for (var sample = 0; sample < frameCount * 2; ++sample) {
+              received.add(Double.valueOf(samples[sample]));
+            }
+          }
+        });
+
+    assertEquals(3L, count);
+    assertEquals(List.of(0L, 2L), starts);
+    assertEquals(
+      List.of(-1.0, 0.0, 0.5, -0.5, 0.0, -1.0),
+      received);
+  }
+
+  /**
+   * Files decoded directly into single-precision buffers produce exactly
+   * the same samples as files decoded in double precision and then
+   * narrowed.
+   *
+   * @return The tests
+   *
+   * @throws IOException On errors
+   */
+
+  @TestFactory
+  public Stream<DynamicTest> testFloatMatchesDouble()
+    throws IOException
+  {
+    final var files = this.directFiles();
+
+    return files.stream()
+      .map(name -> DynamicTest.dynamicTest(name, () -> {
+        final var file = this.resource(name);
+        final var expected =
+          SXMSampleBuffers.readSampleBufferFromFile(
+            file, SampleBufferDouble::createWithHeapBuffer);
+
+        final var channels = expected.channels();
+        final var frames = (int) expected.frames();
+        final var expectedFrames = new float[channels * frames];
+        expected.framesGetExact(0L, frames, expectedFrames, 0);
+
+        final var received =
+          SXMSampleBuffers.readSampleBufferFromFile(
+            file, SampleBufferFloat::createWithHeapBuffer);
+        final var receivedFrames = new float[channels * frames];
+        received.framesGetExact(0L, frames, receivedFrames, 0);
+        Assertions.assertArrayEquals(expectedFrames, receivedFrames);
+
+        final var planar =
+          SXMSampleBuffers.readSampleBufferFromFile(
+            file, SampleBufferPlanarFloat::createWithHeapBuffer);
+        planar.framesGetExact(0L, frames, receivedFrames, 0);
+        Assertions.assertArrayEquals(expectedFrames, receivedFrames);
+      }));
+  }
+
+  private void checkOpened(
+    final Path file)
+    throws Exception
+  {
+    final var expected =
+      SXMSampleBuffers.readSampleBufferFromFile(
+        file, SampleBufferDouble::createWithHeapBuffer);
+
+    try (var received = SXMSampleBuffers.openSampleBufferFromFile(file)) {
+      assertEquals(file, received.file());
+      assertEquals(expected.channels(), received.channels());
+      assertEquals(expected.frames(), received.frames());
+      assertEquals(expected.sampleRate(), received.sampleRate());
+
+      final var channels = expected.channels();
+      final var frames = (int) expected.frames();
+      final var expectedFrames = new double[channels * frames];
+      final var receivedFrames = new double[channels * frames + 1];
+      expected.framesGetExact(0L, frames, expectedFrames, 0);
+      received.framesGetExact(0L, frames, receivedFrames, 1);
+      Assertions.assertArrayEquals(
+        expectedFrames,
+        Arrays.copyOfRange(receivedFrames, 1, receivedFrames.length));
+
+      final var receivedFloats = new float[channels * frames];
+      received.framesGetExact(0L, frames, receivedFloats, 0);
+      for (var index = 0; index < receivedFloats.length; ++index) {
+        assertEquals((float) expectedFrames[index], receivedFloats[index]);
+      }
+
+      final var expectedFrame = new double[channels];
+      final var receivedFrame = new double[channels];
+      for (var index = 0L; index < (long) frames; index += 97L) {
+        expected.frameGetExact(index, expectedFrame);
+        received.frameGetExact(index, receivedFrame);
+        Assertions.assertArrayEquals(expectedFrame, receivedFrame);
+      }
+
+      if (channels == 1) {
+        for (var index = 0L; index < (long) frames; ++index) {
+          assertEquals(
+            expected.frameGetExact(index),
+            received.frameGetExact(index));
+        }
+      }
+
+      final var expectedChannel = new double[frames];
+      final var receivedChannel = new double[frames];
+      expected.channelGetExact(channels - 1, 0L, frames, expectedChannel, 0);
+      received.channelGetExact(channels - 1, 0L, frames, receivedChannel, 0);
+      Assertions.assertArrayEquals(expectedChannel, receivedChannel);
+    }
+  }
+
+  private Path largeWave(
+    final int frames)
+    throws IOException
+  {
+    final var dataSize = frames * 4;
+    final var data =
+      ByteBuffer.allocate(44 + dataSize).order(ByteOrder.LITTLE_ENDIAN);
+    data.put("RIFF".getBytes(StandardCharsets.US_ASCII));
+    data.putInt(36 + dataSize);
+    data.put("WAVE".getBytes(StandardCharsets.US_ASCII));
+
+    data.put("fmt ".getBytes(StandardCharsets.US_ASCII));
+    data.putInt(16);
+    data.putShort((short) 1);
+    data.putShort((short) 2);
+    data.putInt(48000);
+    data.putInt(48000 * 4);
+    data.putShort((short) 4);
+    data.putShort((short) 16);
+
+    data.put("data".getBytes(StandardCharsets.US_ASCII));
+    data.putInt(dataSize);
+    final var random = new Random(0x5eedL);
+    for (var index = 0; index < frames * 2; ++index) {
+      data.putShort((short) random.nextInt());
+    }
+
+    final var file = this.directory.resolve("large.wav");
+    Files.write(file, data.array());
+    return file;
+  }
+}
@@ -21,10 +21,13 @@ import com.io7m.jintegers.Signed64;
 import com.io7m.jintegers.Unsigned16;
 import com.io7m.jintegers.Unsigned32;
 import com.io7m.jintegers.Unsigned8;
+import com.io7m.jsamplebuffer.api.SampleBufferFactoryType;
 import com.io7m.jsamplebuffer.api.SampleBufferType;
 import com.io7m.jsamplebuffer.tests.SBTestDirectories;
 import com.io7m.jsamplebuffer.vanilla.SampleBufferDouble;
 import com.io7m.jsamplebuffer.vanilla.SampleBufferFloat;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferInt16;
+import com.io7m.jsamplebuffer.vanilla.SampleBufferInt24;
 import com.io7m.jsamplebuffer.xmedia.SXMSampleBuffers;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
@@ -40,6 +43,8 @@ import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
@@ -481,9 +486,7 @@ public final class SXMSampleBuffersTest
     Unsigned8.packToBuffer(0x7f, buffer, 1);
     Unsigned8.packToBuffer(0xff, buffer, 2);
 
-    final var stream = Mockito.mock(AudioInputStream.class);
-    Mockito.when(stream.getFormat()).thenReturn(format);
-    Mockito.when(stream.readAllBytes()).thenReturn(data);
+    final var stream = streamOf(format, data, 3L);
 
     final var sample =
       SXMSampleBuffers.readSampleBufferFromStream(
@@ -518,9 +521,7 @@ public final class SXMSampleBuffersTest
     Unsigned16.packToBuffer(0x7fff, buffer, 2);
     Unsigned16.packToBuffer(0xffff, buffer, 4);
 
-    final var stream = Mockito.mock(AudioInputStream.class);
-    Mockito.when(stream.getFormat()).thenReturn(format);
-    Mockito.when(stream.readAllBytes()).thenReturn(data);
+    final var stream = streamOf(format, data, 3L);
 
     final var sample =
       SXMSampleBuffers.readSampleBufferFromStream(
@@ -555,9 +556,7 @@ public final class SXMSampleBuffersTest
     Signed24.packToBuffer(0x7fffff, buffer, 3);
     Signed24.packToBuffer(0xffffff, buffer, 6);
 
-    final var stream = Mockito.mock(AudioInputStream.class);
-    Mockito.when(stream.getFormat()).thenReturn(format);
-    Mockito.when(stream.readAllBytes()).thenReturn(data);
+    final var stream = streamOf(format, data, 3L);
 
     final var sample =
       SXMSampleBuffers.readSampleBufferFromStream(
@@ -592,9 +591,7 @@ public final class SXMSampleBuffersTest
     Unsigned32.packToBuffer(0x7fffffffL, buffer, 4);
     Unsigned32.packToBuffer(0xffffffffL, buffer, 8);
 
-    final var stream = Mockito.mock(AudioInputStream.class);
-    Mockito.when(stream.getFormat()).thenReturn(format);
-    Mockito.when(stream.readAllBytes()).thenReturn(data);
+    final var stream = streamOf(format, data, 3L);
 
     final var sample =
       SXMSampleBuffers.readSampleBufferFromStream(
@@ -629,9 +626,7 @@ public final class SXMSampleBuffersTest
     Signed64.packToBuffer(0x7fffffff_ffffffffL, buffer, 8);
     Signed64.packToBuffer(0xffffffff_ffffffffL, buffer, 16);
 
-    final var stream = Mockito.mock(AudioInputStream.class);
-    Mockito.when(stream.getFormat()).thenReturn(format);
-    Mockito.when(stream.readAllBytes()).thenReturn(data);
+    final var stream = streamOf(format, data, 3L);
 
     final var sample =
       SXMSampleBuffers.readSampleBufferFromStream(
@@ -666,9 +661,7 @@ public final class SXMSampleBuffersTest
     Signed64.packToBuffer(0L, buffer, 8);
     Signed64.packToBuffer(Long.MAX_VALUE, buffer, 16);
 
-    final var stream = Mockito.mock(AudioInputStream.class);
-    Mockito.when(stream.getFormat()).thenReturn(format);
-    Mockito.when(stream.readAllBytes()).thenReturn(data);
+    final var stream = streamOf(format, data, 3L);
 
     final var sample =
       SXMSampleBuffers.readSampleBufferFromStream(
@@ -704,9 +697,7 @@ public final class SXMSampleBuffersTest
     doubleBuffer.put(1, 0.0);
     doubleBuffer.put(2, 1.0);
 
-    final var stream = Mockito.mock(AudioInputStream.class);
-    Mockito.when(stream.getFormat()).thenReturn(format);
-    Mockito.when(stream.readAllBytes()).thenReturn(data);
+    final var stream = streamOf(format, data, 3L);
 
     final var sample =
       SXMSampleBuffers.readSampleBufferFromStream(
@@ -720,6 +711,165 @@ public final class SXMSampleBuffersTest
     assertEquals(1.0, sample.frameGetExact(2L), 0.000001);
   }
 
+  @Test
+  public void testStreamUnknownLength()
+    throws Exception
+  {
+    final var format = formatSigned16Mono();
+    final var data = new byte[3 * 2];
+    final var buffer = ByteBuffer.wrap(data).order(ByteOrder.BIG_ENDIAN);
+
+    buffer.putShort(0, Short.MIN_VALUE);
+    buffer.putShort(2, (short) 0);
+    buffer.putShort(4, Short.MAX_VALUE);
+
+    final var stream =
+      new AudioInputStream(
+        new ByteArrayInputStream(data),
+        format,
+        (long) AudioSystem.NOT_SPECIFIED);
+
+    final var sample =
+      SXMSampleBuffers.readSampleBufferFromStream(
+        stream,
+        SXMSampleBuffersTest::createBuffer);
+
+    checkNormalizedMono("testStreamUnknownLength", sample, 3L);
+
+    assertEquals(-1.0, sample.frameGetExact(0L), 0.0001);
+    assertEquals(0.0, sample.frameGetExact(1L), 0.0001);
+    assertEquals(1.0, sample.frameGetExact(2L), 0.0001);
+  }
+
+  @Test
+  public void testStreamTruncated()
+    throws Exception
+  {
+    final var format = formatSigned16Mono();
+    final var data = new byte[3 * 2];
+    final var buffer = ByteBuffer.wrap(data).order(ByteOrder.BIG_ENDIAN);
+
+    buffer.putShort(0, Short.MIN_VALUE);
+    buffer.putShort(2, (short) 0);
+    buffer.putShort(4, Short.MAX_VALUE);
+
+    final var stream =
+      new AudioInputStream(new ByteArrayInputStream(data), format, 5L);
+
+    final var sample =
+      SXMSampleBuffers.readSampleBufferFromStream(
+        stream,
+        SXMSampleBuffersTest::createBuffer);
+
+    checkNormalizedMono("testStreamTruncated", sample, 3L);
+
+    assertEquals(-1.0, sample.frameGetExact(0L), 0.0001);
+    assertEquals(0.0, sample.frameGetExact(1L), 0.0001);
+    assertEquals(1.0, sample.frameGetExact(2L), 0.0001);
+  }
+
+  @Test
+  public void testStreamEmpty()
+  {
+    final var format = formatSigned16Mono();
+    final var stream =
+      new AudioInputStream(new ByteArrayInputStream(new byte[1]), format, 5L);
+
+    Assertions.assertThrows(
+      EOFException.class,
+      () -> SXMSampleBuffers.readSampleBufferFromStream(
+        stream,
+        SXMSampleBuffersTest::createBuffer));
+  }
+
+  @Test
+  public void testStreamManyBlocks()
+    throws Exception
+  {
+    final var format = formatSigned16Mono();
+    final var frames = 5000;
+    final var data = new byte[frames * 2];
+    final var buffer = ByteBuffer.wrap(data).order(ByteOrder.BIG_ENDIAN);
+    for (var index = 0; index < frames; ++index) {
+      buffer.putShort(index * 2, (short) index);
+    }
+
+    final var stream =
+      new AudioInputStream(new ByteArrayInputStream(data), format, frames);
+
+    final var sample =
+      SXMSampleBuffers.readSampleBufferFromStream(
+        stream,
+        SampleBufferInt16::createWithHeapBuffer);
+
+    assertEquals(5000L, sample.frames());
+    for (var index = 0; index < frames; ++index) {
+      assertEquals(
+        (double) index / 32768.0,
+        sample.frameGetExact(index),
+        0.00001);
+    }
+  }
+
+  @Test
+  public void testStreamAllValues16()
+    throws Exception
+  {
+    final var data = new byte[65536 * 2];
+    final var buffer = ByteBuffer.wrap(data).order(ByteOrder.BIG_ENDIAN);
+    for (var index = 0; index < 65536; ++index) {
+      buffer.putShort(index * 2, (short) index);
+    }
+
+    final var signed =
+      SXMSampleBuffers.readSampleBufferFromStream(
+        new AudioInputStream(
+          new ByteArrayInputStream(data), formatSigned16Mono(), 65536L),
+        SampleBufferDouble::createWithHeapBuffer);
+
+    final var unsignedFormat =
+      new AudioFormat(PCM_UNSIGNED, 48000.0f, 16, 1, 2, 48000.0f, true);
+    final var unsigned =
+      SXMSampleBuffers.readSampleBufferFromStream(
+        new AudioInputStream(
+          new ByteArrayInputStream(data), unsignedFormat, 65536L),
+        SampleBufferDouble::createWithHeapBuffer);
+
+    for (var index = 0; index < 65536; ++index) {
+      assertEquals(
+        (double) (short) index / 32768.0,
+        signed.frameGetExact(index));
+      assertEquals(
+        ((double) index / 32768.0) - 1.0,
+        unsigned.frameGetExact(index));
+    }
+  }
+
+  private static AudioFormat formatSigned16Mono()
+  {
+    return new AudioFormat(
+      PCM_SIGNED,
+      48000.0f,
+      16,
+      1,
+      2,
+      48000.0f,
+      true
+    );
+  }
+
+  private static AudioInputStream streamOf(
+    final AudioFormat format,
+    final byte[] data,
+    final long frames)
+  {
+    final var frameSize =
+      (format.getSampleSizeInBits() / 8) * format.getChannels();
+    Mockito.when(Integer.valueOf(format.getFrameSize()))
+      .thenReturn(Integer.valueOf(frameSize));
+    return new AudioInputStream(new ByteArrayInputStream(data), format, frames);
+  }
+
   private void roundTripFile(
     final String file)
   {
@@ -886,4 +1036,71 @@ public final class SXMSampleBuffersTest
     }
   }
 
+  @TestFactory
+  public List<DynamicTest> testIntegerBuffersExact()
+    throws Exception
+  {
+    final var files =
+      Stream.concat(
+          Files.lines(resource("monos.txt").toPath()),
+          Files.lines(resource("stereos.txt").toPath()))
+        .filter(name -> name.matches(".*_(16|24)[su]_.*"))
+        .collect(Collectors.toList());
+
+    Assertions.assertTrue(files.size() > 20);
+
+    return files.stream()
+      .map(file -> DynamicTest.dynamicTest(file, () -> runForIntegerFile(file)))
+      .collect(Collectors.toList());
+  }
+
+  /*
+   * Decoding into an integer buffer must produce exactly the same sample
+   * values as decoding into a double buffer.
+   */
+
+  private static void runForIntegerFile(final String file)
+    throws IOException
+  {
+    LOGGER.debug("{}: running", file);
+
+    try {
+      final SampleBufferType expected;
+      try (final var stream = AudioSystem.getAudioInputStream(resource(file))) {
+        expected =
+          SXMSampleBuffers.readSampleBufferFromStream(
+            stream,
+            SampleBufferDouble::createWithHeapBuffer);
+      }
+
+      final var factories =
+        file.contains("_16")
+          ? List.<SampleBufferFactoryType>of(
+          SampleBufferInt16::createWithHeapBuffer,
+          SampleBufferInt24::createWithHeapBuffer)
+          : List.<SampleBufferFactoryType>of(
+          SampleBufferInt24::createWithHeapBuffer);
+
+      for (final var factory : factories) {
+        try (final var stream = AudioSystem.getAudioInputStream(resource(file))) {
+          final var buffer =
+            SXMSampleBuffers.readSampleBufferFromStream(stream, factory);
+
+          assertEquals(expected.frames(), buffer.frames());
+          assertEquals(expected.channels(), buffer.channels());
+
+          final var samples = (int) expected.samples();
+          final var expectedSamples = new double[samples];
+          final var receivedSamples = new double[samples];
+          expected.framesGetExact(0L, (int) expected.frames(), expectedSamples, 0);
+          buffer.framesGetExact(0L, (int) buffer.frames(), receivedSamples, 0);
+          Assertions.assertArrayEquals(expectedSamples, receivedSamples);
+        }
+      }
+    } catch (final UnsupportedAudioFileException e) {
+      LOGGER.info("Ignoring unsupported audio", e);
+    } finally {
+      LOGGER.debug("{}: finished", file);
+    }
+  }
 }
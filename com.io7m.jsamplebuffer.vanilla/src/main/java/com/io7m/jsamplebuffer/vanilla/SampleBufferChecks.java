@@ -0,0 +1,152 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.vanilla;
+
+import com.io7m.jranges.RangeCheck;
+import com.io7m.jranges.RangeInclusiveI;
+import com.io7m.jranges.RangeInclusiveL;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * Checks shared between sample buffer implementations.
+ */
+
+final class SampleBufferChecks
+{
+  static final RangeInclusiveI VALID_CHANNELS =
+    RangeInclusiveI.of(1, Integer.MAX_VALUE);
+  static final RangeInclusiveL VALID_FRAMES =
+    RangeInclusiveL.of(1L, Long.MAX_VALUE);
+
+  private SampleBufferChecks()
+  {
+
+  }
+
+  static int checkChannels(
+    final int channels)
+  {
+    return RangeCheck.checkIncludedInInteger(
+      channels,
+      "Channels",
+      VALID_CHANNELS,
+      "Valid channel count");
+  }
+
+  static long checkFrames(
+    final long frames)
+  {
+    return RangeCheck.checkIncludedInLong(
+      frames,
+      "Frames",
+      VALID_FRAMES,
+      "Valid frame count");
+  }
+
+  static void checkChannelCount(
+    final int channels,
+    final int length)
+  {
+    if (channels != length) {
+      final var separator = System.lineSeparator();
+      throw new IllegalArgumentException(
+        new StringBuilder("Incorrect channel count.")
+          .append(separator)
+          .append("  Expected: ")
+          .append(channels)
+          .append(separator)
+          .append("  Received: ")
+          .append(length)
+          .append(separator)
+          .toString());
+    }
+  }
+
+  static long checkFrameIndex(
+    final long index,
+    final RangeInclusiveL frameRange)
+  {
+    return RangeCheck.checkIncludedInLong(
+      index, "Frame index", frameRange, "Frame range");
+  }
+
+  /**
+   * Check that the frames {@code [index, index + frameCount)} are within
+   * {@code frameRange}, and that an array of length {@code length} has room
+   * for {@code frameCount * samplesPerFrame} samples starting at
+   * {@code offset}.
+   */
+
+  static void checkFrameBlock(
+    final long index,
+    final int frameCount,
+    final RangeInclusiveL frameRange,
+    final int samplesPerFrame,
+    final int offset,
+    final int length)
+  {
+    Objects.checkFromIndexSize(
+      offset, Math.multiplyExact(frameCount, samplesPerFrame), length);
+
+    checkFrameIndex(index, frameRange);
+    if (frameCount > 0) {
+      checkFrameIndex(index + (long) (frameCount - 1), frameRange);
+    }
+  }
+
+  /**
+   * Check that the frames {@code [startFrame, startFrame + frameCount)} are
+   * a non-empty range within {@code frameRange}.
+   */
+
+  static void checkSlice(
+    final long startFrame,
+    final long frameCount,
+    final RangeInclusiveL frameRange)
+  {
+    RangeCheck.checkIncludedInLong(
+      startFrame, "Slice start frame", frameRange, "Frame range");
+    RangeCheck.checkIncludedInLong(
+      frameCount,
+      "Slice frame count",
+      RangeInclusiveL.of(1L, frameRange.upper() - startFrame + 1L),
+      "Valid slice frame counts");
+  }
+
+  static void checkBufferSize(
+    final ByteBuffer buffer,
+    final long bytes)
+  {
+    if ((long) buffer.capacity() != bytes) {
+      final var separator = System.lineSeparator();
+      throw new IllegalStateException(
+        new StringBuilder(128)
+          .append("Buffer size incorrect.")
+          .append(separator)
+          .append("  Expected: ")
+          .append(Long.toUnsignedString(bytes))
+          .append(" octets")
+          .append(separator)
+          .append("  Received: ")
+          .append(buffer.capacity())
+          .append(" octets")
+          .toString());
+    }
+  }
+}
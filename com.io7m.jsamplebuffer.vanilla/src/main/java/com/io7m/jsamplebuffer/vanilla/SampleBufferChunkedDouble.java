@@ -0,0 +1,657 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.vanilla;
+
+import com.io7m.jranges.RangeCheck;
+import com.io7m.jsamplebuffer.api.SampleBufferReadableType;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * <p>A growable sample buffer using {@code double} elements, stored in a
+ * sequence of fixed-size chunks.</p>
+ *
+ * <p>Frames are only ever appended to the end of the buffer. When the last
+ * chunk is full, a new chunk is allocated; existing chunks are never moved
+ * or copied, and so appending is amortized {@code O(1)} per frame and at
+ * most one chunk is ever partially empty. Each chunk holds a power-of-two
+ * number of whole frames, and so locating a frame is a shift and a mask.</p>
+ *
+ * <p>When capture is complete, {@link #freeze()} yields a read-only view of
+ * the buffer, after which no further frames may be appended.</p>
+ *
+ * <p>Buffers are not thread-safe.</p>
+ */
+
+public final class SampleBufferChunkedDouble implements SampleBufferReadableType
+{
+  /**
+   * The default size in octets of each chunk (64KiB).
+   */
+
+  public static final int CHUNK_SIZE_DEFAULT = 1 << 16;
+
+  private static final long SAMPLE_SIZE = 8L;
+
+  private final int channels;
+  private final double sample_rate;
+  private final int chunk_shift;
+  private final int chunk_frames;
+  private final long chunk_mask;
+  private final int chunk_size;
+  private final SampleBufferSegmentAllocatorType allocate;
+  private DoubleBuffer[] chunks;
+  private int chunk_count;
+  private long frames;
+  private SampleBufferReadableType frozen;
+
+  private SampleBufferChunkedDouble(
+    final int in_channels,
+    final double in_sample_rate,
+    final int in_chunk_shift,
+    final SampleBufferSegmentAllocatorType in_allocate)
+  {
+    this.channels =
+      SampleBufferChecks.checkChannels(in_channels);
+    this.allocate =
+      Objects.requireNonNull(in_allocate, "allocate");
+
+    this.sample_rate = in_sample_rate;
+    this.chunk_shift = in_chunk_shift;
+    this.chunk_frames = 1 << in_chunk_shift;
+    this.chunk_mask = (long) this.chunk_frames - 1L;
+    this.chunk_size =
+      Math.toIntExact((long) this.chunk_frames * SAMPLE_SIZE * in_channels);
+    this.chunks = new DoubleBuffer[4];
+    this.chunk_count = 0;
+    this.frames = 0L;
+  }
+
+  /**
+   * Create an empty sample buffer.
+   *
+   * @param channels    The number of channels per frame
+   * @param sample_rate The sample rate in hz
+   * @param chunk_size  The maximum size in octets of each chunk
+   * @param allocate    A function that allocates each chunk
+   *
+   * @return A new sample buffer
+   */
+
+  public static SampleBufferChunkedDouble createWithChunks(
+    final int channels,
+    final double sample_rate,
+    final int chunk_size,
+    final SampleBufferSegmentAllocatorType allocate)
+  {
+    SampleBufferChecks.checkChannels(channels);
+
+    final var frame_size =
+      Math.multiplyExact(SAMPLE_SIZE, channels);
+    final var chunk_shift =
+      SampleBufferSegments.segmentShift(frame_size, chunk_size);
+
+    return new SampleBufferChunkedDouble(
+      channels,
+      sample_rate,
+      chunk_shift,
+      allocate);
+  }
+
+  /**
+   * Create an empty sample buffer. Chunks will be allocated using direct
+   * memory.
+   *
+   * @param channels    The number of channels per frame
+   * @param sample_rate The sample rate in hz
+   *
+   * @return A new sample buffer
+   */
+
+  public static SampleBufferChunkedDouble createWithDirectBuffer(
+    final int channels,
+    final double sample_rate)
+  {
+    return createWithChunks(
+      channels,
+      sample_rate,
+      CHUNK_SIZE_DEFAULT,
+      (offset, size) -> ByteBuffer.allocateDirect(size));
+  }
+
+  /**
+   * Create an empty sample buffer. Chunks will be heap-allocated.
+   *
+   * @param channels    The number of channels per frame
+   * @param sample_rate The sample rate in hz
+   *
+   * @return A new sample buffer
+   */
+
+  public static SampleBufferChunkedDouble createWithHeapBuffer(
+    final int channels,
+    final double sample_rate)
+  {
+    return createWithChunks(
+      channels,
+      sample_rate,
+      CHUNK_SIZE_DEFAULT,
+      (offset, size) -> ByteBuffer.allocate(size));
+  }
+
+  /**
+   * @return The number of frames held by each chunk
+   */
+
+  public int chunkFrames()
+  {
+    return this.chunk_frames;
+  }
+
+  /**
+   * @return The number of chunks allocated so far
+   */
+
+  public int chunkCount()
+  {
+    return this.chunk_count;
+  }
+
+  /**
+   * @return {@code true} if {@link #freeze()} has been called
+   */
+
+  public boolean isFrozen()
+  {
+    return this.frozen != null;
+  }
+
+  /**
+   * Append a single frame to the end of the buffer.
+   *
+   * @param frame The frame
+   *
+   * @throws IllegalArgumentException If {@code frame.length != channels()}
+   * @throws IllegalStateException    If the buffer has been frozen
+   */
+
+  public void appendFrame(
+    final double[] frame)
+    throws IllegalArgumentException, IllegalStateException
+  {
+    Objects.requireNonNull(frame, "frame");
+    SampleBufferChecks.checkChannelCount(this.channels, frame.length);
+    this.appendFrames(1, frame, 0);
+  }
+
+  /**
+   * Append {@code frameCount} frames to the end of the buffer. The samples
+   * are read from {@code input} in interleaved order starting at
+   * {@code offset}.
+   *
+   * @param frameCount The number of frames
+   * @param input      The input
+   * @param offset     The offset of the first sample in {@code input}
+   *
+   * @throws IndexOutOfBoundsException If {@code input} is too small
+   * @throws IllegalStateException     If the buffer has been frozen
+   */
+
+  public void appendFrames(
+    final int frameCount,
+    final double[] input,
+    final int offset)
+    throws IndexOutOfBoundsException, IllegalStateException
+  {
+    Objects.requireNonNull(input, "input");
+    Objects.checkFromIndexSize(
+      offset, Math.multiplyExact(frameCount, this.channels), input.length);
+    this.checkNotFrozen();
+
+    var source = offset;
+    var remaining = frameCount;
+    while (remaining > 0) {
+      final var count = this.reserve(remaining);
+      final var samples = count * this.channels;
+      this.chunkOf(this.frames)
+        .put(this.positionOf(this.frames), input, source, samples);
+      this.frames += (long) count;
+      source += samples;
+      remaining -= count;
+    }
+  }
+
+  /**
+   * Append {@code frameCount} frames to the end of the buffer. The samples
+   * are read from {@code input} in interleaved order starting at
+   * {@code offset}.
+   *
+   * @param frameCount The number of frames
+   * @param input      The input
+   * @param offset     The offset of the first sample in {@code input}
+   *
+   * @throws IndexOutOfBoundsException If {@code input} is too small
+   * @throws IllegalStateException     If the buffer has been frozen
+   */
+
+  public void appendFrames(
+    final int frameCount,
+    final float[] input,
+    final int offset)
+    throws IndexOutOfBoundsException, IllegalStateException
+  {
+    Objects.requireNonNull(input, "input");
+    Objects.checkFromIndexSize(
+      offset, Math.multiplyExact(frameCount, this.channels), input.length);
+    this.checkNotFrozen();
+
+    var source = offset;
+    var remaining = frameCount;
+    while (remaining > 0) {
+      final var count = this.reserve(remaining);
+      final var samples = count * this.channels;
+      final var chunk = this.chunkOf(this.frames);
+      final var position = this.positionOf(this.frames);
+      for (var sample = 0; sample < samples; ++sample) {
+        chunk.put(position + sample, (double) input[source + sample]);
+      }
+      this.frames += (long) count;
+      source += samples;
+      remaining -= count;
+    }
+  }
+
+  /**
+   * Freeze the buffer. No further frames may be appended, and the returned
+   * read-only view covers exactly the frames appended so far. Calling this
+   * method more than once returns the same view. As with every other
+   * buffer, the view must contain at least one frame, and so a buffer to
+   * which nothing has been appended cannot be frozen.
+   *
+   * @return A read-only view of the buffer
+   *
+   * @throws IllegalStateException If no frames have been appended
+   */
+
+  public SampleBufferReadableType freeze()
+    throws IllegalStateException
+  {
+    if (this.frozen == null) {
+      if (this.frames == 0L) {
+        throw new IllegalStateException(
+          "Cannot freeze a buffer that contains no frames.");
+      }
+      this.frozen = new Frozen(this);
+    }
+    return this.frozen;
+  }
+
+  private void checkNotFrozen()
+  {
+    if (this.frozen != null) {
+      throw new IllegalStateException("Buffer is frozen.");
+    }
+  }
+
+  /**
+   * Ensure that the chunk holding the next frame exists, and return the
+   * number of frames (at most {@code remaining}) that can be written to
+   * that chunk.
+   */
+
+  private int reserve(
+    final int remaining)
+  {
+    final var used = (int) (this.frames & this.chunk_mask);
+    if (used == 0 && (this.frames >>> this.chunk_shift) == this.chunk_count) {
+      this.allocateChunk();
+    }
+    return Math.min(this.chunk_frames - used, remaining);
+  }
+
+  private void allocateChunk()
+  {
+    if (this.chunk_count == this.chunks.length) {
+      this.chunks =
+        Arrays.copyOf(this.chunks, Math.multiplyExact(this.chunks.length, 2));
+    }
+
+    final var offset = (long) this.chunk_count * (long) this.chunk_size;
+    final var buffer = this.allocate.allocate(offset, this.chunk_size);
+    SampleBufferChecks.checkBufferSize(buffer, this.chunk_size);
+    this.chunks[this.chunk_count] =
+      buffer.order(ByteOrder.nativeOrder()).asDoubleBuffer();
+    ++this.chunk_count;
+  }
+
+  private DoubleBuffer chunkOf(
+    final long index)
+  {
+    return this.chunks[(int) (index >>> this.chunk_shift)];
+  }
+
+  private int positionOf(
+    final long index)
+  {
+    return (int) (index & this.chunk_mask) * this.channels;
+  }
+
+  private int framesInChunk(
+    final long frame,
+    final int remaining)
+  {
+    final var available =
+      this.chunk_frames - (int) (frame & this.chunk_mask);
+    return Math.min(available, remaining);
+  }
+
+  private void checkFrameIndex(
+    final long index)
+  {
+    RangeCheck.checkGreaterEqualLong(
+      index, "Frame index", 0L, "Lowest frame");
+    RangeCheck.checkLessLong(
+      index, "Frame index", this.frames, "Frame count");
+  }
+
+  private void checkFrameBlock(
+    final long index,
+    final int frameCount,
+    final int samplesPerFrame,
+    final int offset,
+    final int length)
+  {
+    Objects.checkFromIndexSize(
+      offset, Math.multiplyExact(frameCount, samplesPerFrame), length);
+
+    this.checkFrameIndex(index);
+    if (frameCount > 0) {
+      this.checkFrameIndex(index + (long) (frameCount - 1));
+    }
+  }
+
+  @Override
+  public int channels()
+  {
+    return this.channels;
+  }
+
+  @Override
+  public long frames()
+  {
+    return this.frames;
+  }
+
+  @Override
+  public double sampleRate()
+  {
+    return this.sample_rate;
+  }
+
+  @Override
+  public void frameGetExact(
+    final long index,
+    final double[] output)
+    throws IllegalArgumentException
+  {
+    Objects.requireNonNull(output, "output");
+
+    SampleBufferChecks.checkChannelCount(this.channels, output.length);
+    this.checkFrameIndex(index);
+
+    this.chunkOf(index).get(this.positionOf(index), output, 0, this.channels);
+  }
+
+  @Override
+  public double frameGetExact(
+    final long index)
+  {
+    SampleBufferChecks.checkChannelCount(this.channels, 1);
+    this.checkFrameIndex(index);
+
+    return this.chunkOf(index).get(this.positionOf(index));
+  }
+
+  @Override
+  public void framesGetExact(
+    final long index,
+    final int frameCount,
+    final double[] output,
+    final int offset)
+  {
+    Objects.requireNonNull(output, "output");
+
+    this.checkFrameBlock(
+      index, frameCount, this.channels, offset, output.length);
+
+    var frame = index;
+    var target = offset;
+    var remaining = frameCount;
+    while (remaining > 0) {
+      final var count = this.framesInChunk(frame, remaining);
+      final var samples = count * this.channels;
+      this.chunkOf(frame).get(this.positionOf(frame), output, target, samples);
+      frame += count;
+      target += samples;
+      remaining -= count;
+    }
+  }
+
+  @Override
+  public void framesGetExact(
+    final long index,
+    final int frameCount,
+    final float[] output,
+    final int offset)
+  {
+    Objects.requireNonNull(output, "output");
+
+    this.checkFrameBlock(
+      index, frameCount, this.channels, offset, output.length);
+
+    var frame = index;
+    var target = offset;
+    var remaining = frameCount;
+    while (remaining > 0) {
+      final var count = this.framesInChunk(frame, remaining);
+      final var samples = count * this.channels;
+      final var chunk = this.chunkOf(frame);
+      final var position = this.positionOf(frame);
+      for (var sample = 0; sample < samples; ++sample) {
+        output[target + sample] = (float) chunk.get(position + sample);
+      }
+      frame += count;
+      target += samples;
+      remaining -= count;
+    }
+  }
+
+  @Override
+  public double channelGetExact(
+    final int channel,
+    final long index)
+  {
+    Objects.checkIndex(channel, this.channels);
+    this.checkFrameIndex(index);
+
+    return this.chunkOf(index).get(this.positionOf(index) + channel);
+  }
+
+  @Override
+  public void channelGetExact(
+    final int channel,
+    final long index,
+    final int frameCount,
+    final double[] output,
+    final int offset)
+  {
+    Objects.requireNonNull(output, "output");
+    Objects.checkIndex(channel, this.channels);
+
+    this.checkFrameBlock(index, frameCount, 1, offset, output.length);
+
+    var frame = index;
+    var target = offset;
+    var remaining = frameCount;
+    while (remaining > 0) {
+      final var count = this.framesInChunk(frame, remaining);
+      final var chunk = this.chunkOf(frame);
+      var position = this.positionOf(frame) + channel;
+      for (var sample = 0; sample < count; ++sample) {
+        output[target + sample] = chunk.get(position);
+        position += this.channels;
+      }
+      frame += count;
+      target += count;
+      remaining -= count;
+    }
+  }
+
+  @Override
+  public void channelGetExact(
+    final int channel,
+    final long index,
+    final int frameCount,
+    final float[] output,
+    final int offset)
+  {
+    Objects.requireNonNull(output, "output");
+    Objects.checkIndex(channel, this.channels);
+
+    this.checkFrameBlock(index, frameCount, 1, offset, output.length);
+
+    var frame = index;
+    var target = offset;
+    var remaining = frameCount;
+    while (remaining > 0) {
+      final var count = this.framesInChunk(frame, remaining);
+      final var chunk = this.chunkOf(frame);
+      var position = this.positionOf(frame) + channel;
+      for (var sample = 0; sample < count; ++sample) {
+        output[target + sample] = (float) chunk.get(position);
+        position += this.channels;
+      }
+      frame += count;
+      target += count;
+      remaining -= count;
+    }
+  }
+
+  /**
+   * A read-only view of a frozen buffer. The view exposes none of the
+   * append methods, and the buffer can no longer grow, so the view is
+   * immutable.
+   */
+
+  private static final class Frozen implements SampleBufferReadableType
+  {
+    private final SampleBufferChunkedDouble buffer;
+
+    Frozen(
+      final SampleBufferChunkedDouble in_buffer)
+    {
+      this.buffer = in_buffer;
+    }
+
+    @Override
+    public int channels()
+    {
+      return this.buffer.channels();
+    }
+
+    @Override
+    public long frames()
+    {
+      return this.buffer.frames();
+    }
+
+    @Override
+    public double sampleRate()
+    {
+      return this.buffer.sampleRate();
+    }
+
+    @Override
+    public void frameGetExact(
+      final long index,
+      final double[] output)
+    {
+      this.buffer.frameGetExact(index, output);
+    }
+
+    @Override
+    public double frameGetExact(
+      final long index)
+    {
+      return this.buffer.frameGetExact(index);
+    }
+
+    @Override
+    public void framesGetExact(
+      final long index,
+      final int frameCount,
+      final double[] output,
+      final int offset)
+    {
+      this.buffer.framesGetExact(index, frameCount, output, offset);
+    }
+
+    @Override
+    public void framesGetExact(
+      final long index,
+      final int frameCount,
+      final float[] output,
+      final int offset)
+    {
+      this.buffer.framesGetExact(index, frameCount, output, offset);
+    }
+
+    @Override
+    public double channelGetExact(
+      final int channel,
+      final long index)
+    {
+      return this.buffer.channelGetExact(channel, index);
+    }
+
+    @Override
+    public void channelGetExact(
+      final int channel,
+      final long index,
+      final int frameCount,
+      final double[] output,
+      final int offset)
+    {
+      this.buffer.channelGetExact(channel, index, frameCount, output, offset);
+    }
+
+    @Override
+    public void channelGetExact(
+      final int channel,
+      final long index,
+      final int frameCount,
+      final float[] output,
+      final int offset)
+    {
+      this.buffer.channelGetExact(channel, index, frameCount, output, offset);
+    }
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.vanilla;
+
+import com.io7m.jsamplebuffer.api.SampleBufferType;
+
+import java.nio.ByteBuffer;
+import java.util.function.LongFunction;
+
+/**
+ * A function that constructs a sample buffer over storage obtained from a
+ * given allocation function. The {@code createWithByteBuffer} methods of
+ * the buffer implementations in this package (such as
+ * {@link SampleBufferDouble#createWithByteBuffer(int, long, double, LongFunction)})
+ * all have this shape.
+ */
+
+@FunctionalInterface
+public interface SampleBufferConstructorType
+{
+  /**
+   * Create a sample buffer.
+   *
+   * @param channels    The number of channels per frame
+   * @param frames      The number of frames in the buffer
+   * @param sample_rate The sample rate in hz
+   * @param create      A function that allocates a byte buffer for the samples
+   *
+   * @return A new sample buffer
+   */
+
+  SampleBufferType create(
+    int channels,
+    long frames,
+    double sample_rate,
+    LongFunction<ByteBuffer> create);
+}
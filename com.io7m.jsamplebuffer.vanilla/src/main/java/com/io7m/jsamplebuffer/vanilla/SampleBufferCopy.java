@@ -0,0 +1,181 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.vanilla;
+
+import com.io7m.jranges.RangeCheck;
+import com.io7m.jranges.RangeInclusiveL;
+import com.io7m.jsamplebuffer.api.SampleBufferReadableType;
+import com.io7m.jsamplebuffer.api.SampleBufferType;
+
+import java.util.Objects;
+
+/**
+ * <p>Functions to copy frames between sample buffers.</p>
+ *
+ * <p>When both buffers are instances of the same buffer implementation in
+ * this package (for example, two {@link SampleBufferFloat} buffers, or a
+ * {@link SampleBufferFloat} and a slice of another), the frames are copied
+ * directly between the underlying storage with a single bulk copy per
+ * buffer (or per plane, for planar buffers). Otherwise, frames are
+ * converted through a scratch array in blocks, using the buffers' bulk
+ * accessors.</p>
+ */
+
+public final class SampleBufferCopy
+{
+  private static final int BLOCK_SAMPLES = 4096;
+
+  private SampleBufferCopy()
+  {
+
+  }
+
+  /**
+   * <p>Copy {@code frameCount} frames starting at {@code sourceStart} in
+   * {@code source} to {@code target} starting at {@code targetStart}.</p>
+   *
+   * <p>The source and target may be the same buffer instance, and the
+   * ranges may then overlap. Distinct buffers that share storage (such as
+   * two slices of one buffer) may have overlapping ranges only if they are
+   * instances of the same buffer implementation in this package, as they
+   * are then copied with a single bulk copy that handles overlap. For any
+   * other distinct buffers that share storage, including the views created
+   * by the default methods of {@link SampleBufferType}, overlap cannot be
+   * detected, and the results of copying overlapping ranges are
+   * unspecified.</p>
+   *
+   * @param source      The source buffer
+   * @param sourceStart The index of the first source frame
+   * @param target      The target buffer
+   * @param targetStart The index of the first target frame
+   * @param frameCount  The number of frames
+   *
+   * @throws IllegalArgumentException If the buffers do not have the same
+   *                                  number of channels
+   */
+
+  public static void copyFrames(
+    final SampleBufferReadableType source,
+    final long sourceStart,
+    final SampleBufferType target,
+    final long targetStart,
+    final long frameCount)
+    throws IllegalArgumentException
+  {
+    Objects.requireNonNull(source, "source");
+    Objects.requireNonNull(target, "target");
+
+    SampleBufferChecks.checkChannelCount(target.channels(), source.channels());
+    RangeCheck.checkGreaterEqualLong(
+      frameCount, "Frame count", 0L, "Minimum frame count");
+
+    if (frameCount == 0L) {
+      return;
+    }
+
+    checkRange(sourceStart, frameCount, source.frames(), "Source");
+    checkRange(targetStart, frameCount, target.frames(), "Target");
+
+    if (!copyDirect(source, sourceStart, target, targetStart, frameCount)) {
+      copyConverting(source, sourceStart, target, targetStart, frameCount);
+    }
+  }
+
+  private static void checkRange(
+    final long start,
+    final long frameCount,
+    final long frames,
+    final String name)
+  {
+    RangeCheck.checkIncludedInLong(
+      start,
+      name + " start frame",
+      RangeInclusiveL.of(0L, frames - 1L),
+      "Frame range");
+    RangeCheck.checkLessEqualLong(
+      frameCount,
+      "Frame count",
+      frames - start,
+      name + " frames available");
+  }
+
+  private static boolean copyDirect(
+    final SampleBufferReadableType source,
+    final long sourceStart,
+    final SampleBufferType target,
+    final long targetStart,
+    final long frameCount)
+  {
+    if (source.getClass() != target.getClass()) {
+      return false;
+    }
+
+    final var count = (int) frameCount;
+    switch (target) {
+      case final SampleBufferFloat t -> t.framesCopyFrom(
+        (SampleBufferFloat) source, sourceStart, targetStart, count);
+      case final SampleBufferDouble t -> t.framesCopyFrom(
+        (SampleBufferDouble) source, sourceStart, targetStart, count);
+      case final SampleBufferInt16 t -> t.framesCopyFrom(
+        (SampleBufferInt16) source, sourceStart, targetStart, count);
+      case final SampleBufferInt24 t -> t.framesCopyFrom(
+        (SampleBufferInt24) source, sourceStart, targetStart, count);
+      case final SampleBufferFloat16 t -> t.framesCopyFrom(
+        (SampleBufferFloat16) source, sourceStart, targetStart, count);
+      case final SampleBufferPlanarFloat t -> t.framesCopyFrom(
+        (SampleBufferPlanarFloat) source, sourceStart, targetStart, count);
+      case final SampleBufferPlanarDouble t -> t.framesCopyFrom(
+        (SampleBufferPlanarDouble) source, sourceStart, targetStart, count);
+      default -> {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static void copyConverting(
+    final SampleBufferReadableType source,
+    final long sourceStart,
+    final SampleBufferType target,
+    final long targetStart,
+    final long frameCount)
+  {
+    final var channels = target.channels();
+    final var block_frames = Math.max(1, BLOCK_SAMPLES / channels);
+    final var block = new double[block_frames * channels];
+
+    /*
+     * If the source and target are the same buffer, and the target range
+     * starts after the source range, copy backwards so that source frames
+     * are read before they are overwritten. Distinct buffers that share
+     * storage cannot be recognized here.
+     */
+
+    final var backwards =
+      source == target && targetStart > sourceStart;
+
+    var remaining = frameCount;
+    while (remaining > 0L) {
+      final var count = (int) Math.min((long) block_frames, remaining);
+      final var offset =
+        backwards ? remaining - (long) count : frameCount - remaining;
+      source.framesGetExact(sourceStart + offset, count, block, 0);
+      target.framesSetExact(targetStart + offset, count, block, 0);
+      remaining -= (long) count;
+    }
+  }
+}
@@ -16,14 +16,18 @@
 
 package com.io7m.jsamplebuffer.vanilla;
 
-import com.io7m.jranges.RangeCheck;
 import com.io7m.jranges.RangeCheckException;
-import com.io7m.jranges.RangeInclusiveI;
 import com.io7m.jranges.RangeInclusiveL;
+import com.io7m.jsamplebuffer.api.SampleBufferAccessorType;
+import com.io7m.jsamplebuffer.api.SampleBufferInterleaving;
+import com.io7m.jsamplebuffer.api.SampleBufferLayout;
+import com.io7m.jsamplebuffer.api.SampleBufferSampleFormat;
+import com.io7m.jsamplebuffer.api.SampleBufferStorageType;
 import com.io7m.jsamplebuffer.api.SampleBufferType;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
 import java.util.Objects;
 import java.util.function.LongFunction;
 
@@ -31,18 +35,15 @@ import java.util.function.LongFunction;
  * A sample buffer using {@code double} elements.
  */
 
-public final class SampleBufferDouble implements SampleBufferType
+public final class SampleBufferDouble
+  implements SampleBufferType, SampleBufferStorageType
 {
-  private static final RangeInclusiveI VALID_CHANNELS =
-    RangeInclusiveI.of(1, Integer.MAX_VALUE);
-  private static final RangeInclusiveL VALID_FRAMES =
-    RangeInclusiveL.of(1L, Long.MAX_VALUE);
-
   private static final long SAMPLE_SIZE = 8L;
 
   private final int channels;
   private final long frames;
   private final ByteBuffer buffer;
+  private final DoubleBuffer doubles;
   private final long frame_size;
   private final RangeInclusiveL frame_range;
   private final double sample_rate;
@@ -54,22 +55,19 @@ public final class SampleBufferDouble implements SampleBufferType
     final double in_sample_rate)
   {
     this.channels =
-      RangeCheck.checkIncludedInInteger(
-        in_channels,
-        "Channels",
-        VALID_CHANNELS,
-        "Valid channel count");
+      SampleBufferChecks.checkChannels(in_channels);
     this.frames =
-      RangeCheck.checkIncludedInLong(
-        in_frames,
-        "Frames",
-        VALID_FRAMES,
-        "Valid frame count");
+      SampleBufferChecks.checkFrames(in_frames);
 
     this.frame_range =
       RangeInclusiveL.of(0L, in_frames - 1L);
 
     this.buffer = Objects.requireNonNull(in_buffer, "buffer");
+    this.doubles =
+      this.buffer.duplicate()
+        .clear()
+        .order(this.buffer.order())
+        .asDoubleBuffer();
     this.sample_rate = in_sample_rate;
     this.frame_size = Math.multiplyExact((long) this.channels, SAMPLE_SIZE);
   }
@@ -93,35 +91,13 @@ public final class SampleBufferDouble implements SampleBufferType
   {
     Objects.requireNonNull(create, "create");
 
-    RangeCheck.checkIncludedInInteger(
-      channels,
-      "Channels",
-      VALID_CHANNELS,
-      "Valid channel count");
-    RangeCheck.checkIncludedInLong(
-      frames,
-      "Frames",
-      VALID_FRAMES,
-      "Valid frame count");
+    SampleBufferChecks.checkChannels(channels);
+    SampleBufferChecks.checkFrames(frames);
 
     final var per_frame = Math.multiplyExact(SAMPLE_SIZE, channels);
     final var bytes = Math.multiplyExact(per_frame, frames);
     final var buffer = create.apply(bytes);
-    if ((long) buffer.capacity() != bytes) {
-      final var separator = System.lineSeparator();
-      throw new IllegalStateException(
-        new StringBuilder(128)
-          .append("Buffer size incorrect.")
-          .append(separator)
-          .append("  Expected: ")
-          .append(Long.toUnsignedString(bytes))
-          .append(" octets")
-          .append(separator)
-          .append("  Received: ")
-          .append(buffer.capacity())
-          .append(" octets")
-          .toString());
-    }
+    SampleBufferChecks.checkBufferSize(buffer, bytes);
 
     return new SampleBufferDouble(
       channels,
@@ -180,8 +156,7 @@ public final class SampleBufferDouble implements SampleBufferType
     final double value)
     throws IllegalArgumentException
   {
-    RangeCheck.checkIncludedInLong(
-      index, "Frame index", this.frame_range, "Frame range");
+    SampleBufferChecks.checkFrameIndex(index, this.frame_range);
 
     final var base = Math.multiplyExact(this.frame_size, index);
     for (var channel_index = 0; channel_index < this.channels; ++channel_index) {
@@ -197,10 +172,9 @@ public final class SampleBufferDouble implements SampleBufferType
     final double c1)
     throws IllegalArgumentException
   {
-    this.checkChannelCount(2);
+    SampleBufferChecks.checkChannelCount(this.channels, 2);
 
-    RangeCheck.checkIncludedInLong(
-      index, "Frame index", this.frame_range, "Frame range");
+    SampleBufferChecks.checkFrameIndex(index, this.frame_range);
 
     final var base = Math.multiplyExact(this.frame_size, index);
     this.buffer.putDouble(Math.toIntExact(base), c0);
@@ -213,10 +187,9 @@ public final class SampleBufferDouble implements SampleBufferType
     final double c0)
     throws IllegalArgumentException
   {
-    this.checkChannelCount(1);
+    SampleBufferChecks.checkChannelCount(this.channels, 1);
 
-    RangeCheck.checkIncludedInLong(
-      index, "Frame index", this.frame_range, "Frame range");
+    SampleBufferChecks.checkFrameIndex(index, this.frame_range);
 
     final var base = Math.multiplyExact(this.frame_size, index);
     this.buffer.putDouble(Math.toIntExact(base), c0);
@@ -230,10 +203,9 @@ public final class SampleBufferDouble implements SampleBufferType
   {
     Objects.requireNonNull(value, "value");
 
-    this.checkChannelCount(value.length);
+    SampleBufferChecks.checkChannelCount(this.channels, value.length);
 
-    RangeCheck.checkIncludedInLong(
-      index, "Frame index", this.frame_range, "Frame range");
+    SampleBufferChecks.checkFrameIndex(index, this.frame_range);
 
     final var base = Math.multiplyExact(this.frame_size, index);
     for (var channel_index = 0; channel_index < this.channels; ++channel_index) {
@@ -242,24 +214,142 @@ public final class SampleBufferDouble implements SampleBufferType
     }
   }
 
-  private void checkChannelCount(
-    final int length)
+  @Override
+  public void framesSetExact(
+    final long index,
+    final int frameCount,
+    final double[] input,
+    final int offset)
+  {
+    Objects.requireNonNull(input, "input");
+
+    final var base = this.checkFrames(index, frameCount, offset, input.length);
+    this.doubles.put(base, input, offset, frameCount * this.channels);
+  }
+
+  @Override
+  public void framesSetExact(
+    final long index,
+    final int frameCount,
+    final float[] input,
+    final int offset)
+  {
+    Objects.requireNonNull(input, "input");
+
+    final var base = this.checkFrames(index, frameCount, offset, input.length);
+    final var count = frameCount * this.channels;
+    for (var sample = 0; sample < count; ++sample) {
+      this.doubles.put(base + sample, (double) input[offset + sample]);
+    }
+  }
+
+  @Override
+  public void channelSetExact(
+    final int channel,
+    final long index,
+    final double value)
+  {
+    this.doubles.put(this.checkChannelFrames(channel, index, 1, 0, 1), value);
+  }
+
+  @Override
+  public void channelSetExact(
+    final int channel,
+    final long index,
+    final int frameCount,
+    final double[] input,
+    final int offset)
+  {
+    Objects.requireNonNull(input, "input");
+
+    var position =
+      this.checkChannelFrames(channel, index, frameCount, offset, input.length);
+    for (var frame = 0; frame < frameCount; ++frame) {
+      this.doubles.put(position, input[offset + frame]);
+      position += this.channels;
+    }
+  }
+
+  @Override
+  public void channelSetExact(
+    final int channel,
+    final long index,
+    final int frameCount,
+    final float[] input,
+    final int offset)
   {
-    if (this.channels != length) {
-      final var separator = System.lineSeparator();
-      throw new IllegalArgumentException(
-        new StringBuilder("Incorrect channel count.")
-          .append(separator)
-          .append("  Expected: ")
-          .append(this.channels)
-          .append(separator)
-          .append("  Received: ")
-          .append(length)
-          .append(separator)
-          .toString());
+    Objects.requireNonNull(input, "input");
+
+    var position =
+      this.checkChannelFrames(channel, index, frameCount, offset, input.length);
+    for (var frame = 0; frame < frameCount; ++frame) {
+      this.doubles.put(position, (double) input[offset + frame]);
+      position += this.channels;
     }
   }
 
+  private int checkFrames(
+    final long index,
+    final int frameCount,
+    final int offset,
+    final int length)
+  {
+    SampleBufferChecks.checkFrameBlock(
+      index, frameCount, this.frame_range, this.channels, offset, length);
+    return Math.toIntExact(Math.multiplyExact(index, (long) this.channels));
+  }
+
+  private int checkChannelFrames(
+    final int channel,
+    final long index,
+    final int frameCount,
+    final int offset,
+    final int length)
+  {
+    Objects.checkIndex(channel, this.channels);
+    SampleBufferChecks.checkFrameBlock(
+      index, frameCount, this.frame_range, 1, offset, length);
+    return Math.toIntExact(
+      Math.addExact(Math.multiplyExact(index, (long) this.channels), channel));
+  }
+
+  @Override
+  public SampleBufferType slice(
+    final long startFrame,
+    final long frameCount)
+  {
+    SampleBufferChecks.checkSlice(startFrame, frameCount, this.frame_range);
+
+    final var offset =
+      Math.toIntExact(Math.multiplyExact(startFrame, this.frame_size));
+    final var size =
+      Math.toIntExact(Math.multiplyExact(frameCount, this.frame_size));
+
+    return new SampleBufferDouble(
+      this.channels,
+      frameCount,
+      this.buffer.slice(offset, size).order(this.buffer.order()),
+      this.sample_rate);
+  }
+
+  @Override
+  public SampleBufferAccessorType accessor(
+    final long startFrame,
+    final int frameCount)
+  {
+    SampleBufferChecks.checkSlice(startFrame, frameCount, this.frame_range);
+
+    final var offset =
+      Math.toIntExact(Math.multiplyExact(startFrame, (long) this.channels));
+    final var size =
+      Math.multiplyExact(frameCount, this.channels);
+
+    return new SampleBufferDoubleAccessor(
+      this.doubles.slice(offset, size),
+      this.channels,
+      frameCount);
+  }
+
   @Override
   public int channels()
   {
@@ -286,10 +376,9 @@ public final class SampleBufferDouble implements SampleBufferType
   {
     Objects.requireNonNull(output, "output");
 
-    this.checkChannelCount(output.length);
+    SampleBufferChecks.checkChannelCount(this.channels, output.length);
 
-    RangeCheck.checkIncludedInLong(
-      index, "Frame index", this.frame_range, "Frame range");
+    SampleBufferChecks.checkFrameIndex(index, this.frame_range);
 
     final var base = Math.multiplyExact(this.frame_size, index);
     for (var channel_index = 0; channel_index < this.channels; ++channel_index) {
@@ -302,12 +391,126 @@ public final class SampleBufferDouble implements SampleBufferType
   public double frameGetExact(final long index)
     throws RangeCheckException
   {
-    this.checkChannelCount(1);
+    SampleBufferChecks.checkChannelCount(this.channels, 1);
 
-    RangeCheck.checkIncludedInLong(
-      index, "Frame index", this.frame_range, "Frame range");
+    SampleBufferChecks.checkFrameIndex(index, this.frame_range);
 
     final var base = Math.multiplyExact(this.frame_size, index);
     return this.buffer.getDouble(Math.toIntExact(base));
   }
+
+  @Override
+  public void framesGetExact(
+    final long index,
+    final int frameCount,
+    final double[] output,
+    final int offset)
+  {
+    Objects.requireNonNull(output, "output");
+
+    final var base = this.checkFrames(index, frameCount, offset, output.length);
+    this.doubles.get(base, output, offset, frameCount * this.channels);
+  }
+
+  @Override
+  public void framesGetExact(
+    final long index,
+    final int frameCount,
+    final float[] output,
+    final int offset)
+  {
+    Objects.requireNonNull(output, "output");
+
+    final var base = this.checkFrames(index, frameCount, offset, output.length);
+    final var count = frameCount * this.channels;
+    for (var sample = 0; sample < count; ++sample) {
+      output[offset + sample] = (float) this.doubles.get(base + sample);
+    }
+  }
+
+  @Override
+  public double channelGetExact(
+    final int channel,
+    final long index)
+  {
+    return this.doubles.get(this.checkChannelFrames(channel, index, 1, 0, 1));
+  }
+
+  @Override
+  public void channelGetExact(
+    final int channel,
+    final long index,
+    final int frameCount,
+    final double[] output,
+    final int offset)
+  {
+    Objects.requireNonNull(output, "output");
+
+    var position =
+      this.checkChannelFrames(channel, index, frameCount, offset, output.length);
+    for (var frame = 0; frame < frameCount; ++frame) {
+      output[offset + frame] = this.doubles.get(position);
+      position += this.channels;
+    }
+  }
+
+  @Override
+  public void channelGetExact(
+    final int channel,
+    final long index,
+    final int frameCount,
+    final float[] output,
+    final int offset)
+  {
+    Objects.requireNonNull(output, "output");
+
+    var position =
+      this.checkChannelFrames(channel, index, frameCount, offset, output.length);
+    for (var frame = 0; frame < frameCount; ++frame) {
+      output[offset + frame] = (float) this.doubles.get(position);
+      position += this.channels;
+    }
+  }
+
+  /**
+   * Copy {@code frameCount} frames starting at {@code sourceIndex} in
+   * {@code source} to this buffer starting at {@code index}. The storage of
+   * both buffers has the same layout, and so this is a bulk copy. The frame
+   * ranges must have been checked by the caller. Overlapping ranges in the
+   * same storage are copied correctly.
+   */
+
+  void framesCopyFrom(
+    final SampleBufferDouble source,
+    final long sourceIndex,
+    final long index,
+    final int frameCount)
+  {
+    final var samples = frameCount * this.channels;
+    this.doubles.put(
+      (int) index * this.channels,
+      source.doubles,
+      (int) sourceIndex * source.channels,
+      samples);
+  }
+
+  @Override
+  public SampleBufferLayout layout()
+  {
+    return SampleBufferLayout.of(
+      SampleBufferSampleFormat.FLOAT_64,
+      SampleBufferInterleaving.INTERLEAVED,
+      this.buffer.order(),
+      this.channels);
+  }
+
+  @Override
+  public ByteBuffer storage(
+    final int block)
+  {
+    Objects.checkIndex(block, 1);
+    return this.buffer.asReadOnlyBuffer()
+      .clear()
+      .order(this.buffer.order());
+  }
 }
@@ -0,0 +1,73 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.vanilla;
+
+import com.io7m.jsamplebuffer.api.SampleBufferAccessorType;
+
+import java.nio.DoubleBuffer;
+import java.util.Objects;
+
+/**
+ * An accessor over interleaved {@code double} samples. The given buffer
+ * holds exactly the frames of the accessor.
+ */
+
+final class SampleBufferDoubleAccessor implements SampleBufferAccessorType
+{
+  private final DoubleBuffer samples;
+  private final int channels;
+  private final int frameCount;
+
+  SampleBufferDoubleAccessor(
+    final DoubleBuffer in_samples,
+    final int in_channels,
+    final int in_frameCount)
+  {
+    this.samples = Objects.requireNonNull(in_samples, "samples");
+    this.channels = in_channels;
+    this.frameCount = in_frameCount;
+  }
+
+  @Override
+  public int channels()
+  {
+    return this.channels;
+  }
+
+  @Override
+  public int frameCount()
+  {
+    return this.frameCount;
+  }
+
+  @Override
+  public double get(
+    final int frame,
+    final int channel)
+  {
+    return this.samples.get((frame * this.channels) + channel);
+  }
+
+  @Override
+  public void set(
+    final int frame,
+    final int channel,
+    final double value)
+  {
+    this.samples.put((frame * this.channels) + channel, value);
+  }
+}
@@ -0,0 +1,504 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.vanilla;
+
+import com.io7m.jranges.RangeInclusiveL;
+import com.io7m.jsamplebuffer.api.SampleBufferInterleaving;
+import com.io7m.jsamplebuffer.api.SampleBufferLayout;
+import com.io7m.jsamplebuffer.api.SampleBufferSampleFormat;
+import com.io7m.jsamplebuffer.api.SampleBufferStorageType;
+import com.io7m.jsamplebuffer.api.SampleBufferType;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.util.Objects;
+import java.util.function.LongFunction;
+
+/**
+ * A sample buffer using IEEE 754 half-precision ({@code binary16})
+ * elements. Samples are converted to and from {@code float} values on
+ * access using {@link Float#floatToFloat16(float)} and
+ * {@link Float#float16ToFloat(short)}, and so the buffer uses half the
+ * memory of {@link SampleBufferFloat} at the cost of precision: each sample
+ * has an 11-bit significand.
+ */
+
+public final class SampleBufferFloat16
+  implements SampleBufferType, SampleBufferStorageType
+{
+  private static final long SAMPLE_SIZE = 2L;
+
+  private final int channels;
+  private final long frames;
+  private final ByteBuffer buffer;
+  private final ShortBuffer shorts;
+  private final RangeInclusiveL frame_range;
+  private final double sample_rate;
+
+  private SampleBufferFloat16(
+    final int in_channels,
+    final long in_frames,
+    final ByteBuffer in_buffer,
+    final double in_sample_rate)
+  {
+    this.channels =
+      SampleBufferChecks.checkChannels(in_channels);
+    this.frames =
+      SampleBufferChecks.checkFrames(in_frames);
+
+    this.frame_range =
+      RangeInclusiveL.of(0L, in_frames - 1L);
+
+    this.buffer = Objects.requireNonNull(in_buffer, "buffer");
+    this.shorts =
+      this.buffer.duplicate()
+        .clear()
+        .order(this.buffer.order())
+        .asShortBuffer();
+    this.sample_rate = in_sample_rate;
+  }
+
+  /**
+   * Create a sample buffer.
+   *
+   * @param channels    The number of channels per frame
+   * @param frames      The number of frames in the buffer
+   * @param create      A function that allocates a byte buffer for the samples
+   * @param sample_rate The sample rate in hz
+   *
+   * @return A new sample buffer
+   */
+
+  public static SampleBufferType createWithByteBuffer(
+    final int channels,
+    final long frames,
+    final double sample_rate,
+    final LongFunction<ByteBuffer> create)
+  {
+    Objects.requireNonNull(create, "create");
+
+    SampleBufferChecks.checkChannels(channels);
+    SampleBufferChecks.checkFrames(frames);
+
+    final var per_frame = Math.multiplyExact(SAMPLE_SIZE, channels);
+    final var bytes = Math.multiplyExact(per_frame, frames);
+    final var buffer = create.apply(bytes);
+    SampleBufferChecks.checkBufferSize(buffer, bytes);
+
+    return new SampleBufferFloat16(
+      channels,
+      frames,
+      buffer.order(ByteOrder.nativeOrder()),
+      sample_rate);
+  }
+
+  /**
+   * Create a sample buffer. The underlying buffer will be allocated using direct memory.
+   *
+   * @param channels    The number of channels per frame
+   * @param frames      The number of frames in the buffer
+   * @param sample_rate The sample rate in hz
+   *
+   * @return A new sample buffer
+   */
+
+  public static SampleBufferType createWithDirectBuffer(
+    final int channels,
+    final long frames,
+    final double sample_rate)
+  {
+    return createWithByteBuffer(
+      channels,
+      frames,
+      sample_rate,
+      bytes -> ByteBuffer.allocateDirect(Math.toIntExact(bytes)));
+  }
+
+  /**
+   * Create a sample buffer. The underlying buffer will be heap-allocated.
+   *
+   * @param channels    The number of channels per frame
+   * @param frames      The number of frames in the buffer
+   * @param sample_rate The sample rate in hz
+   *
+   * @return A new sample buffer
+   */
+
+  public static SampleBufferType createWithHeapBuffer(
+    final int channels,
+    final long frames,
+    final double sample_rate)
+  {
+    return createWithByteBuffer(
+      channels,
+      frames,
+      sample_rate,
+      bytes -> ByteBuffer.allocate(Math.toIntExact(bytes)));
+  }
+
+  private static short toHalf(
+    final double value)
+  {
+    return Float.floatToFloat16((float) value);
+  }
+
+  private static double toDouble(
+    final short value)
+  {
+    return (double) Float.float16ToFloat(value);
+  }
+
+  @Override
+  public void frameSetAll(
+    final long index,
+    final double value)
+  {
+    final var base = this.checkFrames(index, 1, 0, this.channels);
+    final var stored = toHalf(value);
+    for (var channel = 0; channel < this.channels; ++channel) {
+      this.shorts.put(base + channel, stored);
+    }
+  }
+
+  @Override
+  public void frameSetExact(
+    final long index,
+    final double c0)
+    throws IllegalArgumentException
+  {
+    SampleBufferChecks.checkChannelCount(this.channels, 1);
+
+    final var base = this.checkFrames(index, 1, 0, 1);
+    this.shorts.put(base, toHalf(c0));
+  }
+
+  @Override
+  public void frameSetExact(
+    final long index,
+    final double c0,
+    final double c1)
+    throws IllegalArgumentException
+  {
+    SampleBufferChecks.checkChannelCount(this.channels, 2);
+
+    final var base = this.checkFrames(index, 1, 0, 2);
+    this.shorts.put(base, toHalf(c0));
+    this.shorts.put(base + 1, toHalf(c1));
+  }
+
+  @Override
+  public void frameSetExact(
+    final long index,
+    final double[] value)
+    throws IllegalArgumentException
+  {
+    Objects.requireNonNull(value, "value");
+
+    SampleBufferChecks.checkChannelCount(this.channels, value.length);
+
+    final var base = this.checkFrames(index, 1, 0, value.length);
+    for (var channel = 0; channel < this.channels; ++channel) {
+      this.shorts.put(base + channel, toHalf(value[channel]));
+    }
+  }
+
+  @Override
+  public void framesSetExact(
+    final long index,
+    final int frameCount,
+    final double[] input,
+    final int offset)
+  {
+    Objects.requireNonNull(input, "input");
+
+    final var base = this.checkFrames(index, frameCount, offset, input.length);
+    final var count = frameCount * this.channels;
+    for (var sample = 0; sample < count; ++sample) {
+      this.shorts.put(base + sample, toHalf(input[offset + sample]));
+    }
+  }
+
+  @Override
+  public void framesSetExact(
+    final long index,
+    final int frameCount,
+    final float[] input,
+    final int offset)
+  {
+    Objects.requireNonNull(input, "input");
+
+    final var base = this.checkFrames(index, frameCount, offset, input.length);
+    final var count = frameCount * this.channels;
+    for (var sample = 0; sample < count; ++sample) {
+      this.shorts.put(base + sample, Float.floatToFloat16(input[offset + sample]));
+    }
+  }
+
+  @Override
+  public void channelSetExact(
+    final int channel,
+    final long index,
+    final double value)
+  {
+    this.shorts.put(
+      this.checkChannelFrames(channel, index, 1, 0, 1), toHalf(value));
+  }
+
+  @Override
+  public void channelSetExact(
+    final int channel,
+    final long index,
+    final int frameCount,
+    final double[] input,
+    final int offset)
+  {
+    Objects.requireNonNull(input, "input");
+
+    var position =
+      this.checkChannelFrames(channel, index, frameCount, offset, input.length);
+    for (var frame = 0; frame < frameCount; ++frame) {
+      this.shorts.put(position, toHalf(input[offset + frame]));
+      position += this.channels;
+    }
+  }
+
+  @Override
+  public void channelSetExact(
+    final int channel,
+    final long index,
+    final int frameCount,
+    final float[] input,
+    final int offset)
+  {
+    Objects.requireNonNull(input, "input");
+
+    var position =
+      this.checkChannelFrames(channel, index, frameCount, offset, input.length);
+    for (var frame = 0; frame < frameCount; ++frame) {
+      this.shorts.put(position, Float.floatToFloat16(input[offset + frame]));
+      position += this.channels;
+    }
+  }
+
+  private int checkFrames(
+    final long index,
+    final int frameCount,
+    final int offset,
+    final int length)
+  {
+    SampleBufferChecks.checkFrameBlock(
+      index, frameCount, this.frame_range, this.channels, offset, length);
+    return Math.toIntExact(Math.multiplyExact(index, (long) this.channels));
+  }
+
+  private int checkChannelFrames(
+    final int channel,
+    final long index,
+    final int frameCount,
+    final int offset,
+    final int length)
+  {
+    Objects.checkIndex(channel, this.channels);
+    SampleBufferChecks.checkFrameBlock(
+      index, frameCount, this.frame_range, 1, offset, length);
+    return Math.toIntExact(
+      Math.addExact(Math.multiplyExact(index, (long) this.channels), channel));
+  }
+
+  @Override
+  public SampleBufferType slice(
+    final long startFrame,
+    final long frameCount)
+  {
+    SampleBufferChecks.checkSlice(startFrame, frameCount, this.frame_range);
+
+    final var offset =
+      Math.toIntExact(Math.multiplyExact(startFrame, (long) this.channels));
+    final var size =
+      Math.toIntExact(Math.multiplyExact(frameCount, (long) this.channels));
+
+    return new SampleBufferFloat16(
+      this.channels,
+      frameCount,
+      this.buffer.slice(offset * (int) SAMPLE_SIZE, size * (int) SAMPLE_SIZE)
+        .order(this.buffer.order()),
+      this.sample_rate);
+  }
+
+  @Override
+  public int channels()
+  {
+    return this.channels;
+  }
+
+  @Override
+  public long frames()
+  {
+    return this.frames;
+  }
+
+  @Override
+  public double sampleRate()
+  {
+    return this.sample_rate;
+  }
+
+  @Override
+  public void frameGetExact(
+    final long index,
+    final double[] output)
+    throws IllegalArgumentException
+  {
+    Objects.requireNonNull(output, "output");
+
+    SampleBufferChecks.checkChannelCount(this.channels, output.length);
+
+    final var base = this.checkFrames(index, 1, 0, output.length);
+    for (var channel = 0; channel < this.channels; ++channel) {
+      output[channel] = toDouble(this.shorts.get(base + channel));
+    }
+  }
+
+  @Override
+  public double frameGetExact(
+    final long index)
+  {
+    SampleBufferChecks.checkChannelCount(this.channels, 1);
+
+    return toDouble(this.shorts.get(this.checkFrames(index, 1, 0, 1)));
+  }
+
+  @Override
+  public void framesGetExact(
+    final long index,
+    final int frameCount,
+    final double[] output,
+    final int offset)
+  {
+    Objects.requireNonNull(output, "output");
+
+    final var base = this.checkFrames(index, frameCount, offset, output.length);
+    final var count = frameCount * this.channels;
+    for (var sample = 0; sample < count; ++sample) {
+      output[offset + sample] = toDouble(this.shorts.get(base + sample));
+    }
+  }
+
+  @Override
+  public void framesGetExact(
+    final long index,
+    final int frameCount,
+    final float[] output,
+    final int offset)
+  {
+    Objects.requireNonNull(output, "output");
+
+    final var base = this.checkFrames(index, frameCount, offset, output.length);
+    final var count = frameCount * this.channels;
+    for (var sample = 0; sample < count; ++sample) {
+      output[offset + sample] = Float.float16ToFloat(this.shorts.get(base + sample));
+    }
+  }
+
+  @Override
+  public double channelGetExact(
+    final int channel,
+    final long index)
+  {
+    return toDouble(
+      this.shorts.get(this.checkChannelFrames(channel, index, 1, 0, 1)));
+  }
+
+  @Override
+  public void channelGetExact(
+    final int channel,
+    final long index,
+    final int frameCount,
+    final double[] output,
+    final int offset)
+  {
+    Objects.requireNonNull(output, "output");
+
+    var position =
+      this.checkChannelFrames(channel, index, frameCount, offset, output.length);
+    for (var frame = 0; frame < frameCount; ++frame) {
+      output[offset + frame] = toDouble(this.shorts.get(position));
+      position += this.channels;
+    }
+  }
+
+  @Override
+  public void channelGetExact(
+    final int channel,
+    final long index,
+    final int frameCount,
+    final float[] output,
+    final int offset)
+  {
+    Objects.requireNonNull(output, "output");
+
+    var position =
+      this.checkChannelFrames(channel, index, frameCount, offset, output.length);
+    for (var frame = 0; frame < frameCount; ++frame) {
+      output[offset + frame] = Float.float16ToFloat(this.shorts.get(position));
+      position += this.channels;
+    }
+  }
+
+  /**
+   * Copy {@code frameCount} frames starting at {@code sourceIndex} in
+   * {@code source} to this buffer starting at {@code index}. The storage of
+   * both buffers has the same layout, and so this is a bulk copy. The frame
+   * ranges must have been checked by the caller. Overlapping ranges in the
+   * same storage are copied correctly.
+   */
+
+  void framesCopyFrom(
+    final SampleBufferFloat16 source,
+    final long sourceIndex,
+    final long index,
+    final int frameCount)
+  {
+    final var samples = frameCount * this.channels;
+    this.shorts.put(
+      (int) index * this.channels,
+      source.shorts,
+      (int) sourceIndex * source.channels,
+      samples);
+  }
+
+  @Override
+  public SampleBufferLayout layout()
+  {
+    return SampleBufferLayout.of(
+      SampleBufferSampleFormat.FLOAT_16,
+      SampleBufferInterleaving.INTERLEAVED,
+      this.buffer.order(),
+      this.channels);
+  }
+
+  @Override
+  public ByteBuffer storage(
+    final int block)
+  {
+    Objects.checkIndex(block, 1);
+    return this.buffer.asReadOnlyBuffer()
+      .clear()
+      .order(this.buffer.order());
+  }
+}
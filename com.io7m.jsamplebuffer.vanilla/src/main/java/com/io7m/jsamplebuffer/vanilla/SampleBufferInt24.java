@@ -0,0 +1,569 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.vanilla;
+
+import com.io7m.jranges.RangeInclusiveL;
+import com.io7m.jsamplebuffer.api.SampleBufferIntegerType;
+import com.io7m.jsamplebuffer.api.SampleBufferInterleaving;
+import com.io7m.jsamplebuffer.api.SampleBufferLayout;
+import com.io7m.jsamplebuffer.api.SampleBufferSampleFormat;
+import com.io7m.jsamplebuffer.api.SampleBufferStorageType;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+import java.util.function.LongFunction;
+
+/**
+ * A sample buffer using packed signed 24-bit integer elements. Each sample
+ * occupies three octets, stored in little-endian order regardless of the
+ * platform. Samples are converted to and from {@code double} values on
+ * access, and so the buffer uses three eighths of the memory of
+ * {@link SampleBufferDouble}.
+ *
+ * @see SampleBufferIntegerType
+ */
+
+public final class SampleBufferInt24
+  implements SampleBufferIntegerType, SampleBufferStorageType
+{
+  private static final long SAMPLE_SIZE = 3L;
+  private static final int BITS = 24;
+  private static final int MINIMUM = -8388608;
+  private static final int MAXIMUM = 8388607;
+  private static final double SCALE = 8388608.0;
+  private static final double SCALE_INVERSE = 1.0 / SCALE;
+
+  private final int channels;
+  private final long frames;
+  private final ByteBuffer buffer;
+  private final RangeInclusiveL frame_range;
+  private final double sample_rate;
+
+  private SampleBufferInt24(
+    final int in_channels,
+    final long in_frames,
+    final ByteBuffer in_buffer,
+    final double in_sample_rate)
+  {
+    this.channels =
+      SampleBufferChecks.checkChannels(in_channels);
+    this.frames =
+      SampleBufferChecks.checkFrames(in_frames);
+
+    this.frame_range =
+      RangeInclusiveL.of(0L, in_frames - 1L);
+
+    this.buffer = Objects.requireNonNull(in_buffer, "buffer");
+    this.sample_rate = in_sample_rate;
+  }
+
+  /**
+   * Create a sample buffer.
+   *
+   * @param channels    The number of channels per frame
+   * @param frames      The number of frames in the buffer
+   * @param create      A function that allocates a byte buffer for the samples
+   * @param sample_rate The sample rate in hz
+   *
+   * @return A new sample buffer
+   */
+
+  public static SampleBufferIntegerType createWithByteBuffer(
+    final int channels,
+    final long frames,
+    final double sample_rate,
+    final LongFunction<ByteBuffer> create)
+  {
+    Objects.requireNonNull(create, "create");
+
+    SampleBufferChecks.checkChannels(channels);
+    SampleBufferChecks.checkFrames(frames);
+
+    final var per_frame = Math.multiplyExact(SAMPLE_SIZE, channels);
+    final var bytes = Math.multiplyExact(per_frame, frames);
+    final var buffer = create.apply(bytes);
+    SampleBufferChecks.checkBufferSize(buffer, bytes);
+
+    return new SampleBufferInt24(
+      channels,
+      frames,
+      buffer.order(ByteOrder.LITTLE_ENDIAN),
+      sample_rate);
+  }
+
+  /**
+   * Create a sample buffer. The underlying buffer will be allocated using direct memory.
+   *
+   * @param channels    The number of channels per frame
+   * @param frames      The number of frames in the buffer
+   * @param sample_rate The sample rate in hz
+   *
+   * @return A new sample buffer
+   */
+
+  public static SampleBufferIntegerType createWithDirectBuffer(
+    final int channels,
+    final long frames,
+    final double sample_rate)
+  {
+    return createWithByteBuffer(
+      channels,
+      frames,
+      sample_rate,
+      bytes -> ByteBuffer.allocateDirect(Math.toIntExact(bytes)));
+  }
+
+  /**
+   * Create a sample buffer. The underlying buffer will be heap-allocated.
+   *
+   * @param channels    The number of channels per frame
+   * @param frames      The number of frames in the buffer
+   * @param sample_rate The sample rate in hz
+   *
+   * @return A new sample buffer
+   */
+
+  public static SampleBufferIntegerType createWithHeapBuffer(
+    final int channels,
+    final long frames,
+    final double sample_rate)
+  {
+    return createWithByteBuffer(
+      channels,
+      frames,
+      sample_rate,
+      bytes -> ByteBuffer.allocate(Math.toIntExact(bytes)));
+  }
+
+  private static int clamp(
+    final int value)
+  {
+    return Math.max(MINIMUM, Math.min(MAXIMUM, value));
+  }
+
+  private static int toInteger(
+    final double value)
+  {
+    return (int) Math.max(
+      (double) MINIMUM,
+      Math.min((double) MAXIMUM, Math.rint(value * SCALE)));
+  }
+
+  private static double toNormal(
+    final int value)
+  {
+    return (double) value * SCALE_INVERSE;
+  }
+
+  private int sampleGet(
+    final int position)
+  {
+    final var octet = position * 3;
+    final var b0 = (int) this.buffer.get(octet) & 0xff;
+    final var b1 = (int) this.buffer.get(octet + 1) & 0xff;
+    final var b2 = (int) this.buffer.get(octet + 2);
+    return (b2 << 16) | (b1 << 8) | b0;
+  }
+
+  private void samplePut(
+    final int position,
+    final int value)
+  {
+    final var octet = position * 3;
+    this.buffer.put(octet, (byte) value);
+    this.buffer.put(octet + 1, (byte) (value >>> 8));
+    this.buffer.put(octet + 2, (byte) (value >>> 16));
+  }
+
+  @Override
+  public int integerBits()
+  {
+    return BITS;
+  }
+
+  @Override
+  public void framesSetIntegers(
+    final long index,
+    final int frameCount,
+    final int[] input,
+    final int offset)
+  {
+    Objects.requireNonNull(input, "input");
+
+    final var base = this.checkFrames(index, frameCount, offset, input.length);
+    final var count = frameCount * this.channels;
+    for (var sample = 0; sample < count; ++sample) {
+      this.samplePut(base + sample, clamp(input[offset + sample]));
+    }
+  }
+
+  @Override
+  public void framesGetIntegers(
+    final long index,
+    final int frameCount,
+    final int[] output,
+    final int offset)
+  {
+    Objects.requireNonNull(output, "output");
+
+    final var base = this.checkFrames(index, frameCount, offset, output.length);
+    final var count = frameCount * this.channels;
+    for (var sample = 0; sample < count; ++sample) {
+      output[offset + sample] = this.sampleGet(base + sample);
+    }
+  }
+
+  @Override
+  public void frameSetAll(
+    final long index,
+    final double value)
+  {
+    final var base = this.checkFrames(index, 1, 0, this.channels);
+    final var stored = toInteger(value);
+    for (var channel = 0; channel < this.channels; ++channel) {
+      this.samplePut(base + channel, stored);
+    }
+  }
+
+  @Override
+  public void frameSetExact(
+    final long index,
+    final double c0)
+    throws IllegalArgumentException
+  {
+    SampleBufferChecks.checkChannelCount(this.channels, 1);
+
+    final var base = this.checkFrames(index, 1, 0, 1);
+    this.samplePut(base, toInteger(c0));
+  }
+
+  @Override
+  public void frameSetExact(
+    final long index,
+    final double c0,
+    final double c1)
+    throws IllegalArgumentException
+  {
+    SampleBufferChecks.checkChannelCount(this.channels, 2);
+
+    final var base = this.checkFrames(index, 1, 0, 2);
+    this.samplePut(base, toInteger(c0));
+    this.samplePut(base + 1, toInteger(c1));
+  }
+
+  @Override
+  public void frameSetExact(
+    final long index,
+    final double[] value)
+    throws IllegalArgumentException
+  {
+    Objects.requireNonNull(value, "value");
+
+    SampleBufferChecks.checkChannelCount(this.channels, value.length);
+
+    final var base = this.checkFrames(index, 1, 0, value.length);
+    for (var channel = 0; channel < this.channels; ++channel) {
+      this.samplePut(base + channel, toInteger(value[channel]));
+    }
+  }
+
+  @Override
+  public void framesSetExact(
+    final long index,
+    final int frameCount,
+    final double[] input,
+    final int offset)
+  {
+    Objects.requireNonNull(input, "input");
+
+    final var base = this.checkFrames(index, frameCount, offset, input.length);
+    final var count = frameCount * this.channels;
+    for (var sample = 0; sample < count; ++sample) {
+      this.samplePut(base + sample, toInteger(input[offset + sample]));
+    }
+  }
+
+  @Override
+  public void framesSetExact(
+    final long index,
+    final int frameCount,
+    final float[] input,
+    final int offset)
+  {
+    Objects.requireNonNull(input, "input");
+
+    final var base = this.checkFrames(index, frameCount, offset, input.length);
+    final var count = frameCount * this.channels;
+    for (var sample = 0; sample < count; ++sample) {
+      this.samplePut(base + sample, toInteger((double) input[offset + sample]));
+    }
+  }
+
+  @Override
+  public void channelSetExact(
+    final int channel,
+    final long index,
+    final double value)
+  {
+    this.samplePut(
+      this.checkChannelFrames(channel, index, 1, 0, 1), toInteger(value));
+  }
+
+  @Override
+  public void channelSetExact(
+    final int channel,
+    final long index,
+    final int frameCount,
+    final double[] input,
+    final int offset)
+  {
+    Objects.requireNonNull(input, "input");
+
+    var position =
+      this.checkChannelFrames(channel, index, frameCount, offset, input.length);
+    for (var frame = 0; frame < frameCount; ++frame) {
+      this.samplePut(position, toInteger(input[offset + frame]));
+      position += this.channels;
+    }
+  }
+
+  @Override
+  public void channelSetExact(
+    final int channel,
+    final long index,
+    final int frameCount,
+    final float[] input,
+    final int offset)
+  {
+    Objects.requireNonNull(input, "input");
+
+    var position =
+      this.checkChannelFrames(channel, index, frameCount, offset, input.length);
+    for (var frame = 0; frame < frameCount; ++frame) {
+      this.samplePut(position, toInteger((double) input[offset + frame]));
+      position += this.channels;
+    }
+  }
+
+  private int checkFrames(
+    final long index,
+    final int frameCount,
+    final int offset,
+    final int length)
+  {
+    SampleBufferChecks.checkFrameBlock(
+      index, frameCount, this.frame_range, this.channels, offset, length);
+    return Math.toIntExact(Math.multiplyExact(index, (long) this.channels));
+  }
+
+  private int checkChannelFrames(
+    final int channel,
+    final long index,
+    final int frameCount,
+    final int offset,
+    final int length)
+  {
+    Objects.checkIndex(channel, this.channels);
+    SampleBufferChecks.checkFrameBlock(
+      index, frameCount, this.frame_range, 1, offset, length);
+    return Math.toIntExact(
+      Math.addExact(Math.multiplyExact(index, (long) this.channels), channel));
+  }
+
+  @Override
+  public SampleBufferIntegerType slice(
+    final long startFrame,
+    final long frameCount)
+  {
+    SampleBufferChecks.checkSlice(startFrame, frameCount, this.frame_range);
+
+    final var frame_size = Math.multiplyExact(SAMPLE_SIZE, this.channels);
+    final var offset =
+      Math.toIntExact(Math.multiplyExact(startFrame, frame_size));
+    final var size =
+      Math.toIntExact(Math.multiplyExact(frameCount, frame_size));
+
+    return new SampleBufferInt24(
+      this.channels,
+      frameCount,
+      this.buffer.slice(offset, size).order(ByteOrder.LITTLE_ENDIAN),
+      this.sample_rate);
+  }
+
+  @Override
+  public int channels()
+  {
+    return this.channels;
+  }
+
+  @Override
+  public long frames()
+  {
+    return this.frames;
+  }
+
+  @Override
+  public double sampleRate()
+  {
+    return this.sample_rate;
+  }
+
+  @Override
+  public void frameGetExact(
+    final long index,
+    final double[] output)
+    throws IllegalArgumentException
+  {
+    Objects.requireNonNull(output, "output");
+
+    SampleBufferChecks.checkChannelCount(this.channels, output.length);
+
+    final var base = this.checkFrames(index, 1, 0, output.length);
+    for (var channel = 0; channel < this.channels; ++channel) {
+      output[channel] = toNormal(this.sampleGet(base + channel));
+    }
+  }
+
+  @Override
+  public double frameGetExact(
+    final long index)
+  {
+    SampleBufferChecks.checkChannelCount(this.channels, 1);
+
+    return toNormal(this.sampleGet(this.checkFrames(index, 1, 0, 1)));
+  }
+
+  @Override
+  public void framesGetExact(
+    final long index,
+    final int frameCount,
+    final double[] output,
+    final int offset)
+  {
+    Objects.requireNonNull(output, "output");
+
+    final var base = this.checkFrames(index, frameCount, offset, output.length);
+    final var count = frameCount * this.channels;
+    for (var sample = 0; sample < count; ++sample) {
+      output[offset + sample] = toNormal(this.sampleGet(base + sample));
+    }
+  }
+
+  @Override
+  public void framesGetExact(
+    final long index,
+    final int frameCount,
+    final float[] output,
+    final int offset)
+  {
+    Objects.requireNonNull(output, "output");
+
+    final var base = this.checkFrames(index, frameCount, offset, output.length);
+    final var count = frameCount * this.channels;
+    for (var sample = 0; sample < count; ++sample) {
+      output[offset + sample] = (float) toNormal(this.sampleGet(base + sample));
+    }
+  }
+
+  @Override
+  public double channelGetExact(
+    final int channel,
+    final long index)
+  {
+    return toNormal(
+      this.sampleGet(this.checkChannelFrames(channel, index, 1, 0, 1)));
+  }
+
+  @Override
+  public void channelGetExact(
+    final int channel,
+    final long index,
+    final int frameCount,
+    final double[] output,
+    final int offset)
+  {
+    Objects.requireNonNull(output, "output");
+
+    var position =
+      this.checkChannelFrames(channel, index, frameCount, offset, output.length);
+    for (var frame = 0; frame < frameCount; ++frame) {
+      output[offset + frame] = toNormal(this.sampleGet(position));
+      position += this.channels;
+    }
+  }
+
+  @Override
+  public void channelGetExact(
+    final int channel,
+    final long index,
+    final int frameCount,
+    final float[] output,
+    final int offset)
+  {
+    Objects.requireNonNull(output, "output");
+
+    var position =
+      this.checkChannelFrames(channel, index, frameCount, offset, output.length);
+    for (var frame = 0; frame < frameCount; ++frame) {
+      output[offset + frame] = (float) toNormal(this.sampleGet(position));
+      position += this.channels;
+    }
+  }
+
+  /**
+   * Copy {@code frameCount} frames starting at {@code sourceIndex} in
+   * {@code source} to this buffer starting at {@code index}. The storage of
+   * both buffers has the same layout, and so this is a bulk copy. The frame
+   * ranges must have been checked by the caller. Overlapping ranges in the
+   * same storage are copied correctly.
+   */
+
+  void framesCopyFrom(
+    final SampleBufferInt24 source,
+    final long sourceIndex,
+    final long index,
+    final int frameCount)
+  {
+    final var frame_size = (int) SAMPLE_SIZE * this.channels;
+    this.buffer.put(
+      (int) index * frame_size,
+      source.buffer,
+      (int) sourceIndex * frame_size,
+      frameCount * frame_size);
+  }
+
+  @Override
+  public SampleBufferLayout layout()
+  {
+    return SampleBufferLayout.of(
+      SampleBufferSampleFormat.SIGNED_INTEGER_24,
+      SampleBufferInterleaving.INTERLEAVED,
+      ByteOrder.LITTLE_ENDIAN,
+      this.channels);
+  }
+
+  @Override
+  public ByteBuffer storage(
+    final int block)
+  {
+    Objects.checkIndex(block, 1);
+    return this.buffer.asReadOnlyBuffer()
+      .clear()
+      .order(this.buffer.order());
+  }
+}
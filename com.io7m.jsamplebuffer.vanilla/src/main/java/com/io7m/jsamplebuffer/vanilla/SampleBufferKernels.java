@@ -0,0 +1,87 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.vanilla;
+
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * Access to the available sample kernels.
+ */
+
+public final class SampleBufferKernels
+{
+  private SampleBufferKernels()
+  {
+
+  }
+
+  /**
+   * @return The scalar kernels
+   */
+
+  public static SampleBufferKernelsType scalar()
+  {
+    return SampleBufferKernelsScalar.INSTANCE;
+  }
+
+  /**
+   * Return the preferred kernels. The first implementation of
+   * {@link SampleBufferKernelsType} that can be loaded using
+   * {@link ServiceLoader} is used. If there are no implementations, or none
+   * of them can be loaded (for example, because a module that they require
+   * is not present at run-time), the scalar kernels are used.
+   *
+   * @return The preferred kernels
+   */
+
+  public static SampleBufferKernelsType get()
+  {
+    return Preferred.KERNELS;
+  }
+
+  private static SampleBufferKernelsType load()
+  {
+    final var iterator =
+      ServiceLoader.load(SampleBufferKernelsType.class).iterator();
+
+    while (true) {
+      try {
+        if (!iterator.hasNext()) {
+          return scalar();
+        }
+        return iterator.next();
+      } catch (final ServiceConfigurationError | LinkageError e) {
+        // The provider cannot be used; try the next one.
+      }
+    }
+  }
+
+  /**
+   * The preferred kernels, loaded on first use.
+   */
+
+  private static final class Preferred
+  {
+    static final SampleBufferKernelsType KERNELS = load();
+
+    private Preferred()
+    {
+
+    }
+  }
+}
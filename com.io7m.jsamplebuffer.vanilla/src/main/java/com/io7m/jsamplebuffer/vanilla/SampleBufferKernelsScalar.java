@@ -0,0 +1,286 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.vanilla;
+
+import java.util.Objects;
+
+/**
+ * The scalar kernels, used when no faster implementation is available.
+ */
+
+final class SampleBufferKernelsScalar implements SampleBufferKernelsType
+{
+  static final SampleBufferKernelsScalar INSTANCE =
+    new SampleBufferKernelsScalar();
+
+  private SampleBufferKernelsScalar()
+  {
+
+  }
+
+  @Override
+  public String name()
+  {
+    return "scalar";
+  }
+
+  @Override
+  public void gain(
+    final double[] data,
+    final int offset,
+    final int length,
+    final double gain)
+  {
+    Objects.checkFromIndexSize(offset, length, data.length);
+
+    for (var index = offset; index < offset + length; ++index) {
+      data[index] *= gain;
+    }
+  }
+
+  @Override
+  public void gain(
+    final float[] data,
+    final int offset,
+    final int length,
+    final float gain)
+  {
+    Objects.checkFromIndexSize(offset, length, data.length);
+
+    for (var index = offset; index < offset + length; ++index) {
+      data[index] *= gain;
+    }
+  }
+
+  @Override
+  public void mix(
+    final double[] target,
+    final int targetOffset,
+    final double[] source,
+    final int sourceOffset,
+    final int length,
+    final double gain)
+  {
+    Objects.checkFromIndexSize(targetOffset, length, target.length);
+    Objects.checkFromIndexSize(sourceOffset, length, source.length);
+
+    for (var index = 0; index < length; ++index) {
+      target[targetOffset + index] += source[sourceOffset + index] * gain;
+    }
+  }
+
+  @Override
+  public void mix(
+    final float[] target,
+    final int targetOffset,
+    final float[] source,
+    final int sourceOffset,
+    final int length,
+    final float gain)
+  {
+    Objects.checkFromIndexSize(targetOffset, length, target.length);
+    Objects.checkFromIndexSize(sourceOffset, length, source.length);
+
+    for (var index = 0; index < length; ++index) {
+      target[targetOffset + index] += source[sourceOffset + index] * gain;
+    }
+  }
+
+  @Override
+  public void multiply(
+    final double[] target,
+    final int targetOffset,
+    final double[] source,
+    final int sourceOffset,
+    final int length)
+  {
+    Objects.checkFromIndexSize(targetOffset, length, target.length);
+    Objects.checkFromIndexSize(sourceOffset, length, source.length);
+
+    for (var index = 0; index < length; ++index) {
+      target[targetOffset + index] *= source[sourceOffset + index];
+    }
+  }
+
+  @Override
+  public void multiply(
+    final float[] target,
+    final int targetOffset,
+    final float[] source,
+    final int sourceOffset,
+    final int length)
+  {
+    Objects.checkFromIndexSize(targetOffset, length, target.length);
+    Objects.checkFromIndexSize(sourceOffset, length, source.length);
+
+    for (var index = 0; index < length; ++index) {
+      target[targetOffset + index] *= source[sourceOffset + index];
+    }
+  }
+
+  @Override
+  public void clamp(
+    final double[] data,
+    final int offset,
+    final int length,
+    final double minimum,
+    final double maximum)
+  {
+    Objects.checkFromIndexSize(offset, length, data.length);
+
+    for (var index = offset; index < offset + length; ++index) {
+      data[index] = Math.min(maximum, Math.max(minimum, data[index]));
+    }
+  }
+
+  @Override
+  public void clamp(
+    final float[] data,
+    final int offset,
+    final int length,
+    final float minimum,
+    final float maximum)
+  {
+    Objects.checkFromIndexSize(offset, length, data.length);
+
+    for (var index = offset; index < offset + length; ++index) {
+      data[index] = Math.min(maximum, Math.max(minimum, data[index]));
+    }
+  }
+
+  @Override
+  public void convert(
+    final float[] source,
+    final int sourceOffset,
+    final double[] target,
+    final int targetOffset,
+    final int length)
+  {
+    Objects.checkFromIndexSize(sourceOffset, length, source.length);
+    Objects.checkFromIndexSize(targetOffset, length, target.length);
+
+    for (var index = 0; index < length; ++index) {
+      target[targetOffset + index] = (double) source[sourceOffset + index];
+    }
+  }
+
+  @Override
+  public void convert(
+    final double[] source,
+    final int sourceOffset,
+    final float[] target,
+    final int targetOffset,
+    final int length)
+  {
+    Objects.checkFromIndexSize(sourceOffset, length, source.length);
+    Objects.checkFromIndexSize(targetOffset, length, target.length);
+
+    for (var index = 0; index < length; ++index) {
+      target[targetOffset + index] = (float) source[sourceOffset + index];
+    }
+  }
+
+  @Override
+  public double minimum(
+    final double[] data,
+    final int offset,
+    final int length)
+  {
+    Objects.checkFromIndexSize(offset, length, data.length);
+
+    var result = Double.POSITIVE_INFINITY;
+    for (var index = offset; index < offset + length; ++index) {
+      result = Math.min(result, data[index]);
+    }
+    return result;
+  }
+
+  @Override
+  public float minimum(
+    final float[] data,
+    final int offset,
+    final int length)
+  {
+    Objects.checkFromIndexSize(offset, length, data.length);
+
+    var result = Float.POSITIVE_INFINITY;
+    for (var index = offset; index < offset + length; ++index) {
+      result = Math.min(result, data[index]);
+    }
+    return result;
+  }
+
+  @Override
+  public double maximum(
+    final double[] data,
+    final int offset,
+    final int length)
+  {
+    Objects.checkFromIndexSize(offset, length, data.length);
+
+    var result = Double.NEGATIVE_INFINITY;
+    for (var index = offset; index < offset + length; ++index) {
+      result = Math.max(result, data[index]);
+    }
+    return result;
+  }
+
+  @Override
+  public float maximum(
+    final float[] data,
+    final int offset,
+    final int length)
+  {
+    Objects.checkFromIndexSize(offset, length, data.length);
+
+    var result = Float.NEGATIVE_INFINITY;
+    for (var index = offset; index < offset + length; ++index) {
+      result = Math.max(result, data[index]);
+    }
+    return result;
+  }
+
+  @Override
+  public double sum(
+    final double[] data,
+    final int offset,
+    final int length)
+  {
+    Objects.checkFromIndexSize(offset, length, data.length);
+
+    var result = 0.0;
+    for (var index = offset; index < offset + length; ++index) {
+      result += data[index];
+    }
+    return result;
+  }
+
+  @Override
+  public double sum(
+    final float[] data,
+    final int offset,
+    final int length)
+  {
+    Objects.checkFromIndexSize(offset, length, data.length);
+
+    var result = 0.0;
+    for (var index = offset; index < offset + length; ++index) {
+      result += (double) data[index];
+    }
+    return result;
+  }
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.vanilla;
+
+/**
+ * <p>A set of bulk operations over arrays of samples.</p>
+ *
+ * <p>Implementations are located using {@link java.util.ServiceLoader}; see
+ * {@link SampleBufferKernels#get()}. All implementations must produce
+ * results identical to the scalar implementation, with the exception of
+ * the summation methods, which may add samples in a different order.</p>
+ *
+ * <p>All methods throw {@link IndexOutOfBoundsException} if any of the given
+ * ranges are not within the given arrays.</p>
+ */
+
+public interface SampleBufferKernelsType
+{
+  /**
+   * @return The name of the implementation
+   */
+
+  String name();
+
+  /**
+   * Multiply each sample by {@code gain}.
+   *
+   * @param data   The samples
+   * @param offset The offset of the first sample
+   * @param length The number of samples
+   * @param gain   The gain
+   */
+
+  void gain(
+    double[] data,
+    int offset,
+    int length,
+    double gain);
+
+  /**
+   * Multiply each sample by {@code gain}.
+   *
+   * @param data   The samples
+   * @param offset The offset of the first sample
+   * @param length The number of samples
+   * @param gain   The gain
+   */
+
+  void gain(
+    float[] data,
+    int offset,
+    int length,
+    float gain);
+
+  /**
+   * Add each sample of {@code source}, multiplied by {@code gain}, to the
+   * corresponding sample of {@code target}.
+   *
+   * @param target       The target samples
+   * @param targetOffset The offset of the first target sample
+   * @param source       The source samples
+   * @param sourceOffset The offset of the first source sample
+   * @param length       The number of samples
+   * @param gain         The gain applied to the source samples
+   */
+
+  void mix(
+    double[] target,
+    int targetOffset,
+    double[] source,
+    int sourceOffset,
+    int length,
+    double gain);
+
+  /**
+   * Add each sample of {@code source}, multiplied by {@code gain}, to the
+   * corresponding sample of {@code target}.
+   *
+   * @param target       The target samples
+   * @param targetOffset The offset of the first target sample
+   * @param source       The source samples
+   * @param sourceOffset The offset of the first source sample
+   * @param length       The number of samples
+   * @param gain         The gain applied to the source samples
+   */
+
+  void mix(
+    float[] target,
+    int targetOffset,
+    float[] source,
+    int sourceOffset,
+    int length,
+    float gain);
+
+  /**
+   * Multiply each sample of {@code target} by the corresponding sample of
+   * {@code source}.
+   *
+   * @param target       The target samples
+   * @param targetOffset The offset of the first target sample
+   * @param source       The source samples
+   * @param sourceOffset The offset of the first source sample
+   * @param length       The number of samples
+   */
+
+  void multiply(
+    double[] target,
+    int targetOffset,
+    double[] source,
+    int sourceOffset,
+    int length);
+
+  /**
+   * Multiply each sample of {@code target} by the corresponding sample of
+   * {@code source}.
+   *
+   * @param target       The target samples
+   * @param targetOffset The offset of the first target sample
+   * @param source       The source samples
+   * @param sourceOffset The offset of the first source sample
+   * @param length       The number of samples
+   */
+
+  void multiply(
+    float[] target,
+    int targetOffset,
+    float[] source,
+    int sourceOffset,
+    int length);
+
+  /**
+   * Clamp each sample to the range {@code [minimum, maximum]}.
+   *
+   * @param data    The samples
+   * @param offset  The offset of the first sample
+   * @param length  The number of samples
+   * @param minimum The minimum value
+   * @param maximum The maximum value
+   */
+
+  void clamp(
+    double[] data,
+    int offset,
+    int length,
+    double minimum,
+    double maximum);
+
+  /**
+   * Clamp each sample to the range {@code [minimum, maximum]}.
+   *
+   * @param data    The samples
+   * @param offset  The offset of the first sample
+   * @param length  The number of samples
+   * @param minimum The minimum value
+   * @param maximum The maximum value
+   */
+
+  void clamp(
+    float[] data,
+    int offset,
+    int length,
+    float minimum,
+    float maximum);
+
+  /**
+   * Widen samples to {@code double} precision.
+   *
+   * @param source       The source samples
+   * @param sourceOffset The offset of the first source sample
+   * @param target       The target samples
+   * @param targetOffset The offset of the first target sample
+   * @param length       The number of samples
+   */
+
+  void convert(
+    float[] source,
+    int sourceOffset,
+    double[] target,
+    int targetOffset,
+    int length);
+
+  /**
+   * Narrow samples to {@code float} precision.
+   *
+   * @param source       The source samples
+   * @param sourceOffset The offset of the first source sample
+   * @param target       The target samples
+   * @param targetOffset The offset of the first target sample
+   * @param length       The number of samples
+   */
+
+  void convert(
+    double[] source,
+    int sourceOffset,
+    float[] target,
+    int targetOffset,
+    int length);
+
+  /**
+   * @param data   The samples
+   * @param offset The offset of the first sample
+   * @param length The number of samples
+   *
+   * @return The smallest sample, or positive infinity if
+   *         {@code length == 0}
+   */
+
+  double minimum(
+    double[] data,
+    int offset,
+    int length);
+
+  /**
+   * @param data   The samples
+   * @param offset The offset of the first sample
+   * @param length The number of samples
+   *
+   * @return The smallest sample, or positive infinity if
+   *         {@code length == 0}
+   */
+
+  float minimum(
+    float[] data,
+    int offset,
+    int length);
+
+  /**
+   * @param data   The samples
+   * @param offset The offset of the first sample
+   * @param length The number of samples
+   *
+   * @return The largest sample, or negative infinity if
+   *         {@code length == 0}
+   */
+
+  double maximum(
+    double[] data,
+    int offset,
+    int length);
+
+  /**
+   * @param data   The samples
+   * @param offset The offset of the first sample
+   * @param length The number of samples
+   *
+   * @return The largest sample, or negative infinity if
+   *         {@code length == 0}
+   */
+
+  float maximum(
+    float[] data,
+    int offset,
+    int length);
+
+  /**
+   * @param data   The samples
+   * @param offset The offset of the first sample
+   * @param length The number of samples
+   *
+   * @return The sum of the samples
+   */
+
+  double sum(
+    double[] data,
+    int offset,
+    int length);
+
+  /**
+   * @param data   The samples
+   * @param offset The offset of the first sample
+   * @param length The number of samples
+   *
+   * @return The sum of the samples, accumulated in {@code double} precision
+   */
+
+  double sum(
+    float[] data,
+    int offset,
+    int length);
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.vanilla;
+
+import com.io7m.jsamplebuffer.api.SampleBufferFactoryType;
+import com.io7m.jsamplebuffer.api.SampleBufferType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * <p>A factory that creates sample buffers backed by memory-mapped scratch
+ * files in a given directory.</p>
+ *
+ * <p>Each buffer is stored in its own {@link SampleBufferMappedFile}.
+ * The factory retains every scratch file that it creates until either the
+ * buffer is released with {@link #release(SampleBufferType)} or the factory
+ * is closed, so a long-lived factory should release buffers that are no
+ * longer required. Releasing a buffer closes and deletes its scratch file;
+ * closing the factory closes and deletes all of the scratch files that it
+ * still retains. Buffers must not be used after they have been released
+ * or the factory has been closed. To keep a buffer across restarts, use
+ * {@link SampleBufferMappedFile#create(Path, SampleBufferMappedFormat, int, long, double)}
+ * directly.</p>
+ *
+ * <p>Deletion is best-effort. The Java platform provides no means to unmap a
+ * mapped region explicitly, and some platforms (notably Windows) refuse to
+ * delete a file while a mapping of it is still reachable. Scratch files that
+ * cannot be deleted when the factory is closed are instead scheduled for
+ * deletion when the virtual machine exits, and may remain in the directory
+ * if they are still mapped at that point.</p>
+ */
+
+public final class SampleBufferMappedFactory
+  implements SampleBufferFactoryType, AutoCloseable
+{
+  private final Path directory;
+  private final SampleBufferMappedFormat format;
+  private final List<SampleBufferMappedFile> files;
+  private boolean closed;
+
+  private SampleBufferMappedFactory(
+    final Path in_directory,
+    final SampleBufferMappedFormat in_format)
+  {
+    this.directory =
+      Objects.requireNonNull(in_directory, "directory");
+    this.format =
+      Objects.requireNonNull(in_format, "format");
+    this.files =
+      new ArrayList<>();
+  }
+
+  /**
+   * Create a factory.
+   *
+   * @param directory The directory in which scratch files will be created
+   * @param format    The sample format of created buffers
+   *
+   * @return A new factory
+   */
+
+  public static SampleBufferMappedFactory create(
+    final Path directory,
+    final SampleBufferMappedFormat format)
+  {
+    return new SampleBufferMappedFactory(directory, format);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws UncheckedIOException  If the scratch file cannot be created
+   * @throws IllegalStateException If the factory has been closed
+   */
+
+  @Override
+  public SampleBufferType createBuffer(
+    final int channels,
+    final long frames,
+    final double sample_rate)
+  {
+    return this.createFile(channels, frames, sample_rate).buffer();
+  }
+
+  /**
+   * Create a new scratch file.
+   *
+   * @param channels    The number of channels
+   * @param frames      The number of frames
+   * @param sample_rate The sample rate
+   *
+   * @return A new mapped file, which will be deleted when its buffer is
+   *         released or the factory is closed
+   *
+   * @throws UncheckedIOException  If the scratch file cannot be created
+   * @throws IllegalStateException If the factory has been closed
+   */
+
+  public synchronized SampleBufferMappedFile createFile(
+    final int channels,
+    final long frames,
+    final double sample_rate)
+  {
+    if (this.closed) {
+      throw new IllegalStateException("Factory is closed.");
+    }
+
+    try {
+      final var file =
+        Files.createTempFile(this.directory, "jsamplebuffer-", ".sbm");
+
+      try {
+        final var mapped =
+          SampleBufferMappedFile.create(
+            file, this.format, channels, frames, sample_rate);
+        this.files.add(mapped);
+        return mapped;
+      } catch (final IOException | RuntimeException e) {
+        deleteScratchFile(file);
+        throw e;
+      }
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Release a buffer created by this factory, closing and deleting its
+   * scratch file. The buffer must not be used afterwards. Releasing a buffer
+   * that has already been released has no effect.
+   *
+   * @param buffer The buffer
+   *
+   * @return {@code true} if the buffer was created by this factory and had
+   *         not already been released
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public synchronized boolean release(
+    final SampleBufferType buffer)
+    throws IOException
+  {
+    Objects.requireNonNull(buffer, "buffer");
+
+    final var iterator = this.files.iterator();
+    while (iterator.hasNext()) {
+      final var file = iterator.next();
+      if (file.buffer() == buffer) {
+        iterator.remove();
+        try {
+          file.close();
+        } finally {
+          deleteScratchFile(file.file());
+        }
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public synchronized void close()
+    throws IOException
+  {
+    if (this.closed) {
+      return;
+    }
+    this.closed = true;
+
+    IOException exception = null;
+    for (final var file : this.files) {
+      try {
+        file.close();
+      } catch (final IOException e) {
+        if (exception == null) {
+          exception = e;
+        } else {
+          exception.addSuppressed(e);
+        }
+      }
+      deleteScratchFile(file.file());
+    }
+    this.files.clear();
+
+    if (exception != null) {
+      throw exception;
+    }
+  }
+
+  private static void deleteScratchFile(
+    final Path file)
+  {
+    try {
+      Files.deleteIfExists(file);
+    } catch (final IOException e) {
+      /*
+       * The file is most likely still mapped on a platform that does not
+       * permit the deletion of mapped files.
+       */
+
+      file.toFile().deleteOnExit();
+    }
+  }
+}
@@ -0,0 +1,395 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.vanilla;
+
+import com.io7m.jsamplebuffer.api.SampleBufferType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * <p>A sample buffer stored in a memory-mapped file.</p>
+ *
+ * <p>The file consists of a small header describing the buffer, followed by
+ * the samples in native byte order. Because the header records the channel
+ * count, frame count, sample rate, and sample format, a file created with
+ * {@link #create(Path, SampleBufferMappedFormat, int, long, double)} can be
+ * reopened later with {@link #open(Path)} without decoding the original
+ * audio again.</p>
+ *
+ * <p>The samples are mapped in segments (see
+ * {@link SampleBufferSegmentedDouble}) and so files are not limited to
+ * {@code Integer.MAX_VALUE} octets. Changes made to the buffer are written
+ * back to the file by the operating system at some unspecified point; call
+ * {@link #force()} to write them back explicitly.</p>
+ *
+ * <p>Closing the file forces any outstanding changes to storage and
+ * closes the underlying channel. The Java platform provides no means to
+ * unmap a {@link MappedByteBuffer} explicitly, so the mapped memory
+ * itself is released once the buffer returned by {@link #buffer()} is no
+ * longer reachable. The buffer must not be used after the file is
+ * closed.</p>
+ */
+
+public final class SampleBufferMappedFile implements AutoCloseable
+{
+  /**
+   * The size in octets of the file header. Sample data begins at this
+   * offset.
+   */
+
+  public static final int HEADER_SIZE = 64;
+
+  private static final int MAGIC = 0x4A53424D;
+  private static final int VERSION = 1;
+  private static final int ORDER_BIG = 0;
+  private static final int ORDER_LITTLE = 1;
+
+  private final Path file;
+  private final FileChannel channel;
+  private final SampleBufferMappedFormat format;
+  private final SampleBufferType buffer;
+  private final List<MappedByteBuffer> segments;
+  private boolean closed;
+
+  private SampleBufferMappedFile(
+    final Path in_file,
+    final FileChannel in_channel,
+    final SampleBufferMappedFormat in_format,
+    final SampleBufferType in_buffer,
+    final List<MappedByteBuffer> in_segments)
+  {
+    this.file =
+      Objects.requireNonNull(in_file, "file");
+    this.channel =
+      Objects.requireNonNull(in_channel, "channel");
+    this.format =
+      Objects.requireNonNull(in_format, "format");
+    this.buffer =
+      Objects.requireNonNull(in_buffer, "buffer");
+    this.segments =
+      Objects.requireNonNull(in_segments, "segments");
+  }
+
+  /**
+   * Create a new mapped file, replacing any existing file.
+   *
+   * @param file        The file
+   * @param format      The sample format
+   * @param channels    The number of channels per frame
+   * @param frames      The number of frames in the buffer
+   * @param sample_rate The sample rate in hz
+   *
+   * @return A new mapped file
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static SampleBufferMappedFile create(
+    final Path file,
+    final SampleBufferMappedFormat format,
+    final int channels,
+    final long frames,
+    final double sample_rate)
+    throws IOException
+  {
+    Objects.requireNonNull(file, "file");
+    Objects.requireNonNull(format, "format");
+
+    SampleBufferChecks.checkChannels(channels);
+    SampleBufferChecks.checkFrames(frames);
+
+    final var channel =
+      FileChannel.open(file, CREATE, TRUNCATE_EXISTING, READ, WRITE);
+
+    try {
+      final var header = ByteBuffer.allocate(HEADER_SIZE);
+      header.order(ByteOrder.BIG_ENDIAN);
+      header.putInt(MAGIC);
+      header.putInt(VERSION);
+      header.putInt(format.code());
+      header.putInt(orderCode(ByteOrder.nativeOrder()));
+      header.putInt(channels);
+      header.putInt(0);
+      header.putLong(frames);
+      header.putDouble(sample_rate);
+      header.clear();
+      channel.write(header, 0L);
+
+      return map(file, channel, format, channels, frames, sample_rate);
+    } catch (final IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Open an existing mapped file for reading and writing.
+   *
+   * @param file The file
+   *
+   * @return A mapped file
+   *
+   * @throws IOException On I/O errors, or if the file is not a valid
+   *                     sample buffer file
+   */
+
+  public static SampleBufferMappedFile open(
+    final Path file)
+    throws IOException
+  {
+    Objects.requireNonNull(file, "file");
+
+    final var channel = FileChannel.open(file, READ, WRITE);
+
+    try {
+      final var header = readHeader(file, channel);
+
+      final var expected =
+        Math.addExact(
+          (long) HEADER_SIZE,
+          Math.multiplyExact(
+            Math.multiplyExact(header.frames, (long) header.channels),
+            (long) header.format.sampleSize()));
+
+      if (channel.size() < expected) {
+        throw invalid(file, "File is too short to contain the sample data.");
+      }
+
+      return map(
+        file,
+        channel,
+        header.format,
+        header.channels,
+        header.frames,
+        header.sample_rate);
+    } catch (final IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  private record Header(
+    SampleBufferMappedFormat format,
+    int channels,
+    long frames,
+    double sample_rate)
+  {
+
+  }
+
+  private static Header readHeader(
+    final Path file,
+    final FileChannel channel)
+    throws IOException
+  {
+    final var header = ByteBuffer.allocate(HEADER_SIZE);
+    header.order(ByteOrder.BIG_ENDIAN);
+    while (header.hasRemaining()) {
+      if (channel.read(header, (long) header.position()) < 0) {
+        throw invalid(file, "File is too short to contain a header.");
+      }
+    }
+    header.flip();
+
+    if (header.getInt() != MAGIC) {
+      throw invalid(file, "Unrecognized magic number.");
+    }
+    if (header.getInt() != VERSION) {
+      throw invalid(file, "Unsupported file version.");
+    }
+
+    final SampleBufferMappedFormat format;
+    try {
+      format = SampleBufferMappedFormat.ofCode(header.getInt());
+    } catch (final IllegalArgumentException e) {
+      throw invalid(file, e.getMessage());
+    }
+
+    if (header.getInt() != orderCode(ByteOrder.nativeOrder())) {
+      throw invalid(file, "File byte order does not match the native byte order.");
+    }
+
+    final var channels = header.getInt();
+    header.getInt();
+    final var frames = header.getLong();
+    final var sample_rate = header.getDouble();
+
+    if (channels < 1 || frames < 1L) {
+      throw invalid(file, "Invalid channel or frame count.");
+    }
+    return new Header(format, channels, frames, sample_rate);
+  }
+
+  private static IOException invalid(
+    final Path file,
+    final String message)
+  {
+    final var separator = System.lineSeparator();
+    return new IOException(
+      new StringBuilder(128)
+        .append("Invalid sample buffer file.")
+        .append(separator)
+        .append("  File: ")
+        .append(file)
+        .append(separator)
+        .append("  Problem: ")
+        .append(message)
+        .toString());
+  }
+
+  private static int orderCode(
+    final ByteOrder order)
+  {
+    return order == ByteOrder.BIG_ENDIAN ? ORDER_BIG : ORDER_LITTLE;
+  }
+
+  private static SampleBufferMappedFile map(
+    final Path file,
+    final FileChannel channel,
+    final SampleBufferMappedFormat format,
+    final int channels,
+    final long frames,
+    final double sample_rate)
+    throws IOException
+  {
+    final var segments = new ArrayList<MappedByteBuffer>();
+    final SampleBufferSegmentAllocatorType allocator = (offset, size) -> {
+      try {
+        final var segment =
+          channel.map(
+            FileChannel.MapMode.READ_WRITE,
+            (long) HEADER_SIZE + offset,
+            (long) size);
+        segments.add(segment);
+        return segment;
+      } catch (final IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    };
+
+    final SampleBufferType buffer;
+    try {
+      buffer = switch (format) {
+        case SAMPLE_DOUBLE -> SampleBufferSegmentedDouble.createWithSegments(
+          channels,
+          frames,
+          sample_rate,
+          SampleBufferSegments.SEGMENT_SIZE_DEFAULT,
+          allocator);
+        case SAMPLE_FLOAT -> SampleBufferSegmentedFloat.createWithSegments(
+          channels,
+          frames,
+          sample_rate,
+          SampleBufferSegments.SEGMENT_SIZE_DEFAULT,
+          allocator);
+      };
+    } catch (final UncheckedIOException e) {
+      throw e.getCause();
+    }
+
+    return new SampleBufferMappedFile(
+      file, channel, format, buffer, List.copyOf(segments));
+  }
+
+  /**
+   * @return The file
+   */
+
+  public Path file()
+  {
+    return this.file;
+  }
+
+  /**
+   * @return The sample format
+   */
+
+  public SampleBufferMappedFormat format()
+  {
+    return this.format;
+  }
+
+  /**
+   * @return The sample buffer backed by the file
+   */
+
+  public SampleBufferType buffer()
+  {
+    return this.buffer;
+  }
+
+  /**
+   * Force any changes made to the buffer to be written to storage.
+   *
+   * @throws IllegalStateException If the file has been closed
+   */
+
+  public synchronized void force()
+  {
+    this.checkNotClosed();
+
+    for (final var segment : this.segments) {
+      segment.force();
+    }
+  }
+
+  /**
+   * @return {@code true} if the file has been closed
+   */
+
+  public synchronized boolean isClosed()
+  {
+    return this.closed;
+  }
+
+  private void checkNotClosed()
+  {
+    if (this.closed) {
+      throw new IllegalStateException("Mapped file is closed: " + this.file);
+    }
+  }
+
+  @Override
+  public synchronized void close()
+    throws IOException
+  {
+    if (!this.closed) {
+      try {
+        for (final var segment : this.segments) {
+          segment.force();
+        }
+      } finally {
+        this.closed = true;
+        this.channel.close();
+      }
+    }
+  }
+}
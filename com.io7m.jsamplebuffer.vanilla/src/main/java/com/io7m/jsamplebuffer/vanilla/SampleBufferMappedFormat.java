@@ -0,0 +1,77 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.vanilla;
+
+/**
+ * The format of samples stored in a memory-mapped sample buffer file.
+ */
+
+public enum SampleBufferMappedFormat
+{
+  /**
+   * Samples are stored as {@code double} values.
+   *
+   * @see SampleBufferSegmentedDouble
+   */
+
+  SAMPLE_DOUBLE(1, 8),
+
+  /**
+   * Samples are stored as {@code float} values.
+   *
+   * @see SampleBufferSegmentedFloat
+   */
+
+  SAMPLE_FLOAT(2, 4);
+
+  private final int code;
+  private final int sample_size;
+
+  SampleBufferMappedFormat(
+    final int in_code,
+    final int in_sample_size)
+  {
+    this.code = in_code;
+    this.sample_size = in_sample_size;
+  }
+
+  /**
+   * @return The size in octets of a single sample
+   */
+
+  public int sampleSize()
+  {
+    return this.sample_size;
+  }
+
+  int code()
+  {
+    return this.code;
+  }
+
+  static SampleBufferMappedFormat ofCode(
+    final int code)
+  {
+    for (final var format : values()) {
+      if (format.code == code) {
+        return format;
+      }
+    }
+    throw new IllegalArgumentException(
+      "Unrecognized sample format code: " + code);
+  }
+}
@@ -0,0 +1,417 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.vanilla;
+
+import com.io7m.jsamplebuffer.api.SampleBufferReadableType;
+import com.io7m.jsamplebuffer.api.SampleBufferSampleFormat;
+import com.io7m.jsamplebuffer.api.SampleBufferStorageType;
+import com.io7m.jsamplebuffer.api.SampleBufferType;
+
+import java.util.Objects;
+
+/**
+ * <p>Bulk operations over whole sample buffers.</p>
+ *
+ * <p>Samples are streamed through a small scratch array in blocks using the
+ * buffers' bulk accessors, and each block is processed using the given
+ * kernels. Instances are not thread-safe, as the scratch arrays are reused
+ * between calls.</p>
+ *
+ * <p>Buffers whose storage holds {@code float} or half-precision samples are
+ * processed in {@code float} precision: blocks are transferred with the
+ * buffers' {@code float[]} accessors, which for {@link SampleBufferFloat}
+ * are bulk copies of the storage, and are processed by the {@code float}
+ * kernels. Operations that read a second buffer only do this when both
+ * buffers hold {@code float} samples. All other buffers are processed in
+ * {@code double} precision.</p>
+ */
+
+public final class SampleBufferOperations
+{
+  private static final int BLOCK_SAMPLES = 4096;
+
+  private final SampleBufferKernelsType kernels;
+  private final double[] block_target;
+  private final double[] block_source;
+  private final float[] block_target_floats;
+  private final float[] block_source_floats;
+
+  private SampleBufferOperations(
+    final SampleBufferKernelsType in_kernels)
+  {
+    this.kernels = Objects.requireNonNull(in_kernels, "kernels");
+    this.block_target = new double[BLOCK_SAMPLES];
+    this.block_source = new double[BLOCK_SAMPLES];
+    this.block_target_floats = new float[BLOCK_SAMPLES];
+    this.block_source_floats = new float[BLOCK_SAMPLES];
+  }
+
+  /**
+   * Create operations using the preferred kernels.
+   *
+   * @return The operations
+   *
+   * @see SampleBufferKernels#get()
+   */
+
+  public static SampleBufferOperations create()
+  {
+    return new SampleBufferOperations(SampleBufferKernels.get());
+  }
+
+  /**
+   * Create operations using the given kernels.
+   *
+   * @param kernels The kernels
+   *
+   * @return The operations
+   */
+
+  public static SampleBufferOperations createWithKernels(
+    final SampleBufferKernelsType kernels)
+  {
+    return new SampleBufferOperations(kernels);
+  }
+
+  /**
+   * @return The kernels used by these operations
+   */
+
+  public SampleBufferKernelsType kernels()
+  {
+    return this.kernels;
+  }
+
+  private static int blockFrames(
+    final SampleBufferReadableType buffer,
+    final long frame)
+  {
+    final var per_block = Math.max(1, BLOCK_SAMPLES / buffer.channels());
+    return (int) Math.min((long) per_block, buffer.frames() - frame);
+  }
+
+  private static void checkSameShape(
+    final SampleBufferReadableType target,
+    final SampleBufferReadableType source)
+  {
+    SampleBufferChecks.checkChannelCount(target.channels(), source.channels());
+
+    if (target.frames() != source.frames()) {
+      final var separator = System.lineSeparator();
+      throw new IllegalArgumentException(
+        new StringBuilder("Incorrect frame count.")
+          .append(separator)
+          .append("  Expected: ")
+          .append(target.frames())
+          .append(separator)
+          .append("  Received: ")
+          .append(source.frames())
+          .append(separator)
+          .toString());
+    }
+  }
+
+  private static boolean holdsFloats(
+    final SampleBufferReadableType buffer)
+  {
+    if (buffer instanceof final SampleBufferStorageType storage) {
+      final var format = storage.layout().format();
+      return format == SampleBufferSampleFormat.FLOAT_32
+             || format == SampleBufferSampleFormat.FLOAT_16;
+    }
+    return false;
+  }
+
+  private double[] scratch(
+    final double[] block,
+    final int samples)
+  {
+    return samples <= block.length ? block : new double[samples];
+  }
+
+  private float[] scratch(
+    final float[] block,
+    final int samples)
+  {
+    return samples <= block.length ? block : new float[samples];
+  }
+
+  /**
+   * Multiply every sample in {@code buffer} by {@code gain}.
+   *
+   * @param buffer The buffer
+   * @param gain   The gain
+   */
+
+  public void gain(
+    final SampleBufferType buffer,
+    final double gain)
+  {
+    Objects.requireNonNull(buffer, "buffer");
+
+    final var floats = holdsFloats(buffer);
+    final var channels = buffer.channels();
+    var frame = 0L;
+    while (frame < buffer.frames()) {
+      final var count = blockFrames(buffer, frame);
+      final var samples = count * channels;
+      if (floats) {
+        final var data = this.scratch(this.block_target_floats, samples);
+        buffer.framesGetExact(frame, count, data, 0);
+        this.kernels.gain(data, 0, samples, (float) gain);
+        buffer.framesSetExact(frame, count, data, 0);
+      } else {
+        final var data = this.scratch(this.block_target, samples);
+        buffer.framesGetExact(frame, count, data, 0);
+        this.kernels.gain(data, 0, samples, gain);
+        buffer.framesSetExact(frame, count, data, 0);
+      }
+      frame += (long) count;
+    }
+  }
+
+  /**
+   * Clamp every sample in {@code buffer} to {@code [minimum, maximum]}.
+   *
+   * @param buffer  The buffer
+   * @param minimum The minimum value
+   * @param maximum The maximum value
+   */
+
+  public void clamp(
+    final SampleBufferType buffer,
+    final double minimum,
+    final double maximum)
+  {
+    Objects.requireNonNull(buffer, "buffer");
+
+    final var floats = holdsFloats(buffer);
+    final var channels = buffer.channels();
+    var frame = 0L;
+    while (frame < buffer.frames()) {
+      final var count = blockFrames(buffer, frame);
+      final var samples = count * channels;
+      if (floats) {
+        final var data = this.scratch(this.block_target_floats, samples);
+        buffer.framesGetExact(frame, count, data, 0);
+        this.kernels.clamp(
+          data, 0, samples, (float) minimum, (float) maximum);
+        buffer.framesSetExact(frame, count, data, 0);
+      } else {
+        final var data = this.scratch(this.block_target, samples);
+        buffer.framesGetExact(frame, count, data, 0);
+        this.kernels.clamp(data, 0, samples, minimum, maximum);
+        buffer.framesSetExact(frame, count, data, 0);
+      }
+      frame += (long) count;
+    }
+  }
+
+  /**
+   * Add every sample of {@code source}, multiplied by {@code gain}, to the
+   * corresponding sample of {@code target}.
+   *
+   * @param target The target buffer
+   * @param source The source buffer
+   * @param gain   The gain applied to the source samples
+   *
+   * @throws IllegalArgumentException If the buffers do not have the same
+   *                                  number of channels and frames
+   */
+
+  public void mix(
+    final SampleBufferType target,
+    final SampleBufferReadableType source,
+    final double gain)
+    throws IllegalArgumentException
+  {
+    Objects.requireNonNull(target, "target");
+    Objects.requireNonNull(source, "source");
+    checkSameShape(target, source);
+
+    final var floats = holdsFloats(target) && holdsFloats(source);
+    final var channels = target.channels();
+    var frame = 0L;
+    while (frame < target.frames()) {
+      final var count = blockFrames(target, frame);
+      final var samples = count * channels;
+      if (floats) {
+        final var data_target =
+          this.scratch(this.block_target_floats, samples);
+        final var data_source =
+          this.scratch(this.block_source_floats, samples);
+        target.framesGetExact(frame, count, data_target, 0);
+        source.framesGetExact(frame, count, data_source, 0);
+        this.kernels.mix(data_target, 0, data_source, 0, samples, (float) gain);
+        target.framesSetExact(frame, count, data_target, 0);
+      } else {
+        final var data_target = this.scratch(this.block_target, samples);
+        final var data_source = this.scratch(this.block_source, samples);
+        target.framesGetExact(frame, count, data_target, 0);
+        source.framesGetExact(frame, count, data_source, 0);
+        this.kernels.mix(data_target, 0, data_source, 0, samples, gain);
+        target.framesSetExact(frame, count, data_target, 0);
+      }
+      frame += (long) count;
+    }
+  }
+
+  /**
+   * Multiply every sample of {@code target} by the corresponding sample of
+   * {@code source}.
+   *
+   * @param target The target buffer
+   * @param source The source buffer
+   *
+   * @throws IllegalArgumentException If the buffers do not have the same
+   *                                  number of channels and frames
+   */
+
+  public void multiply(
+    final SampleBufferType target,
+    final SampleBufferReadableType source)
+    throws IllegalArgumentException
+  {
+    Objects.requireNonNull(target, "target");
+    Objects.requireNonNull(source, "source");
+    checkSameShape(target, source);
+
+    final var floats = holdsFloats(target) && holdsFloats(source);
+    final var channels = target.channels();
+    var frame = 0L;
+    while (frame < target.frames()) {
+      final var count = blockFrames(target, frame);
+      final var samples = count * channels;
+      if (floats) {
+        final var data_target =
+          this.scratch(this.block_target_floats, samples);
+        final var data_source =
+          this.scratch(this.block_source_floats, samples);
+        target.framesGetExact(frame, count, data_target, 0);
+        source.framesGetExact(frame, count, data_source, 0);
+        this.kernels.multiply(data_target, 0, data_source, 0, samples);
+        target.framesSetExact(frame, count, data_target, 0);
+      } else {
+        final var data_target = this.scratch(this.block_target, samples);
+        final var data_source = this.scratch(this.block_source, samples);
+        target.framesGetExact(frame, count, data_target, 0);
+        source.framesGetExact(frame, count, data_source, 0);
+        this.kernels.multiply(data_target, 0, data_source, 0, samples);
+        target.framesSetExact(frame, count, data_target, 0);
+      }
+      frame += (long) count;
+    }
+  }
+
+  /**
+   * @param buffer The buffer
+   *
+   * @return The smallest sample in {@code buffer}
+   */
+
+  public double minimum(
+    final SampleBufferReadableType buffer)
+  {
+    Objects.requireNonNull(buffer, "buffer");
+
+    var result = Double.POSITIVE_INFINITY;
+    final var floats = holdsFloats(buffer);
+    final var channels = buffer.channels();
+    var frame = 0L;
+    while (frame < buffer.frames()) {
+      final var count = blockFrames(buffer, frame);
+      final var samples = count * channels;
+      if (floats) {
+        final var data = this.scratch(this.block_target_floats, samples);
+        buffer.framesGetExact(frame, count, data, 0);
+        result = Math.min(
+          result, (double) this.kernels.minimum(data, 0, samples));
+      } else {
+        final var data = this.scratch(this.block_target, samples);
+        buffer.framesGetExact(frame, count, data, 0);
+        result = Math.min(result, this.kernels.minimum(data, 0, samples));
+      }
+      frame += (long) count;
+    }
+    return result;
+  }
+
+  /**
+   * @param buffer The buffer
+   *
+   * @return The largest sample in {@code buffer}
+   */
+
+  public double maximum(
+    final SampleBufferReadableType buffer)
+  {
+    Objects.requireNonNull(buffer, "buffer");
+
+    var result = Double.NEGATIVE_INFINITY;
+    final var floats = holdsFloats(buffer);
+    final var channels = buffer.channels();
+    var frame = 0L;
+    while (frame < buffer.frames()) {
+      final var count = blockFrames(buffer, frame);
+      final var samples = count * channels;
+      if (floats) {
+        final var data = this.scratch(this.block_target_floats, samples);
+        buffer.framesGetExact(frame, count, data, 0);
+        result = Math.max(
+          result, (double) this.kernels.maximum(data, 0, samples));
+      } else {
+        final var data = this.scratch(this.block_target, samples);
+        buffer.framesGetExact(frame, count, data, 0);
+        result = Math.max(result, this.kernels.maximum(data, 0, samples));
+      }
+      frame += (long) count;
+    }
+    return result;
+  }
+
+  /**
+   * @param buffer The buffer
+   *
+   * @return The sum of all samples in {@code buffer}
+   */
+
+  public double sum(
+    final SampleBufferReadableType buffer)
+  {
+    Objects.requireNonNull(buffer, "buffer");
+
+    var result = 0.0;
+    final var floats = holdsFloats(buffer);
+    final var channels = buffer.channels();
+    var frame = 0L;
+    while (frame < buffer.frames()) {
+      final var count = blockFrames(buffer, frame);
+      final var samples = count * channels;
+      if (floats) {
+        final var data = this.scratch(this.block_target_floats, samples);
+        buffer.framesGetExact(frame, count, data, 0);
+        result += this.kernels.sum(data, 0, samples);
+      } else {
+        final var data = this.scratch(this.block_target, samples);
+        buffer.framesGetExact(frame, count, data, 0);
+        result += this.kernels.sum(data, 0, samples);
+      }
+      frame += (long) count;
+    }
+    return result;
+  }
+}
@@ -0,0 +1,542 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.vanilla;
+
+import com.io7m.jranges.RangeInclusiveL;
+import com.io7m.jsamplebuffer.api.SampleBufferAccessorType;
+import com.io7m.jsamplebuffer.api.SampleBufferInterleaving;
+import com.io7m.jsamplebuffer.api.SampleBufferLayout;
+import com.io7m.jsamplebuffer.api.SampleBufferSampleFormat;
+import com.io7m.jsamplebuffer.api.SampleBufferStorageType;
+import com.io7m.jsamplebuffer.api.SampleBufferType;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.Objects;
+import java.util.function.LongFunction;
+
+/**
+ * A planar (non-interleaved) sample buffer using {@code double} elements.
+ * The samples for each channel are stored contiguously, one channel after
+ * another, and so the per-channel operations such as
+ * {@link #channelGetExact(int, long, int, double[], int)} are simple bulk
+ * copies.
+ */
+
+public final class SampleBufferPlanarDouble
+  implements SampleBufferType, SampleBufferStorageType
+{
+  private static final long SAMPLE_SIZE = 8L;
+
+  private final int channels;
+  private final long frames;
+  private final ByteBuffer[] storage;
+  private final DoubleBuffer[] planes;
+  private final RangeInclusiveL frame_range;
+  private final double sample_rate;
+
+  private SampleBufferPlanarDouble(
+    final int in_channels,
+    final long in_frames,
+    final ByteBuffer[] in_storage,
+    final double in_sample_rate)
+  {
+    this.channels =
+      SampleBufferChecks.checkChannels(in_channels);
+    this.frames =
+      SampleBufferChecks.checkFrames(in_frames);
+
+    this.frame_range =
+      RangeInclusiveL.of(0L, in_frames - 1L);
+
+    this.storage = Objects.requireNonNull(in_storage, "storage");
+    this.planes = new DoubleBuffer[in_storage.length];
+    for (var channel = 0; channel < in_storage.length; ++channel) {
+      this.planes[channel] = in_storage[channel].asDoubleBuffer();
+    }
+    this.sample_rate = in_sample_rate;
+  }
+
+  private static ByteBuffer[] planesOf(
+    final ByteBuffer buffer,
+    final int channels,
+    final long frames)
+  {
+    final var plane_size =
+      Math.toIntExact(Math.multiplyExact(frames, SAMPLE_SIZE));
+
+    final var planes = new ByteBuffer[channels];
+    for (var channel = 0; channel < channels; ++channel) {
+      planes[channel] =
+        buffer.slice(channel * plane_size, plane_size)
+          .order(buffer.order());
+    }
+    return planes;
+  }
+
+  /**
+   * Create a sample buffer.
+   *
+   * @param channels    The number of channels per frame
+   * @param frames      The number of frames in the buffer
+   * @param create      A function that allocates a byte buffer for the samples
+   * @param sample_rate The sample rate in hz
+   *
+   * @return A new sample buffer
+   */
+
+  public static SampleBufferType createWithByteBuffer(
+    final int channels,
+    final long frames,
+    final double sample_rate,
+    final LongFunction<ByteBuffer> create)
+  {
+    Objects.requireNonNull(create, "create");
+
+    SampleBufferChecks.checkChannels(channels);
+    SampleBufferChecks.checkFrames(frames);
+
+    final var per_channel = Math.multiplyExact(SAMPLE_SIZE, frames);
+    final var bytes = Math.multiplyExact(per_channel, channels);
+    final var buffer = create.apply(bytes);
+    SampleBufferChecks.checkBufferSize(buffer, bytes);
+
+    return new SampleBufferPlanarDouble(
+      channels,
+      frames,
+      planesOf(buffer.order(ByteOrder.nativeOrder()), channels, frames),
+      sample_rate);
+  }
+
+  /**
+   * Create a sample buffer. The underlying buffer will be allocated using direct memory.
+   *
+   * @param channels    The number of channels per frame
+   * @param frames      The number of frames in the buffer
+   * @param sample_rate The sample rate in hz
+   *
+   * @return A new sample buffer
+   */
+
+  public static SampleBufferType createWithDirectBuffer(
+    final int channels,
+    final long frames,
+    final double sample_rate)
+  {
+    return createWithByteBuffer(
+      channels,
+      frames,
+      sample_rate,
+      bytes -> ByteBuffer.allocateDirect(Math.toIntExact(bytes)));
+  }
+
+  /**
+   * Create a sample buffer. The underlying buffer will be heap-allocated.
+   *
+   * @param channels    The number of channels per frame
+   * @param frames      The number of frames in the buffer
+   * @param sample_rate The sample rate in hz
+   *
+   * @return A new sample buffer
+   */
+
+  public static SampleBufferType createWithHeapBuffer(
+    final int channels,
+    final long frames,
+    final double sample_rate)
+  {
+    return createWithByteBuffer(
+      channels,
+      frames,
+      sample_rate,
+      bytes -> ByteBuffer.allocate(Math.toIntExact(bytes)));
+  }
+
+  @Override
+  public void frameSetAll(
+    final long index,
+    final double value)
+  {
+    final var position = this.checkIndex(index);
+    for (var channel = 0; channel < this.channels; ++channel) {
+      this.planes[channel].put(position, value);
+    }
+  }
+
+  @Override
+  public void frameSetExact(
+    final long index,
+    final double c0)
+    throws IllegalArgumentException
+  {
+    SampleBufferChecks.checkChannelCount(this.channels, 1);
+
+    final var position = this.checkIndex(index);
+    this.planes[0].put(position, c0);
+  }
+
+  @Override
+  public void frameSetExact(
+    final long index,
+    final double c0,
+    final double c1)
+    throws IllegalArgumentException
+  {
+    SampleBufferChecks.checkChannelCount(this.channels, 2);
+
+    final var position = this.checkIndex(index);
+    this.planes[0].put(position, c0);
+    this.planes[1].put(position, c1);
+  }
+
+  @Override
+  public void frameSetExact(
+    final long index,
+    final double[] value)
+    throws IllegalArgumentException
+  {
+    Objects.requireNonNull(value, "value");
+
+    SampleBufferChecks.checkChannelCount(this.channels, value.length);
+
+    final var position = this.checkIndex(index);
+    for (var channel = 0; channel < this.channels; ++channel) {
+      this.planes[channel].put(position, value[channel]);
+    }
+  }
+
+  @Override
+  public void framesSetExact(
+    final long index,
+    final int frameCount,
+    final double[] input,
+    final int offset)
+  {
+    Objects.requireNonNull(input, "input");
+
+    final var position =
+      this.checkFrames(index, frameCount, this.channels, offset, input.length);
+
+    for (var channel = 0; channel < this.channels; ++channel) {
+      final var plane = this.planes[channel];
+      var source = offset + channel;
+      for (var frame = 0; frame < frameCount; ++frame) {
+        plane.put(position + frame, input[source]);
+        source += this.channels;
+      }
+    }
+  }
+
+  @Override
+  public void framesSetExact(
+    final long index,
+    final int frameCount,
+    final float[] input,
+    final int offset)
+  {
+    Objects.requireNonNull(input, "input");
+
+    final var position =
+      this.checkFrames(index, frameCount, this.channels, offset, input.length);
+
+    for (var channel = 0; channel < this.channels; ++channel) {
+      final var plane = this.planes[channel];
+      var source = offset + channel;
+      for (var frame = 0; frame < frameCount; ++frame) {
+        plane.put(position + frame, (double) input[source]);
+        source += this.channels;
+      }
+    }
+  }
+
+  @Override
+  public void channelSetExact(
+    final int channel,
+    final long index,
+    final double value)
+  {
+    Objects.checkIndex(channel, this.channels);
+    this.planes[channel].put(this.checkIndex(index), value);
+  }
+
+  @Override
+  public void channelSetExact(
+    final int channel,
+    final long index,
+    final int frameCount,
+    final double[] input,
+    final int offset)
+  {
+    Objects.requireNonNull(input, "input");
+    Objects.checkIndex(channel, this.channels);
+
+    final var position =
+      this.checkFrames(index, frameCount, 1, offset, input.length);
+    this.planes[channel].put(position, input, offset, frameCount);
+  }
+
+  @Override
+  public void channelSetExact(
+    final int channel,
+    final long index,
+    final int frameCount,
+    final float[] input,
+    final int offset)
+  {
+    Objects.requireNonNull(input, "input");
+    Objects.checkIndex(channel, this.channels);
+
+    final var position =
+      this.checkFrames(index, frameCount, 1, offset, input.length);
+    final var plane = this.planes[channel];
+    for (var frame = 0; frame < frameCount; ++frame) {
+      plane.put(position + frame, (double) input[offset + frame]);
+    }
+  }
+
+  private int checkIndex(
+    final long index)
+  {
+    return (int) SampleBufferChecks.checkFrameIndex(index, this.frame_range);
+  }
+
+  private int checkFrames(
+    final long index,
+    final int frameCount,
+    final int samplesPerFrame,
+    final int offset,
+    final int length)
+  {
+    SampleBufferChecks.checkFrameBlock(
+      index, frameCount, this.frame_range, samplesPerFrame, offset, length);
+    return (int) index;
+  }
+
+  @Override
+  public SampleBufferType slice(
+    final long startFrame,
+    final long frameCount)
+  {
+    SampleBufferChecks.checkSlice(startFrame, frameCount, this.frame_range);
+
+    final var offset = Math.toIntExact(startFrame * SAMPLE_SIZE);
+    final var size = Math.toIntExact(frameCount * SAMPLE_SIZE);
+
+    final var sliced = new ByteBuffer[this.channels];
+    for (var channel = 0; channel < this.channels; ++channel) {
+      final var plane = this.storage[channel];
+      sliced[channel] = plane.slice(offset, size).order(plane.order());
+    }
+
+    return new SampleBufferPlanarDouble(
+      this.channels,
+      frameCount,
+      sliced,
+      this.sample_rate);
+  }
+
+  @Override
+  public SampleBufferAccessorType accessor(
+    final long startFrame,
+    final int frameCount)
+  {
+    SampleBufferChecks.checkSlice(startFrame, frameCount, this.frame_range);
+
+    final var offset = (int) startFrame;
+    final var sliced = new DoubleBuffer[this.channels];
+    for (var channel = 0; channel < this.channels; ++channel) {
+      sliced[channel] = this.planes[channel].slice(offset, frameCount);
+    }
+    return new SampleBufferPlanarDoubleAccessor(sliced, frameCount);
+  }
+
+  @Override
+  public int channels()
+  {
+    return this.channels;
+  }
+
+  @Override
+  public long frames()
+  {
+    return this.frames;
+  }
+
+  @Override
+  public double sampleRate()
+  {
+    return this.sample_rate;
+  }
+
+  @Override
+  public void frameGetExact(
+    final long index,
+    final double[] output)
+    throws IllegalArgumentException
+  {
+    Objects.requireNonNull(output, "output");
+
+    SampleBufferChecks.checkChannelCount(this.channels, output.length);
+
+    final var position = this.checkIndex(index);
+    for (var channel = 0; channel < this.channels; ++channel) {
+      output[channel] = this.planes[channel].get(position);
+    }
+  }
+
+  @Override
+  public double frameGetExact(
+    final long index)
+  {
+    SampleBufferChecks.checkChannelCount(this.channels, 1);
+
+    return this.planes[0].get(this.checkIndex(index));
+  }
+
+  @Override
+  public void framesGetExact(
+    final long index,
+    final int frameCount,
+    final double[] output,
+    final int offset)
+  {
+    Objects.requireNonNull(output, "output");
+
+    final var position =
+      this.checkFrames(index, frameCount, this.channels, offset, output.length);
+
+    for (var channel = 0; channel < this.channels; ++channel) {
+      final var plane = this.planes[channel];
+      var target = offset + channel;
+      for (var frame = 0; frame < frameCount; ++frame) {
+        output[target] = plane.get(position + frame);
+        target += this.channels;
+      }
+    }
+  }
+
+  @Override
+  public void framesGetExact(
+    final long index,
+    final int frameCount,
+    final float[] output,
+    final int offset)
+  {
+    Objects.requireNonNull(output, "output");
+
+    final var position =
+      this.checkFrames(index, frameCount, this.channels, offset, output.length);
+
+    for (var channel = 0; channel < this.channels; ++channel) {
+      final var plane = this.planes[channel];
+      var target = offset + channel;
+      for (var frame = 0; frame < frameCount; ++frame) {
+        output[target] = (float) plane.get(position + frame);
+        target += this.channels;
+      }
+    }
+  }
+
+  @Override
+  public double channelGetExact(
+    final int channel,
+    final long index)
+  {
+    Objects.checkIndex(channel, this.channels);
+    return this.planes[channel].get(this.checkIndex(index));
+  }
+
+  @Override
+  public void channelGetExact(
+    final int channel,
+    final long index,
+    final int frameCount,
+    final double[] output,
+    final int offset)
+  {
+    Objects.requireNonNull(output, "output");
+    Objects.checkIndex(channel, this.channels);
+
+    final var position =
+      this.checkFrames(index, frameCount, 1, offset, output.length);
+    this.planes[channel].get(position, output, offset, frameCount);
+  }
+
+  @Override
+  public void channelGetExact(
+    final int channel,
+    final long index,
+    final int frameCount,
+    final float[] output,
+    final int offset)
+  {
+    Objects.requireNonNull(output, "output");
+    Objects.checkIndex(channel, this.channels);
+
+    final var position =
+      this.checkFrames(index, frameCount, 1, offset, output.length);
+    final var plane = this.planes[channel];
+    for (var frame = 0; frame < frameCount; ++frame) {
+      output[offset + frame] = (float) plane.get(position + frame);
+    }
+  }
+
+  /**
+   * Copy {@code frameCount} frames starting at {@code sourceIndex} in
+   * {@code source} to this buffer starting at {@code index}. The storage of
+   * both buffers has the same layout, and so this is a bulk copy. The frame
+   * ranges must have been checked by the caller. Overlapping ranges in the
+   * same storage are copied correctly.
+   */
+
+  void framesCopyFrom(
+    final SampleBufferPlanarDouble source,
+    final long sourceIndex,
+    final long index,
+    final int frameCount)
+  {
+    for (var channel = 0; channel < this.channels; ++channel) {
+      this.planes[channel].put(
+        (int) index,
+        source.planes[channel],
+        (int) sourceIndex,
+        frameCount);
+    }
+  }
+
+  @Override
+  public SampleBufferLayout layout()
+  {
+    return SampleBufferLayout.of(
+      SampleBufferSampleFormat.FLOAT_64,
+      SampleBufferInterleaving.PLANAR,
+      this.storage[0].order(),
+      this.channels);
+  }
+
+  @Override
+  public ByteBuffer storage(
+    final int block)
+  {
+    Objects.checkIndex(block, this.channels);
+    final var plane = this.storage[block];
+    return plane.asReadOnlyBuffer()
+      .clear()
+      .order(plane.order());
+  }
+}
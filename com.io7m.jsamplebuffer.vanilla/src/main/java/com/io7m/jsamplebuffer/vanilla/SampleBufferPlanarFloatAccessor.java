@@ -0,0 +1,70 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.vanilla;
+
+import com.io7m.jsamplebuffer.api.SampleBufferAccessorType;
+
+import java.nio.FloatBuffer;
+import java.util.Objects;
+
+/**
+ * An accessor over planar {@code float} samples. Each of the given planes
+ * holds exactly the frames of the accessor.
+ */
+
+final class SampleBufferPlanarFloatAccessor implements SampleBufferAccessorType
+{
+  private final FloatBuffer[] planes;
+  private final int frameCount;
+
+  SampleBufferPlanarFloatAccessor(
+    final FloatBuffer[] in_planes,
+    final int in_frameCount)
+  {
+    this.planes = Objects.requireNonNull(in_planes, "planes");
+    this.frameCount = in_frameCount;
+  }
+
+  @Override
+  public int channels()
+  {
+    return this.planes.length;
+  }
+
+  @Override
+  public int frameCount()
+  {
+    return this.frameCount;
+  }
+
+  @Override
+  public double get(
+    final int frame,
+    final int channel)
+  {
+    return (double) this.planes[channel].get(frame);
+  }
+
+  @Override
+  public void set(
+    final int frame,
+    final int channel,
+    final double value)
+  {
+    this.planes[channel].put(frame, (float) value);
+  }
+}
@@ -0,0 +1,340 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.vanilla;
+
+import com.io7m.jsamplebuffer.api.SampleBufferFactoryType;
+import com.io7m.jsamplebuffer.api.SampleBufferType;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>A factory that recycles the storage of sample buffers.</p>
+ *
+ * <p>Storage is allocated in power-of-two size classes. When a buffer is
+ * returned to the pool with {@link #release(SampleBufferType)}, its storage
+ * is placed on the free list for its size class, and is reused by a later
+ * request for a buffer in the same size class. Requests larger than
+ * {@link #MAXIMUM_POOLED_SIZE} octets are always allocated fresh, and their
+ * storage is not retained on release.</p>
+ *
+ * <p>The pool is thread-safe. The free lists are lock-free queues, and the
+ * hit and miss counters are striped, so threads on different cores do not
+ * contend on a single lock.</p>
+ *
+ * <p>A buffer must not be used after it has been released: its storage may
+ * already belong to another buffer.</p>
+ *
+ * <p>The pool does not keep leased buffers reachable. A buffer that is never
+ * released is reclaimed by the garbage collector as usual, but its storage
+ * is not returned to the pool. Only the buffers returned by
+ * {@link #createBuffer(int, long, double)} can be released; slices and
+ * views of those buffers cannot, and {@link #release(SampleBufferType)}
+ * returns {@code false} for them. A leased buffer whose only remaining
+ * references are slices or views is therefore never recycled, because the
+ * slices may still be reading its storage.</p>
+ */
+
+public final class SampleBufferPool
+  implements SampleBufferFactoryType, AutoCloseable
+{
+  /**
+   * The size in octets of the smallest size class.
+   */
+
+  public static final int MINIMUM_POOLED_SIZE = 1 << 12;
+
+  /**
+   * The size in octets of the largest size class.
+   */
+
+  public static final int MAXIMUM_POOLED_SIZE = 1 << 30;
+
+  private static final int CLASS_MINIMUM =
+    Integer.numberOfTrailingZeros(MINIMUM_POOLED_SIZE);
+  private static final int CLASS_COUNT =
+    Integer.numberOfTrailingZeros(MAXIMUM_POOLED_SIZE) - CLASS_MINIMUM + 1;
+  private static final byte[] ZEROES = new byte[4096];
+
+  private final SampleBufferPoolConfiguration configuration;
+  private final ConcurrentLinkedQueue<ByteBuffer>[] free;
+  private final AtomicIntegerArray free_counts;
+  private final ConcurrentHashMap<Lease, ByteBuffer> leased;
+  private final ReferenceQueue<SampleBufferType> unreachable;
+  private final LongAdder hits;
+  private final LongAdder misses;
+  private volatile boolean closed;
+
+  /**
+   * The identity of a leased buffer. Buffers are compared by reference,
+   * regardless of how their implementations define equality. The buffer is
+   * only weakly referenced, so that a lease that is never released does not
+   * keep the buffer reachable.
+   */
+
+  private static final class Lease extends WeakReference<SampleBufferType>
+  {
+    private final int hash;
+
+    Lease(
+      final SampleBufferType buffer,
+      final ReferenceQueue<SampleBufferType> queue)
+    {
+      super(buffer, queue);
+      this.hash = System.identityHashCode(buffer);
+    }
+
+    @Override
+    public boolean equals(
+      final Object other)
+    {
+      if (this == other) {
+        return true;
+      }
+      if (other instanceof final Lease lease) {
+        final var buffer = this.get();
+        return buffer != null && lease.get() == buffer;
+      }
+      return false;
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return this.hash;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private SampleBufferPool(
+    final SampleBufferPoolConfiguration in_configuration)
+  {
+    this.configuration =
+      Objects.requireNonNull(in_configuration, "configuration");
+
+    this.free = new ConcurrentLinkedQueue[CLASS_COUNT];
+    for (var index = 0; index < CLASS_COUNT; ++index) {
+      this.free[index] = new ConcurrentLinkedQueue<>();
+    }
+    this.free_counts = new AtomicIntegerArray(CLASS_COUNT);
+    this.leased = new ConcurrentHashMap<>();
+    this.unreachable = new ReferenceQueue<>();
+    this.hits = new LongAdder();
+    this.misses = new LongAdder();
+  }
+
+  /**
+   * Create a pool.
+   *
+   * @param configuration The pool configuration
+   *
+   * @return A new pool
+   */
+
+  public static SampleBufferPool create(
+    final SampleBufferPoolConfiguration configuration)
+  {
+    return new SampleBufferPool(configuration);
+  }
+
+  private static int sizeClassOf(
+    final long bytes)
+  {
+    final var bits = 64 - Long.numberOfLeadingZeros(bytes - 1L);
+    return Math.max(bits, CLASS_MINIMUM) - CLASS_MINIMUM;
+  }
+
+  private static void zero(
+    final ByteBuffer buffer)
+  {
+    final var target = buffer.duplicate().clear();
+    while (target.hasRemaining()) {
+      target.put(ZEROES, 0, Math.min(ZEROES.length, target.remaining()));
+    }
+  }
+
+  private ByteBuffer allocate(
+    final int size)
+  {
+    if (this.configuration.directMemory()) {
+      return ByteBuffer.allocateDirect(size);
+    }
+    return ByteBuffer.allocate(size);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The returned buffer should be returned to the pool with
+   * {@link #release(SampleBufferType)} when it is no longer needed.</p>
+   *
+   * @throws IllegalStateException If the pool has been closed
+   */
+
+  @Override
+  public SampleBufferType createBuffer(
+    final int channels,
+    final long frames,
+    final double sample_rate)
+  {
+    if (this.closed) {
+      throw new IllegalStateException("Pool is closed.");
+    }
+
+    final var storage = new ByteBuffer[1];
+    final var buffer =
+      this.configuration.constructor()
+        .create(channels, frames, sample_rate, bytes -> {
+          storage[0] = this.take(bytes);
+          return storage[0].slice(0, Math.toIntExact(bytes));
+        });
+
+    this.expunge();
+    this.leased.put(new Lease(buffer, this.unreachable), storage[0]);
+    return buffer;
+  }
+
+  /**
+   * Discard the leases of buffers that have been garbage collected without
+   * being released. Their storage is not reused, because slices of the
+   * buffers may still refer to it.
+   */
+
+  private void expunge()
+  {
+    for (var lease = this.unreachable.poll();
+         lease != null;
+         lease = this.unreachable.poll()) {
+      this.leased.remove(lease);
+    }
+  }
+
+  private ByteBuffer take(
+    final long bytes)
+  {
+    if (bytes > (long) MAXIMUM_POOLED_SIZE) {
+      this.misses.increment();
+      return this.allocate(Math.toIntExact(bytes));
+    }
+
+    final var size_class = sizeClassOf(bytes);
+    final var existing = this.free[size_class].poll();
+    if (existing != null) {
+      this.free_counts.decrementAndGet(size_class);
+      this.hits.increment();
+      if (this.configuration.zeroOnReuse()) {
+        zero(existing);
+      }
+      return existing;
+    }
+
+    this.misses.increment();
+    return this.allocate(1 << (size_class + CLASS_MINIMUM));
+  }
+
+  /**
+   * Return a buffer to the pool. The buffer must have been created by this
+   * pool, and must not be used afterwards. Releasing a buffer that has
+   * already been released has no effect.
+   *
+   * @param buffer The buffer
+   *
+   * @return {@code true} if the buffer was created by this pool and had not
+   *         already been released
+   */
+
+  public boolean release(
+    final SampleBufferType buffer)
+  {
+    Objects.requireNonNull(buffer, "buffer");
+
+    this.expunge();
+
+    final var storage = this.leased.remove(new Lease(buffer, null));
+    if (storage == null) {
+      return false;
+    }
+
+    final var capacity = storage.capacity();
+    if (this.closed
+        || capacity > MAXIMUM_POOLED_SIZE
+        || Integer.bitCount(capacity) != 1) {
+      return true;
+    }
+
+    final var size_class = sizeClassOf(capacity);
+    final var limit = this.configuration.maximumRetainedPerClass();
+    if (this.free_counts.incrementAndGet(size_class) > limit) {
+      this.free_counts.decrementAndGet(size_class);
+      return true;
+    }
+
+    this.free[size_class].add(storage);
+    return true;
+  }
+
+  /**
+   * @return The number of requests satisfied by reusing storage
+   */
+
+  public long hits()
+  {
+    return this.hits.sum();
+  }
+
+  /**
+   * @return The number of requests that required new storage
+   */
+
+  public long misses()
+  {
+    return this.misses.sum();
+  }
+
+  /**
+   * @return The number of buffers created and not yet released or garbage
+   *         collected
+   */
+
+  public int leased()
+  {
+    this.expunge();
+    return this.leased.size();
+  }
+
+  /**
+   * Close the pool, discarding all retained storage. Buffers that are still
+   * leased remain usable, but their storage is not retained when they are
+   * released.
+   */
+
+  @Override
+  public void close()
+  {
+    this.closed = true;
+    for (var index = 0; index < CLASS_COUNT; ++index) {
+      this.free[index].clear();
+      this.free_counts.set(index, 0);
+    }
+  }
+}
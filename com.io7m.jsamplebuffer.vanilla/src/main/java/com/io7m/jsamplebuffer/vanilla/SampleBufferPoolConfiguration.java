@@ -0,0 +1,63 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.vanilla;
+
+import java.util.Objects;
+
+/**
+ * The configuration of a sample buffer pool.
+ *
+ * @param constructor             The function used to construct buffers
+ *                                over pooled storage
+ * @param directMemory            {@code true} if storage should be allocated
+ *                                using direct memory
+ * @param zeroOnReuse             {@code true} if reused storage should be
+ *                                filled with zeroes before being handed out
+ * @param maximumRetainedPerClass The maximum number of free buffers
+ *                                retained in each size class
+ *
+ * @see SampleBufferPool
+ */
+
+public record SampleBufferPoolConfiguration(
+  SampleBufferConstructorType constructor,
+  boolean directMemory,
+  boolean zeroOnReuse,
+  int maximumRetainedPerClass)
+{
+  /**
+   * The configuration of a sample buffer pool.
+   *
+   * @param constructor             The function used to construct buffers
+   *                                over pooled storage
+   * @param directMemory            {@code true} if storage should be
+   *                                allocated using direct memory
+   * @param zeroOnReuse             {@code true} if reused storage should be
+   *                                filled with zeroes before being handed out
+   * @param maximumRetainedPerClass The maximum number of free buffers
+   *                                retained in each size class
+   */
+
+  public SampleBufferPoolConfiguration
+  {
+    Objects.requireNonNull(constructor, "constructor");
+    if (maximumRetainedPerClass < 0) {
+      throw new IllegalArgumentException(
+        "Maximum retained buffers must be non-negative.");
+    }
+  }
+}
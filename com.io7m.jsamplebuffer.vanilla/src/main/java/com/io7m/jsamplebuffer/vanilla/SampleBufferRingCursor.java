@@ -0,0 +1,144 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.vanilla;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * <p>The state owned by one side of a single-producer/single-consumer ring:
+ * the position that the side publishes, and the side's cached copy of the
+ * position published by the other side.</p>
+ *
+ * <p>The producer and the consumer each own a separate cursor. The fields
+ * of a cursor are surrounded by enough padding to fill two cache lines on
+ * either side, so the cursor of the producer never shares a cache line with
+ * the cursor of the consumer, or with any other object. A thread therefore
+ * only invalidates the other thread's cache when it publishes a new
+ * position.</p>
+ */
+
+@SuppressWarnings("unused")
+final class SampleBufferRingCursor
+{
+  private static final VarHandle POSITION;
+
+  static {
+    try {
+      POSITION = MethodHandles.lookup()
+        .findVarHandle(SampleBufferRingCursor.class, "position", long.class);
+    } catch (final ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  /*
+   * Fields of the same size are laid out in declaration order, so the
+   * padding fields are placed before and after the fields in use.
+   */
+
+  private long p00;
+  private long p01;
+  private long p02;
+  private long p03;
+  private long p04;
+  private long p05;
+  private long p06;
+  private long p07;
+  private long p08;
+  private long p09;
+  private long p10;
+  private long p11;
+  private long p12;
+  private long p13;
+  private long p14;
+  private long p15;
+  private long position;
+  private long cached;
+  private long p16;
+  private long p17;
+  private long p18;
+  private long p19;
+  private long p20;
+  private long p21;
+  private long p22;
+  private long p23;
+  private long p24;
+  private long p25;
+  private long p26;
+  private long p27;
+  private long p28;
+  private long p29;
+  private long p30;
+  private long p31;
+
+  SampleBufferRingCursor()
+  {
+
+  }
+
+  /**
+   * @return The position, read by the side that owns the cursor
+   */
+
+  long position()
+  {
+    return this.position;
+  }
+
+  /**
+   * @return The position, read with acquire semantics by the other side
+   */
+
+  long positionAcquire()
+  {
+    return (long) POSITION.getAcquire(this);
+  }
+
+  /**
+   * Publish a new position with release semantics.
+   *
+   * @param value The position
+   */
+
+  void positionRelease(
+    final long value)
+  {
+    POSITION.setRelease(this, value);
+  }
+
+  /**
+   * @return The cached position of the other side
+   */
+
+  long cached()
+  {
+    return this.cached;
+  }
+
+  /**
+   * Set the cached position of the other side.
+   *
+   * @param value The position
+   */
+
+  void setCached(
+    final long value)
+  {
+    this.cached = value;
+  }
+}
@@ -0,0 +1,563 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.vanilla;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.Objects;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+
+/**
+ * <p>A single-producer/single-consumer ring buffer of frames using
+ * {@code double} elements.</p>
+ *
+ * <p>Exactly one thread may write to the ring, and exactly one (possibly
+ * different) thread may read from it. The write position is published with
+ * release semantics after the samples are written, and read with acquire
+ * semantics before the samples are read (and vice versa for the read
+ * position), so no locks are required. Each side keeps a cached copy of the
+ * other side's position and only re-reads it when the cached copy indicates
+ * that the ring is full (or empty). The state owned by the producer and
+ * the state owned by the consumer are held in separately padded objects, so
+ * the two threads do not contend for the same cache line except when one
+ * of them publishes a new position. The {@link #write(int, double[], int)}
+ * and {@link #read(int, double[], int)} methods are wait-free; the
+ * {@code Blocking} methods spin, then yield, then park until they can make
+ * progress. None of the methods allocate.</p>
+ *
+ * <p>The capacity of the ring is always a power of two number of frames.</p>
+ */
+
+public final class SampleBufferRingDouble
+{
+  private static final long SAMPLE_SIZE = 8L;
+  private static final long CAPACITY_MAXIMUM = 1L << 30;
+  private static final int SPIN_LIMIT = 100;
+  private static final int YIELD_LIMIT = 200;
+  private static final long PARK_NANOS = 50_000L;
+
+  private static final VarHandle CLOSED;
+
+  static {
+    try {
+      CLOSED = MethodHandles.lookup().findVarHandle(
+        SampleBufferRingDouble.class, "closed", boolean.class);
+    } catch (final ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private final int channels;
+  private final int capacity;
+  private final long mask;
+  private final DoubleBuffer doubles;
+  private final double sample_rate;
+
+  private final SampleBufferRingCursor producer;
+  private final SampleBufferRingCursor consumer;
+  private boolean closed;
+
+  private SampleBufferRingDouble(
+    final int in_channels,
+    final int in_capacity,
+    final ByteBuffer in_buffer,
+    final double in_sample_rate)
+  {
+    this.channels = in_channels;
+    this.capacity = in_capacity;
+    this.mask = (long) in_capacity - 1L;
+    this.doubles =
+      Objects.requireNonNull(in_buffer, "buffer")
+        .duplicate()
+        .clear()
+        .order(in_buffer.order())
+        .asDoubleBuffer();
+    this.sample_rate = in_sample_rate;
+    this.producer = new SampleBufferRingCursor();
+    this.consumer = new SampleBufferRingCursor();
+  }
+
+  /**
+   * Create a ring buffer. The capacity is rounded up to the nearest power of
+   * two.
+   *
+   * @param channels    The number of channels per frame
+   * @param frames      The minimum number of frames the ring can hold
+   * @param sample_rate The sample rate in hz
+   * @param create      A function that allocates a byte buffer for the samples
+   *
+   * @return A new ring buffer
+   */
+
+  public static SampleBufferRingDouble createWithByteBuffer(
+    final int channels,
+    final long frames,
+    final double sample_rate,
+    final LongFunction<ByteBuffer> create)
+  {
+    Objects.requireNonNull(create, "create");
+
+    SampleBufferChecks.checkChannels(channels);
+    SampleBufferChecks.checkFrames(frames);
+
+    if (frames > CAPACITY_MAXIMUM) {
+      throw new IllegalArgumentException(
+        new StringBuilder(128)
+          .append("Ring capacity is too large.")
+          .append(System.lineSeparator())
+          .append("  Maximum: ")
+          .append(CAPACITY_MAXIMUM)
+          .append(" frames")
+          .append(System.lineSeparator())
+          .append("  Received: ")
+          .append(frames)
+          .append(" frames")
+          .toString());
+    }
+
+    final var capacity =
+      (int) Long.highestOneBit(Math.max(1L, (frames - 1L) << 1));
+    final var per_frame = Math.multiplyExact(SAMPLE_SIZE, channels);
+    final var bytes = Math.multiplyExact(per_frame, (long) capacity);
+    final var buffer = create.apply(bytes);
+    SampleBufferChecks.checkBufferSize(buffer, bytes);
+
+    return new SampleBufferRingDouble(
+      channels,
+      capacity,
+      buffer.order(ByteOrder.nativeOrder()),
+      sample_rate);
+  }
+
+  /**
+   * Create a ring buffer. The underlying buffer will be allocated using
+   * direct memory.
+   *
+   * @param channels    The number of channels per frame
+   * @param frames      The minimum number of frames the ring can hold
+   * @param sample_rate The sample rate in hz
+   *
+   * @return A new ring buffer
+   */
+
+  public static SampleBufferRingDouble createWithDirectBuffer(
+    final int channels,
+    final long frames,
+    final double sample_rate)
+  {
+    return createWithByteBuffer(
+      channels,
+      frames,
+      sample_rate,
+      bytes -> ByteBuffer.allocateDirect(Math.toIntExact(bytes)));
+  }
+
+  /**
+   * Create a ring buffer. The underlying buffer will be heap-allocated.
+   *
+   * @param channels    The number of channels per frame
+   * @param frames      The minimum number of frames the ring can hold
+   * @param sample_rate The sample rate in hz
+   *
+   * @return A new ring buffer
+   */
+
+  public static SampleBufferRingDouble createWithHeapBuffer(
+    final int channels,
+    final long frames,
+    final double sample_rate)
+  {
+    return createWithByteBuffer(
+      channels,
+      frames,
+      sample_rate,
+      bytes -> ByteBuffer.allocate(Math.toIntExact(bytes)));
+  }
+
+  /**
+   * @return The number of channels in a frame
+   */
+
+  public int channels()
+  {
+    return this.channels;
+  }
+
+  /**
+   * @return The maximum number of frames the ring can hold
+   */
+
+  public int capacity()
+  {
+    return this.capacity;
+  }
+
+  /**
+   * @return The sample rate in hz
+   */
+
+  public double sampleRate()
+  {
+    return this.sample_rate;
+  }
+
+  /**
+   * @return The number of frames currently available to read
+   */
+
+  public int available()
+  {
+    final var read = this.consumer.positionAcquire();
+    final var write = this.producer.positionAcquire();
+    return (int) (write - read);
+  }
+
+  /**
+   * @return {@code true} if {@link #close()} has been called
+   */
+
+  public boolean isClosed()
+  {
+    return (boolean) CLOSED.getAcquire(this);
+  }
+
+  /**
+   * Close the ring. This is called by the producer to indicate that no more
+   * frames will be written. Frames already written remain readable.
+   */
+
+  public void close()
+  {
+    CLOSED.setRelease(this, true);
+  }
+
+  /**
+   * Write up to {@code frameCount} frames to the ring without blocking. The
+   * samples are read from {@code input} in interleaved order starting at
+   * {@code offset}. This method must only be called by the producer thread.
+   *
+   * @param frameCount The maximum number of frames to write
+   * @param input      The input
+   * @param offset     The offset of the first sample in {@code input}
+   *
+   * @return The number of frames written, which is less than
+   *         {@code frameCount} if the ring is full
+   *
+   * @throws IndexOutOfBoundsException If {@code input} is too small
+   * @throws IllegalStateException     If the ring has been closed
+   */
+
+  public int write(
+    final int frameCount,
+    final double[] input,
+    final int offset)
+    throws IndexOutOfBoundsException, IllegalStateException
+  {
+    Objects.requireNonNull(input, "input");
+    Objects.checkFromIndexSize(
+      offset, Math.multiplyExact(frameCount, this.channels), input.length);
+    this.checkOpen();
+
+    final var write = this.producer.position();
+    final var count = this.writable(write, frameCount);
+    if (count == 0) {
+      return 0;
+    }
+
+    final var first = (int) (write & this.mask);
+    final var head = Math.min(count, this.capacity - first);
+    final var head_samples = head * this.channels;
+    this.doubles.put(first * this.channels, input, offset, head_samples);
+    if (count > head) {
+      this.doubles.put(
+        0, input, offset + head_samples, (count - head) * this.channels);
+    }
+
+    this.producer.positionRelease(write + (long) count);
+    return count;
+  }
+
+  /**
+   * Write up to {@code frameCount} frames to the ring without blocking. The
+   * samples are read from {@code input} in interleaved order starting at
+   * {@code offset}. This method must only be called by the producer thread.
+   *
+   * @param frameCount The maximum number of frames to write
+   * @param input      The input
+   * @param offset     The offset of the first sample in {@code input}
+   *
+   * @return The number of frames written, which is less than
+   *         {@code frameCount} if the ring is full
+   *
+   * @throws IndexOutOfBoundsException If {@code input} is too small
+   * @throws IllegalStateException     If the ring has been closed
+   */
+
+  public int write(
+    final int frameCount,
+    final float[] input,
+    final int offset)
+    throws IndexOutOfBoundsException, IllegalStateException
+  {
+    Objects.requireNonNull(input, "input");
+    Objects.checkFromIndexSize(
+      offset, Math.multiplyExact(frameCount, this.channels), input.length);
+    this.checkOpen();
+
+    final var write = this.producer.position();
+    final var count = this.writable(write, frameCount);
+
+    var position = write;
+    var source = offset;
+    for (var frame = 0; frame < count; ++frame) {
+      final var base = (int) (position & this.mask) * this.channels;
+      for (var channel = 0; channel < this.channels; ++channel) {
+        this.doubles.put(base + channel, (double) input[source + channel]);
+      }
+      ++position;
+      source += this.channels;
+    }
+
+    this.producer.positionRelease(position);
+    return count;
+  }
+
+  /**
+   * Read up to {@code frameCount} frames from the ring without blocking. The
+   * samples are written to {@code output} in interleaved order starting at
+   * {@code offset}. This method must only be called by the consumer thread.
+   *
+   * @param frameCount The maximum number of frames to read
+   * @param output     The output
+   * @param offset     The offset of the first sample in {@code output}
+   *
+   * @return The number of frames read, which is less than
+   *         {@code frameCount} if the ring is empty
+   *
+   * @throws IndexOutOfBoundsException If {@code output} is too small
+   */
+
+  public int read(
+    final int frameCount,
+    final double[] output,
+    final int offset)
+    throws IndexOutOfBoundsException
+  {
+    Objects.requireNonNull(output, "output");
+    Objects.checkFromIndexSize(
+      offset, Math.multiplyExact(frameCount, this.channels), output.length);
+
+    final var read = this.consumer.position();
+    final var count = this.readable(read, frameCount);
+    if (count == 0) {
+      return 0;
+    }
+
+    final var first = (int) (read & this.mask);
+    final var head = Math.min(count, this.capacity - first);
+    final var head_samples = head * this.channels;
+    this.doubles.get(first * this.channels, output, offset, head_samples);
+    if (count > head) {
+      this.doubles.get(
+        0, output, offset + head_samples, (count - head) * this.channels);
+    }
+
+    this.consumer.positionRelease(read + (long) count);
+    return count;
+  }
+
+  /**
+   * Read up to {@code frameCount} frames from the ring without blocking. The
+   * samples are written to {@code output} in interleaved order starting at
+   * {@code offset}. This method must only be called by the consumer thread.
+   *
+   * @param frameCount The maximum number of frames to read
+   * @param output     The output
+   * @param offset     The offset of the first sample in {@code output}
+   *
+   * @return The number of frames read, which is less than
+   *         {@code frameCount} if the ring is empty
+   *
+   * @throws IndexOutOfBoundsException If {@code output} is too small
+   */
+
+  public int read(
+    final int frameCount,
+    final float[] output,
+    final int offset)
+    throws IndexOutOfBoundsException
+  {
+    Objects.requireNonNull(output, "output");
+    Objects.checkFromIndexSize(
+      offset, Math.multiplyExact(frameCount, this.channels), output.length);
+
+    final var read = this.consumer.position();
+    final var count = this.readable(read, frameCount);
+
+    var position = read;
+    var target = offset;
+    for (var frame = 0; frame < count; ++frame) {
+      final var base = (int) (position & this.mask) * this.channels;
+      for (var channel = 0; channel < this.channels; ++channel) {
+        output[target + channel] = (float) this.doubles.get(base + channel);
+      }
+      ++position;
+      target += this.channels;
+    }
+
+    this.consumer.positionRelease(position);
+    return count;
+  }
+
+  /**
+   * Write exactly {@code frameCount} frames to the ring, waiting for space
+   * to become available as necessary. This method must only be called by
+   * the producer thread.
+   *
+   * @param frameCount The number of frames to write
+   * @param input      The input
+   * @param offset     The offset of the first sample in {@code input}
+   *
+   * @throws InterruptedException      If the thread is interrupted while
+   *                                   waiting
+   * @throws IndexOutOfBoundsException If {@code input} is too small
+   * @throws IllegalStateException     If the ring has been closed
+   */
+
+  public void writeBlocking(
+    final int frameCount,
+    final double[] input,
+    final int offset)
+    throws InterruptedException, IndexOutOfBoundsException, IllegalStateException
+  {
+    Objects.requireNonNull(input, "input");
+    Objects.checkFromIndexSize(
+      offset, Math.multiplyExact(frameCount, this.channels), input.length);
+
+    var done = 0;
+    var idle = 0;
+    while (done < frameCount) {
+      final var count =
+        this.write(frameCount - done, input, offset + done * this.channels);
+      if (count == 0) {
+        idle = idle(idle);
+      } else {
+        done += count;
+        idle = 0;
+      }
+    }
+  }
+
+  /**
+   * Read exactly {@code frameCount} frames from the ring, waiting for frames
+   * to become available as necessary. Fewer frames are read only if the
+   * ring is closed and has been drained. This method must only be called by
+   * the consumer thread.
+   *
+   * @param frameCount The number of frames to read
+   * @param output     The output
+   * @param offset     The offset of the first sample in {@code output}
+   *
+   * @return The number of frames read
+   *
+   * @throws InterruptedException      If the thread is interrupted while
+   *                                   waiting
+   * @throws IndexOutOfBoundsException If {@code output} is too small
+   */
+
+  public int readBlocking(
+    final int frameCount,
+    final double[] output,
+    final int offset)
+    throws InterruptedException, IndexOutOfBoundsException
+  {
+    Objects.requireNonNull(output, "output");
+    Objects.checkFromIndexSize(
+      offset, Math.multiplyExact(frameCount, this.channels), output.length);
+
+    var done = 0;
+    var idle = 0;
+    while (done < frameCount) {
+      final var closed_before = this.isClosed();
+      final var count =
+        this.read(frameCount - done, output, offset + done * this.channels);
+      if (count == 0) {
+        if (closed_before) {
+          break;
+        }
+        idle = idle(idle);
+      } else {
+        done += count;
+        idle = 0;
+      }
+    }
+    return done;
+  }
+
+  private static int idle(
+    final int idle)
+    throws InterruptedException
+  {
+    if (Thread.interrupted()) {
+      throw new InterruptedException();
+    }
+
+    if (idle < SPIN_LIMIT) {
+      Thread.onSpinWait();
+    } else if (idle < YIELD_LIMIT) {
+      Thread.yield();
+    } else {
+      LockSupport.parkNanos(PARK_NANOS);
+    }
+    return idle + 1;
+  }
+
+  private void checkOpen()
+  {
+    if (this.isClosed()) {
+      throw new IllegalStateException("Ring is closed.");
+    }
+  }
+
+  private int writable(
+    final long write,
+    final int frameCount)
+  {
+    var free = (long) this.capacity - (write - this.producer.cached());
+    if (free < (long) frameCount) {
+      this.producer.setCached(this.consumer.positionAcquire());
+      free = (long) this.capacity - (write - this.producer.cached());
+    }
+    return (int) Math.min(free, (long) frameCount);
+  }
+
+  private int readable(
+    final long read,
+    final int frameCount)
+  {
+    var used = this.consumer.cached() - read;
+    if (used < (long) frameCount) {
+      this.consumer.setCached(this.producer.positionAcquire());
+      used = this.consumer.cached() - read;
+    }
+    return (int) Math.min(used, (long) frameCount);
+  }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.vanilla;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A function that allocates the segments of a segmented sample buffer.
+ */
+
+@FunctionalInterface
+public interface SampleBufferSegmentAllocatorType
+{
+  /**
+   * Allocate a segment. Segments are allocated in order, and each segment
+   * covers the octets {@code [offset, offset + size)} of the sample data.
+   *
+   * @param offset The offset in octets of the segment
+   * @param size   The size in octets of the segment
+   *
+   * @return A buffer with a capacity of exactly {@code size} octets
+   */
+
+  ByteBuffer allocate(
+    long offset,
+    int size);
+}
@@ -0,0 +1,545 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.vanilla;
+
+import com.io7m.jranges.RangeInclusiveL;
+import com.io7m.jsamplebuffer.api.SampleBufferType;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Objects;
+
+/**
+ * <p>A sample buffer using {@code float} elements, stored in a sequence of
+ * fixed-size segments.</p>
+ *
+ * <p>Unlike {@link SampleBufferFloat}, the total size of the buffer is not
+ * limited to {@code Integer.MAX_VALUE} octets. Each segment holds a
+ * power-of-two number of whole frames, and so locating a frame is a shift
+ * and a mask rather than a division.</p>
+ */
+
+public final class SampleBufferSegmentedFloat implements SampleBufferType
+{
+  private static final long SAMPLE_SIZE = 4L;
+
+  private final int channels;
+  private final long frames;
+  private final FloatBuffer[] segments;
+  private final int segment_shift;
+  private final long segment_mask;
+  private final int segment_frames;
+  private final RangeInclusiveL frame_range;
+  private final double sample_rate;
+
+  private SampleBufferSegmentedFloat(
+    final int in_channels,
+    final long in_frames,
+    final int in_segment_shift,
+    final FloatBuffer[] in_segments,
+    final double in_sample_rate)
+  {
+    this.channels =
+      SampleBufferChecks.checkChannels(in_channels);
+    this.frames =
+      SampleBufferChecks.checkFrames(in_frames);
+
+    this.frame_range =
+      RangeInclusiveL.of(0L, in_frames - 1L);
+
+    this.segments = Objects.requireNonNull(in_segments, "segments");
+    this.segment_shift = in_segment_shift;
+    this.segment_frames = 1 << in_segment_shift;
+    this.segment_mask = (long) this.segment_frames - 1L;
+    this.sample_rate = in_sample_rate;
+  }
+
+  /**
+   * Create a sample buffer.
+   *
+   * @param channels     The number of channels per frame
+   * @param frames       The number of frames in the buffer
+   * @param sample_rate  The sample rate in hz
+   * @param segment_size The maximum size in octets of each segment
+   * @param allocate     A function that allocates each segment
+   *
+   * @return A new sample buffer
+   */
+
+  public static SampleBufferType createWithSegments(
+    final int channels,
+    final long frames,
+    final double sample_rate,
+    final int segment_size,
+    final SampleBufferSegmentAllocatorType allocate)
+  {
+    Objects.requireNonNull(allocate, "allocate");
+
+    SampleBufferChecks.checkChannels(channels);
+    SampleBufferChecks.checkFrames(frames);
+
+    final var frame_size =
+      Math.multiplyExact(SAMPLE_SIZE, channels);
+    final var segment_shift =
+      SampleBufferSegments.segmentShift(frame_size, segment_size);
+    final var buffers =
+      SampleBufferSegments.allocate(frames, frame_size, segment_shift, allocate);
+
+    final var segments = new FloatBuffer[buffers.length];
+    for (var index = 0; index < buffers.length; ++index) {
+      segments[index] =
+        buffers[index].order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+
+    return new SampleBufferSegmentedFloat(
+      channels,
+      frames,
+      segment_shift,
+      segments,
+      sample_rate);
+  }
+
+  /**
+   * Create a sample buffer. The underlying segments will be allocated using
+   * direct memory.
+   *
+   * @param channels    The number of channels per frame
+   * @param frames      The number of frames in the buffer
+   * @param sample_rate The sample rate in hz
+   *
+   * @return A new sample buffer
+   */
+
+  public static SampleBufferType createWithDirectBuffer(
+    final int channels,
+    final long frames,
+    final double sample_rate)
+  {
+    return createWithSegments(
+      channels,
+      frames,
+      sample_rate,
+      SampleBufferSegments.SEGMENT_SIZE_DEFAULT,
+      (offset, size) -> ByteBuffer.allocateDirect(size));
+  }
+
+  /**
+   * Create a sample buffer. The underlying segments will be heap-allocated.
+   *
+   * @param channels    The number of channels per frame
+   * @param frames      The number of frames in the buffer
+   * @param sample_rate The sample rate in hz
+   *
+   * @return A new sample buffer
+   */
+
+  public static SampleBufferType createWithHeapBuffer(
+    final int channels,
+    final long frames,
+    final double sample_rate)
+  {
+    return createWithSegments(
+      channels,
+      frames,
+      sample_rate,
+      SampleBufferSegments.SEGMENT_SIZE_DEFAULT,
+      (offset, size) -> ByteBuffer.allocate(size));
+  }
+
+  private FloatBuffer segmentOf(
+    final long index)
+  {
+    return this.segments[(int) (index >>> this.segment_shift)];
+  }
+
+  private int positionOf(
+    final long index)
+  {
+    return (int) (index & this.segment_mask) * this.channels;
+  }
+
+  @Override
+  public void frameSetAll(
+    final long index,
+    final double value)
+  {
+    SampleBufferChecks.checkFrameIndex(index, this.frame_range);
+
+    final var segment = this.segmentOf(index);
+    final var position = this.positionOf(index);
+    for (var channel = 0; channel < this.channels; ++channel) {
+      segment.put(position + channel, (float) value);
+    }
+  }
+
+  @Override
+  public void frameSetExact(
+    final long index,
+    final double c0)
+    throws IllegalArgumentException
+  {
+    SampleBufferChecks.checkChannelCount(this.channels, 1);
+    SampleBufferChecks.checkFrameIndex(index, this.frame_range);
+
+    this.segmentOf(index).put(this.positionOf(index), (float) c0);
+  }
+
+  @Override
+  public void frameSetExact(
+    final long index,
+    final double c0,
+    final double c1)
+    throws IllegalArgumentException
+  {
+    SampleBufferChecks.checkChannelCount(this.channels, 2);
+    SampleBufferChecks.checkFrameIndex(index, this.frame_range);
+
+    final var segment = this.segmentOf(index);
+    final var position = this.positionOf(index);
+    segment.put(position, (float) c0);
+    segment.put(position + 1, (float) c1);
+  }
+
+  @Override
+  public void frameSetExact(
+    final long index,
+    final double[] value)
+    throws IllegalArgumentException
+  {
+    Objects.requireNonNull(value, "value");
+
+    SampleBufferChecks.checkChannelCount(this.channels, value.length);
+    SampleBufferChecks.checkFrameIndex(index, this.frame_range);
+
+    final var segment = this.segmentOf(index);
+    final var position = this.positionOf(index);
+    for (var channel = 0; channel < this.channels; ++channel) {
+      segment.put(position + channel, (float) value[channel]);
+    }
+  }
+
+  @Override
+  public void framesSetExact(
+    final long index,
+    final int frameCount,
+    final double[] input,
+    final int offset)
+  {
+    Objects.requireNonNull(input, "input");
+
+    SampleBufferChecks.checkFrameBlock(
+      index, frameCount, this.frame_range, this.channels, offset, input.length);
+
+    var frame = index;
+    var source = offset;
+    var remaining = frameCount;
+    while (remaining > 0) {
+      final var count = this.framesInSegment(frame, remaining);
+      final var samples = count * this.channels;
+      final var segment = this.segmentOf(frame);
+      final var position = this.positionOf(frame);
+      for (var sample = 0; sample < samples; ++sample) {
+        segment.put(position + sample, (float) input[source + sample]);
+      }
+      frame += count;
+      source += samples;
+      remaining -= count;
+    }
+  }
+
+  @Override
+  public void framesSetExact(
+    final long index,
+    final int frameCount,
+    final float[] input,
+    final int offset)
+  {
+    Objects.requireNonNull(input, "input");
+
+    SampleBufferChecks.checkFrameBlock(
+      index, frameCount, this.frame_range, this.channels, offset, input.length);
+
+    var frame = index;
+    var source = offset;
+    var remaining = frameCount;
+    while (remaining > 0) {
+      final var count = this.framesInSegment(frame, remaining);
+      final var samples = count * this.channels;
+      this.segmentOf(frame).put(this.positionOf(frame), input, source, samples);
+      frame += count;
+      source += samples;
+      remaining -= count;
+    }
+  }
+
+  @Override
+  public void channelSetExact(
+    final int channel,
+    final long index,
+    final double value)
+  {
+    Objects.checkIndex(channel, this.channels);
+    SampleBufferChecks.checkFrameIndex(index, this.frame_range);
+
+    this.segmentOf(index).put(this.positionOf(index) + channel, (float) value);
+  }
+
+  @Override
+  public void channelSetExact(
+    final int channel,
+    final long index,
+    final int frameCount,
+    final double[] input,
+    final int offset)
+  {
+    Objects.requireNonNull(input, "input");
+    Objects.checkIndex(channel, this.channels);
+
+    SampleBufferChecks.checkFrameBlock(
+      index, frameCount, this.frame_range, 1, offset, input.length);
+
+    var frame = index;
+    var source = offset;
+    var remaining = frameCount;
+    while (remaining > 0) {
+      final var count = this.framesInSegment(frame, remaining);
+      final var segment = this.segmentOf(frame);
+      var position = this.positionOf(frame) + channel;
+      for (var sample = 0; sample < count; ++sample) {
+        segment.put(position, (float) input[source + sample]);
+        position += this.channels;
+      }
+      frame += count;
+      source += count;
+      remaining -= count;
+    }
+  }
+
+  @Override
+  public void channelSetExact(
+    final int channel,
+    final long index,
+    final int frameCount,
+    final float[] input,
+    final int offset)
+  {
+    Objects.requireNonNull(input, "input");
+    Objects.checkIndex(channel, this.channels);
+
+    SampleBufferChecks.checkFrameBlock(
+      index, frameCount, this.frame_range, 1, offset, input.length);
+
+    var frame = index;
+    var source = offset;
+    var remaining = frameCount;
+    while (remaining > 0) {
+      final var count = this.framesInSegment(frame, remaining);
+      final var segment = this.segmentOf(frame);
+      var position = this.positionOf(frame) + channel;
+      for (var sample = 0; sample < count; ++sample) {
+        segment.put(position, input[source + sample]);
+        position += this.channels;
+      }
+      frame += count;
+      source += count;
+      remaining -= count;
+    }
+  }
+
+  private int framesInSegment(
+    final long frame,
+    final int remaining)
+  {
+    final var available =
+      this.segment_frames - (int) (frame & this.segment_mask);
+    return Math.min(available, remaining);
+  }
+
+  @Override
+  public int channels()
+  {
+    return this.channels;
+  }
+
+  @Override
+  public long frames()
+  {
+    return this.frames;
+  }
+
+  @Override
+  public double sampleRate()
+  {
+    return this.sample_rate;
+  }
+
+  @Override
+  public void frameGetExact(
+    final long index,
+    final double[] output)
+    throws IllegalArgumentException
+  {
+    Objects.requireNonNull(output, "output");
+
+    SampleBufferChecks.checkChannelCount(this.channels, output.length);
+    SampleBufferChecks.checkFrameIndex(index, this.frame_range);
+
+    final var segment = this.segmentOf(index);
+    final var position = this.positionOf(index);
+    for (var channel = 0; channel < this.channels; ++channel) {
+      output[channel] = (double) segment.get(position + channel);
+    }
+  }
+
+  @Override
+  public double frameGetExact(
+    final long index)
+  {
+    SampleBufferChecks.checkChannelCount(this.channels, 1);
+    SampleBufferChecks.checkFrameIndex(index, this.frame_range);
+
+    return (double) this.segmentOf(index).get(this.positionOf(index));
+  }
+
+  @Override
+  public void framesGetExact(
+    final long index,
+    final int frameCount,
+    final double[] output,
+    final int offset)
+  {
+    Objects.requireNonNull(output, "output");
+
+    SampleBufferChecks.checkFrameBlock(
+      index, frameCount, this.frame_range, this.channels, offset, output.length);
+
+    var frame = index;
+    var target = offset;
+    var remaining = frameCount;
+    while (remaining > 0) {
+      final var count = this.framesInSegment(frame, remaining);
+      final var samples = count * this.channels;
+      final var segment = this.segmentOf(frame);
+      final var position = this.positionOf(frame);
+      for (var sample = 0; sample < samples; ++sample) {
+        output[target + sample] = (double) segment.get(position + sample);
+      }
+      frame += count;
+      target += samples;
+      remaining -= count;
+    }
+  }
+
+  @Override
+  public void framesGetExact(
+    final long index,
+    final int frameCount,
+    final float[] output,
+    final int offset)
+  {
+    Objects.requireNonNull(output, "output");
+
+    SampleBufferChecks.checkFrameBlock(
+      index, frameCount, this.frame_range, this.channels, offset, output.length);
+
+    var frame = index;
+    var target = offset;
+    var remaining = frameCount;
+    while (remaining > 0) {
+      final var count = this.framesInSegment(frame, remaining);
+      final var samples = count * this.channels;
+      this.segmentOf(frame).get(this.positionOf(frame), output, target, samples);
+      frame += count;
+      target += samples;
+      remaining -= count;
+    }
+  }
+
+  @Override
+  public double channelGetExact(
+    final int channel,
+    final long index)
+  {
+    Objects.checkIndex(channel, this.channels);
+    SampleBufferChecks.checkFrameIndex(index, this.frame_range);
+
+    return (double) this.segmentOf(index).get(this.positionOf(index) + channel);
+  }
+
+  @Override
+  public void channelGetExact(
+    final int channel,
+    final long index,
+    final int frameCount,
+    final double[] output,
+    final int offset)
+  {
+    Objects.requireNonNull(output, "output");
+    Objects.checkIndex(channel, this.channels);
+
+    SampleBufferChecks.checkFrameBlock(
+      index, frameCount, this.frame_range, 1, offset, output.length);
+
+    var frame = index;
+    var target = offset;
+    var remaining = frameCount;
+    while (remaining > 0) {
+      final var count = this.framesInSegment(frame, remaining);
+      final var segment = this.segmentOf(frame);
+      var position = this.positionOf(frame) + channel;
+      for (var sample = 0; sample < count; ++sample) {
+        output[target + sample] = (double) segment.get(position);
+        position += this.channels;
+      }
+      frame += count;
+      target += count;
+      remaining -= count;
+    }
+  }
+
+  @Override
+  public void channelGetExact(
+    final int channel,
+    final long index,
+    final int frameCount,
+    final float[] output,
+    final int offset)
+  {
+    Objects.requireNonNull(output, "output");
+    Objects.checkIndex(channel, this.channels);
+
+    SampleBufferChecks.checkFrameBlock(
+      index, frameCount, this.frame_range, 1, offset, output.length);
+
+    var frame = index;
+    var target = offset;
+    var remaining = frameCount;
+    while (remaining > 0) {
+      final var count = this.framesInSegment(frame, remaining);
+      final var segment = this.segmentOf(frame);
+      var position = this.positionOf(frame) + channel;
+      for (var sample = 0; sample < count; ++sample) {
+        output[target + sample] = segment.get(position);
+        position += this.channels;
+      }
+      frame += count;
+      target += count;
+      remaining -= count;
+    }
+  }
+}
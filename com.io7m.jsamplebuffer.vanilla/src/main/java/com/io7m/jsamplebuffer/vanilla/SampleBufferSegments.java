@@ -0,0 +1,96 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.vanilla;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Functions to lay out the segments of segmented sample buffers.
+ */
+
+final class SampleBufferSegments
+{
+  /**
+   * The default maximum segment size in octets (1GiB).
+   */
+
+  static final int SEGMENT_SIZE_DEFAULT = 1 << 30;
+
+  private SampleBufferSegments()
+  {
+
+  }
+
+  /**
+   * Determine the largest {@code s} such that {@code 2^s} frames of size
+   * {@code frameSize} fit into {@code segmentSize} octets.
+   */
+
+  static int segmentShift(
+    final long frameSize,
+    final int segmentSize)
+  {
+    if (frameSize > (long) segmentSize) {
+      final var separator = System.lineSeparator();
+      throw new IllegalArgumentException(
+        new StringBuilder(128)
+          .append("Segment size is too small to hold a single frame.")
+          .append(separator)
+          .append("  Frame size: ")
+          .append(frameSize)
+          .append(" octets")
+          .append(separator)
+          .append("  Segment size: ")
+          .append(segmentSize)
+          .append(" octets")
+          .toString());
+    }
+
+    final var maximumFrames = (long) segmentSize / frameSize;
+    return 63 - Long.numberOfLeadingZeros(maximumFrames);
+  }
+
+  /**
+   * Allocate all of the segments required to hold {@code frames} frames.
+   * Every segment holds {@code 2^segmentShift} frames, except for the last,
+   * which holds whatever frames remain.
+   */
+
+  static ByteBuffer[] allocate(
+    final long frames,
+    final long frameSize,
+    final int segmentShift,
+    final SampleBufferSegmentAllocatorType allocator)
+  {
+    final var segmentFrames = 1L << segmentShift;
+    final var count =
+      Math.toIntExact(((frames - 1L) >>> segmentShift) + 1L);
+    final var fullSize = segmentFrames * frameSize;
+
+    final var buffers = new ByteBuffer[count];
+    for (var index = 0; index < count; ++index) {
+      final var first = (long) index << segmentShift;
+      final var size =
+        (int) (Math.min(segmentFrames, frames - first) * frameSize);
+      final var buffer =
+        allocator.allocate((long) index * fullSize, size);
+      SampleBufferChecks.checkBufferSize(buffer, size);
+      buffers[index] = buffer;
+    }
+    return buffers;
+  }
+}
@@ -26,5 +26,7 @@ module com.io7m.jsamplebuffer.vanilla
   requires com.io7m.jsamplebuffer.api;
   requires com.io7m.jranges.core;
 
+  uses com.io7m.jsamplebuffer.vanilla.SampleBufferKernelsType;
+
   exports com.io7m.jsamplebuffer.vanilla;
 }
@@ -0,0 +1,453 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.vector;
+
+import com.io7m.jsamplebuffer.vanilla.SampleBufferKernelsType;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Objects;
+
+/**
+ * <p>Sample kernels implemented using the incubating Vector API.</p>
+ *
+ * <p>The kernels process as many samples as fit into the preferred vector
+ * shape of the platform at a time, and process any remaining samples one
+ * at a time. Element-wise operations produce results identical to the
+ * scalar kernels.</p>
+ */
+
+public final class SampleBufferKernelsVector implements SampleBufferKernelsType
+{
+  private static final VectorSpecies<Double> DOUBLES =
+    DoubleVector.SPECIES_PREFERRED;
+  private static final VectorSpecies<Float> FLOATS =
+    DOUBLES.withLanes(float.class);
+  private static final VectorMask<Float> FLOATS_UPPER =
+    FLOATS.indexInRange(-DOUBLES.length(), DOUBLES.length());
+
+  /**
+   * Create the kernels.
+   */
+
+  public SampleBufferKernelsVector()
+  {
+
+  }
+
+  @Override
+  public String name()
+  {
+    return "vector-" + DOUBLES.vectorBitSize();
+  }
+
+  @Override
+  public void gain(
+    final double[] data,
+    final int offset,
+    final int length,
+    final double gain)
+  {
+    Objects.checkFromIndexSize(offset, length, data.length);
+
+    final var bound = DOUBLES.loopBound(length);
+    var index = 0;
+    for (; index < bound; index += DOUBLES.length()) {
+      DoubleVector.fromArray(DOUBLES, data, offset + index)
+        .mul(gain)
+        .intoArray(data, offset + index);
+    }
+    for (; index < length; ++index) {
+      data[offset + index] *= gain;
+    }
+  }
+
+  @Override
+  public void gain(
+    final float[] data,
+    final int offset,
+    final int length,
+    final float gain)
+  {
+    Objects.checkFromIndexSize(offset, length, data.length);
+
+    final var bound = FLOATS.loopBound(length);
+    var index = 0;
+    for (; index < bound; index += FLOATS.length()) {
+      FloatVector.fromArray(FLOATS, data, offset + index)
+        .mul(gain)
+        .intoArray(data, offset + index);
+    }
+    for (; index < length; ++index) {
+      data[offset + index] *= gain;
+    }
+  }
+
+  @Override
+  public void mix(
+    final double[] target,
+    final int targetOffset,
+    final double[] source,
+    final int sourceOffset,
+    final int length,
+    final double gain)
+  {
+    Objects.checkFromIndexSize(targetOffset, length, target.length);
+    Objects.checkFromIndexSize(sourceOffset, length, source.length);
+
+    final var bound = DOUBLES.loopBound(length);
+    var index = 0;
+    for (; index < bound; index += DOUBLES.length()) {
+      final var s =
+        DoubleVector.fromArray(DOUBLES, source, sourceOffset + index);
+      DoubleVector.fromArray(DOUBLES, target, targetOffset + index)
+        .add(s.mul(gain))
+        .intoArray(target, targetOffset + index);
+    }
+    for (; index < length; ++index) {
+      target[targetOffset + index] += source[sourceOffset + index] * gain;
+    }
+  }
+
+  @Override
+  public void mix(
+    final float[] target,
+    final int targetOffset,
+    final float[] source,
+    final int sourceOffset,
+    final int length,
+    final float gain)
+  {
+    Objects.checkFromIndexSize(targetOffset, length, target.length);
+    Objects.checkFromIndexSize(sourceOffset, length, source.length);
+
+    final var bound = FLOATS.loopBound(length);
+    var index = 0;
+    for (; index < bound; index += FLOATS.length()) {
+      final var s =
+        FloatVector.fromArray(FLOATS, source, sourceOffset + index);
+      FloatVector.fromArray(FLOATS, target, targetOffset + index)
+        .add(s.mul(gain))
+        .intoArray(target, targetOffset + index);
+    }
+    for (; index < length; ++index) {
+      target[targetOffset + index] += source[sourceOffset + index] * gain;
+    }
+  }
+
+  @Override
+  public void multiply(
+    final double[] target,
+    final int targetOffset,
+    final double[] source,
+    final int sourceOffset,
+    final int length)
+  {
+    Objects.checkFromIndexSize(targetOffset, length, target.length);
+    Objects.checkFromIndexSize(sourceOffset, length, source.length);
+
+    final var bound = DOUBLES.loopBound(length);
+    var index = 0;
+    for (; index < bound; index += DOUBLES.length()) {
+      final var s =
+        DoubleVector.fromArray(DOUBLES, source, sourceOffset + index);
+      DoubleVector.fromArray(DOUBLES, target, targetOffset + index)
+        .mul(s)
+        .intoArray(target, targetOffset + index);
+    }
+    for (; index < length; ++index) {
+      target[targetOffset + index] *= source[sourceOffset + index];
+    }
+  }
+
+  @Override
+  public void multiply(
+    final float[] target,
+    final int targetOffset,
+    final float[] source,
+    final int sourceOffset,
+    final int length)
+  {
+    Objects.checkFromIndexSize(targetOffset, length, target.length);
+    Objects.checkFromIndexSize(sourceOffset, length, source.length);
+
+    final var bound = FLOATS.loopBound(length);
+    var index = 0;
+    for (; index < bound; index += FLOATS.length()) {
+      final var s =
+        FloatVector.fromArray(FLOATS, source, sourceOffset + index);
+      FloatVector.fromArray(FLOATS, target, targetOffset + index)
+        .mul(s)
+        .intoArray(target, targetOffset + index);
+    }
+    for (; index < length; ++index) {
+      target[targetOffset + index] *= source[sourceOffset + index];
+    }
+  }
+
+  @Override
+  public void clamp(
+    final double[] data,
+    final int offset,
+    final int length,
+    final double minimum,
+    final double maximum)
+  {
+    Objects.checkFromIndexSize(offset, length, data.length);
+
+    final var bound = DOUBLES.loopBound(length);
+    var index = 0;
+    for (; index < bound; index += DOUBLES.length()) {
+      DoubleVector.fromArray(DOUBLES, data, offset + index)
+        .max(minimum)
+        .min(maximum)
+        .intoArray(data, offset + index);
+    }
+    for (; index < length; ++index) {
+      data[offset + index] =
+        Math.min(maximum, Math.max(minimum, data[offset + index]));
+    }
+  }
+
+  @Override
+  public void clamp(
+    final float[] data,
+    final int offset,
+    final int length,
+    final float minimum,
+    final float maximum)
+  {
+    Objects.checkFromIndexSize(offset, length, data.length);
+
+    final var bound = FLOATS.loopBound(length);
+    var index = 0;
+    for (; index < bound; index += FLOATS.length()) {
+      FloatVector.fromArray(FLOATS, data, offset + index)
+        .max(minimum)
+        .min(maximum)
+        .intoArray(data, offset + index);
+    }
+    for (; index < length; ++index) {
+      data[offset + index] =
+        Math.min(maximum, Math.max(minimum, data[offset + index]));
+    }
+  }
+
+  @Override
+  public void convert(
+    final float[] source,
+    final int sourceOffset,
+    final double[] target,
+    final int targetOffset,
+    final int length)
+  {
+    Objects.checkFromIndexSize(sourceOffset, length, source.length);
+    Objects.checkFromIndexSize(targetOffset, length, target.length);
+
+    final var lanes = DOUBLES.length();
+    final var bound = FLOATS.loopBound(length);
+    var index = 0;
+    for (; index < bound; index += FLOATS.length()) {
+      final var f =
+        FloatVector.fromArray(FLOATS, source, sourceOffset + index);
+      ((DoubleVector) f.convertShape(VectorOperators.F2D, DOUBLES, 0))
+        .intoArray(target, targetOffset + index);
+      ((DoubleVector) f.convertShape(VectorOperators.F2D, DOUBLES, 1))
+        .intoArray(target, targetOffset + index + lanes);
+    }
+    for (; index < length; ++index) {
+      target[targetOffset + index] = (double) source[sourceOffset + index];
+    }
+  }
+
+  @Override
+  public void convert(
+    final double[] source,
+    final int sourceOffset,
+    final float[] target,
+    final int targetOffset,
+    final int length)
+  {
+    Objects.checkFromIndexSize(sourceOffset, length, source.length);
+    Objects.checkFromIndexSize(targetOffset, length, target.length);
+
+    final var lanes = DOUBLES.length();
+    final var bound = FLOATS.loopBound(length);
+    var index = 0;
+    for (; index < bound; index += FLOATS.length()) {
+      final var lower =
+        DoubleVector.fromArray(DOUBLES, source, sourceOffset + index)
+          .convertShape(VectorOperators.D2F, FLOATS, 0);
+      final var upper =
+        DoubleVector.fromArray(DOUBLES, source, sourceOffset + index + lanes)
+          .convertShape(VectorOperators.D2F, FLOATS, -1);
+      ((FloatVector) lower)
+        .blend((FloatVector) upper, FLOATS_UPPER)
+        .intoArray(target, targetOffset + index);
+    }
+    for (; index < length; ++index) {
+      target[targetOffset + index] = (float) source[sourceOffset + index];
+    }
+  }
+
+  @Override
+  public double minimum(
+    final double[] data,
+    final int offset,
+    final int length)
+  {
+    Objects.checkFromIndexSize(offset, length, data.length);
+
+    final var bound = DOUBLES.loopBound(length);
+    var accumulator =
+      DoubleVector.broadcast(DOUBLES, Double.POSITIVE_INFINITY);
+    var index = 0;
+    for (; index < bound; index += DOUBLES.length()) {
+      accumulator =
+        accumulator.min(DoubleVector.fromArray(DOUBLES, data, offset + index));
+    }
+
+    var result = accumulator.reduceLanes(VectorOperators.MIN);
+    for (; index < length; ++index) {
+      result = Math.min(result, data[offset + index]);
+    }
+    return result;
+  }
+
+  @Override
+  public float minimum(
+    final float[] data,
+    final int offset,
+    final int length)
+  {
+    Objects.checkFromIndexSize(offset, length, data.length);
+
+    final var bound = FLOATS.loopBound(length);
+    var accumulator =
+      FloatVector.broadcast(FLOATS, Float.POSITIVE_INFINITY);
+    var index = 0;
+    for (; index < bound; index += FLOATS.length()) {
+      accumulator =
+        accumulator.min(FloatVector.fromArray(FLOATS, data, offset + index));
+    }
+
+    var result = accumulator.reduceLanes(VectorOperators.MIN);
+    for (; index < length; ++index) {
+      result = Math.min(result, data[offset + index]);
+    }
+    return result;
+  }
+
+  @Override
+  public double maximum(
+    final double[] data,
+    final int offset,
+    final int length)
+  {
+    Objects.checkFromIndexSize(offset, length, data.length);
+
+    final var bound = DOUBLES.loopBound(length);
+    var accumulator =
+      DoubleVector.broadcast(DOUBLES, Double.NEGATIVE_INFINITY);
+    var index = 0;
+    for (; index < bound; index += DOUBLES.length()) {
+      accumulator =
+        accumulator.max(DoubleVector.fromArray(DOUBLES, data, offset + index));
+    }
+
+    var result = accumulator.reduceLanes(VectorOperators.MAX);
+    for (; index < length; ++index) {
+      result = Math.max(result, data[offset + index]);
+    }
+    return result;
+  }
+
+  @Override
+  public float maximum(
+    final float[] data,
+    final int offset,
+    final int length)
+  {
+    Objects.checkFromIndexSize(offset, length, data.length);
+
+    final var bound = FLOATS.loopBound(length);
+    var accumulator =
+      FloatVector.broadcast(FLOATS, Float.NEGATIVE_INFINITY);
+    var index = 0;
+    for (; index < bound; index += FLOATS.length()) {
+      accumulator =
+        accumulator.max(FloatVector.fromArray(FLOATS, data, offset + index));
+    }
+
+    var result = accumulator.reduceLanes(VectorOperators.MAX);
+    for (; index < length; ++index) {
+      result = Math.max(result, data[offset + index]);
+    }
+    return result;
+  }
+
+  @Override
+  public double sum(
+    final double[] data,
+    final int offset,
+    final int length)
+  {
+    Objects.checkFromIndexSize(offset, length, data.length);
+
+    final var bound = DOUBLES.loopBound(length);
+    var accumulator = DoubleVector.zero(DOUBLES);
+    var index = 0;
+    for (; index < bound; index += DOUBLES.length()) {
+      accumulator =
+        accumulator.add(DoubleVector.fromArray(DOUBLES, data, offset + index));
+    }
+
+    var result = accumulator.reduceLanes(VectorOperators.ADD);
+    for (; index < length; ++index) {
+      result += data[offset + index];
+    }
+    return result;
+  }
+
+  @Override
+  public double sum(
+    final float[] data,
+    final int offset,
+    final int length)
+  {
+    Objects.checkFromIndexSize(offset, length, data.length);
+
+    final var bound = FLOATS.loopBound(length);
+    var accumulator = DoubleVector.zero(DOUBLES);
+    var index = 0;
+    for (; index < bound; index += FLOATS.length()) {
+      final var f = FloatVector.fromArray(FLOATS, data, offset + index);
+      accumulator = accumulator
+        .add(f.convertShape(VectorOperators.F2D, DOUBLES, 0))
+        .add(f.convertShape(VectorOperators.F2D, DOUBLES, 1));
+    }
+
+    var result = accumulator.reduceLanes(VectorOperators.ADD);
+    for (; index < length; ++index) {
+      result += (double) data[offset + index];
+    }
+    return result;
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.xmedia;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.OptionalLong;
+
+/**
+ * Information about an audio file, obtained by reading only its header.
+ *
+ * @param file   The file
+ * @param format The format of the audio data
+ * @param frames The number of frames in the file, or
+ *               {@link AudioSystem#NOT_SPECIFIED} if the header does not
+ *               declare the length of the audio data
+ *
+ * @see SXMSampleBuffers#probeFile(Path)
+ */
+
+public record SXMAudioFileInfo(
+  Path file,
+  AudioFormat format,
+  long frames)
+{
+  /**
+   * Information about an audio file, obtained by reading only its header.
+   *
+   * @param file   The file
+   * @param format The format of the audio data
+   * @param frames The number of frames in the file, or
+   *               {@link AudioSystem#NOT_SPECIFIED} if the header does not
+   *               declare the length of the audio data
+   */
+
+  public SXMAudioFileInfo
+  {
+    Objects.requireNonNull(file, "file");
+    Objects.requireNonNull(format, "format");
+
+    if (frames < 0L) {
+      frames = (long) AudioSystem.NOT_SPECIFIED;
+    }
+  }
+
+  /**
+   * @return The number of frames in the file, if the header declares the
+   * length of the audio data
+   */
+
+  public OptionalLong frameCount()
+  {
+    if (this.frames < 0L) {
+      return OptionalLong.empty();
+    }
+    return OptionalLong.of(this.frames);
+  }
+
+  /**
+   * @return The number of channels in a frame
+   */
+
+  public int channels()
+  {
+    return this.format.getChannels();
+  }
+
+  /**
+   * @return The sample rate in hz
+   */
+
+  public double sampleRate()
+  {
+    return (double) this.format.getSampleRate();
+  }
+
+  /**
+   * @return The encoding of each sample
+   */
+
+  public AudioFormat.Encoding encoding()
+  {
+    return this.format.getEncoding();
+  }
+
+  /**
+   * @return The number of bits in each sample
+   */
+
+  public int bits()
+  {
+    return this.format.getSampleSizeInBits();
+  }
+}
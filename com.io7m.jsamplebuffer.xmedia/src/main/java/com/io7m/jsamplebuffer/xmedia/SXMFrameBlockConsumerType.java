@@ -0,0 +1,70 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.xmedia;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import java.io.IOException;
+
+/**
+ * A consumer of blocks of decoded frames.
+ *
+ * @see SXMSampleBuffers#readFramesFromStream(javax.sound.sampled.AudioInputStream, int, SXMFrameBlockConsumerType)
+ */
+
+@FunctionalInterface
+public interface SXMFrameBlockConsumerType
+{
+  /**
+   * Called once before any frames are received.
+   *
+   * @param format The format of the audio being decoded
+   * @param frames The number of frames that will be decoded, or
+   *               {@link AudioSystem#NOT_SPECIFIED} if the length of the
+   *               audio is not known in advance
+   *
+   * @throws IOException On errors
+   */
+
+  default void start(
+    final AudioFormat format,
+    final long frames)
+    throws IOException
+  {
+
+  }
+
+  /**
+   * Receive a block of decoded frames. The samples are in interleaved order
+   * starting at index {@code 0} of {@code samples}, and there are
+   * {@code frameCount * channels} of them. The same array is passed to
+   * every call, and so its contents must be copied if they are required
+   * after the call returns.
+   *
+   * @param index      The index of the first frame in the block
+   * @param samples    The decoded samples
+   * @param frameCount The number of frames in the block
+   *
+   * @throws IOException On errors
+   */
+
+  void receive(
+    long index,
+    double[] samples,
+    int frameCount)
+    throws IOException;
+}
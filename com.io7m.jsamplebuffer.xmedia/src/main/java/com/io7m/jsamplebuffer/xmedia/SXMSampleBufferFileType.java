@@ -0,0 +1,60 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsamplebuffer.xmedia;
+
+import com.io7m.jsamplebuffer.api.SampleBufferReadableType;
+
+import javax.sound.sampled.AudioFormat;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * <p>A readable sample buffer backed directly by the data of an audio file.</p>
+ *
+ * <p>The audio data is mapped into memory and frames are decoded only when
+ * they are read, so opening a file costs no more than parsing its header,
+ * and the memory used follows the frames that are actually read rather than
+ * the size of the file. Buffers may be read concurrently from multiple
+ * threads.</p>
+ *
+ * <p>Closing the file closes the underlying channel. The Java platform
+ * provides no means to unmap a mapped region explicitly, so the mapped
+ * memory itself is released once the buffer is no longer reachable. The
+ * buffer must not be used after the file is closed.</p>
+ *
+ * @see SXMSampleBuffers#openSampleBufferFromFile(Path)
+ */
+
+public interface SXMSampleBufferFileType
+  extends SampleBufferReadableType, AutoCloseable
+{
+  /**
+   * @return The file
+   */
+
+  Path file();
+
+  /**
+   * @return The format of the audio data within the file
+   */
+
+  AudioFormat format();
+
+  @Override
+  void close()
+    throws IOException;
+}
@@ -16,14 +16,20 @@
 
 package com.io7m.jsamplebuffer.xmedia;
 
+import com.io7m.jranges.RangeCheck;
+import com.io7m.jranges.RangeInclusiveI;
 import com.io7m.jsamplebuffer.api.SampleBufferFactoryType;
 import com.io7m.jsamplebuffer.api.SampleBufferReadableType;
 import com.io7m.jsamplebuffer.api.SampleBufferType;
+import com.io7m.jsamplebuffer.xmedia.internal.SXMAudioFiles;
+import com.io7m.jsamplebuffer.xmedia.internal.SXMSampleBufferFile;
 import com.io7m.jsamplebuffer.xmedia.internal.SXMSampleBuffers16;
 import com.io7m.jsamplebuffer.xmedia.internal.SXMSampleBuffers24;
 import com.io7m.jsamplebuffer.xmedia.internal.SXMSampleBuffers32;
 import com.io7m.jsamplebuffer.xmedia.internal.SXMSampleBuffers64;
 import com.io7m.jsamplebuffer.xmedia.internal.SXMSampleBuffers8;
+import com.io7m.jsamplebuffer.xmedia.internal.SXMSampleBuffersDecoding;
+import com.io7m.jsamplebuffer.xmedia.internal.SXMSampleBuffersInfo;
 
 import javax.sound.sampled.AudioFileFormat;
 import javax.sound.sampled.AudioFormat;
@@ -35,9 +41,14 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Executor;
 
 /**
  * Functions to create buffers from audio streams.
@@ -93,7 +104,10 @@ public final class SXMSampleBuffers
   }
 
   /**
-   * Read the given file into a sample buffer.
+   * Read the given file into a sample buffer. WAVE, RIFX, AIFF, AIFF-C and AU
+   * files containing uncompressed PCM or IEEE floating point samples are read
+   * directly from the file; other files
+   * are read using {@link AudioSystem#getAudioInputStream(java.io.InputStream)}.
    *
    * @param file    The file
    * @param buffers A provider of buffers
@@ -109,6 +123,24 @@ public final class SXMSampleBuffers
     final Path file,
     final SampleBufferFactoryType buffers)
     throws IOException, UnsupportedAudioFileException
+  {
+    Objects.requireNonNull(file, "file");
+    Objects.requireNonNull(buffers, "buffers");
+
+    try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      final var result = SXMAudioFiles.readSampleBuffer(channel, buffers);
+      if (result.isPresent()) {
+        return result.get();
+      }
+    }
+
+    return readSampleBufferFromAudioSystem(file, buffers);
+  }
+
+  private static SampleBufferType readSampleBufferFromAudioSystem(
+    final Path file,
+    final SampleBufferFactoryType buffers)
+    throws IOException, UnsupportedAudioFileException
   {
     try (var stream = Files.newInputStream(file)) {
       try (var buffered = new BufferedInputStream(stream)) {
@@ -119,6 +151,154 @@ public final class SXMSampleBuffers
     }
   }
 
+  /**
+   * Read the given file into a sample buffer, as with
+   * {@link #readSampleBufferFromFile(Path, SampleBufferFactoryType)}. Files
+   * that are read directly are split into frame-aligned ranges that are
+   * decoded concurrently, using tasks submitted to {@code executor}, into
+   * the same output buffer. The buffers created by {@code buffers} must
+   * therefore permit concurrent writes to disjoint ranges of frames, as all
+   * of the buffers in this package's companion modules do. Small files, and
+   * files that are not read directly, are decoded on the calling thread.
+   *
+   * @param file     The file
+   * @param buffers  A provider of buffers
+   * @param executor The executor used to decode ranges of frames, such as
+   *                 {@link java.util.concurrent.ForkJoinPool#commonPool()}
+   *
+   * @return A sample buffer
+   *
+   * @throws IOException                   On I/O errors
+   * @throws UnsupportedAudioFileException If the file refers to an audio format
+   *                                       that cannot be processed
+   */
+
+  public static SampleBufferType readSampleBufferFromFile(
+    final Path file,
+    final SampleBufferFactoryType buffers,
+    final Executor executor)
+    throws IOException, UnsupportedAudioFileException
+  {
+    Objects.requireNonNull(file, "file");
+    Objects.requireNonNull(buffers, "buffers");
+    Objects.requireNonNull(executor, "executor");
+
+    try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      final var result =
+        SXMAudioFiles.readSampleBuffer(channel, buffers, executor);
+      if (result.isPresent()) {
+        return result.get();
+      }
+    }
+
+    return readSampleBufferFromAudioSystem(file, buffers);
+  }
+
+  /**
+   * Open the given file as a readable sample buffer without decoding it.
+   * Only the header of the file is read; the audio data is mapped into
+   * memory and frames are decoded each time they are read. WAVE, RIFX, AIFF,
+   * AIFF-C and AU files containing uncompressed PCM or IEEE floating point
+   * samples can be opened.
+   *
+   * @param file The file
+   *
+   * @return A sample buffer backed by the file
+   *
+   * @throws IOException                   On I/O errors
+   * @throws UnsupportedAudioFileException If the file is not in a format
+   *                                       that can be opened
+   */
+
+  public static SXMSampleBufferFileType openSampleBufferFromFile(
+    final Path file)
+    throws IOException, UnsupportedAudioFileException
+  {
+    return SXMSampleBufferFile.open(file);
+  }
+
+  /**
+   * Read the header of the given file. For WAVE, RIFX, AIFF, AIFF-C and AU
+   * files containing uncompressed PCM or IEEE floating point samples, only
+   * the header is read directly from the file; other files are examined
+   * using {@link AudioSystem#getAudioFileFormat(java.io.File)}. No audio
+   * data is decoded.
+   *
+   * <p>Files examined using {@link AudioSystem} frequently do not declare
+   * the length of their audio data. For those files, the returned
+   * {@link SXMAudioFileInfo#frames()} is {@link AudioSystem#NOT_SPECIFIED}
+   * and {@link SXMAudioFileInfo#frameCount()} is empty.</p>
+   *
+   * @param file The file
+   *
+   * @return Information about the file
+   *
+   * @throws IOException                   On I/O errors
+   * @throws UnsupportedAudioFileException If the file is not in a
+   *                                       recognized audio format
+   */
+
+  public static SXMAudioFileInfo probeFile(
+    final Path file)
+    throws IOException, UnsupportedAudioFileException
+  {
+    Objects.requireNonNull(file, "file");
+
+    try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      final var result = SXMAudioFiles.parse(channel);
+      if (result.isPresent()) {
+        final var data = result.get();
+        return new SXMAudioFileInfo(file, data.format(), data.frames());
+      }
+    }
+
+    final var fileFormat = AudioSystem.getAudioFileFormat(file.toFile());
+    return new SXMAudioFileInfo(
+      file,
+      fileFormat.getFormat(),
+      (long) fileFormat.getFrameLength());
+  }
+
+  /**
+   * Read the headers of all of the audio files in the given directory and
+   * its subdirectories, as with {@link #probeFile(Path)}. Files that are not
+   * in a recognized audio format, and files that cannot be read (such as
+   * files that are truncated or that the process does not have permission
+   * to read), are skipped.
+   *
+   * @param directory The directory
+   *
+   * @return Information about each audio file, in order of file name
+   *
+   * @throws IOException If the directory cannot be traversed
+   */
+
+  public static List<SXMAudioFileInfo> probeDirectory(
+    final Path directory)
+    throws IOException
+  {
+    Objects.requireNonNull(directory, "directory");
+
+    final List<Path> files;
+    try (var stream = Files.walk(directory)) {
+      files = stream.filter(Files::isRegularFile)
+        .sorted()
+        .toList();
+    }
+
+    final var results = new ArrayList<SXMAudioFileInfo>(files.size());
+    for (final var file : files) {
+      try {
+        results.add(probeFile(file));
+      } catch (final UnsupportedAudioFileException e) {
+        // Not an audio file.
+      } catch (final IOException e) {
+        // Not a readable file.
+      }
+    }
+    return List.copyOf(results);
+  }
+
   /**
    * Read the given stream into a sample buffer.
    *
@@ -160,6 +340,97 @@ public final class SXMSampleBuffers
     }
   }
 
+  /**
+   * Decode the given stream one block of frames at a time, passing each
+   * block to {@code consumer}. Unlike
+   * {@link #readSampleBufferFromStream(AudioInputStream, SampleBufferFactoryType)},
+   * no sample buffer is created; only a single block of samples is held in
+   * memory at any one time, and the same array is passed to each call of
+   * {@link SXMFrameBlockConsumerType#receive(long, double[], int)}. Streams
+   * of unknown length are decoded until they are exhausted.
+   *
+   * @param stream      The stream
+   * @param blockFrames The maximum number of frames in each block
+   * @param consumer    The consumer of blocks
+   *
+   * @return The number of frames decoded
+   *
+   * @throws IOException                   On I/O errors, or if
+   *                                       {@code consumer} raises them
+   * @throws UnsupportedAudioFileException If the audio stream refers to an
+   *                                       audio format that cannot be
+   *                                       processed
+   */
+
+  public static long readFramesFromStream(
+    final AudioInputStream stream,
+    final int blockFrames,
+    final SXMFrameBlockConsumerType consumer)
+    throws IOException, UnsupportedAudioFileException
+  {
+    Objects.requireNonNull(stream, "stream");
+    Objects.requireNonNull(consumer, "consumer");
+    checkBlockFrames(blockFrames);
+
+    return SXMSampleBuffersDecoding.stream(stream, blockFrames, consumer);
+  }
+
+  /**
+   * Decode the given file one block of frames at a time, as with
+   * {@link #readFramesFromStream(AudioInputStream, int, SXMFrameBlockConsumerType)}.
+   * Files are read directly, or using
+   * {@link AudioSystem#getAudioInputStream(java.io.InputStream)}, as with
+   * {@link #readSampleBufferFromFile(Path, SampleBufferFactoryType)}.
+   *
+   * @param file        The file
+   * @param blockFrames The maximum number of frames in each block
+   * @param consumer    The consumer of blocks
+   *
+   * @return The number of frames decoded
+   *
+   * @throws IOException                   On I/O errors, or if
+   *                                       {@code consumer} raises them
+   * @throws UnsupportedAudioFileException If the file refers to an audio format
+   *                                       that cannot be processed
+   */
+
+  public static long readFramesFromFile(
+    final Path file,
+    final int blockFrames,
+    final SXMFrameBlockConsumerType consumer)
+    throws IOException, UnsupportedAudioFileException
+  {
+    Objects.requireNonNull(file, "file");
+    Objects.requireNonNull(consumer, "consumer");
+    checkBlockFrames(blockFrames);
+
+    try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      final var result =
+        SXMAudioFiles.readFrames(channel, blockFrames, consumer);
+      if (result.isPresent()) {
+        return result.getAsLong();
+      }
+    }
+
+    try (var stream = Files.newInputStream(file)) {
+      try (var buffered = new BufferedInputStream(stream)) {
+        try (var audioStream = AudioSystem.getAudioInputStream(buffered)) {
+          return readFramesFromStream(audioStream, blockFrames, consumer);
+        }
+      }
+    }
+  }
+
+  private static void checkBlockFrames(
+    final int blockFrames)
+  {
+    RangeCheck.checkIncludedInInteger(
+      blockFrames,
+      "Block frames",
+      RangeInclusiveI.of(1, Integer.MAX_VALUE),
+      "Valid block frame counts");
+  }
+
   /**
    * Produce a stream from the given sample buffer.
    *
@@ -182,26 +453,26 @@ public final class SXMSampleBuffers
         bigEndian()
       );
 
+    final var channels = sample.channels();
+    final var frames = sample.frames();
     final var frameSize =
-      Math.multiplyExact((long) sample.channels(), 4L);
+      Math.multiplyExact((long) channels, 4L);
     final var dataSize =
-      Math.toIntExact(Math.multiplyExact(sample.frames(), frameSize));
+      Math.toIntExact(Math.multiplyExact(frames, frameSize));
 
     final var data =
       new byte[dataSize];
     final var buffer =
-      ByteBuffer.wrap(data).order(ByteOrder.nativeOrder());
-
-    final var frame = new double[sample.channels()];
-    for (var frameIndex = 0L; frameIndex < sample.frames(); ++frameIndex) {
-      sample.frameGetExact(frameIndex, frame);
+      ByteBuffer.wrap(data)
+        .order(ByteOrder.nativeOrder())
+        .asFloatBuffer();
 
-      final var frameBase = Math.multiplyExact(frameIndex, frameSize);
-      for (var channel = 0; channel < frame.length; ++channel) {
-        final var offset =
-          Math.addExact(frameBase, Math.multiplyExact((long) channel, 4L));
-        buffer.putFloat(Math.toIntExact(offset), (float) frame[channel]);
-      }
+    final var blockFrames = SXMSampleBuffersInfo.blockFrames(frames);
+    final var block = new float[blockFrames * channels];
+    for (var frameIndex = 0L; frameIndex < frames; frameIndex += blockFrames) {
+      final var count = (int) Math.min(blockFrames, frames - frameIndex);
+      sample.framesGetExact(frameIndex, count, block, 0);
+      buffer.put(block, 0, count * channels);
     }
 
     return new AudioInputStream(
@@ -0,0 +1,273 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsamplebuffer.xmedia.internal;
+
+import com.io7m.junsigned.core.UnsignedDouble;
+
+import javax.sound.sampled.AudioFormat;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * A parser for AIFF and AIFF-C files.
+ */
+
+final class SXMAiffFiles
+{
+  private static final int FORM = SXMAudioFiles.fourCC("FORM");
+  private static final int AIFF = SXMAudioFiles.fourCC("AIFF");
+  private static final int AIFC = SXMAudioFiles.fourCC("AIFC");
+  private static final int COMM = SXMAudioFiles.fourCC("COMM");
+  private static final int SSND = SXMAudioFiles.fourCC("SSND");
+
+  private SXMAiffFiles()
+  {
+
+  }
+
+  /**
+   * The format of the samples, as declared by a {@code COMM} chunk.
+   */
+
+  private record Common(
+    AudioFormat format,
+    long frames)
+  {
+
+  }
+
+  /**
+   * The location of the samples, as declared by an {@code SSND} chunk.
+   */
+
+  private record Sound(
+    long offset,
+    long size)
+  {
+
+  }
+
+  /**
+   * Parse the header of an AIFF or AIFF-C file.
+   *
+   * @param channel The file channel
+   *
+   * @return The audio data, or nothing if the file is not an AIFF file in a
+   *         supported format
+   *
+   * @throws IOException On I/O errors
+   */
+
+  static Optional<SXMAudioFileData> parse(
+    final FileChannel channel)
+    throws IOException
+  {
+    final var header = ByteBuffer.allocate(12);
+    if (!SXMAudioFiles.readFully(channel, header, 0L)
+        || SXMAudioFiles.fourCC(header, 0) != FORM) {
+      return Optional.empty();
+    }
+
+    final var type = SXMAudioFiles.fourCC(header, 8);
+    if (type != AIFF && type != AIFC) {
+      return Optional.empty();
+    }
+
+    final var fileSize = channel.size();
+    final var chunk = ByteBuffer.allocate(8);
+    Common common = null;
+    Sound sound = null;
+
+    var position = 12L;
+    while (SXMAudioFiles.readFully(channel, chunk.clear(), position)) {
+      final var id = SXMAudioFiles.fourCC(chunk, 0);
+      final var size = Integer.toUnsignedLong(chunk.getInt(4));
+      final var body = position + 8L;
+
+      if (id == COMM) {
+        common = parseCommon(channel, body, size, type == AIFC);
+        if (common == null) {
+          return Optional.empty();
+        }
+      } else if (id == SSND) {
+        sound = parseSound(channel, body, size, fileSize);
+        if (sound == null) {
+          return Optional.empty();
+        }
+      }
+
+      position = body + size + (size & 1L);
+    }
+
+    if (common == null || sound == null) {
+      return Optional.empty();
+    }
+
+    final var format = common.format();
+    final var present = sound.size() / (long) format.getFrameSize();
+    return Optional.of(
+      new SXMAudioFileData(
+        format,
+        sound.offset(),
+        Math.min(common.frames(), present)));
+  }
+
+  private static Sound parseSound(
+    final FileChannel channel,
+    final long position,
+    final long size,
+    final long fileSize)
+    throws IOException
+  {
+    final var offsets = ByteBuffer.allocate(8);
+    if (size < 8L || !SXMAudioFiles.readFully(channel, offsets, position)) {
+      return null;
+    }
+
+    /*
+     * Files that were not closed properly when written may declare a
+     * sound data chunk that is larger than the file.
+     */
+
+    final var offset = position + 8L + Integer.toUnsignedLong(offsets.getInt(0));
+    final var available =
+      Math.min(size - 8L, fileSize - position - 8L) - (offset - position - 8L);
+    if (available < 0L) {
+      return null;
+    }
+    return new Sound(offset, available);
+  }
+
+  private static Common parseCommon(
+    final FileChannel channel,
+    final long position,
+    final long size,
+    final boolean compressed)
+    throws IOException
+  {
+    final var required = compressed ? 22L : 18L;
+    if (size < required) {
+      return null;
+    }
+
+    final var data = ByteBuffer.allocate((int) required);
+    if (!SXMAudioFiles.readFully(channel, data, position)) {
+      return null;
+    }
+
+    final var channels = Short.toUnsignedInt(data.getShort(0));
+    final var frames = Integer.toUnsignedLong(data.getInt(2));
+    final var bits = Short.toUnsignedInt(data.getShort(6));
+    final var rate = extendedToDouble(data, 8);
+
+    /*
+     * Samples are stored left-justified in the smallest whole number of
+     * octets that can hold them, and so are decoded at the width of that
+     * container.
+     */
+
+    final var containerBits = ((bits + 7) / 8) * 8;
+    final var compression =
+      compressed
+        ? StandardCharsets.US_ASCII.decode(data.slice(18, 4)).toString()
+        : "NONE";
+
+    final var format =
+      formatOf(compression, channels, containerBits, (float) rate);
+    if (format == null || channels == 0) {
+      return null;
+    }
+    return new Common(format, frames);
+  }
+
+  private static AudioFormat formatOf(
+    final String compression,
+    final int channels,
+    final int bits,
+    final float rate)
+  {
+    return switch (compression) {
+      case "NONE", "twos", "in24", "in32" ->
+        integerFormat(AudioFormat.Encoding.PCM_SIGNED, channels, bits, rate, true);
+      case "sowt", "23ni", "42ni" ->
+        integerFormat(AudioFormat.Encoding.PCM_SIGNED, channels, bits, rate, false);
+      case "raw " ->
+        integerFormat(AudioFormat.Encoding.PCM_UNSIGNED, channels, bits, rate, true);
+      case "fl32", "FL32" ->
+        format(AudioFormat.Encoding.PCM_FLOAT, channels, 32, rate, true);
+      case "fl64", "FL64" ->
+        format(AudioFormat.Encoding.PCM_FLOAT, channels, 64, rate, true);
+      default -> null;
+    };
+  }
+
+  private static AudioFormat integerFormat(
+    final AudioFormat.Encoding encoding,
+    final int channels,
+    final int bits,
+    final float rate,
+    final boolean bigEndian)
+  {
+    return switch (bits) {
+      case 8, 16, 24, 32 -> format(encoding, channels, bits, rate, bigEndian);
+      default -> null;
+    };
+  }
+
+  private static AudioFormat format(
+    final AudioFormat.Encoding encoding,
+    final int channels,
+    final int bits,
+    final float rate,
+    final boolean bigEndian)
+  {
+    return new AudioFormat(
+      encoding,
+      rate,
+      bits,
+      channels,
+      channels * (bits / 8),
+      rate,
+      bigEndian
+    );
+  }
+
+  /**
+   * Convert an 80-bit IEEE 754 extended precision value, as used for the
+   * sample rate in {@code COMM} chunks, to a {@code double}.
+   */
+
+  private static double extendedToDouble(
+    final ByteBuffer data,
+    final int offset)
+  {
+    final var signExponent = Short.toUnsignedInt(data.getShort(offset));
+    final var exponent = signExponent & 0x7fff;
+    final var mantissa = data.getLong(offset + 2);
+    if (exponent == 0 && mantissa == 0L) {
+      return 0.0;
+    }
+
+    final var magnitude =
+      Math.scalb(UnsignedDouble.fromUnsignedLong(mantissa), exponent - 16383 - 63);
+    return (signExponent & 0x8000) != 0 ? -magnitude : magnitude;
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsamplebuffer.xmedia.internal;
+
+import javax.sound.sampled.AudioFormat;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Optional;
+
+/**
+ * A parser for Sun/NeXT AU files, and for the little-endian variant of AU
+ * files that begins with {@code .sd\0}.
+ */
+
+final class SXMAuFiles
+{
+  private static final int MAGIC = SXMAudioFiles.fourCC(".snd");
+  private static final int MAGIC_REVERSED = SXMAudioFiles.fourCC("\0ds.");
+  private static final long SIZE_UNKNOWN = 0xffff_ffffL;
+
+  private SXMAuFiles()
+  {
+
+  }
+
+  /**
+   * Parse the header of an AU file.
+   *
+   * @param channel The file channel
+   *
+   * @return The audio data, or nothing if the file is not an AU file in a
+   *         supported format
+   *
+   * @throws IOException On I/O errors
+   */
+
+  static Optional<SXMAudioFileData> parse(
+    final FileChannel channel)
+    throws IOException
+  {
+    final var header = ByteBuffer.allocate(24);
+    if (!SXMAudioFiles.readFully(channel, header, 0L)) {
+      return Optional.empty();
+    }
+
+    final var magic = SXMAudioFiles.fourCC(header, 0);
+    if (magic == MAGIC_REVERSED) {
+      header.order(ByteOrder.LITTLE_ENDIAN);
+    } else if (magic != MAGIC) {
+      return Optional.empty();
+    }
+
+    final var offset = Integer.toUnsignedLong(header.getInt(4));
+    final var size = Integer.toUnsignedLong(header.getInt(8));
+    final var encoding = header.getInt(12);
+    final var rate = Integer.toUnsignedLong(header.getInt(16));
+    final var channels = header.getInt(20);
+
+    final var format =
+      formatOf(
+        encoding,
+        channels,
+        (float) rate,
+        header.order() == ByteOrder.BIG_ENDIAN);
+
+    final var fileSize = channel.size();
+    if (format == null || offset < 24L || offset > fileSize) {
+      return Optional.empty();
+    }
+
+    final var available =
+      size == SIZE_UNKNOWN
+        ? fileSize - offset
+        : Math.min(size, fileSize - offset);
+
+    return Optional.of(
+      new SXMAudioFileData(
+        format,
+        offset,
+        available / (long) format.getFrameSize()));
+  }
+
+  private static AudioFormat formatOf(
+    final int encoding,
+    final int channels,
+    final float rate,
+    final boolean bigEndian)
+  {
+    if (channels <= 0) {
+      return null;
+    }
+
+    final var bits = switch (encoding) {
+      case 2 -> 8;
+      case 3 -> 16;
+      case 4 -> 24;
+      case 5, 6 -> 32;
+      case 7 -> 64;
+      default -> 0;
+    };
+    if (bits == 0) {
+      return null;
+    }
+
+    return new AudioFormat(
+      encoding >= 6
+        ? AudioFormat.Encoding.PCM_FLOAT
+        : AudioFormat.Encoding.PCM_SIGNED,
+      rate,
+      bits,
+      channels,
+      channels * (bits / 8),
+      rate,
+      bigEndian
+    );
+  }
+}
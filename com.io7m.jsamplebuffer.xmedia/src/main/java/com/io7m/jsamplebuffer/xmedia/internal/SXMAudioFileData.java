@@ -0,0 +1,48 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsamplebuffer.xmedia.internal;
+
+import javax.sound.sampled.AudioFormat;
+import java.util.Objects;
+
+/**
+ * The location and format of the audio data within an audio file.
+ *
+ * @param format     The format of the audio data
+ * @param dataOffset The offset in octets of the first frame within the file
+ * @param frames     The number of complete frames present in the file
+ */
+
+public record SXMAudioFileData(
+  AudioFormat format,
+  long dataOffset,
+  long frames)
+{
+  /**
+   * The location and format of the audio data within an audio file.
+   *
+   * @param format     The format of the audio data
+   * @param dataOffset The offset in octets of the first frame within the file
+   * @param frames     The number of complete frames present in the file
+   */
+
+  public SXMAudioFileData
+  {
+    Objects.requireNonNull(format, "format");
+  }
+}
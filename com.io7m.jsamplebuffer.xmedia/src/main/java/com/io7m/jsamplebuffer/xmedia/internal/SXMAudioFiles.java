@@ -0,0 +1,232 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsamplebuffer.xmedia.internal;
+
+import com.io7m.jsamplebuffer.api.SampleBufferFactoryType;
+import com.io7m.jsamplebuffer.api.SampleBufferType;
+import com.io7m.jsamplebuffer.xmedia.SXMFrameBlockConsumerType;
+
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.Executor;
+
+/**
+ * Functions to read audio files directly, without going through the
+ * {@code javax.sound.sampled} service providers.
+ */
+
+public final class SXMAudioFiles
+{
+  private SXMAudioFiles()
+  {
+
+  }
+
+  /**
+   * Parse the header of an audio file.
+   *
+   * @param channel The file channel
+   *
+   * @return The audio data, or nothing if the file is not in a format that
+   *         can be read directly
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static Optional<SXMAudioFileData> parse(
+    final FileChannel channel)
+    throws IOException
+  {
+    Objects.requireNonNull(channel, "channel");
+
+    final var wave = SXMWaveFiles.parse(channel);
+    if (wave.isPresent()) {
+      return wave;
+    }
+    final var aiff = SXMAiffFiles.parse(channel);
+    if (aiff.isPresent()) {
+      return aiff;
+    }
+    return SXMAuFiles.parse(channel);
+  }
+
+  /**
+   * Read an audio file into a sample buffer.
+   *
+   * @param channel The file channel
+   * @param buffers The buffer factory
+   *
+   * @return A sample buffer, or nothing if the file is not in a format that
+   *         can be read directly
+   *
+   * @throws IOException                   On I/O errors
+   * @throws UnsupportedAudioFileException On unsupported audio
+   */
+
+  public static Optional<SampleBufferType> readSampleBuffer(
+    final FileChannel channel,
+    final SampleBufferFactoryType buffers)
+    throws IOException, UnsupportedAudioFileException
+  {
+    Objects.requireNonNull(buffers, "buffers");
+
+    final var data = parse(channel);
+    if (data.isEmpty()) {
+      return Optional.empty();
+    }
+    return Optional.of(
+      SXMSampleBuffersDecoding.decode(channel, data.get(), buffers));
+  }
+
+  /**
+   * Read an audio file into a sample buffer, mapping the data in regions no
+   * larger than {@code maxRegionSize} octets. Files are ordinarily mapped in
+   * regions of up to a gigabyte; this method allows the handling of region
+   * boundaries to be exercised with small files.
+   *
+   * @param channel       The file channel
+   * @param buffers       The buffer factory
+   * @param maxRegionSize The largest size in octets of a mapped region
+   *
+   * @return A sample buffer, or nothing if the file is not in a format that
+   *         can be read directly
+   *
+   * @throws IOException                   On I/O errors
+   * @throws UnsupportedAudioFileException On unsupported audio
+   */
+
+  public static Optional<SampleBufferType> readSampleBuffer(
+    final FileChannel channel,
+    final SampleBufferFactoryType buffers,
+    final long maxRegionSize)
+    throws IOException, UnsupportedAudioFileException
+  {
+    Objects.requireNonNull(buffers, "buffers");
+
+    final var data = parse(channel);
+    if (data.isEmpty()) {
+      return Optional.empty();
+    }
+    return Optional.of(
+      SXMSampleBuffersDecoding.decode(
+        channel, data.get(), buffers, maxRegionSize));
+  }
+
+  /**
+   * Read an audio file into a sample buffer, decoding ranges of frames
+   * concurrently on the given executor.
+   *
+   * @param channel  The file channel
+   * @param buffers  The buffer factory
+   * @param executor The executor used to decode ranges of frames
+   *
+   * @return A sample buffer, or nothing if the file is not in a format that
+   *         can be read directly
+   *
+   * @throws IOException                   On I/O errors
+   * @throws UnsupportedAudioFileException On unsupported audio
+   */
+
+  public static Optional<SampleBufferType> readSampleBuffer(
+    final FileChannel channel,
+    final SampleBufferFactoryType buffers,
+    final Executor executor)
+    throws IOException, UnsupportedAudioFileException
+  {
+    Objects.requireNonNull(buffers, "buffers");
+    Objects.requireNonNull(executor, "executor");
+
+    final var data = parse(channel);
+    if (data.isEmpty()) {
+      return Optional.empty();
+    }
+    return Optional.of(
+      SXMSampleBuffersDecoding.decode(channel, data.get(), buffers, executor));
+  }
+
+  /**
+   * Decode an audio file one block of frames at a time.
+   *
+   * @param channel     The file channel
+   * @param blockFrames The maximum number of frames in each block
+   * @param consumer    The consumer of blocks
+   *
+   * @return The number of frames decoded, or nothing if the file is not in
+   *         a format that can be read directly
+   *
+   * @throws IOException                   On I/O errors
+   * @throws UnsupportedAudioFileException On unsupported audio
+   */
+
+  public static OptionalLong readFrames(
+    final FileChannel channel,
+    final int blockFrames,
+    final SXMFrameBlockConsumerType consumer)
+    throws IOException, UnsupportedAudioFileException
+  {
+    Objects.requireNonNull(consumer, "consumer");
+
+    final var data = parse(channel);
+    if (data.isEmpty()) {
+      return OptionalLong.empty();
+    }
+    return OptionalLong.of(
+      SXMSampleBuffersDecoding.stream(
+        channel, data.get(), blockFrames, consumer));
+  }
+
+  static boolean readFully(
+    final FileChannel channel,
+    final ByteBuffer buffer,
+    final long position)
+    throws IOException
+  {
+    var offset = position;
+    while (buffer.hasRemaining()) {
+      final var count = channel.read(buffer, offset);
+      if (count < 0) {
+        return false;
+      }
+      offset += count;
+    }
+    return true;
+  }
+
+  static int fourCC(
+    final String name)
+  {
+    return fourCC(ByteBuffer.wrap(name.getBytes(StandardCharsets.US_ASCII)), 0);
+  }
+
+  static int fourCC(
+    final ByteBuffer buffer,
+    final int offset)
+  {
+    var result = 0;
+    for (var index = 0; index < 4; ++index) {
+      result = (result << 8) | (buffer.get(offset + index) & 0xff);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,418 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsamplebuffer.xmedia.internal;
+
+import com.io7m.jranges.RangeCheck;
+import com.io7m.jranges.RangeInclusiveL;
+import com.io7m.jsamplebuffer.xmedia.SXMSampleBufferFileType;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * A readable sample buffer that decodes frames from a memory-mapped audio
+ * file on demand.
+ */
+
+public final class SXMSampleBufferFile implements SXMSampleBufferFileType
+{
+  private final Path file;
+  private final FileChannel file_channel;
+  private final AudioFormat format;
+  private final SXMSampleDecoder decoder;
+  private final ByteBuffer[] segments;
+  private final ByteOrder order;
+  private final int channels;
+  private final int frame_size;
+  private final long frames;
+  private final long segment_frames;
+  private final RangeInclusiveL frame_range;
+
+  private SXMSampleBufferFile(
+    final Path in_file,
+    final FileChannel in_channel,
+    final AudioFormat in_format,
+    final SXMSampleDecoder in_decoder,
+    final ByteBuffer[] in_segments,
+    final long in_frames,
+    final long in_segment_frames)
+  {
+    this.file =
+      Objects.requireNonNull(in_file, "file");
+    this.file_channel =
+      Objects.requireNonNull(in_channel, "channel");
+    this.format =
+      Objects.requireNonNull(in_format, "format");
+    this.decoder =
+      Objects.requireNonNull(in_decoder, "decoder");
+    this.segments =
+      Objects.requireNonNull(in_segments, "segments");
+
+    this.order = SXMSampleBuffersInfo.byteOrderOf(in_format);
+    this.channels = in_format.getChannels();
+    this.frame_size = this.channels * in_decoder.sampleSize();
+    this.frames = in_frames;
+    this.segment_frames = in_segment_frames;
+    this.frame_range = RangeInclusiveL.of(0L, in_frames - 1L);
+  }
+
+  /**
+   * Open an audio file. Only the header of the file is read.
+   *
+   * @param file The file
+   *
+   * @return A buffer backed by the file
+   *
+   * @throws IOException                   On I/O errors
+   * @throws UnsupportedAudioFileException If the file is not in a format
+   *                                       that can be read directly
+   */
+
+  public static SXMSampleBufferFile open(
+    final Path file)
+    throws IOException, UnsupportedAudioFileException
+  {
+    Objects.requireNonNull(file, "file");
+
+    final var channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      final var data = SXMAudioFiles.parse(channel);
+      if (data.isEmpty()) {
+        throw new UnsupportedAudioFileException(
+          "Unsupported or unrecognized audio file: %s".formatted(file));
+      }
+      return map(file, channel, data.get());
+    } catch (final IOException | UnsupportedAudioFileException
+                   | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  private static SXMSampleBufferFile map(
+    final Path file,
+    final FileChannel channel,
+    final SXMAudioFileData data)
+    throws IOException, UnsupportedAudioFileException
+  {
+    final var format = data.format();
+    final var decoder = SXMSampleBuffersDecoding.decoderFor(format);
+    final var frameSize = (long) (format.getChannels() * decoder.sampleSize());
+    final var frames = data.frames();
+
+    if (frames == 0L) {
+      throw new EOFException("Audio file contains no complete frames.");
+    }
+
+    final var segmentFrames = SXMSampleBuffersInfo.mappedRegionFrames(frameSize);
+    final var segmentCount =
+      Math.toIntExact((frames + segmentFrames - 1L) / segmentFrames);
+    final var order = SXMSampleBuffersInfo.byteOrderOf(format);
+    final var segments = new ByteBuffer[segmentCount];
+
+    for (var index = 0; index < segmentCount; ++index) {
+      final var start = (long) index * segmentFrames;
+      final var count = Math.min(segmentFrames, frames - start);
+      segments[index] =
+        channel.map(
+          FileChannel.MapMode.READ_ONLY,
+          data.dataOffset() + (start * frameSize),
+          count * frameSize)
+          .order(order);
+    }
+
+    return new SXMSampleBufferFile(
+      file, channel, format, decoder, segments, frames, segmentFrames);
+  }
+
+  @Override
+  public Path file()
+  {
+    return this.file;
+  }
+
+  @Override
+  public AudioFormat format()
+  {
+    return this.format;
+  }
+
+  @Override
+  public int channels()
+  {
+    return this.channels;
+  }
+
+  @Override
+  public long frames()
+  {
+    return this.frames;
+  }
+
+  @Override
+  public double sampleRate()
+  {
+    return (double) this.format.getSampleRate();
+  }
+
+  @Override
+  public void frameGetExact(
+    final long index,
+    final double[] output)
+  {
+    Objects.requireNonNull(output, "output");
+    this.checkChannelCount(output.length);
+    this.checkFrameIndex(index);
+
+    this.decoder.doubles()
+      .decode(this.encoded(index, 1), this.channels, output);
+  }
+
+  @Override
+  public double frameGetExact(
+    final long index)
+  {
+    this.checkChannelCount(1);
+    this.checkFrameIndex(index);
+
+    final var segment = (int) (index / this.segment_frames);
+    final var frame = index - ((long) segment * this.segment_frames);
+    return this.decoder.sample()
+      .decode(this.segments[segment], (int) (frame * (long) this.frame_size));
+  }
+
+  @Override
+  public void framesGetExact(
+    final long index,
+    final int frameCount,
+    final double[] output,
+    final int offset)
+  {
+    Objects.requireNonNull(output, "output");
+    this.checkFrameBlock(index, frameCount, this.channels, offset, output.length);
+
+    this.decodeFrames(index, frameCount, (block, blockFrames, done) -> {
+      System.arraycopy(
+        block,
+        0,
+        output,
+        offset + (done * this.channels),
+        blockFrames * this.channels);
+    });
+  }
+
+  @Override
+  public void framesGetExact(
+    final long index,
+    final int frameCount,
+    final float[] output,
+    final int offset)
+  {
+    Objects.requireNonNull(output, "output");
+    this.checkFrameBlock(index, frameCount, this.channels, offset, output.length);
+
+    final var blockFrames = SXMSampleBuffersInfo.blockFrames(frameCount);
+    final var block = new float[blockFrames * this.channels];
+
+    var done = 0;
+    while (done < frameCount) {
+      final var frame = index + (long) done;
+      final var count = this.blockCount(frame, blockFrames, frameCount - done);
+
+      this.decoder.floats()
+        .decode(this.encoded(frame, count), count * this.channels, block);
+      System.arraycopy(
+        block,
+        0,
+        output,
+        offset + (done * this.channels),
+        count * this.channels);
+      done += count;
+    }
+  }
+
+  @Override
+  public void channelGetExact(
+    final int channel,
+    final long index,
+    final int frameCount,
+    final double[] output,
+    final int offset)
+  {
+    Objects.requireNonNull(output, "output");
+    Objects.checkIndex(channel, this.channels);
+    this.checkFrameBlock(index, frameCount, 1, offset, output.length);
+
+    this.decodeFrames(index, frameCount, (block, blockFrames, done) -> {
+      final var base = offset + done;
+      for (var frame = 0; frame < blockFrames; ++frame) {
+        output[base + frame] = block[(frame * this.channels) + channel];
+      }
+    });
+  }
+
+  @Override
+  public void channelGetExact(
+    final int channel,
+    final long index,
+    final int frameCount,
+    final float[] output,
+    final int offset)
+  {
+    Objects.requireNonNull(output, "output");
+    Objects.checkIndex(channel, this.channels);
+    this.checkFrameBlock(index, frameCount, 1, offset, output.length);
+
+    this.decodeFrames(index, frameCount, (block, blockFrames, done) -> {
+      final var base = offset + done;
+      for (var frame = 0; frame < blockFrames; ++frame) {
+        output[base + frame] =
+          (float) block[(frame * this.channels) + channel];
+      }
+    });
+  }
+
+  /**
+   * A receiver of blocks of decoded frames.
+   */
+
+  @FunctionalInterface
+  private interface BlockReceiverType
+  {
+    void receive(
+      double[] block,
+      int blockFrames,
+      int done);
+  }
+
+  /**
+   * Decode the frames {@code [index, index + frameCount)} one block at a
+   * time. No block crosses the boundary between two mapped regions.
+   */
+
+  private void decodeFrames(
+    final long index,
+    final int frameCount,
+    final BlockReceiverType receiver)
+  {
+    final var blockFrames = SXMSampleBuffersInfo.blockFrames(frameCount);
+    final var block = new double[blockFrames * this.channels];
+
+    var done = 0;
+    while (done < frameCount) {
+      final var frame = index + (long) done;
+      final var count = this.blockCount(frame, blockFrames, frameCount - done);
+
+      this.decoder.doubles()
+        .decode(this.encoded(frame, count), count * this.channels, block);
+      receiver.receive(block, count, done);
+      done += count;
+    }
+  }
+
+  /**
+   * @return The number of frames in the block starting at frame
+   *         {@code index}, which is no more than {@code blockFrames} or
+   *         {@code remaining}, and does not cross the boundary between two
+   *         mapped regions
+   */
+
+  private int blockCount(
+    final long index,
+    final int blockFrames,
+    final int remaining)
+  {
+    final var segmentRemaining =
+      this.segment_frames - (index % this.segment_frames);
+    return (int) Math.min(
+      (long) Math.min(blockFrames, remaining),
+      segmentRemaining);
+  }
+
+  /**
+   * @return The encoded frames {@code [index, index + frameCount)}, which
+   *         must lie within a single mapped region
+   */
+
+  private ByteBuffer encoded(
+    final long index,
+    final int frameCount)
+  {
+    final var segment = (int) (index / this.segment_frames);
+    final var frame = index - ((long) segment * this.segment_frames);
+    return this.segments[segment]
+      .slice((int) (frame * (long) this.frame_size), frameCount * this.frame_size)
+      .order(this.order);
+  }
+
+  private void checkFrameIndex(
+    final long index)
+  {
+    RangeCheck.checkIncludedInLong(
+      index, "Frame index", this.frame_range, "Frame range");
+  }
+
+  private void checkFrameBlock(
+    final long index,
+    final int frameCount,
+    final int samplesPerFrame,
+    final int offset,
+    final int length)
+  {
+    Objects.checkFromIndexSize(
+      offset, Math.multiplyExact(frameCount, samplesPerFrame), length);
+
+    this.checkFrameIndex(index);
+    if (frameCount > 0) {
+      this.checkFrameIndex(index + (long) (frameCount - 1));
+    }
+  }
+
+  private void checkChannelCount(
+    final int length)
+  {
+    if (this.channels != length) {
+      final var separator = System.lineSeparator();
+      throw new IllegalArgumentException(
+        new StringBuilder("Incorrect channel count.")
+          .append(separator)
+          .append("  Expected: ")
+          .append(this.channels)
+          .append(separator)
+          .append("  Received: ")
+          .append(length)
+          .append(separator)
+          .toString());
+    }
+  }
+
+  @Override
+  public void close()
+    throws IOException
+  {
+    this.file_channel.close();
+  }
+}
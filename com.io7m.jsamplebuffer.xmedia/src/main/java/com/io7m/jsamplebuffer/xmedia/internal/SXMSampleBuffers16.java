@@ -33,6 +33,28 @@ import java.util.Objects;
 
 public final class SXMSampleBuffers16
 {
+  private static final SXMSampleDecoder SIGNED =
+    new SXMSampleDecoder(
+      2,
+      16,
+      SXMSampleBuffers16::decodeSignedIntegers,
+      SXMSampleBuffers16::decodeSigned,
+      SXMSampleBuffers16::decodeSignedFloats,
+      SXMSampleBuffers16::decodeSignedSample);
+  private static final SXMSampleDecoder UNSIGNED =
+    new SXMSampleDecoder(
+      2,
+      16,
+      SXMSampleBuffers16::decodeUnsignedIntegers,
+      SXMSampleBuffers16::decodeUnsigned,
+      SXMSampleBuffers16::decodeUnsignedFloats,
+      SXMSampleBuffers16::decodeUnsignedSample);
+
+  private static final double[] NORMAL_16 =
+    SXMSampleBuffersInfo.normalTable(16);
+  private static final float[] NORMAL_16_FLOAT =
+    SXMSampleBuffersInfo.normalTableFloat(16);
+
   private SXMSampleBuffers16()
   {
 
@@ -55,13 +77,29 @@ public final class SXMSampleBuffers16
     final SampleBufferFactoryType buffers)
     throws IOException, UnsupportedAudioFileException
   {
-    final var format = stream.getFormat();
-    final var encoding = format.getEncoding();
+    return SXMSampleBuffersDecoding.decode(
+      stream,
+      buffers,
+      decoder16(stream.getFormat().getEncoding()));
+  }
+
+  /**
+   * @param encoding The sample encoding
+   *
+   * @return A decoder for 16-bit samples of the given encoding
+   *
+   * @throws UnsupportedAudioFileException On unsupported encodings
+   */
+
+  static SXMSampleDecoder decoder16(
+    final AudioFormat.Encoding encoding)
+    throws UnsupportedAudioFileException
+  {
     if (Objects.equals(encoding, AudioFormat.Encoding.PCM_SIGNED)) {
-      return sampleBufferOfStream16Signed(stream, buffers);
+      return SIGNED;
     }
     if (Objects.equals(encoding, AudioFormat.Encoding.PCM_UNSIGNED)) {
-      return sampleBufferOfStream16Unsigned(stream, buffers);
+      return UNSIGNED;
     }
 
     throw new UnsupportedAudioFileException(
@@ -69,87 +107,101 @@ public final class SXMSampleBuffers16
     );
   }
 
-  private static SampleBufferType sampleBufferOfStream16Unsigned(
-    final AudioInputStream stream,
-    final SampleBufferFactoryType buffers)
-    throws IOException
+  private static double decodeUnsignedSample(
+    final ByteBuffer input,
+    final int offset)
   {
-    final var format = stream.getFormat();
-    final var inputBuffer =
-      ByteBuffer.wrap(stream.readAllBytes())
-        .order(SXMSampleBuffersInfo.byteOrderOf(format));
-
-    final var sampleSize = 2;
-    final var channels = format.getChannels();
-    final var frameSize = channels * sampleSize;
-    final var frameCount = inputBuffer.capacity() / frameSize;
-
-    final var outputBuffer =
-      buffers.createBuffer(
-        channels,
-        frameCount,
-        format.getSampleRate());
-
-    final var input = new double[channels];
-    for (var frameIndex = 0; frameIndex < frameCount; ++frameIndex) {
-      for (var channelIndex = 0; channelIndex < channels; ++channelIndex) {
-        final var offset = (frameIndex * frameSize) + (channelIndex * sampleSize);
-        final var read = inputBuffer.getShort(offset);
-        input[channelIndex] = unsignedShortToSignedDouble(read);
-      }
-      outputBuffer.frameSetExact(frameIndex, input);
+    return unsignedShortToSignedDouble(input.getShort(offset));
+  }
+
+  private static void decodeUnsigned(
+    final ByteBuffer input,
+    final int samples,
+    final double[] output)
+  {
+    for (var sampleIndex = 0; sampleIndex < samples; ++sampleIndex) {
+      final var read = input.getShort(sampleIndex * 2);
+      output[sampleIndex] = unsignedShortToSignedDouble(read);
     }
-    return outputBuffer;
   }
 
-  private static SampleBufferType sampleBufferOfStream16Signed(
-    final AudioInputStream stream,
-    final SampleBufferFactoryType buffers)
-    throws IOException
+  private static double decodeSignedSample(
+    final ByteBuffer input,
+    final int offset)
+  {
+    return signedShortToSignedDouble(input.getShort(offset));
+  }
+
+  private static void decodeSigned(
+    final ByteBuffer input,
+    final int samples,
+    final double[] output)
+  {
+    for (var sampleIndex = 0; sampleIndex < samples; ++sampleIndex) {
+      final var read = input.getShort(sampleIndex * 2);
+      output[sampleIndex] = signedShortToSignedDouble(read);
+    }
+  }
+
+  private static void decodeUnsignedFloats(
+    final ByteBuffer input,
+    final int samples,
+    final float[] output)
+  {
+    for (var sampleIndex = 0; sampleIndex < samples; ++sampleIndex) {
+      final var read = input.getShort(sampleIndex * 2);
+      output[sampleIndex] = NORMAL_16_FLOAT[read & 0xffff];
+    }
+  }
+
+  private static void decodeSignedFloats(
+    final ByteBuffer input,
+    final int samples,
+    final float[] output)
+  {
+    for (var sampleIndex = 0; sampleIndex < samples; ++sampleIndex) {
+      final var read = input.getShort(sampleIndex * 2);
+      output[sampleIndex] = NORMAL_16_FLOAT[(read ^ 0x8000) & 0xffff];
+    }
+  }
+
+  /**
+   * Unsigned samples are converted to signed samples by flipping the sign
+   * bit, and are then shifted up to the bit depth of the buffer.
+   */
+
+  private static void decodeUnsignedIntegers(
+    final ByteBuffer input,
+    final int samples,
+    final int shift,
+    final int[] output)
+  {
+    for (var sampleIndex = 0; sampleIndex < samples; ++sampleIndex) {
+      final var read = input.getShort(sampleIndex * 2) ^ 0x8000;
+      output[sampleIndex] = ((int) (short) read) << shift;
+    }
+  }
+
+  private static void decodeSignedIntegers(
+    final ByteBuffer input,
+    final int samples,
+    final int shift,
+    final int[] output)
   {
-    final var format = stream.getFormat();
-    final var inputBuffer =
-      ByteBuffer.wrap(stream.readAllBytes())
-        .order(SXMSampleBuffersInfo.byteOrderOf(format));
-
-    final var sampleSize = 2;
-    final var channels = format.getChannels();
-    final var frameSize = channels * sampleSize;
-    final var frameCount = inputBuffer.capacity() / frameSize;
-
-    final var outputBuffer =
-      buffers.createBuffer(
-        channels,
-        frameCount,
-        format.getSampleRate());
-
-    final var input = new double[channels];
-    for (var frameIndex = 0; frameIndex < frameCount; ++frameIndex) {
-      for (var channelIndex = 0; channelIndex < channels; ++channelIndex) {
-        final var offset = (frameIndex * frameSize) + (channelIndex * sampleSize);
-        final var read = inputBuffer.getShort(offset);
-        input[channelIndex] = signedShortToSignedDouble(read);
-      }
-      outputBuffer.frameSetExact(frameIndex, input);
+    for (var sampleIndex = 0; sampleIndex < samples; ++sampleIndex) {
+      output[sampleIndex] = ((int) input.getShort(sampleIndex * 2)) << shift;
     }
-    return outputBuffer;
   }
 
   private static double unsignedShortToSignedDouble(
     final short input)
   {
-    final var inputReal = (double) (Short.toUnsignedInt(input));
-    final var inputMax = StrictMath.pow(2.0, 16.0);
-    final var inputMin = 0.0;
-    return SXMSampleBuffersInfo.mapRangeToNormal(inputReal, inputMin, inputMax);
+    return NORMAL_16[input & 0xffff];
   }
 
   private static double signedShortToSignedDouble(
     final short input)
   {
-    final var inputReal = (double) input;
-    final var inputMax = StrictMath.pow(2.0, 15.0);
-    final var inputMin = -inputMax;
-    return SXMSampleBuffersInfo.mapRangeToNormal(inputReal, inputMin, inputMax);
+    return NORMAL_16[(input ^ 0x8000) & 0xffff];
   }
 }
@@ -34,77 +34,43 @@ import java.util.Objects;
 
 public final class SXMSampleBuffers24
 {
-  private SXMSampleBuffers24()
-  {
+  private static final SXMSampleDecoder SIGNED =
+    new SXMSampleDecoder(
+      3,
+      24,
+      SXMSampleBuffers24::decodeSignedIntegers,
+      SXMSampleBuffers24::decodeSigned,
+      SXMSampleBuffers24::decodeSignedFloats,
+      SXMSampleBuffers24::decodeSignedSample);
+  private static final SXMSampleDecoder UNSIGNED =
+    new SXMSampleDecoder(
+      3,
+      24,
+      SXMSampleBuffers24::decodeUnsignedIntegers,
+      SXMSampleBuffers24::decodeUnsigned,
+      SXMSampleBuffers24::decodeUnsignedFloats,
+      SXMSampleBuffers24::decodeUnsignedSample);
 
-  }
+  /**
+   * The reciprocal of {@code 2^23}. Signed samples are normalized by
+   * multiplying by this value, and unsigned samples by multiplying by this
+   * value and then subtracting one.
+   */
 
-  private static SampleBufferType sampleBufferOfStream24Signed(
-    final AudioInputStream stream,
-    final SampleBufferFactoryType buffers)
-    throws IOException
-  {
-    final var format = stream.getFormat();
-    final var inputBuffer =
-      ByteBuffer.wrap(stream.readAllBytes())
-        .order(SXMSampleBuffersInfo.byteOrderOf(format));
-
-    final var sampleSize = 3;
-    final var channels = format.getChannels();
-    final var frameSize = channels * sampleSize;
-    final var frameCount = inputBuffer.capacity() / frameSize;
-
-    final var outputBuffer =
-      buffers.createBuffer(
-        channels,
-        frameCount,
-        format.getSampleRate());
-
-    final var input = new double[channels];
-    for (var frameIndex = 0; frameIndex < frameCount; ++frameIndex) {
-      for (var channelIndex = 0; channelIndex < channels; ++channelIndex) {
-        final var offset = (frameIndex * frameSize) + (channelIndex * sampleSize);
-        final var read = Signed24.unpackFromBuffer(inputBuffer, offset);
-        input[channelIndex] = signedInt24ToSignedDouble(read);
-      }
-      outputBuffer.frameSetExact(frameIndex, input);
-    }
-    return outputBuffer;
-  }
+  private static final double SCALE = 0x1.0p-23;
 
-  private static SampleBufferType sampleBufferOfStream24Unsigned(
-    final AudioInputStream stream,
-    final SampleBufferFactoryType buffers)
-    throws IOException
+  /**
+   * {@link #SCALE} in single precision. Every 24-bit sample is exactly
+   * representable as a {@code float}, and so samples normalized in single
+   * precision are identical to samples normalized in double precision and
+   * then narrowed.
+   */
+
+  private static final float SCALE_FLOAT = 0x1.0p-23f;
+
+  private SXMSampleBuffers24()
   {
-    final var format = stream.getFormat();
-    final var inputBuffer =
-      ByteBuffer.wrap(stream.readAllBytes())
-        .order(SXMSampleBuffersInfo.byteOrderOf(format));
-
-    final var sampleSize = 3;
-    final var channels = format.getChannels();
-    final var frameSize = channels * sampleSize;
-    final var frameCount = inputBuffer.capacity() / frameSize;
-
-    final var outputBuffer =
-      buffers.createBuffer(
-        channels,
-        frameCount,
-        format.getSampleRate());
-
-    final var input = new double[channels];
-    for (var frameIndex = 0; frameIndex < frameCount; ++frameIndex) {
-      for (var channelIndex = 0; channelIndex < channels; ++channelIndex) {
-        final var offset = (frameIndex * frameSize) + (channelIndex * sampleSize);
-        final var read = Signed24.unpackFromBuffer(
-          inputBuffer,
-          offset) & 0xffffff;
-        input[channelIndex] = unsignedInt24ToSignedDouble(read);
-      }
-      outputBuffer.frameSetExact(frameIndex, input);
-    }
-    return outputBuffer;
+
   }
 
   /**
@@ -124,13 +90,29 @@ public final class SXMSampleBuffers24
     final SampleBufferFactoryType buffers)
     throws IOException, UnsupportedAudioFileException
   {
-    final var format = stream.getFormat();
-    final var encoding = format.getEncoding();
+    return SXMSampleBuffersDecoding.decode(
+      stream,
+      buffers,
+      decoder24(stream.getFormat().getEncoding()));
+  }
+
+  /**
+   * @param encoding The sample encoding
+   *
+   * @return A decoder for 24-bit samples of the given encoding
+   *
+   * @throws UnsupportedAudioFileException On unsupported encodings
+   */
+
+  static SXMSampleDecoder decoder24(
+    final AudioFormat.Encoding encoding)
+    throws UnsupportedAudioFileException
+  {
     if (Objects.equals(encoding, AudioFormat.Encoding.PCM_SIGNED)) {
-      return sampleBufferOfStream24Signed(stream, buffers);
+      return SIGNED;
     }
     if (Objects.equals(encoding, AudioFormat.Encoding.PCM_UNSIGNED)) {
-      return sampleBufferOfStream24Unsigned(stream, buffers);
+      return UNSIGNED;
     }
 
     throw new UnsupportedAudioFileException(
@@ -138,21 +120,106 @@ public final class SXMSampleBuffers24
     );
   }
 
+  private static double decodeSignedSample(
+    final ByteBuffer input,
+    final int offset)
+  {
+    return signedInt24ToSignedDouble(Signed24.unpackFromBuffer(input, offset));
+  }
+
+  private static void decodeSigned(
+    final ByteBuffer input,
+    final int samples,
+    final double[] output)
+  {
+    for (var sampleIndex = 0; sampleIndex < samples; ++sampleIndex) {
+      final var read = Signed24.unpackFromBuffer(input, sampleIndex * 3);
+      output[sampleIndex] = signedInt24ToSignedDouble(read);
+    }
+  }
+
+  private static double decodeUnsignedSample(
+    final ByteBuffer input,
+    final int offset)
+  {
+    return unsignedInt24ToSignedDouble(
+      Signed24.unpackFromBuffer(input, offset) & 0xffffff);
+  }
+
+  private static void decodeUnsigned(
+    final ByteBuffer input,
+    final int samples,
+    final double[] output)
+  {
+    for (var sampleIndex = 0; sampleIndex < samples; ++sampleIndex) {
+      final var read =
+        Signed24.unpackFromBuffer(input, sampleIndex * 3) & 0xffffff;
+      output[sampleIndex] = unsignedInt24ToSignedDouble(read);
+    }
+  }
+
+  private static void decodeSignedFloats(
+    final ByteBuffer input,
+    final int samples,
+    final float[] output)
+  {
+    for (var sampleIndex = 0; sampleIndex < samples; ++sampleIndex) {
+      final var read = Signed24.unpackFromBuffer(input, sampleIndex * 3);
+      output[sampleIndex] = (float) read * SCALE_FLOAT;
+    }
+  }
+
+  private static void decodeUnsignedFloats(
+    final ByteBuffer input,
+    final int samples,
+    final float[] output)
+  {
+    for (var sampleIndex = 0; sampleIndex < samples; ++sampleIndex) {
+      final var read =
+        Signed24.unpackFromBuffer(input, sampleIndex * 3) & 0xffffff;
+      output[sampleIndex] = ((float) read * SCALE_FLOAT) - 1.0f;
+    }
+  }
+
+  /**
+   * Unsigned samples are converted to signed samples by flipping the sign
+   * bit, and are then shifted up to the bit depth of the buffer.
+   */
+
+  private static void decodeUnsignedIntegers(
+    final ByteBuffer input,
+    final int samples,
+    final int shift,
+    final int[] output)
+  {
+    for (var sampleIndex = 0; sampleIndex < samples; ++sampleIndex) {
+      final var read =
+        Signed24.unpackFromBuffer(input, sampleIndex * 3) ^ 0x800000;
+      output[sampleIndex] = ((read << 8) >> 8) << shift;
+    }
+  }
+
+  private static void decodeSignedIntegers(
+    final ByteBuffer input,
+    final int samples,
+    final int shift,
+    final int[] output)
+  {
+    for (var sampleIndex = 0; sampleIndex < samples; ++sampleIndex) {
+      final var read = Signed24.unpackFromBuffer(input, sampleIndex * 3);
+      output[sampleIndex] = ((read << 8) >> 8) << shift;
+    }
+  }
+
   private static double unsignedInt24ToSignedDouble(
     final int input)
   {
-    final var inputReal = (double) input;
-    final var inputMax = StrictMath.pow(2.0, 24.0);
-    final var inputMin = 0.0;
-    return SXMSampleBuffersInfo.mapRangeToNormal(inputReal, inputMin, inputMax);
+    return ((double) input * SCALE) - 1.0;
   }
 
   private static double signedInt24ToSignedDouble(
     final int input)
   {
-    final var inputReal = (double) input;
-    final var inputMax = StrictMath.pow(2.0, 23.0);
-    final var inputMin = -inputMax;
-    return SXMSampleBuffersInfo.mapRangeToNormal(inputReal, inputMin, inputMax);
+    return (double) input * SCALE;
   }
 }
@@ -34,6 +34,42 @@ import java.util.Objects;
 
 public final class SXMSampleBuffers32
 {
+  private static final SXMSampleDecoder SIGNED =
+    new SXMSampleDecoder(
+      4,
+      SXMSampleBuffers32::decodeSigned,
+      SXMSampleBuffers32::decodeSignedFloats,
+      SXMSampleBuffers32::decodeSignedSample);
+  private static final SXMSampleDecoder UNSIGNED =
+    new SXMSampleDecoder(
+      4,
+      SXMSampleBuffers32::decodeUnsigned,
+      SXMSampleBuffers32::decodeUnsignedFloats,
+      SXMSampleBuffers32::decodeUnsignedSample);
+  private static final SXMSampleDecoder FLOAT =
+    new SXMSampleDecoder(
+      4,
+      SXMSampleBuffers32::decodeFloat,
+      SXMSampleBuffers32::decodeFloatFloats,
+      SXMSampleBuffers32::decodeFloatSample);
+
+  /**
+   * The reciprocal of {@code 2^31}. Signed samples are normalized by
+   * multiplying by this value, and unsigned samples by multiplying by this
+   * value and then subtracting one.
+   */
+
+  private static final double SCALE = 0x1.0p-31;
+
+  /**
+   * {@link #SCALE} in single precision. Converting a signed sample to
+   * {@code float} rounds it exactly once, and scaling by a power of two is
+   * exact, so signed samples normalized in single precision are identical
+   * to samples normalized in double precision and then narrowed.
+   */
+
+  private static final float SCALE_FLOAT = 0x1.0p-31f;
+
   private SXMSampleBuffers32()
   {
 
@@ -56,16 +92,32 @@ public final class SXMSampleBuffers32
     final SampleBufferFactoryType buffers)
     throws IOException, UnsupportedAudioFileException
   {
-    final var format = stream.getFormat();
-    final var encoding = format.getEncoding();
+    return SXMSampleBuffersDecoding.decode(
+      stream,
+      buffers,
+      decoder32(stream.getFormat().getEncoding()));
+  }
+
+  /**
+   * @param encoding The sample encoding
+   *
+   * @return A decoder for 32-bit samples of the given encoding
+   *
+   * @throws UnsupportedAudioFileException On unsupported encodings
+   */
+
+  static SXMSampleDecoder decoder32(
+    final AudioFormat.Encoding encoding)
+    throws UnsupportedAudioFileException
+  {
     if (Objects.equals(encoding, AudioFormat.Encoding.PCM_SIGNED)) {
-      return sampleBufferOfStream32Signed(stream, buffers);
+      return SIGNED;
     }
     if (Objects.equals(encoding, AudioFormat.Encoding.PCM_UNSIGNED)) {
-      return sampleBufferOfStream32Unsigned(stream, buffers);
+      return UNSIGNED;
     }
     if (Objects.equals(encoding, AudioFormat.Encoding.PCM_FLOAT)) {
-      return sampleBufferOfStream32Float(stream, buffers);
+      return FLOAT;
     }
 
     throw new UnsupportedAudioFileException(
@@ -73,120 +125,101 @@ public final class SXMSampleBuffers32
     );
   }
 
-  private static SampleBufferType sampleBufferOfStream32Unsigned(
-    final AudioInputStream stream,
-    final SampleBufferFactoryType buffers)
-    throws IOException
+  private static double decodeUnsignedSample(
+    final ByteBuffer input,
+    final int offset)
+  {
+    return unsignedIntToSignedDouble(Unsigned32.unpackFromBuffer(input, offset));
+  }
+
+  private static void decodeUnsigned(
+    final ByteBuffer input,
+    final int samples,
+    final double[] output)
   {
-    final var format = stream.getFormat();
-    final var inputBuffer =
-      ByteBuffer.wrap(stream.readAllBytes())
-        .order(SXMSampleBuffersInfo.byteOrderOf(format));
-
-    final var sampleSize = 4;
-    final var channels = format.getChannels();
-    final var frameSize = channels * sampleSize;
-    final var frameCount = inputBuffer.capacity() / frameSize;
-
-    final var outputBuffer =
-      buffers.createBuffer(
-        channels,
-        frameCount,
-        format.getSampleRate());
-    final var input = new double[channels];
-
-    for (var frameIndex = 0; frameIndex < frameCount; ++frameIndex) {
-      for (var channelIndex = 0; channelIndex < channels; ++channelIndex) {
-        final var offset = (frameIndex * frameSize) + (channelIndex * sampleSize);
-        final var read = Unsigned32.unpackFromBuffer(inputBuffer, offset);
-        input[channelIndex] = unsignedIntToSignedDouble(read);
-      }
-      outputBuffer.frameSetExact(frameIndex, input);
+    for (var sampleIndex = 0; sampleIndex < samples; ++sampleIndex) {
+      final var read = Unsigned32.unpackFromBuffer(input, sampleIndex * 4);
+      output[sampleIndex] = unsignedIntToSignedDouble(read);
     }
-    return outputBuffer;
   }
 
-  private static SampleBufferType sampleBufferOfStream32Float(
-    final AudioInputStream stream,
-    final SampleBufferFactoryType buffers)
-    throws IOException
+  private static double decodeFloatSample(
+    final ByteBuffer input,
+    final int offset)
+  {
+    return (double) input.getFloat(offset);
+  }
+
+  private static void decodeFloat(
+    final ByteBuffer input,
+    final int samples,
+    final double[] output)
   {
-    final var format = stream.getFormat();
-    final var inputBuffer =
-      ByteBuffer.wrap(stream.readAllBytes())
-        .order(SXMSampleBuffersInfo.byteOrderOf(format));
-
-    final var sampleSize = 4;
-    final var channels = format.getChannels();
-    final var frameSize = channels * sampleSize;
-    final var frameCount = inputBuffer.capacity() / frameSize;
-
-    final var outputBuffer =
-      buffers.createBuffer(
-        channels,
-        frameCount,
-        format.getSampleRate());
-
-    final var input = new double[channels];
-    for (var frameIndex = 0; frameIndex < frameCount; ++frameIndex) {
-      for (var channelIndex = 0; channelIndex < channels; ++channelIndex) {
-        final var offset = (frameIndex * frameSize) + (channelIndex * sampleSize);
-        final var read = inputBuffer.getFloat(offset);
-        input[channelIndex] = read;
-      }
-      outputBuffer.frameSetExact(frameIndex, input);
+    for (var sampleIndex = 0; sampleIndex < samples; ++sampleIndex) {
+      final var read = input.getFloat(sampleIndex * 4);
+      output[sampleIndex] = read;
     }
-    return outputBuffer;
   }
 
-  private static SampleBufferType sampleBufferOfStream32Signed(
-    final AudioInputStream stream,
-    final SampleBufferFactoryType buffers)
-    throws IOException
+  private static double decodeSignedSample(
+    final ByteBuffer input,
+    final int offset)
+  {
+    return signedIntToSignedDouble(input.getInt(offset));
+  }
+
+  private static void decodeSigned(
+    final ByteBuffer input,
+    final int samples,
+    final double[] output)
+  {
+    for (var sampleIndex = 0; sampleIndex < samples; ++sampleIndex) {
+      final var read = input.getInt(sampleIndex * 4);
+      output[sampleIndex] = signedIntToSignedDouble(read);
+    }
+  }
+
+  private static void decodeUnsignedFloats(
+    final ByteBuffer input,
+    final int samples,
+    final float[] output)
+  {
+    for (var sampleIndex = 0; sampleIndex < samples; ++sampleIndex) {
+      final var read = Unsigned32.unpackFromBuffer(input, sampleIndex * 4);
+      output[sampleIndex] = (float) unsignedIntToSignedDouble(read);
+    }
+  }
+
+  private static void decodeFloatFloats(
+    final ByteBuffer input,
+    final int samples,
+    final float[] output)
+  {
+    for (var sampleIndex = 0; sampleIndex < samples; ++sampleIndex) {
+      output[sampleIndex] = input.getFloat(sampleIndex * 4);
+    }
+  }
+
+  private static void decodeSignedFloats(
+    final ByteBuffer input,
+    final int samples,
+    final float[] output)
   {
-    final var format = stream.getFormat();
-    final var inputBuffer =
-      ByteBuffer.wrap(stream.readAllBytes())
-        .order(SXMSampleBuffersInfo.byteOrderOf(format));
-
-    final var sampleSize = 4;
-    final var channels = format.getChannels();
-    final var frameSize = channels * sampleSize;
-    final var frameCount = inputBuffer.capacity() / frameSize;
-
-    final var outputBuffer =
-      buffers.createBuffer(
-        channels,
-        frameCount,
-        format.getSampleRate());
-    final var input = new double[channels];
-
-    for (var frameIndex = 0; frameIndex < frameCount; ++frameIndex) {
-      for (var channelIndex = 0; channelIndex < channels; ++channelIndex) {
-        final var offset = (frameIndex * frameSize) + (channelIndex * sampleSize);
-        final var read = inputBuffer.getInt(offset);
-        input[channelIndex] = signedIntToSignedDouble(read);
-      }
-      outputBuffer.frameSetExact(frameIndex, input);
+    for (var sampleIndex = 0; sampleIndex < samples; ++sampleIndex) {
+      final var read = input.getInt(sampleIndex * 4);
+      output[sampleIndex] = (float) read * SCALE_FLOAT;
     }
-    return outputBuffer;
   }
 
   private static double unsignedIntToSignedDouble(
     final long input)
   {
-    final var inputReal = (double) input;
-    final var inputMax = StrictMath.pow(2.0, 32.0);
-    final var inputMin = 0.0;
-    return SXMSampleBuffersInfo.mapRangeToNormal(inputReal, inputMin, inputMax);
+    return ((double) input * SCALE) - 1.0;
   }
 
   private static double signedIntToSignedDouble(
     final int input)
   {
-    final var inputReal = (double) input;
-    final var inputMax = StrictMath.pow(2.0, 31.0);
-    final var inputMin = -inputMax;
-    return SXMSampleBuffersInfo.mapRangeToNormal(inputReal, inputMin, inputMax);
+    return (double) input * SCALE;
   }
 }
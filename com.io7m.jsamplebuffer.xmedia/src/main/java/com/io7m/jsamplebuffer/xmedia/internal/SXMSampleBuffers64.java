@@ -35,6 +35,33 @@ import java.util.Objects;
 
 public final class SXMSampleBuffers64
 {
+  private static final SXMSampleDecoder SIGNED =
+    new SXMSampleDecoder(
+      8,
+      SXMSampleBuffers64::decodeSigned,
+      SXMSampleBuffers64::decodeSignedFloats,
+      SXMSampleBuffers64::decodeSignedSample);
+  private static final SXMSampleDecoder UNSIGNED =
+    new SXMSampleDecoder(
+      8,
+      SXMSampleBuffers64::decodeUnsigned,
+      SXMSampleBuffers64::decodeUnsignedFloats,
+      SXMSampleBuffers64::decodeUnsignedSample);
+  private static final SXMSampleDecoder FLOAT =
+    new SXMSampleDecoder(
+      8,
+      SXMSampleBuffers64::decodeFloat,
+      SXMSampleBuffers64::decodeFloatFloats,
+      SXMSampleBuffers64::decodeFloatSample);
+
+  /**
+   * The reciprocal of {@code 2^63}. Signed samples are normalized by
+   * multiplying by this value, and unsigned samples by multiplying by this
+   * value and then subtracting one.
+   */
+
+  private static final double SCALE = 0x1.0p-63;
+
   private SXMSampleBuffers64()
   {
 
@@ -57,16 +84,32 @@ public final class SXMSampleBuffers64
     final SampleBufferFactoryType buffers)
     throws IOException, UnsupportedAudioFileException
   {
-    final var format = stream.getFormat();
-    final var encoding = format.getEncoding();
+    return SXMSampleBuffersDecoding.decode(
+      stream,
+      buffers,
+      decoder64(stream.getFormat().getEncoding()));
+  }
+
+  /**
+   * @param encoding The sample encoding
+   *
+   * @return A decoder for 64-bit samples of the given encoding
+   *
+   * @throws UnsupportedAudioFileException On unsupported encodings
+   */
+
+  static SXMSampleDecoder decoder64(
+    final AudioFormat.Encoding encoding)
+    throws UnsupportedAudioFileException
+  {
     if (Objects.equals(encoding, AudioFormat.Encoding.PCM_SIGNED)) {
-      return sampleBufferOfStream64Signed(stream, buffers);
+      return SIGNED;
     }
     if (Objects.equals(encoding, AudioFormat.Encoding.PCM_UNSIGNED)) {
-      return sampleBufferOfStream64Unsigned(stream, buffers);
+      return UNSIGNED;
     }
     if (Objects.equals(encoding, AudioFormat.Encoding.PCM_FLOAT)) {
-      return sampleBufferOfStream64Float(stream, buffers);
+      return FLOAT;
     }
 
     throw new UnsupportedAudioFileException(
@@ -74,120 +117,101 @@ public final class SXMSampleBuffers64
     );
   }
 
-  private static SampleBufferType sampleBufferOfStream64Unsigned(
-    final AudioInputStream stream,
-    final SampleBufferFactoryType buffers)
-    throws IOException
+  private static double decodeUnsignedSample(
+    final ByteBuffer input,
+    final int offset)
   {
-    final var format = stream.getFormat();
-    final var inputBuffer =
-      ByteBuffer.wrap(stream.readAllBytes())
-        .order(SXMSampleBuffersInfo.byteOrderOf(format));
-
-    final var sampleSize = 8;
-    final var channels = format.getChannels();
-    final var frameSize = channels * sampleSize;
-    final var frameCount = inputBuffer.capacity() / frameSize;
-
-    final var output_buffer =
-      buffers.createBuffer(
-        channels,
-        frameCount,
-        format.getSampleRate());
-
-    final var input = new double[channels];
-    for (var frameIndex = 0; frameIndex < frameCount; ++frameIndex) {
-      for (var channelIndex = 0; channelIndex < channels; ++channelIndex) {
-        final var offset = (frameIndex * frameSize) + (channelIndex * sampleSize);
-        final var read = Signed64.unpackFromBuffer(inputBuffer, offset);
-        input[channelIndex] = unsignedLongToSignedDouble(read);
-      }
-      output_buffer.frameSetExact(frameIndex, input);
+    return unsignedLongToSignedDouble(Signed64.unpackFromBuffer(input, offset));
+  }
+
+  private static void decodeUnsigned(
+    final ByteBuffer input,
+    final int samples,
+    final double[] output)
+  {
+    for (var sampleIndex = 0; sampleIndex < samples; ++sampleIndex) {
+      final var read = Signed64.unpackFromBuffer(input, sampleIndex * 8);
+      output[sampleIndex] = unsignedLongToSignedDouble(read);
     }
-    return output_buffer;
   }
 
-  private static SampleBufferType sampleBufferOfStream64Float(
-    final AudioInputStream stream,
-    final SampleBufferFactoryType buffers)
-    throws IOException
+  private static double decodeFloatSample(
+    final ByteBuffer input,
+    final int offset)
   {
-    final var format = stream.getFormat();
-    final var inputBuffer =
-      ByteBuffer.wrap(stream.readAllBytes())
-        .order(SXMSampleBuffersInfo.byteOrderOf(format));
-
-    final var sampleSize = 8;
-    final var channels = format.getChannels();
-    final var frameSize = channels * sampleSize;
-    final var frameCount = inputBuffer.capacity() / frameSize;
-
-    final var outputBuffer =
-      buffers.createBuffer(
-        channels,
-        frameCount,
-        format.getSampleRate());
-
-    final var input = new double[channels];
-    for (var frameIndex = 0; frameIndex < frameCount; ++frameIndex) {
-      for (var channelIndex = 0; channelIndex < channels; ++channelIndex) {
-        final var offset = (frameIndex * frameSize) + (channelIndex * sampleSize);
-        final var read = inputBuffer.getDouble(offset);
-        input[channelIndex] = read;
-      }
-      outputBuffer.frameSetExact(frameIndex, input);
+    return input.getDouble(offset);
+  }
+
+  private static void decodeFloat(
+    final ByteBuffer input,
+    final int samples,
+    final double[] output)
+  {
+    for (var sampleIndex = 0; sampleIndex < samples; ++sampleIndex) {
+      final var read = input.getDouble(sampleIndex * 8);
+      output[sampleIndex] = read;
     }
-    return outputBuffer;
   }
 
-  private static SampleBufferType sampleBufferOfStream64Signed(
-    final AudioInputStream stream,
-    final SampleBufferFactoryType buffers)
-    throws IOException
+  private static double decodeSignedSample(
+    final ByteBuffer input,
+    final int offset)
+  {
+    return signedLongToSignedDouble(input.getLong(offset));
+  }
+
+  private static void decodeSigned(
+    final ByteBuffer input,
+    final int samples,
+    final double[] output)
+  {
+    for (var sampleIndex = 0; sampleIndex < samples; ++sampleIndex) {
+      final var read = input.getLong(sampleIndex * 8);
+      output[sampleIndex] = signedLongToSignedDouble(read);
+    }
+  }
+
+  private static void decodeUnsignedFloats(
+    final ByteBuffer input,
+    final int samples,
+    final float[] output)
+  {
+    for (var sampleIndex = 0; sampleIndex < samples; ++sampleIndex) {
+      final var read = Signed64.unpackFromBuffer(input, sampleIndex * 8);
+      output[sampleIndex] = (float) unsignedLongToSignedDouble(read);
+    }
+  }
+
+  private static void decodeFloatFloats(
+    final ByteBuffer input,
+    final int samples,
+    final float[] output)
+  {
+    for (var sampleIndex = 0; sampleIndex < samples; ++sampleIndex) {
+      output[sampleIndex] = (float) input.getDouble(sampleIndex * 8);
+    }
+  }
+
+  private static void decodeSignedFloats(
+    final ByteBuffer input,
+    final int samples,
+    final float[] output)
   {
-    final var format = stream.getFormat();
-    final var inputBuffer =
-      ByteBuffer.wrap(stream.readAllBytes())
-        .order(SXMSampleBuffersInfo.byteOrderOf(format));
-
-    final var sampleSize = 8;
-    final var channels = format.getChannels();
-    final var frameSize = channels * sampleSize;
-    final var frameCount = inputBuffer.capacity() / frameSize;
-
-    final var outputBuffer =
-      buffers.createBuffer(
-        channels,
-        frameCount,
-        format.getSampleRate());
-
-    final var input = new double[channels];
-    for (var frameIndex = 0; frameIndex < frameCount; ++frameIndex) {
-      for (var channelIndex = 0; channelIndex < channels; ++channelIndex) {
-        final var offset = (frameIndex * frameSize) + (channelIndex * sampleSize);
-        final var read = inputBuffer.getLong(offset);
-        input[channelIndex] = signedLongToSignedDouble(read);
-      }
-      outputBuffer.frameSetExact(frameIndex, input);
+    for (var sampleIndex = 0; sampleIndex < samples; ++sampleIndex) {
+      final var read = input.getLong(sampleIndex * 8);
+      output[sampleIndex] = (float) signedLongToSignedDouble(read);
     }
-    return outputBuffer;
   }
 
   private static double unsignedLongToSignedDouble(
     final long input)
   {
-    final var inputReal = UnsignedDouble.fromUnsignedLong(input);
-    final var inputMax = StrictMath.pow(2.0, 64.0);
-    final var inputMin = 0.0;
-    return SXMSampleBuffersInfo.mapRangeToNormal(inputReal, inputMin, inputMax);
+    return (UnsignedDouble.fromUnsignedLong(input) * SCALE) - 1.0;
   }
 
   private static double signedLongToSignedDouble(
     final long input)
   {
-    final var inputReal = (double) input;
-    final var inputMax = StrictMath.pow(2.0, 63.0);
-    final var inputMin = -inputMax;
-    return SXMSampleBuffersInfo.mapRangeToNormal(inputReal, inputMin, inputMax);
+    return (double) input * SCALE;
   }
 }
@@ -33,6 +33,24 @@ import java.util.Objects;
 
 public final class SXMSampleBuffers8
 {
+  private static final SXMSampleDecoder SIGNED =
+    new SXMSampleDecoder(
+      1,
+      SXMSampleBuffers8::decodeSigned,
+      SXMSampleBuffers8::decodeSignedFloats,
+      SXMSampleBuffers8::decodeSignedSample);
+  private static final SXMSampleDecoder UNSIGNED =
+    new SXMSampleDecoder(
+      1,
+      SXMSampleBuffers8::decodeUnsigned,
+      SXMSampleBuffers8::decodeUnsignedFloats,
+      SXMSampleBuffers8::decodeUnsignedSample);
+
+  private static final double[] NORMAL_8 =
+    SXMSampleBuffersInfo.normalTable(8);
+  private static final float[] NORMAL_8_FLOAT =
+    SXMSampleBuffersInfo.normalTableFloat(8);
+
   private SXMSampleBuffers8()
   {
 
@@ -55,13 +73,29 @@ public final class SXMSampleBuffers8
     final SampleBufferFactoryType buffers)
     throws IOException, UnsupportedAudioFileException
   {
-    final var format = stream.getFormat();
-    final var encoding = format.getEncoding();
+    return SXMSampleBuffersDecoding.decode(
+      stream,
+      buffers,
+      decoder8(stream.getFormat().getEncoding()));
+  }
+
+  /**
+   * @param encoding The sample encoding
+   *
+   * @return A decoder for 8-bit samples of the given encoding
+   *
+   * @throws UnsupportedAudioFileException On unsupported encodings
+   */
+
+  static SXMSampleDecoder decoder8(
+    final AudioFormat.Encoding encoding)
+    throws UnsupportedAudioFileException
+  {
     if (Objects.equals(encoding, AudioFormat.Encoding.PCM_SIGNED)) {
-      return sampleBufferOfStream8Signed(stream, buffers);
+      return SIGNED;
     }
     if (Objects.equals(encoding, AudioFormat.Encoding.PCM_UNSIGNED)) {
-      return sampleBufferOfStream8Unsigned(stream, buffers);
+      return UNSIGNED;
     }
 
     throw new UnsupportedAudioFileException(
@@ -69,89 +103,70 @@ public final class SXMSampleBuffers8
     );
   }
 
-  private static SampleBufferType sampleBufferOfStream8Unsigned(
-    final AudioInputStream stream,
-    final SampleBufferFactoryType buffers)
-    throws IOException
+  private static double decodeUnsignedSample(
+    final ByteBuffer input,
+    final int offset)
+  {
+    return unsignedByteToSignedDouble(input.get(offset));
+  }
+
+  private static void decodeUnsigned(
+    final ByteBuffer input,
+    final int samples,
+    final double[] output)
   {
-    final var format =
-      stream.getFormat();
-    final var inputBuffer =
-      ByteBuffer.wrap(stream.readAllBytes())
-        .order(SXMSampleBuffersInfo.byteOrderOf(format));
-
-    final var sampleSize = 1;
-    final var channels = format.getChannels();
-    final var frameSize = channels * sampleSize;
-    final var frameCount = inputBuffer.capacity() / frameSize;
-
-    final var outputBuffer =
-      buffers.createBuffer(
-        channels,
-        frameCount,
-        format.getSampleRate());
-
-    final var input = new double[channels];
-    for (var frameIndex = 0; frameIndex < frameCount; ++frameIndex) {
-      for (var channelIndex = 0; channelIndex < channels; ++channelIndex) {
-        final var offset = (frameIndex * frameSize) + (channelIndex * sampleSize);
-        final var read = inputBuffer.get(offset);
-        input[channelIndex] = unsignedByteToSignedDouble(read);
-      }
-      outputBuffer.frameSetExact(frameIndex, input);
+    for (var sampleIndex = 0; sampleIndex < samples; ++sampleIndex) {
+      output[sampleIndex] = unsignedByteToSignedDouble(input.get(sampleIndex));
     }
-    return outputBuffer;
   }
 
-  private static SampleBufferType sampleBufferOfStream8Signed(
-    final AudioInputStream stream,
-    final SampleBufferFactoryType buffers)
-    throws IOException
+  private static double decodeSignedSample(
+    final ByteBuffer input,
+    final int offset)
+  {
+    return signedByteToSignedDouble(input.get(offset));
+  }
+
+  private static void decodeSigned(
+    final ByteBuffer input,
+    final int samples,
+    final double[] output)
+  {
+    for (var sampleIndex = 0; sampleIndex < samples; ++sampleIndex) {
+      output[sampleIndex] = signedByteToSignedDouble(input.get(sampleIndex));
+    }
+  }
+
+  private static void decodeUnsignedFloats(
+    final ByteBuffer input,
+    final int samples,
+    final float[] output)
+  {
+    for (var sampleIndex = 0; sampleIndex < samples; ++sampleIndex) {
+      output[sampleIndex] = NORMAL_8_FLOAT[input.get(sampleIndex) & 0xff];
+    }
+  }
+
+  private static void decodeSignedFloats(
+    final ByteBuffer input,
+    final int samples,
+    final float[] output)
   {
-    final var format =
-      stream.getFormat();
-    final var inputBuffer =
-      ByteBuffer.wrap(stream.readAllBytes())
-        .order(SXMSampleBuffersInfo.byteOrderOf(format));
-
-    final var sampleSize = 1;
-    final var channels = format.getChannels();
-    final var frameSize = channels * sampleSize;
-    final var frameCount = inputBuffer.capacity() / frameSize;
-
-    final var outputBuffer =
-      buffers.createBuffer(
-        channels,
-        frameCount,
-        format.getSampleRate());
-
-    final var input = new double[channels];
-    for (var frameIndex = 0; frameIndex < frameCount; ++frameIndex) {
-      for (var channelIndex = 0; channelIndex < channels; ++channelIndex) {
-        final var offset = (frameIndex * frameSize) + (channelIndex * sampleSize);
-        final var read = inputBuffer.get(offset);
-        input[channelIndex] = signedByteToSignedDouble(read);
-      }
-      outputBuffer.frameSetExact(frameIndex, input);
+    for (var sampleIndex = 0; sampleIndex < samples; ++sampleIndex) {
+      output[sampleIndex] =
+        NORMAL_8_FLOAT[(input.get(sampleIndex) ^ 0x80) & 0xff];
     }
-    return outputBuffer;
   }
 
   private static double unsignedByteToSignedDouble(
     final byte input)
   {
-    final var inputReal = (double) (Byte.toUnsignedInt(input));
-    final var inputMax = StrictMath.pow(2.0, 8.0);
-    final var inputMin = 0.0;
-    return SXMSampleBuffersInfo.mapRangeToNormal(inputReal, inputMin, inputMax);
+    return NORMAL_8[input & 0xff];
   }
 
   private static double signedByteToSignedDouble(
     final byte input)
   {
-    final var inputReal = (double) input;
-    final var inputMax = StrictMath.pow(2.0, 7.0);
-    final var inputMin = -inputMax;
-    return SXMSampleBuffersInfo.mapRangeToNormal(inputReal, inputMin, inputMax);
+    return NORMAL_8[(input ^ 0x80) & 0xff];
   }
 }
@@ -0,0 +1,926 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsamplebuffer.xmedia.internal;
+
+import com.io7m.jsamplebuffer.api.SampleBufferFactoryType;
+import com.io7m.jsamplebuffer.api.SampleBufferIntegerType;
+import com.io7m.jsamplebuffer.api.SampleBufferType;
+import com.io7m.jsamplebuffer.xmedia.SXMFrameBlockConsumerType;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Functions to decode audio streams and files into sample buffers one block
+ * at a time.
+ */
+
+public final class SXMSampleBuffersDecoding
+{
+  /**
+   * The smallest number of frames decoded by a single task when decoding in
+   * parallel. Files with no more frames than this are decoded on the calling
+   * thread.
+   */
+
+  static final long PARALLEL_RANGE_FRAMES =
+    64L * (long) SXMSampleBuffersInfo.BLOCK_FRAMES;
+
+  /**
+   * The approximate size in octets of each chunk in which streams of unknown
+   * length are read. Chunks are rounded down to a whole number of frames,
+   * because audio streams do not return partial frames.
+   */
+
+  static final int STREAM_CHUNK_SIZE = 1 << 24;
+
+  private SXMSampleBuffersDecoding()
+  {
+
+  }
+
+  /**
+   * A function that decodes samples to {@code double} values.
+   */
+
+  @FunctionalInterface
+  interface DoubleDecoderType
+  {
+    /**
+     * Decode {@code samples} samples from the start of {@code input}.
+     *
+     * @param input   The encoded samples
+     * @param samples The number of samples
+     * @param output  The decoded samples
+     */
+
+    void decode(
+      ByteBuffer input,
+      int samples,
+      double[] output);
+  }
+
+  /**
+   * A function that decodes samples to {@code float} values. The values
+   * produced are identical to those produced by the corresponding
+   * {@link DoubleDecoderType} narrowed to {@code float}.
+   */
+
+  @FunctionalInterface
+  interface FloatDecoderType
+  {
+    /**
+     * Decode {@code samples} samples from the start of {@code input}.
+     *
+     * @param input   The encoded samples
+     * @param samples The number of samples
+     * @param output  The decoded samples
+     */
+
+    void decode(
+      ByteBuffer input,
+      int samples,
+      float[] output);
+  }
+
+  /**
+   * A function that decodes a single sample to a {@code double} value. The
+   * value produced is identical to that produced by the corresponding
+   * {@link DoubleDecoderType}.
+   */
+
+  @FunctionalInterface
+  interface SampleDecoderType
+  {
+    /**
+     * Decode the sample starting at octet {@code offset} of {@code input}.
+     *
+     * @param input  The encoded samples
+     * @param offset The offset of the sample in octets
+     *
+     * @return The decoded sample
+     */
+
+    double decode(
+      ByteBuffer input,
+      int offset);
+  }
+
+  /**
+   * A function that decodes samples to signed integer values.
+   */
+
+  @FunctionalInterface
+  interface IntegerDecoderType
+  {
+    /**
+     * Decode {@code samples} samples from the start of {@code input}, shifting
+     * each signed sample left by {@code shift} bits.
+     *
+     * @param input   The encoded samples
+     * @param samples The number of samples
+     * @param shift   The number of bits by which to shift each sample
+     * @param output  The decoded samples
+     */
+
+    void decode(
+      ByteBuffer input,
+      int samples,
+      int shift,
+      int[] output);
+  }
+
+  /**
+   * A source of blocks of encoded samples.
+   */
+
+  interface BlockSourceType
+  {
+    /**
+     * Read at most {@code octets} octets. The returned buffer contains the
+     * octets read, starting at index {@code 0}, and contains fewer than
+     * {@code octets} octets only if the source is exhausted.
+     *
+     * @param octets The number of octets
+     *
+     * @return A buffer containing the octets read
+     *
+     * @throws IOException On I/O errors
+     */
+
+    ByteBuffer read(int octets)
+      throws IOException;
+  }
+
+  /**
+   * A supplier of successive buffers of encoded samples.
+   */
+
+  @FunctionalInterface
+  interface SegmentSupplierType
+  {
+    /**
+     * @return The next buffer, or {@code null} if there are no more
+     *
+     * @throws IOException On I/O errors
+     */
+
+    ByteBuffer next()
+      throws IOException;
+  }
+
+  /**
+   * @param format The audio format
+   *
+   * @return A decoder for samples of the given format
+   *
+   * @throws UnsupportedAudioFileException On unsupported formats
+   */
+
+  static SXMSampleDecoder decoderFor(
+    final AudioFormat format)
+    throws UnsupportedAudioFileException
+  {
+    final var encoding = format.getEncoding();
+    return switch (format.getSampleSizeInBits()) {
+      case 8 -> SXMSampleBuffers8.decoder8(encoding);
+      case 16 -> SXMSampleBuffers16.decoder16(encoding);
+      case 24 -> SXMSampleBuffers24.decoder24(encoding);
+      case 32 -> SXMSampleBuffers32.decoder32(encoding);
+      case 64 -> SXMSampleBuffers64.decoder64(encoding);
+      default -> throw new UnsupportedAudioFileException(
+        "Only 8, 16, 24, 32, and 64-bit samples are supported");
+    };
+  }
+
+  /**
+   * Decode a stream into a new sample buffer. If the stream declares its
+   * length, the output buffer is allocated once at that length and filled
+   * directly from a fixed-size block of encoded samples, so that the encoded
+   * stream is never held in memory in its entirety. Otherwise, the stream
+   * is read in chunks so that its length is limited only by the available
+   * memory.
+   *
+   * @param stream  The stream
+   * @param buffers The buffer factory
+   * @param decoder The sample decoder
+   *
+   * @return A sample buffer
+   *
+   * @throws IOException On I/O errors
+   */
+
+  static SampleBufferType decode(
+    final AudioInputStream stream,
+    final SampleBufferFactoryType buffers,
+    final SXMSampleDecoder decoder)
+    throws IOException
+  {
+    final var format = stream.getFormat();
+    final var frameSize = format.getChannels() * decoder.sampleSize();
+    final var frameLength = stream.getFrameLength();
+
+    if (frameLength == (long) AudioSystem.NOT_SPECIFIED) {
+      final var chunkSize =
+        Math.max(1, STREAM_CHUNK_SIZE / frameSize) * frameSize;
+      final var chunks = new ArrayList<ByteBuffer>();
+      var size = 0L;
+      while (true) {
+        final var chunk = stream.readNBytes(chunkSize);
+        if (chunk.length > 0) {
+          chunks.add(ByteBuffer.wrap(chunk));
+          size += (long) chunk.length;
+        }
+        if (chunk.length < chunkSize) {
+          break;
+        }
+      }
+
+      final var remaining = chunks.iterator();
+      return decodeFrames(
+        new SegmentedSource(
+          () -> remaining.hasNext() ? remaining.next() : null,
+          SXMSampleBuffersInfo.byteOrderOf(format)),
+        format,
+        buffers,
+        size / (long) frameSize,
+        decoder);
+    }
+
+    return decodeFrames(
+      new StreamSource(stream, format),
+      format,
+      buffers,
+      frameLength,
+      decoder);
+  }
+
+  /**
+   * Decode the data of an audio file into a new sample buffer. The data is
+   * mapped into memory and decoded directly from the mapping, one region at
+   * a time if it is too large to be mapped in a single region.
+   *
+   * @param channel The file channel
+   * @param data    The audio data within the file
+   * @param buffers The buffer factory
+   *
+   * @return A sample buffer
+   *
+   * @throws IOException                   On I/O errors
+   * @throws UnsupportedAudioFileException On unsupported audio
+   */
+
+  static SampleBufferType decode(
+    final FileChannel channel,
+    final SXMAudioFileData data,
+    final SampleBufferFactoryType buffers)
+    throws IOException, UnsupportedAudioFileException
+  {
+    return decode(
+      channel,
+      data,
+      buffers,
+      SXMSampleBuffersInfo.MAPPED_REGION_SIZE);
+  }
+
+  /**
+   * Decode the data of an audio file into a new sample buffer, as by
+   * {@link #decode(FileChannel, SXMAudioFileData, SampleBufferFactoryType)},
+   * mapping regions no larger than {@code maxRegionSize} octets.
+   *
+   * @param channel       The file channel
+   * @param data          The audio data within the file
+   * @param buffers       The buffer factory
+   * @param maxRegionSize The largest size in octets of a mapped region
+   *
+   * @return A sample buffer
+   *
+   * @throws IOException                   On I/O errors
+   * @throws UnsupportedAudioFileException On unsupported audio
+   */
+
+  static SampleBufferType decode(
+    final FileChannel channel,
+    final SXMAudioFileData data,
+    final SampleBufferFactoryType buffers,
+    final long maxRegionSize)
+    throws IOException, UnsupportedAudioFileException
+  {
+    final var format = data.format();
+    final var decoder = decoderFor(format);
+    final var frameSize = (long) (format.getChannels() * decoder.sampleSize());
+    final var size = Math.multiplyExact(data.frames(), frameSize);
+    final var order = SXMSampleBuffersInfo.byteOrderOf(format);
+    final var regionSize =
+      SXMSampleBuffersInfo.mappedRegionFrames(frameSize, maxRegionSize)
+        * frameSize;
+
+    final BlockSourceType source;
+    if (size <= regionSize) {
+      source = new MappedSource(
+        channel.map(FileChannel.MapMode.READ_ONLY, data.dataOffset(), size)
+          .order(order));
+    } else {
+      source = new SegmentedSource(
+        new MappedRegions(channel, data.dataOffset(), size, regionSize),
+        order);
+    }
+
+    return decodeFrames(source, format, buffers, data.frames(), decoder);
+  }
+
+  /**
+   * Decode the data of an audio file into a new sample buffer, decoding
+   * disjoint ranges of frames concurrently on the given executor. Each
+   * range is mapped separately, and no range is larger than a single mapped
+   * region. The data is decoded on the calling thread as by
+   * {@link #decode(FileChannel, SXMAudioFileData, SampleBufferFactoryType)}
+   * if it is too small to be worth splitting.
+   *
+   * @param channel  The file channel
+   * @param data     The audio data within the file
+   * @param buffers  The buffer factory
+   * @param executor The executor used to decode ranges of frames
+   *
+   * @return A sample buffer
+   *
+   * @throws IOException                   On I/O errors
+   * @throws UnsupportedAudioFileException On unsupported audio
+   */
+
+  static SampleBufferType decode(
+    final FileChannel channel,
+    final SXMAudioFileData data,
+    final SampleBufferFactoryType buffers,
+    final Executor executor)
+    throws IOException, UnsupportedAudioFileException
+  {
+    final var format = data.format();
+    final var decoder = decoderFor(format);
+    final var frameSize = (long) (format.getChannels() * decoder.sampleSize());
+    final var frames = data.frames();
+
+    if (frames <= PARALLEL_RANGE_FRAMES) {
+      return decode(channel, data, buffers);
+    }
+
+    final var order = SXMSampleBuffersInfo.byteOrderOf(format);
+    final var output = Output.create(format, buffers, frames, decoder);
+    final var rangeFrames =
+      Math.min(
+        rangeFrames(frames, Runtime.getRuntime().availableProcessors()),
+        SXMSampleBuffersInfo.mappedRegionFrames(frameSize));
+
+    final var tasks = new ArrayList<CompletableFuture<Long>>();
+    final var abandoned = new AtomicBoolean();
+    try {
+      for (var start = 0L; start < frames; start += rangeFrames) {
+        final var rangeStart = start;
+        final var rangeCount = Math.min(rangeFrames, frames - start);
+        final var source =
+          new MappedSource(
+            channel.map(
+                FileChannel.MapMode.READ_ONLY,
+                data.dataOffset() + (rangeStart * frameSize),
+                rangeCount * frameSize)
+              .order(order));
+
+        tasks.add(CompletableFuture.supplyAsync(
+          () -> {
+            if (abandoned.get()) {
+              return Long.valueOf(0L);
+            }
+            return decodeMappedRange(output, source, rangeStart, rangeCount);
+          },
+          executor));
+      }
+    } catch (final IOException | RuntimeException e) {
+
+      /*
+       * A range could not be mapped, or the executor rejected a task. The
+       * tasks that were already submitted would otherwise go on writing
+       * into a buffer that the caller never receives. Tasks that have not
+       * yet started are told to do nothing, and all of them are waited
+       * for before the exception is propagated.
+       */
+
+      abandoned.set(true);
+      awaitAbandoned(tasks, e);
+      throw e;
+    }
+
+    try {
+      CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0]))
+        .join();
+    } catch (final CompletionException e) {
+      final var cause = e.getCause();
+      if (cause instanceof final UncheckedIOException ex) {
+        throw ex.getCause();
+      }
+      if (cause instanceof final RuntimeException ex) {
+        throw ex;
+      }
+      if (cause instanceof final Error ex) {
+        throw ex;
+      }
+      throw new IOException(cause);
+    }
+    return output.buffer();
+  }
+
+  /**
+   * Decode a stream, passing each block of at most {@code blockFrames}
+   * decoded frames to {@code consumer}. The stream is read until it is
+   * exhausted or until it has produced the number of frames that it
+   * declares, and only a single block of encoded and decoded samples is
+   * held in memory at any one time.
+   *
+   * @param stream      The stream
+   * @param blockFrames The maximum number of frames in each block
+   * @param consumer    The consumer of blocks
+   *
+   * @return The number of frames decoded
+   *
+   * @throws IOException                   On I/O errors
+   * @throws UnsupportedAudioFileException On unsupported audio
+   */
+
+  public static long stream(
+    final AudioInputStream stream,
+    final int blockFrames,
+    final SXMFrameBlockConsumerType consumer)
+    throws IOException, UnsupportedAudioFileException
+  {
+    final var format = stream.getFormat();
+    final var frameLength = stream.getFrameLength();
+    final var frameCount =
+      frameLength == (long) AudioSystem.NOT_SPECIFIED
+        ? Long.MAX_VALUE
+        : frameLength;
+
+    consumer.start(format, frameLength);
+    return streamFrames(
+      new StreamSource(stream, format),
+      format,
+      decoderFor(format),
+      frameCount,
+      blockFrames,
+      consumer);
+  }
+
+  /**
+   * Wait for all of the given tasks to complete, attaching any failures to
+   * the exception that caused the tasks to be abandoned.
+   *
+   * @param tasks The submitted tasks
+   * @param cause The exception that caused the tasks to be abandoned
+   */
+
+  private static void awaitAbandoned(
+    final List<CompletableFuture<Long>> tasks,
+    final Exception cause)
+  {
+    for (final var task : tasks) {
+      try {
+        task.join();
+      } catch (final CompletionException e) {
+        cause.addSuppressed(e.getCause());
+      }
+    }
+  }
+
+  /**
+   * Decode the data of an audio file, passing each block of at most
+   * {@code blockFrames} decoded frames to {@code consumer}. The data is
+   * read from the channel one block at a time.
+   *
+   * @param channel     The file channel
+   * @param data        The audio data within the file
+   * @param blockFrames The maximum number of frames in each block
+   * @param consumer    The consumer of blocks
+   *
+   * @return The number of frames decoded
+   *
+   * @throws IOException                   On I/O errors
+   * @throws UnsupportedAudioFileException On unsupported audio
+   */
+
+  static long stream(
+    final FileChannel channel,
+    final SXMAudioFileData data,
+    final int blockFrames,
+    final SXMFrameBlockConsumerType consumer)
+    throws IOException, UnsupportedAudioFileException
+  {
+    final var format = data.format();
+    final var decoder = decoderFor(format);
+
+    consumer.start(format, data.frames());
+    return streamFrames(
+      new StreamSource(
+        Channels.newInputStream(channel.position(data.dataOffset())),
+        format),
+      format,
+      decoder,
+      data.frames(),
+      blockFrames,
+      consumer);
+  }
+
+  private static long streamFrames(
+    final BlockSourceType source,
+    final AudioFormat format,
+    final SXMSampleDecoder decoder,
+    final long frameCount,
+    final int blockFrames,
+    final SXMFrameBlockConsumerType consumer)
+    throws IOException
+  {
+    final var channels = format.getChannels();
+    final var frameSize = channels * decoder.sampleSize();
+    final var samples = new double[Math.multiplyExact(blockFrames, channels)];
+
+    var frameIndex = 0L;
+    while (frameIndex < frameCount) {
+      final var wanted = (int) Math.min(blockFrames, frameCount - frameIndex);
+      final var input = source.read(Math.multiplyExact(wanted, frameSize));
+      final var count = input.limit() / frameSize;
+
+      if (count > 0) {
+        decoder.doubles().decode(input, count * channels, samples);
+        consumer.receive(frameIndex, samples, count);
+      }
+
+      frameIndex += count;
+      if (count < wanted) {
+        break;
+      }
+    }
+    return frameIndex;
+  }
+
+  private static long decodeMappedRange(
+    final Output output,
+    final MappedSource source,
+    final long start,
+    final long frameCount)
+  {
+    /*
+     * A mapped source never raises I/O exceptions, and always contains
+     * exactly the frames of the range.
+     */
+
+    try {
+      return output.decodeRange(source, start, frameCount);
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static SampleBufferType decodeFrames(
+    final BlockSourceType source,
+    final AudioFormat format,
+    final SampleBufferFactoryType buffers,
+    final long frameCount,
+    final SXMSampleDecoder decoder)
+    throws IOException
+  {
+    final var output = Output.create(format, buffers, frameCount, decoder);
+    final var decoded = output.decodeRange(source, 0L, frameCount);
+    if (decoded < frameCount) {
+      if (decoded == 0L) {
+        throw new EOFException("Audio stream contains no complete frames.");
+      }
+      return output.buffer().slice(0L, decoded);
+    }
+    return output.buffer();
+  }
+
+  /**
+   * The number of frames in each range decoded by a single task, for a file
+   * of {@code frameCount} frames decoded on {@code processors} processors.
+   * There are a few ranges per processor so that tasks that finish early can
+   * pick up more work, but no range is so small that the cost of scheduling
+   * a task outweighs the cost of decoding it.
+   */
+
+  static long rangeFrames(
+    final long frameCount,
+    final int processors)
+  {
+    final var ranges = (long) processors * 4L;
+    final var frames =
+      Math.max(PARALLEL_RANGE_FRAMES, (frameCount + ranges - 1L) / ranges);
+    final var blocks = (long) SXMSampleBuffersInfo.BLOCK_FRAMES;
+    return ((frames + blocks - 1L) / blocks) * blocks;
+  }
+
+  /**
+   * An output buffer and the means to decode samples into it.
+   *
+   * @param buffer   The output buffer
+   * @param integers The output buffer, if it accepts integer samples
+   * @param floats   {@code true} if the output buffer stores samples with
+   *                 no more than single precision
+   * @param decoder  The sample decoder
+   * @param channels The number of channels
+   */
+
+  private record Output(
+    SampleBufferType buffer,
+    SampleBufferIntegerType integers,
+    boolean floats,
+    SXMSampleDecoder decoder,
+    int channels)
+  {
+    static Output create(
+      final AudioFormat format,
+      final SampleBufferFactoryType buffers,
+      final long frameCount,
+      final SXMSampleDecoder decoder)
+    {
+      final var channels = format.getChannels();
+      final var outputBuffer =
+        buffers.createBuffer(
+          channels,
+          frameCount,
+          format.getSampleRate());
+
+      final var integerBuffer =
+        decoder.integers() != null
+        && SXMSampleBuffersInfo.acceptsIntegers(outputBuffer, decoder.bits())
+          ? (SampleBufferIntegerType) outputBuffer
+          : null;
+
+      final var floats =
+        integerBuffer == null
+        && SXMSampleBuffersInfo.acceptsFloats(outputBuffer);
+
+      return new Output(
+        outputBuffer, integerBuffer, floats, decoder, channels);
+    }
+
+    /**
+     * Decode at most {@code frameCount} frames from {@code source} into the
+     * output buffer, starting at frame {@code start}. Calls for disjoint
+     * ranges of frames may be made concurrently.
+     *
+     * @return The number of frames decoded, which is less than
+     *         {@code frameCount} only if the source is exhausted
+     */
+
+    long decodeRange(
+      final BlockSourceType source,
+      final long start,
+      final long frameCount)
+      throws IOException
+    {
+      final var frameSize = this.channels * this.decoder.sampleSize();
+      final var blockFrames = SXMSampleBuffersInfo.blockFrames(frameCount);
+      final var samples = blockFrames * this.channels;
+      final var integerSamples =
+        this.integers != null ? new int[samples] : null;
+      final var floatSamples =
+        this.floats ? new float[samples] : null;
+      final var doubleSamples =
+        this.integers == null && !this.floats ? new double[samples] : null;
+      final var shift =
+        this.integers != null
+          ? this.integers.integerBits() - this.decoder.bits()
+          : 0;
+
+      var frameIndex = 0L;
+      while (frameIndex < frameCount) {
+        final var wanted = (int) Math.min(blockFrames, frameCount - frameIndex);
+        final var input = source.read(wanted * frameSize);
+        final var count = input.limit() / frameSize;
+        final var sampleCount = count * this.channels;
+        final var index = start + frameIndex;
+
+        if (this.integers != null) {
+          this.decoder.integers()
+            .decode(input, sampleCount, shift, integerSamples);
+          this.integers.framesSetIntegers(index, count, integerSamples, 0);
+        } else if (this.floats) {
+          this.decoder.floats().decode(input, sampleCount, floatSamples);
+          this.buffer.framesSetExact(index, count, floatSamples, 0);
+        } else {
+          this.decoder.doubles().decode(input, sampleCount, doubleSamples);
+          this.buffer.framesSetExact(index, count, doubleSamples, 0);
+        }
+
+        frameIndex += count;
+        if (count < wanted) {
+          break;
+        }
+      }
+      return frameIndex;
+    }
+  }
+
+  /**
+   * A source that reads blocks from a stream into a reusable array.
+   */
+
+  private static final class StreamSource implements BlockSourceType
+  {
+    private final InputStream stream;
+    private final ByteOrder order;
+    private byte[] block;
+    private ByteBuffer buffer;
+
+    StreamSource(
+      final InputStream in_stream,
+      final AudioFormat format)
+    {
+      this.stream = in_stream;
+      this.order = SXMSampleBuffersInfo.byteOrderOf(format);
+      this.block = new byte[0];
+      this.buffer = ByteBuffer.wrap(this.block);
+    }
+
+    @Override
+    public ByteBuffer read(
+      final int octets)
+      throws IOException
+    {
+      if (this.block.length < octets) {
+        this.block = new byte[octets];
+        this.buffer = ByteBuffer.wrap(this.block).order(this.order);
+      }
+      final var count = this.stream.readNBytes(this.block, 0, octets);
+      return this.buffer.clear().limit(count);
+    }
+  }
+
+  /**
+   * Successive frame-aligned regions of a file, mapped as they are
+   * required.
+   */
+
+  private static final class MappedRegions implements SegmentSupplierType
+  {
+    private final FileChannel channel;
+    private final long offset;
+    private final long size;
+    private final long regionSize;
+    private long position;
+
+    MappedRegions(
+      final FileChannel in_channel,
+      final long in_offset,
+      final long in_size,
+      final long in_region_size)
+    {
+      this.channel = in_channel;
+      this.offset = in_offset;
+      this.size = in_size;
+      this.regionSize = in_region_size;
+      this.position = 0L;
+    }
+
+    @Override
+    public ByteBuffer next()
+      throws IOException
+    {
+      if (this.position >= this.size) {
+        return null;
+      }
+
+      final var count = Math.min(this.regionSize, this.size - this.position);
+      final var region =
+        this.channel.map(
+          FileChannel.MapMode.READ_ONLY,
+          this.offset + this.position,
+          count);
+      this.position += count;
+      return region;
+    }
+  }
+
+  /**
+   * A source that returns successive slices of a sequence of buffers. A
+   * block that spans the end of one buffer and the start of the next is
+   * copied into a reusable array.
+   */
+
+  private static final class SegmentedSource implements BlockSourceType
+  {
+    private final SegmentSupplierType segments;
+    private final ByteOrder order;
+    private ByteBuffer segment;
+    private byte[] block;
+
+    SegmentedSource(
+      final SegmentSupplierType in_segments,
+      final ByteOrder in_order)
+    {
+      this.segments = in_segments;
+      this.order = in_order;
+      this.segment = ByteBuffer.allocate(0);
+      this.block = new byte[0];
+    }
+
+    @Override
+    public ByteBuffer read(
+      final int octets)
+      throws IOException
+    {
+      if (!this.segment.hasRemaining() && !this.advance()) {
+        return ByteBuffer.allocate(0).order(this.order);
+      }
+
+      final var position = this.segment.position();
+      if (this.segment.remaining() >= octets) {
+        this.segment.position(position + octets);
+        return this.segment.slice(position, octets).order(this.order);
+      }
+
+      if (this.block.length < octets) {
+        this.block = new byte[octets];
+      }
+
+      var count = 0;
+      while (count < octets) {
+        if (!this.segment.hasRemaining() && !this.advance()) {
+          break;
+        }
+        final var size = Math.min(octets - count, this.segment.remaining());
+        this.segment.get(this.block, count, size);
+        count += size;
+      }
+      return ByteBuffer.wrap(this.block, 0, count).order(this.order);
+    }
+
+    private boolean advance()
+      throws IOException
+    {
+      final var next = this.segments.next();
+      if (next == null) {
+        return false;
+      }
+      this.segment = next;
+      return true;
+    }
+  }
+
+  /**
+   * A source that returns successive slices of a buffer.
+   */
+
+  private static final class MappedSource implements BlockSourceType
+  {
+    private final ByteBuffer data;
+    private int position;
+
+    MappedSource(
+      final ByteBuffer in_data)
+    {
+      this.data = in_data;
+      this.position = 0;
+    }
+
+    @Override
+    public ByteBuffer read(
+      final int octets)
+    {
+      final var count = Math.min(octets, this.data.limit() - this.position);
+      final var slice =
+        this.data.slice(this.position, count)
+          .order(this.data.order());
+      this.position += count;
+      return slice;
+    }
+  }
+}
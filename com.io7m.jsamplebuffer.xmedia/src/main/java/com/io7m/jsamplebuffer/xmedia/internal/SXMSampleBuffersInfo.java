@@ -17,22 +17,174 @@
 
 package com.io7m.jsamplebuffer.xmedia.internal;
 
+import com.io7m.jsamplebuffer.api.SampleBufferIntegerType;
+import com.io7m.jsamplebuffer.api.SampleBufferSampleFormat;
+import com.io7m.jsamplebuffer.api.SampleBufferStorageType;
+import com.io7m.jsamplebuffer.api.SampleBufferType;
+
 import javax.sound.sampled.AudioFormat;
 import java.nio.ByteOrder;
 
-final class SXMSampleBuffersInfo
+/**
+ * Information shared between the sample buffer functions.
+ */
+
+public final class SXMSampleBuffersInfo
 {
+  /**
+   * The maximum number of frames that will be transferred to or from a
+   * sample buffer in a single bulk operation.
+   */
+
+  public static final int BLOCK_FRAMES = 1024;
+
+  /**
+   * The largest size in octets of a single mapped region of a file. Files
+   * with more data than this are mapped in several regions, each of which
+   * holds a whole number of frames.
+   */
+
+  static final long MAPPED_REGION_SIZE = 1L << 30;
+
   private SXMSampleBuffersInfo()
   {
 
   }
 
+  /**
+   * @param frameCount The total number of frames to be transferred
+   *
+   * @return The number of frames that should be transferred per block
+   */
+
+  public static int blockFrames(
+    final long frameCount)
+  {
+    return (int) Math.min(frameCount, BLOCK_FRAMES);
+  }
+
+  /**
+   * @param frameSize The size of a frame in octets
+   *
+   * @return The number of frames in each mapped region of a file
+   */
+
+  static long mappedRegionFrames(
+    final long frameSize)
+  {
+    return mappedRegionFrames(frameSize, MAPPED_REGION_SIZE);
+  }
+
+  /**
+   * @param frameSize  The size of a frame in octets
+   * @param regionSize The largest size in octets of a mapped region
+   *
+   * @return The number of frames in each mapped region of a file
+   */
+
+  static long mappedRegionFrames(
+    final long frameSize,
+    final long regionSize)
+  {
+    return Math.max(1L, regionSize / frameSize);
+  }
+
+  /**
+   * @param buffer The output buffer
+   * @param bits   The number of bits in each source sample
+   *
+   * @return {@code true} if {@code buffer} stores integers that can hold
+   *         source samples of {@code bits} bits without conversion
+   */
+
+  static boolean acceptsIntegers(
+    final SampleBufferType buffer,
+    final int bits)
+  {
+    return buffer instanceof final SampleBufferIntegerType integers
+           && integers.integerBits() >= bits;
+  }
+
+  /**
+   * @param buffer The output buffer
+   *
+   * @return {@code true} if {@code buffer} stores samples with no more than
+   *         single precision, so that samples can be decoded directly to
+   *         {@code float} values without losing information
+   */
+
+  static boolean acceptsFloats(
+    final SampleBufferType buffer)
+  {
+    if (buffer instanceof final SampleBufferStorageType storage) {
+      final var format = storage.layout().format();
+      return format == SampleBufferSampleFormat.FLOAT_32
+             || format == SampleBufferSampleFormat.FLOAT_16;
+    }
+    return false;
+  }
+
   static ByteOrder byteOrderOf(
     final AudioFormat format)
   {
     return format.isBigEndian() ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
   }
 
+  /**
+   * Produce a table that maps each unsigned {@code bits}-bit sample value
+   * {@code u} to {@code (u - 2^(bits - 1)) / 2^(bits - 1)}; that is, to the
+   * range {@code [-1, 1)}. A signed sample value {@code s} is looked up by
+   * flipping its sign bit, as {@code (s ^ 2^(bits - 1)) & (2^bits - 1)}.
+   *
+   * @param bits The number of bits in each sample
+   *
+   * @return A normalization table with {@code 2^bits} entries
+   */
+
+  static double[] normalTable(
+    final int bits)
+  {
+    final var size = 1 << bits;
+    final var half = size >>> 1;
+    final var scale = 1.0 / (double) half;
+    final var table = new double[size];
+    for (var index = 0; index < size; ++index) {
+      table[index] = (double) (index - half) * scale;
+    }
+    return table;
+  }
+
+  /**
+   * Produce a table as by {@link #normalTable(int)}, with each value
+   * narrowed to single precision.
+   *
+   * @param bits The number of bits in each sample
+   *
+   * @return A normalization table with {@code 2^bits} entries
+   */
+
+  static float[] normalTableFloat(
+    final int bits)
+  {
+    final var doubles = normalTable(bits);
+    final var table = new float[doubles.length];
+    for (var index = 0; index < doubles.length; ++index) {
+      table[index] = (float) doubles[index];
+    }
+    return table;
+  }
+
+  /**
+   * Map a value in the range {@code [inputMin, inputMax]} to the range
+   * {@code [-1, 1]}.
+   *
+   * @param inputReal The input value
+   * @param inputMin  The minimum input value
+   * @param inputMax  The maximum input value
+   *
+   * @return The normalized value
+   */
+
   public static double mapRangeToNormal(
     final double inputReal,
     final double inputMin,
@@ -0,0 +1,84 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsamplebuffer.xmedia.internal;
+
+import java.util.Objects;
+
+/**
+ * A description of how samples of a particular size and encoding are
+ * decoded.
+ *
+ * @param sampleSize The size of a single encoded sample in octets
+ * @param bits       The number of bits in each encoded sample
+ * @param integers   The integer sample decoder, if any
+ * @param doubles    The sample decoder
+ * @param floats     The single-precision sample decoder
+ * @param sample     The decoder for individual samples
+ */
+
+record SXMSampleDecoder(
+  int sampleSize,
+  int bits,
+  SXMSampleBuffersDecoding.IntegerDecoderType integers,
+  SXMSampleBuffersDecoding.DoubleDecoderType doubles,
+  SXMSampleBuffersDecoding.FloatDecoderType floats,
+  SXMSampleBuffersDecoding.SampleDecoderType sample)
+{
+  /**
+   * A description of how samples of a particular size and encoding are
+   * decoded.
+   *
+   * @param sampleSize The size of a single encoded sample in octets
+   * @param bits       The number of bits in each encoded sample
+   * @param integers   The integer sample decoder, if any
+   * @param doubles    The sample decoder
+   * @param floats     The single-precision sample decoder
+   * @param sample     The decoder for individual samples
+   */
+
+  SXMSampleDecoder
+  {
+    Objects.requireNonNull(doubles, "doubles");
+    Objects.requireNonNull(floats, "floats");
+    Objects.requireNonNull(sample, "sample");
+  }
+
+  /**
+   * Create a decoder for samples that cannot be decoded to integers.
+   *
+   * @param in_sample_size The size of a single encoded sample in octets
+   * @param in_doubles     The sample decoder
+   * @param in_floats      The single-precision sample decoder
+   * @param in_sample       The decoder for individual samples
+   */
+
+  SXMSampleDecoder(
+    final int in_sample_size,
+    final SXMSampleBuffersDecoding.DoubleDecoderType in_doubles,
+    final SXMSampleBuffersDecoding.FloatDecoderType in_floats,
+    final SXMSampleBuffersDecoding.SampleDecoderType in_sample)
+  {
+    this(
+      in_sample_size,
+      in_sample_size * 8,
+      null,
+      in_doubles,
+      in_floats,
+      in_sample);
+  }
+}
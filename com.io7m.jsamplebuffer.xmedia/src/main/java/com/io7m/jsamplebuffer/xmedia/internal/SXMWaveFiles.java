@@ -0,0 +1,270 @@
+/*
+ * Copyright © 2024 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsamplebuffer.xmedia.internal;
+
+import javax.sound.sampled.AudioFormat;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Optional;
+
+/**
+ * A parser for RIFF WAVE files, for the RIFX variant of WAVE files that
+ * store all values in big-endian order, and for the RF64 and BW64 variants
+ * of WAVE files that record the sizes of chunks larger than 4 GiB in a
+ * {@code ds64} chunk.
+ */
+
+final class SXMWaveFiles
+{
+  private static final int RIFF = SXMAudioFiles.fourCC("RIFF");
+  private static final int RIFX = SXMAudioFiles.fourCC("RIFX");
+  private static final int RF64 = SXMAudioFiles.fourCC("RF64");
+  private static final int BW64 = SXMAudioFiles.fourCC("BW64");
+  private static final int DS64 = SXMAudioFiles.fourCC("ds64");
+  private static final int WAVE = SXMAudioFiles.fourCC("WAVE");
+  private static final int FMT = SXMAudioFiles.fourCC("fmt ");
+  private static final int DATA = SXMAudioFiles.fourCC("data");
+
+  /**
+   * The size recorded in the header of a chunk whose actual size is given
+   * in the {@code ds64} chunk.
+   */
+
+  private static final long SIZE_IN_DS64 = 0xffff_ffffL;
+
+  private static final int WAVE_FORMAT_PCM = 0x1;
+  private static final int WAVE_FORMAT_IEEE_FLOAT = 0x3;
+  private static final int WAVE_FORMAT_EXTENSIBLE = 0xfffe;
+
+  /**
+   * The final 14 octets of every {@code KSDATAFORMAT_SUBTYPE} GUID used
+   * with {@code WAVE_FORMAT_EXTENSIBLE}. The first two octets of the GUID
+   * hold the format tag.
+   */
+
+  private static final byte[] SUBTYPE_SUFFIX = {
+    0x00, 0x00, 0x00, 0x00, 0x10, 0x00, (byte) 0x80, 0x00,
+    0x00, (byte) 0xaa, 0x00, 0x38, (byte) 0x9b, 0x71,
+  };
+
+  private SXMWaveFiles()
+  {
+
+  }
+
+  /**
+   * Parse the header of a WAVE file.
+   *
+   * @param channel The file channel
+   *
+   * @return The audio data, or nothing if the file is not a WAVE file in a
+   *         supported format
+   *
+   * @throws IOException On I/O errors
+   */
+
+  static Optional<SXMAudioFileData> parse(
+    final FileChannel channel)
+    throws IOException
+  {
+    final var header = ByteBuffer.allocate(12);
+    if (!SXMAudioFiles.readFully(channel, header, 0L)
+        || SXMAudioFiles.fourCC(header, 8) != WAVE) {
+      return Optional.empty();
+    }
+
+    final ByteOrder order;
+    final var magic = SXMAudioFiles.fourCC(header, 0);
+    if (magic == RIFF || magic == RF64 || magic == BW64) {
+      order = ByteOrder.LITTLE_ENDIAN;
+    } else if (magic == RIFX) {
+      order = ByteOrder.BIG_ENDIAN;
+    } else {
+      return Optional.empty();
+    }
+
+    final var fileSize = channel.size();
+    final var chunk = ByteBuffer.allocate(8).order(order);
+    AudioFormat format = null;
+    var dataSize = -1L;
+
+    var position = 12L;
+    while (SXMAudioFiles.readFully(channel, chunk.clear(), position)) {
+      final var id = SXMAudioFiles.fourCC(chunk, 0);
+      final var body = position + 8L;
+      final var size = Integer.toUnsignedLong(chunk.getInt(4));
+
+      if (id == DS64) {
+        dataSize = parseDs64(channel, order, body, size);
+        if (dataSize < 0L) {
+          return Optional.empty();
+        }
+      } else if (id == FMT) {
+        format = parseFormat(channel, order, body, size);
+        if (format == null) {
+          return Optional.empty();
+        }
+      } else if (id == DATA) {
+        return dataOf(format, body, size, dataSize, fileSize);
+      }
+
+      position = body + size + (size & 1L);
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Parse a ds64 chunk.
+   *
+   * @return The 64-bit size of the data chunk, or {@code -1} if the chunk is
+   *         malformed
+   */
+
+  private static long parseDs64(
+    final FileChannel channel,
+    final ByteOrder order,
+    final long position,
+    final long size)
+    throws IOException
+  {
+    final var ds64 = ByteBuffer.allocate(16).order(order);
+    if (size < 16L || !SXMAudioFiles.readFully(channel, ds64, position)) {
+      return -1L;
+    }
+    return Math.max(-1L, ds64.getLong(8));
+  }
+
+  /**
+   * @param format   The format declared by the fmt chunk, if any
+   * @param position The offset of the body of the data chunk
+   * @param size     The size declared by the data chunk
+   * @param dataSize The size declared by the ds64 chunk, or {@code -1}
+   * @param fileSize The size of the file
+   *
+   * @return The audio data described by a data chunk
+   */
+
+  private static Optional<SXMAudioFileData> dataOf(
+    final AudioFormat format,
+    final long position,
+    final long size,
+    final long dataSize,
+    final long fileSize)
+  {
+    if (format == null) {
+      return Optional.empty();
+    }
+
+    final var declared =
+      size == SIZE_IN_DS64 && dataSize >= 0L ? dataSize : size;
+
+    /*
+     * Files that were not closed properly when written may declare a
+     * data chunk that is larger than the file.
+     */
+
+    final var available = Math.min(declared, fileSize - position);
+    return Optional.of(
+      new SXMAudioFileData(
+        format,
+        position,
+        available / (long) format.getFrameSize()));
+  }
+
+  private static AudioFormat parseFormat(
+    final FileChannel channel,
+    final ByteOrder order,
+    final long position,
+    final long size)
+    throws IOException
+  {
+    if (size < 16L) {
+      return null;
+    }
+
+    final var data =
+      ByteBuffer.allocate((int) Math.min(size, 40L))
+        .order(order);
+    if (!SXMAudioFiles.readFully(channel, data, position)) {
+      return null;
+    }
+
+    var tag = Short.toUnsignedInt(data.getShort(0));
+    final var channels = Short.toUnsignedInt(data.getShort(2));
+    final var rate = Integer.toUnsignedLong(data.getInt(4));
+    final var blockAlign = Short.toUnsignedInt(data.getShort(12));
+    final var bits = Short.toUnsignedInt(data.getShort(14));
+
+    if (tag == WAVE_FORMAT_EXTENSIBLE) {
+      if (data.capacity() < 40 || !hasSubtypeSuffix(data)) {
+        return null;
+      }
+      tag = Short.toUnsignedInt(data.getShort(24));
+    }
+
+    final var encoding = encodingOf(tag, bits);
+    if (encoding == null
+        || channels == 0
+        || blockAlign != channels * (bits / 8)) {
+      return null;
+    }
+
+    return new AudioFormat(
+      encoding,
+      (float) rate,
+      bits,
+      channels,
+      blockAlign,
+      (float) rate,
+      order == ByteOrder.BIG_ENDIAN
+    );
+  }
+
+  private static boolean hasSubtypeSuffix(
+    final ByteBuffer data)
+  {
+    for (var index = 0; index < SUBTYPE_SUFFIX.length; ++index) {
+      if (data.get(26 + index) != SUBTYPE_SUFFIX[index]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static AudioFormat.Encoding encodingOf(
+    final int tag,
+    final int bits)
+  {
+    if (tag == WAVE_FORMAT_PCM) {
+      return switch (bits) {
+        case 8 -> AudioFormat.Encoding.PCM_UNSIGNED;
+        case 16, 24, 32, 64 -> AudioFormat.Encoding.PCM_SIGNED;
+        default -> null;
+      };
+    }
+    if (tag == WAVE_FORMAT_IEEE_FLOAT) {
+      return switch (bits) {
+        case 32, 64 -> AudioFormat.Encoding.PCM_FLOAT;
+        default -> null;
+      };
+    }
+    return null;
+  }
+}
@@ -18,7 +18,7 @@
  * Sample buffer (javax.media Support [internals])
  */
 
-@Version("1.0.0")
+@Version("1.1.0")
 package com.io7m.jsamplebuffer.xmedia.internal;
 
 import org.osgi.annotation.versioning.Version;